@@ -1,8 +1,11 @@
 package com.cheesygames.colonysimulation;
 
 import com.cheesygames.colonysimulation.event.MainThreadEventPool;
+import com.cheesygames.colonysimulation.world.chunk.ChunkUpdateManager;
+import com.cheesygames.colonysimulation.world.chunk.region.ChunkRegionBatcher;
 import com.jme3.app.LostFocusBehavior;
 import com.jme3.app.SimpleApplication;
+import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
 import com.jme3.system.AppSettings;
 
@@ -14,6 +17,7 @@ import java.awt.*;
 public abstract class Game extends SimpleApplication {
 
     private volatile boolean m_isUpdating;
+    private ChunkRegionBatcher m_chunkRegionBatcher;
 
     @Override
     public void start() {
@@ -57,13 +61,30 @@ public abstract class Game extends SimpleApplication {
             updateGame();
         }
 
-        GameGlobal.world.getChunkUpdateManager().computeChunkMeshes();
+        ChunkUpdateManager chunkUpdateManager = GameGlobal.world.getChunkUpdateManager();
+        chunkUpdateManager.getRemeshScheduler().setCamera(cam);
+        chunkUpdateManager.computeChunkMeshes();
+
+        if (m_chunkRegionBatcher != null) {
+            m_chunkRegionBatcher.update();
+        }
 
         m_isUpdating = false;
     }
 
     protected abstract void updateGame();
 
+    /**
+     * Enables the batching of the chunk meshes by regions of chunks. The regions' geometries are attached to the terrain node, thus the chunk meshes must no longer be attached
+     * individually. Must be called after the world is created.
+     *
+     * @param terrainMaterial The material of the terrain.
+     */
+    protected void enableChunkRegionBatching(Material terrainMaterial) {
+        m_chunkRegionBatcher = new ChunkRegionBatcher(terrainMaterial);
+        GameGlobal.world.addListener(m_chunkRegionBatcher);
+    }
+
     protected void initKeys() {
         inputManager.clearMappings();
 
@@ -89,6 +89,17 @@ public class AABB implements IOctreeEntity {
         return m_max.x > other.m_min.x && m_min.x < other.m_max.x && m_max.y > other.m_min.y && m_min.y < other.m_max.y && m_max.z > other.m_min.z && m_min.z < other.m_max.z;
     }
 
+    /**
+     * Checks if the other AABB is completely inside this AABB. The other AABB may touch the borders of this AABB.
+     *
+     * @param other The other AABB to test the containment of.
+     *
+     * @return If the other AABB is completely inside this AABB.
+     */
+    public boolean isContaining(AABB other) {
+        return m_max.x >= other.m_max.x && m_min.x <= other.m_min.x && m_max.y >= other.m_max.y && m_min.y <= other.m_min.y && m_max.z >= other.m_max.z && m_min.z <= other.m_min.z;
+    }
+
     /**
      * Checks if a point is inside this AABB.
      *
@@ -133,6 +133,19 @@ public final class VoxelWorldUtils {
         return (int) Math.floor((position) / voxelExtent);
     }
 
+    /**
+     * Gets the voxel axis independent index of the specified position. This method suppose that the parameter position is already offsetted with + voxel half extent.
+     *
+     * @param voxelExtent The  extent of a voxel, which is the equivalent to a cube of a sphere's diameter.
+     * @param position    The position to get the voxel index from. Must already be offsetted with + voxel half extent
+     *
+     * @return The voxel absolute (world) index at the specified offsetted position.
+     */
+    public static int getVoxelIndexNoOffset(float voxelExtent, float position) {
+        // Using floor (round down) is actually very important. The explicit int-casting will round up for negative numbers.
+        return (int) Math.floor((position) / voxelExtent);
+    }
+
     /**
      * Gets the voxel axis independent index of the specified position.
      *
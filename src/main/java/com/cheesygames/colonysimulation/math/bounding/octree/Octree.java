@@ -2,24 +2,96 @@ package com.cheesygames.colonysimulation.math.bounding.octree;
 
 import com.cheesygames.colonysimulation.math.bounding.AABB;
 import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.jme3.math.Plane;
 import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
 
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
- * Semi-dynamic octree, which allows the user to add, remove and find entities. It does not support [yet] the update of entity positions. That's there's the word "semi" in
- * semi-dynamic.
+ * Octree, which allows the user to add, remove, update and find entities. By default, it is semi-dynamic : an entity is stored in every node it overlaps and updating its position
+ * removes it with its old AABB before adding it again. In loose mode, the bounds of the nodes are expanded by a looseness factor, so that each entity is held by exactly one node
+ * chosen from its center and its size, and updating its position only re-inserts it when it leaves the loose bounds of its node.
  *
  * @param <E> Entity Type.
  */
 public class Octree<E extends IOctreeEntity> {
 
-    private Map<Vector3i, OctreeNode<E>> m_nodes;
+    public static final float DEFAULT_LOOSENESS = 2f;
 
+    /**
+     * The entry distance of a ray that does not reach a box.
+     */
+    public static final float RAY_MISS = -1f;
+
+    /**
+     * The number of planes of a camera's frustum. The plane mask of a frustum query has a bit for each of them.
+     */
+    private static final int FRUSTUM_PLANE_COUNT = 6;
+    private static final int ALL_FRUSTUM_PLANES_MASK = (1 << FRUSTUM_PLANE_COUNT) - 1;
+    /**
+     * The plane mask of a box that is outside of the frustum.
+     */
+    private static final int FRUSTUM_OUTSIDE = -1;
+
+    /**
+     * The number of bits of each component of a packed super index.
+     */
+    private static final int PACKED_COMPONENT_BITS = 21;
+    private static final long PACKED_COMPONENT_MASK = (1L << PACKED_COMPONENT_BITS) - 1;
+
+    /**
+     * The super nodes, by packed super index.
+     */
+    private OctreeSuperNodeMap<E> m_nodes;
+    /**
+     * The factor by which the bounds of the nodes are expanded. It is 1 if the octree is not loose.
+     */
+    private float m_looseness;
+    /**
+     * The node directly holding each entity. It is null if the octree is not loose, because the entities can then be held by many nodes.
+     */
+    private Map<E, OctreeNode<E>> m_entityNodes;
+    private OctreeNodePool<E> m_nodePool;
+    /**
+     * The node stacks that are not used by a running query. A query takes a stack and gives it back when it is done, so that queries can be nested in the query callbacks.
+     */
+    private ArrayDeque<OctreeNodeStack<E>> m_freeNodeStacks;
+    /**
+     * The distance queues that are not used by a running query, for the same reason as the node stacks.
+     */
+    private ArrayDeque<OctreeDistanceQueue> m_freeDistanceQueues;
+
+    /**
+     * Creates a semi-dynamic octree, where an entity is stored in every node it overlaps.
+     */
     public Octree() {
-        this.m_nodes = new HashMap<>();
+        this.m_nodes = new OctreeSuperNodeMap<>();
+        this.m_looseness = 1;
+        this.m_nodePool = new OctreeNodePool<>();
+        this.m_freeNodeStacks = new ArrayDeque<>();
+        this.m_freeDistanceQueues = new ArrayDeque<>();
+    }
+
+    /**
+     * Creates a loose octree, where an entity is held by exactly one node whose bounds are expanded by the looseness factor.
+     *
+     * @param looseness The factor by which the bounds of the nodes are expanded. Must be greater than 1.
+     */
+    public Octree(float looseness) {
+        if (looseness <= 1) {
+            throw new IllegalArgumentException("The looseness must be greater than 1, but it is " + looseness + ".");
+        }
+
+        this.m_nodes = new OctreeSuperNodeMap<>();
+        this.m_looseness = looseness;
+        this.m_entityNodes = new HashMap<>();
+        this.m_nodePool = new OctreeNodePool<>();
+        this.m_freeNodeStacks = new ArrayDeque<>();
+        this.m_freeDistanceQueues = new ArrayDeque<>();
     }
 
     /**
@@ -44,6 +116,20 @@ public class Octree<E extends IOctreeEntity> {
         return new Vector3i(getSuperIndex(position.x), getSuperIndex(position.y), getSuperIndex(position.z));
     }
 
+    /**
+     * Packs a super index into a long, which is used as the key of the super node. Each component keeps its {@value #PACKED_COMPONENT_BITS} lowest bits, which is enough for
+     * super indices of positions up to 2^26 in absolute value.
+     *
+     * @param x The super index on the X axis.
+     * @param y The super index on the Y axis.
+     * @param z The super index on the Z axis.
+     *
+     * @return The packed super index.
+     */
+    public static long packSuperIndex(int x, int y, int z) {
+        return ((x & PACKED_COMPONENT_MASK) << (PACKED_COMPONENT_BITS * 2)) | ((y & PACKED_COMPONENT_MASK) << PACKED_COMPONENT_BITS) | (z & PACKED_COMPONENT_MASK);
+    }
+
     /**
      * Gets the position's index according to the supplied depth. Its dimension doesn't matter because octree nodes are cubes.
      *
@@ -95,6 +181,119 @@ public class Octree<E extends IOctreeEntity> {
         return indexX && indexY && indexZ && superIndexX && superIndexY && superIndexZ;
     }
 
+    /**
+     * Computes the squared distance from a point to an axis aligned box.
+     *
+     * @param x    The point's position on the X axis.
+     * @param y    The point's position on the Y axis.
+     * @param z    The point's position on the Z axis.
+     * @param minX The box's minimum on the X axis.
+     * @param minY The box's minimum on the Y axis.
+     * @param minZ The box's minimum on the Z axis.
+     * @param maxX The box's maximum on the X axis.
+     * @param maxY The box's maximum on the Y axis.
+     * @param maxZ The box's maximum on the Z axis.
+     *
+     * @return The squared distance from the point to the nearest point of the box, which is 0 if the point is inside of the box.
+     */
+    static float computeSquaredDistance(float x, float y, float z, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float distanceX = Math.max(Math.max(minX - x, x - maxX), 0);
+        float distanceY = Math.max(Math.max(minY - y, y - maxY), 0);
+        float distanceZ = Math.max(Math.max(minZ - z, z - maxZ), 0);
+
+        return distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ;
+    }
+
+    /**
+     * Computes the squared distance from a point to an entity's AABB.
+     *
+     * @param point  The point.
+     * @param entity The entity.
+     *
+     * @return The squared distance from the point to the nearest point of the entity's AABB, which is 0 if the point is inside of it.
+     */
+    public static float computeSquaredDistance(Vector3f point, IOctreeEntity entity) {
+        Vector3f min = entity.getAABB().getMin();
+        Vector3f max = entity.getAABB().getMax();
+
+        return computeSquaredDistance(point.x, point.y, point.z, min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+
+    /**
+     * Computes the distance along a ray at which it enters an axis aligned box, with the slab method.
+     *
+     * @param origin      The ray's origin.
+     * @param direction   The ray's direction.
+     * @param maxDistance The ray's length, in direction lengths.
+     * @param minX        The box's minimum on the X axis.
+     * @param minY        The box's minimum on the Y axis.
+     * @param minZ        The box's minimum on the Z axis.
+     * @param maxX        The box's maximum on the X axis.
+     * @param maxY        The box's maximum on the Y axis.
+     * @param maxZ        The box's maximum on the Z axis.
+     *
+     * @return The entry distance, in direction lengths, which is 0 if the origin is inside of the box, or {@link #RAY_MISS} if the ray does not reach the box.
+     */
+    static float computeRayEntryDistance(Vector3f origin, Vector3f direction, float maxDistance, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float entry = 0;
+        float exit = maxDistance;
+
+        if (direction.x == 0) {
+            if (origin.x < minX || origin.x > maxX) {
+                return RAY_MISS;
+            }
+        }
+        else {
+            float slabEntry = (minX - origin.x) / direction.x;
+            float slabExit = (maxX - origin.x) / direction.x;
+            entry = Math.max(entry, Math.min(slabEntry, slabExit));
+            exit = Math.min(exit, Math.max(slabEntry, slabExit));
+        }
+
+        if (direction.y == 0) {
+            if (origin.y < minY || origin.y > maxY) {
+                return RAY_MISS;
+            }
+        }
+        else {
+            float slabEntry = (minY - origin.y) / direction.y;
+            float slabExit = (maxY - origin.y) / direction.y;
+            entry = Math.max(entry, Math.min(slabEntry, slabExit));
+            exit = Math.min(exit, Math.max(slabEntry, slabExit));
+        }
+
+        if (direction.z == 0) {
+            if (origin.z < minZ || origin.z > maxZ) {
+                return RAY_MISS;
+            }
+        }
+        else {
+            float slabEntry = (minZ - origin.z) / direction.z;
+            float slabExit = (maxZ - origin.z) / direction.z;
+            entry = Math.max(entry, Math.min(slabEntry, slabExit));
+            exit = Math.min(exit, Math.max(slabEntry, slabExit));
+        }
+
+        return entry <= exit ? entry : RAY_MISS;
+    }
+
+    /**
+     * Computes the distance along a ray at which it enters an entity's AABB.
+     *
+     * @param origin      The ray's origin.
+     * @param direction   The ray's direction.
+     * @param maxDistance The ray's length, in direction lengths.
+     * @param entity      The entity.
+     *
+     * @return The entry distance, in direction lengths, which is 0 if the origin is inside of the entity's AABB, or {@link #RAY_MISS} if the ray does not reach it.
+     */
+    public static float computeRayEntryDistance(Vector3f origin, Vector3f direction, float maxDistance, IOctreeEntity entity) {
+        Vector3f min = entity.getAABB().getMin();
+        Vector3f max = entity.getAABB().getMax();
+
+        return computeRayEntryDistance(origin, direction, maxDistance, min.x, min.y, min.z, max.x, max.y, max.z);
+    }
+
     /**
      * Finds all the nodes that are directly holding a reference to the entity sought for.
      *
@@ -105,6 +304,16 @@ public class Octree<E extends IOctreeEntity> {
     public List<OctreeNode<E>> findEntityNodes(E soughtEntity) {
         List<OctreeNode<E>> soughtEntityHolders = new ArrayList<>();
 
+        if (isLoose()) {
+            OctreeNode<E> node = m_entityNodes.get(soughtEntity);
+
+            if (node != null) {
+                soughtEntityHolders.add(node);
+            }
+
+            return soughtEntityHolders;
+        }
+
         traverseIntersectingNodesEntitiesRecursive(soughtEntity.getAABB(), (node, entity) -> {
             if (entity.equals(soughtEntity)) {
                 soughtEntityHolders.add(node);
@@ -121,11 +330,11 @@ public class Octree<E extends IOctreeEntity> {
      * @param operationOnEntities The operation to execute on the queried entities.
      */
     public void traverseNodeEntitiesRecursive(Vector3i index, BiConsumer<OctreeNode<E>, E> operationOnEntities) {
-        traverseNodeRecursive(index, (node) -> {
-            node.m_entities.forEach((entity) -> {
-                operationOnEntities.accept(node, entity);
-            });
-        });
+        OctreeNode<E> node = getSuperNode(index.x, index.y, index.z);
+
+        if (node != null) {
+            node.traverseNodeEntitiesRecursive(operationOnEntities);
+        }
     }
 
     /**
@@ -134,9 +343,12 @@ public class Octree<E extends IOctreeEntity> {
      * @param operationOnNodes The operation to execute on each node.
      */
     public void traverseAllNodes(Consumer<OctreeNode<E>> operationOnNodes) {
-        Set<Vector3i> indices = m_nodes.keySet();
-        for (Vector3i index : indices) {
-            operationOnNodes.accept(m_nodes.get(index));
+        for (int slot = 0; slot < m_nodes.getCapacity(); ++slot) {
+            OctreeNode<E> node = m_nodes.getValueAt(slot);
+
+            if (node != null) {
+                operationOnNodes.accept(node);
+            }
         }
     }
 
@@ -146,10 +358,9 @@ public class Octree<E extends IOctreeEntity> {
      * @param operationOnNodes The operation to execute on each node.
      */
     public void traverseAllNodesRecursive(Consumer<OctreeNode<E>> operationOnNodes) {
-        Set<Vector3i> indices = m_nodes.keySet();
-        for (Vector3i index : indices) {
-            traverseNodeRecursive(index, operationOnNodes);
-        }
+        traverseAllNodes((node) -> {
+            node.traverseNodeRecursive(operationOnNodes);
+        });
     }
 
     /**
@@ -159,10 +370,9 @@ public class Octree<E extends IOctreeEntity> {
      * @param operationOnEntities The operation to execute on all entities.
      */
     public void traverseAllNodesEntitiesRecursive(BiConsumer<OctreeNode<E>, E> operationOnEntities) {
-        Set<Vector3i> indices = m_nodes.keySet();
-        for (Vector3i index : indices) {
-            traverseNodeEntitiesRecursive(index, operationOnEntities);
-        }
+        traverseAllNodes((node) -> {
+            node.traverseNodeEntitiesRecursive(operationOnEntities);
+        });
     }
 
     /**
@@ -188,7 +398,7 @@ public class Octree<E extends IOctreeEntity> {
      * @param operationOnNodes The operation to execute on all nodes.
      */
     public void traverseNodeRecursive(Vector3i index, Consumer<OctreeNode<E>> operationOnNodes) {
-        OctreeNode<E> node = m_nodes.get(index);
+        OctreeNode<E> node = getSuperNode(index.x, index.y, index.z);
 
         if (node != null) {
             node.traverseNodeRecursive(operationOnNodes);
@@ -288,13 +498,42 @@ public class Octree<E extends IOctreeEntity> {
      * @param operationOnNode The operation to execute on the nodes at the supplied index.
      */
     private void traverseCreateNode(Vector3i index, Consumer<OctreeNode<E>> operationOnNode) {
-        OctreeNode<E> node = m_nodes.get(index);
+        operationOnNode.accept(getOrCreateSuperNode(index.x, index.y, index.z));
+    }
+
+    /**
+     * Gets the super node at the supplied index, or creates it if it doesn't exist.
+     *
+     * @param x The super index on the X axis.
+     * @param y The super index on the Y axis.
+     * @param z The super index on the Z axis.
+     *
+     * @return The super node at the supplied index.
+     */
+    private OctreeNode<E> getOrCreateSuperNode(int x, int y, int z) {
+        long key = packSuperIndex(x, y, z);
+        OctreeNode<E> node = m_nodes.get(key);
 
         if (node == null) {
-            m_nodes.put(index, node = new OctreeNode<>(this, index));
+            node = m_nodePool.obtainSuperNode();
+            node.initializeSuperParent(this, x, y, z);
+            m_nodes.put(key, node);
         }
 
-        operationOnNode.accept(node);
+        return node;
+    }
+
+    /**
+     * Gets the super node at the supplied index. It does not allocate.
+     *
+     * @param x The super index on the X axis.
+     * @param y The super index on the Y axis.
+     * @param z The super index on the Z axis.
+     *
+     * @return The super node at the supplied index, or null if it doesn't exist.
+     */
+    public OctreeNode<E> getSuperNode(int x, int y, int z) {
+        return m_nodes.get(packSuperIndex(x, y, z));
     }
 
     /**
@@ -333,45 +572,745 @@ public class Octree<E extends IOctreeEntity> {
     }
 
     /**
-     * Applies the operation on the nodes with the maximum depth, a.k.a. the biggest nodes. It is not recursive.
+     * Applies the operation on the nodes with the maximum depth, a.k.a. the biggest nodes. It is not recursive. In loose mode, the nodes whose loose bounds intersect with the AABB
+     * are traversed.
      *
      * @param aabb           The AABB in which to pick the nodes to traverse.
      * @param traverseMethod The method to call for each node to traverse.
      */
     public void traverseNodes(AABB aabb, Consumer<OctreeNode<E>> traverseMethod) {
-        traverseIndices(aabb, (index) -> {
-            OctreeNode<E> node = m_nodes.get(index);
+        float margin = getLooseMargin(OctreeNode.MAX_DEPTH);
+        int indexMinX = getSuperIndex(aabb.getMin().x - margin);
+        int indexMinY = getSuperIndex(aabb.getMin().y - margin);
+        int indexMinZ = getSuperIndex(aabb.getMin().z - margin);
+        int indexMaxX = getSuperIndex(aabb.getMax().x + margin);
+        int indexMaxY = getSuperIndex(aabb.getMax().y + margin);
+        int indexMaxZ = getSuperIndex(aabb.getMax().z + margin);
 
-            if (node != null) {
-                traverseMethod.accept(node);
+        for (int x = indexMinX; x <= indexMaxX; ++x) {
+            for (int y = indexMinY; y <= indexMaxY; ++y) {
+                for (int z = indexMinZ; z <= indexMaxZ; ++z) {
+                    OctreeNode<E> node = getSuperNode(x, y, z);
+
+                    if (node != null) {
+                        traverseMethod.accept(node);
+                    }
+                }
             }
-        });
+        }
+    }
+
+    /**
+     * Visits the entities whose AABB intersects with the supplied AABB. Each entity is visited once, even if it is held by many nodes. Unlike the traversals, the nodes are
+     * traversed with an explicit stack, the super nodes are looked up by packed index and the visitor is not wrapped, so the query does not allocate if the visitor is reused.
+     *
+     * @param aabb    The AABB to intersect the entities with.
+     * @param visitor The visitor of the intersecting entities, which can stop the query.
+     *
+     * @return True if the visitor stopped the query, false otherwise.
+     */
+    public boolean forEachIntersecting(AABB aabb, OctreeEntityVisitor<E> visitor) {
+        Vector3f min = aabb.getMin();
+        Vector3f max = aabb.getMax();
+
+        return forEachIntersecting(min.x, min.y, min.z, max.x, max.y, max.z, visitor);
     }
 
     /**
-     * Removes the node at the supplied index, if it exists.
+     * Visits the entities whose AABB intersects with the supplied bounds. Each entity is visited once, even if it is held by many nodes. Unlike the traversals, the nodes are
+     * traversed with an explicit stack, the super nodes are looked up by packed index and the visitor is not wrapped, so the query does not allocate if the visitor is reused.
      *
-     * @param index The node's index.
+     * @param minX    The minimum of the bounds on the X axis.
+     * @param minY    The minimum of the bounds on the Y axis.
+     * @param minZ    The minimum of the bounds on the Z axis.
+     * @param maxX    The maximum of the bounds on the X axis.
+     * @param maxY    The maximum of the bounds on the Y axis.
+     * @param maxZ    The maximum of the bounds on the Z axis.
+     * @param visitor The visitor of the intersecting entities, which can stop the query.
+     *
+     * @return True if the visitor stopped the query, false otherwise.
      */
-    void removeNode(Vector3i index) {
-        m_nodes.remove(index);
+    public boolean forEachIntersecting(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, OctreeEntityVisitor<E> visitor) {
+        float margin = getLooseMargin(OctreeNode.MAX_DEPTH);
+        int indexMinX = getSuperIndex(minX - margin);
+        int indexMinY = getSuperIndex(minY - margin);
+        int indexMinZ = getSuperIndex(minZ - margin);
+        int indexMaxX = getSuperIndex(maxX + margin);
+        int indexMaxY = getSuperIndex(maxY + margin);
+        int indexMaxZ = getSuperIndex(maxZ + margin);
+        OctreeNodeStack<E> stack = obtainNodeStack();
+
+        try {
+            for (int x = indexMinX; x <= indexMaxX; ++x) {
+                for (int y = indexMinY; y <= indexMaxY; ++y) {
+                    for (int z = indexMinZ; z <= indexMaxZ; ++z) {
+                        OctreeNode<E> superNode = getSuperNode(x, y, z);
+
+                        if (superNode == null || !superNode.isLooseIntersecting(minX, minY, minZ, maxX, maxY, maxZ)) {
+                            continue;
+                        }
+
+                        stack.push(superNode);
+
+                        while (!stack.isEmpty()) {
+                            OctreeNode<E> node = stack.pop();
+
+                            for (int i = 0; i < node.getEntityCount(); ++i) {
+                                E entity = node.getEntity(i);
+                                AABB entityAABB = entity.getAABB();
+                                Vector3f entityMin = entityAABB.getMin();
+                                Vector3f entityMax = entityAABB.getMax();
+
+                                if (entityMax.x > minX && entityMin.x < maxX && entityMax.y > minY && entityMin.y < maxY && entityMax.z > minZ && entityMin.z < maxZ
+                                    && isVisitedInSuperNode(entityMin, minX, minY, minZ, x, y, z) && visitor.visit(entity)) {
+                                    return true;
+                                }
+                            }
+
+                            for (int i = 0; i < node.getChildCount(); ++i) {
+                                OctreeNode<E> child = node.getChild(i);
+
+                                if (child.isLooseIntersecting(minX, minY, minZ, maxX, maxY, maxZ)) {
+                                    stack.push(child);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            releaseNodeStack(stack);
+        }
+
+        return false;
     }
 
     /**
-     * Adds an entity to the octree.
+     * Finds the k entities nearest to the point, the distance of an entity being the distance to its AABB. The nodes and the entities are traversed best-first in a priority queue
+     * ordered by their distance to the point : a node's distance is the distance to its loose bounds, which is never greater than the distance of the entities it holds, so an
+     * entity taken out of the queue is nearer than everything left in it. The traversal stops as soon as k entities are found, so the nodes farther than the k-th entity are never
+     * traversed.
+     *
+     * @param point  The point from which the distances are computed.
+     * @param k      The maximum number of entities to find.
+     * @param filter The condition the entities must satisfy to be found, or null to accept all the entities.
+     *
+     * @return A new list of at most k entities, sorted from the nearest to the farthest.
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> findNearest(Vector3f point, int k, Predicate<E> filter) {
+        List<E> nearestEntities = new ArrayList<>(Math.max(k, 0));
+
+        if (k <= 0) {
+            return nearestEntities;
+        }
+
+        OctreeDistanceQueue queue = obtainDistanceQueue();
+
+        try {
+            for (int slot = 0; slot < m_nodes.getCapacity(); ++slot) {
+                OctreeNode<E> superNode = m_nodes.getValueAt(slot);
+
+                if (superNode != null) {
+                    queue.add(superNode, superNode.computeLooseSquaredDistance(point.x, point.y, point.z));
+                }
+            }
+
+            while (!queue.isEmpty() && nearestEntities.size() < k) {
+                Object item = queue.poll();
+
+                if (item instanceof OctreeNode) {
+                    OctreeNode<E> node = (OctreeNode<E>) item;
+
+                    for (int i = 0; i < node.getEntityCount(); ++i) {
+                        E entity = node.getEntity(i);
+
+                        if (filter == null || filter.test(entity)) {
+                            queue.add(entity, computeSquaredDistance(point, entity));
+                        }
+                    }
+
+                    for (int i = 0; i < node.getChildCount(); ++i) {
+                        OctreeNode<E> child = node.getChild(i);
+                        queue.add(child, child.computeLooseSquaredDistance(point.x, point.y, point.z));
+                    }
+                }
+                // An entity held by many super nodes can be queued many times if the octree is not loose.
+                else if (isLoose() || !nearestEntities.contains(item)) {
+                    nearestEntities.add((E) item);
+                }
+            }
+        } finally {
+            releaseDistanceQueue(queue);
+        }
+
+        return nearestEntities;
+    }
+
+    /**
+     * Finds the entity nearest to the point, the distance of an entity being the distance to its AABB.
+     *
+     * @param point  The point from which the distances are computed.
+     * @param filter The condition the entity must satisfy to be found, or null to accept all the entities.
+     *
+     * @return The nearest entity, or null if no entity satisfies the filter.
+     * @see #findNearest(Vector3f, int, Predicate)
+     */
+    public E findNearest(Vector3f point, Predicate<E> filter) {
+        List<E> nearestEntities = findNearest(point, 1, filter);
+        return nearestEntities.isEmpty() ? null : nearestEntities.get(0);
+    }
+
+    /**
+     * Visits the entities whose AABB is within the radius of the point. Each entity is visited once, even if it is held by many nodes. The nodes farther than the radius are not
+     * traversed, and like {@link #forEachIntersecting(AABB, OctreeEntityVisitor)}, the query does not allocate if the visitor is reused.
+     *
+     * @param point   The center of the sphere in which the entities are visited.
+     * @param radius  The radius of the sphere in which the entities are visited.
+     * @param visitor The visitor of the entities within the radius, which can stop the query.
+     *
+     * @return True if the visitor stopped the query, false otherwise.
+     */
+    public boolean forEachWithinRadius(Vector3f point, float radius, OctreeEntityVisitor<E> visitor) {
+        float squaredRadius = radius * radius;
+        float minX = point.x - radius;
+        float minY = point.y - radius;
+        float minZ = point.z - radius;
+        float margin = getLooseMargin(OctreeNode.MAX_DEPTH);
+        int indexMinX = getSuperIndex(minX - margin);
+        int indexMinY = getSuperIndex(minY - margin);
+        int indexMinZ = getSuperIndex(minZ - margin);
+        int indexMaxX = getSuperIndex(point.x + radius + margin);
+        int indexMaxY = getSuperIndex(point.y + radius + margin);
+        int indexMaxZ = getSuperIndex(point.z + radius + margin);
+        OctreeNodeStack<E> stack = obtainNodeStack();
+
+        try {
+            for (int x = indexMinX; x <= indexMaxX; ++x) {
+                for (int y = indexMinY; y <= indexMaxY; ++y) {
+                    for (int z = indexMinZ; z <= indexMaxZ; ++z) {
+                        OctreeNode<E> superNode = getSuperNode(x, y, z);
+
+                        if (superNode == null || superNode.computeLooseSquaredDistance(point.x, point.y, point.z) > squaredRadius) {
+                            continue;
+                        }
+
+                        stack.push(superNode);
+
+                        while (!stack.isEmpty()) {
+                            OctreeNode<E> node = stack.pop();
+
+                            for (int i = 0; i < node.getEntityCount(); ++i) {
+                                E entity = node.getEntity(i);
+
+                                if (computeSquaredDistance(point, entity) <= squaredRadius && isVisitedInSuperNode(entity.getAABB().getMin(), minX, minY, minZ, x, y, z)
+                                    && visitor.visit(entity)) {
+                                    return true;
+                                }
+                            }
+
+                            for (int i = 0; i < node.getChildCount(); ++i) {
+                                OctreeNode<E> child = node.getChild(i);
+
+                                if (child.computeLooseSquaredDistance(point.x, point.y, point.z) <= squaredRadius) {
+                                    stack.push(child);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            releaseNodeStack(stack);
+        }
+
+        return false;
+    }
+
+    /**
+     * Casts a ray against the entities' AABBs and finds the first entity it hits. The super nodes are walked along the ray front to back, with a DDA on the grid of super nodes,
+     * and the nodes and the entities reached by the ray are put in a priority queue ordered by their entry distance. A node's entry distance is the distance at which the ray enters
+     * its loose bounds, which is never greater than the entry distance of the entities it holds, so the first entity taken out of the queue is the first hit and the cast stops
+     * there. A super node is only put in the queue when the DDA reaches it, and the nodes that the ray does not reach are never traversed.
+     *
+     * @param origin      The ray's origin.
+     * @param direction   The ray's direction. It should be normalized for the maximum distance to be in world units.
+     * @param maxDistance The ray's length, in direction lengths. Must be finite.
+     * @param filter      The condition the entities must satisfy to be hit, or null to accept all the entities.
+     *
+     * @return The first entity hit by the ray, or null if the ray does not hit any entity satisfying the filter.
+     */
+    @SuppressWarnings("unchecked")
+    public E rayCast(Vector3f origin, Vector3f direction, float maxDistance, Predicate<E> filter) {
+        assert Float.isFinite(maxDistance) : "The maximum distance of an octree ray cast must be finite.";
+
+        // The super nodes whose loose bounds can be reached from a super node cell, on each side.
+        int neighbourRadius = (int) Math.ceil(getLooseMargin(OctreeNode.MAX_DEPTH) / OctreeNode.MAX_DEPTH_LENGTH);
+        int cellX = getSuperIndex(origin.x);
+        int cellY = getSuperIndex(origin.y);
+        int cellZ = getSuperIndex(origin.z);
+        int stepX = direction.x > 0 ? 1 : -1;
+        int stepY = direction.y > 0 ? 1 : -1;
+        int stepZ = direction.z > 0 ? 1 : -1;
+        float nextCellDistanceX = computeNextCellDistance(origin.x, direction.x, cellX);
+        float nextCellDistanceY = computeNextCellDistance(origin.y, direction.y, cellY);
+        float nextCellDistanceZ = computeNextCellDistance(origin.z, direction.z, cellZ);
+        float cellDistanceX = direction.x == 0 ? Float.POSITIVE_INFINITY : OctreeNode.MAX_DEPTH_LENGTH / Math.abs(direction.x);
+        float cellDistanceY = direction.y == 0 ? Float.POSITIVE_INFINITY : OctreeNode.MAX_DEPTH_LENGTH / Math.abs(direction.y);
+        float cellDistanceZ = direction.z == 0 ? Float.POSITIVE_INFINITY : OctreeNode.MAX_DEPTH_LENGTH / Math.abs(direction.z);
+        OctreeDistanceQueue queue = obtainDistanceQueue();
+
+        try {
+            queueRayCastSuperNodes(queue,
+                origin,
+                direction,
+                maxDistance,
+                cellX - neighbourRadius,
+                cellY - neighbourRadius,
+                cellZ - neighbourRadius,
+                cellX + neighbourRadius,
+                cellY + neighbourRadius,
+                cellZ + neighbourRadius);
+
+            while (true) {
+                float nextCellDistance = Math.min(nextCellDistanceX, Math.min(nextCellDistanceY, nextCellDistanceZ));
+
+                // The nearest item can only be taken out of the queue once the DDA has queued all the super nodes that the ray enters before it.
+                while (nextCellDistance <= maxDistance && (queue.isEmpty() || nextCellDistance <= queue.peekDistance())) {
+                    if (nextCellDistanceX <= nextCellDistanceY && nextCellDistanceX <= nextCellDistanceZ) {
+                        cellX += stepX;
+                        nextCellDistanceX += cellDistanceX;
+
+                        int sliceX = cellX + stepX * neighbourRadius;
+                        queueRayCastSuperNodes(queue,
+                            origin,
+                            direction,
+                            maxDistance,
+                            sliceX,
+                            cellY - neighbourRadius,
+                            cellZ - neighbourRadius,
+                            sliceX,
+                            cellY + neighbourRadius,
+                            cellZ + neighbourRadius);
+                    }
+                    else if (nextCellDistanceY <= nextCellDistanceZ) {
+                        cellY += stepY;
+                        nextCellDistanceY += cellDistanceY;
+
+                        int sliceY = cellY + stepY * neighbourRadius;
+                        queueRayCastSuperNodes(queue,
+                            origin,
+                            direction,
+                            maxDistance,
+                            cellX - neighbourRadius,
+                            sliceY,
+                            cellZ - neighbourRadius,
+                            cellX + neighbourRadius,
+                            sliceY,
+                            cellZ + neighbourRadius);
+                    }
+                    else {
+                        cellZ += stepZ;
+                        nextCellDistanceZ += cellDistanceZ;
+
+                        int sliceZ = cellZ + stepZ * neighbourRadius;
+                        queueRayCastSuperNodes(queue,
+                            origin,
+                            direction,
+                            maxDistance,
+                            cellX - neighbourRadius,
+                            cellY - neighbourRadius,
+                            sliceZ,
+                            cellX + neighbourRadius,
+                            cellY + neighbourRadius,
+                            sliceZ);
+                    }
+
+                    nextCellDistance = Math.min(nextCellDistanceX, Math.min(nextCellDistanceY, nextCellDistanceZ));
+                }
+
+                if (queue.isEmpty()) {
+                    return null;
+                }
+
+                Object item = queue.poll();
+
+                if (!(item instanceof OctreeNode)) {
+                    return (E) item;
+                }
+
+                OctreeNode<E> node = (OctreeNode<E>) item;
+
+                for (int i = 0; i < node.getEntityCount(); ++i) {
+                    E entity = node.getEntity(i);
+
+                    if (filter == null || filter.test(entity)) {
+                        float entryDistance = computeRayEntryDistance(origin, direction, maxDistance, entity);
+
+                        if (entryDistance != RAY_MISS) {
+                            queue.add(entity, entryDistance);
+                        }
+                    }
+                }
+
+                for (int i = 0; i < node.getChildCount(); ++i) {
+                    OctreeNode<E> child = node.getChild(i);
+                    float entryDistance = child.computeLooseRayEntryDistance(origin, direction, maxDistance);
+
+                    if (entryDistance != RAY_MISS) {
+                        queue.add(child, entryDistance);
+                    }
+                }
+            }
+        } finally {
+            releaseDistanceQueue(queue);
+        }
+    }
+
+    /**
+     * Visits the entities whose AABB is in the view frustum of the camera. The nodes are tested against the camera's six world planes with plane masks : a node is only tested
+     * against the planes its parent was not fully inside of, and the subtree of a node that is fully inside of the frustum is enumerated without any other test. Like the jME's
+     * frustum culling, the tests are conservative and an AABB near a corner of the frustum can be visited even if it is slightly outside of it. Each entity is visited once : when the
+     * octree is not loose, an entity held by many super nodes is only visited from the first of them in the frustum, in super index order.
+     *
+     * @param camera  The camera whose view frustum is used. Its world planes must be up to date.
+     * @param visitor The visitor of the entities in the frustum, which can stop the query.
+     *
+     * @return True if the visitor stopped the query, false otherwise.
+     */
+    public boolean forEachInFrustum(Camera camera, OctreeEntityVisitor<E> visitor) {
+        OctreeNodeStack<E> stack = obtainNodeStack();
+
+        try {
+            for (int slot = 0; slot < m_nodes.getCapacity(); ++slot) {
+                OctreeNode<E> superNode = m_nodes.getValueAt(slot);
+
+                if (superNode == null) {
+                    continue;
+                }
+
+                int superIndexX = getSuperIndex(superNode.getMinX());
+                int superIndexY = getSuperIndex(superNode.getMinY());
+                int superIndexZ = getSuperIndex(superNode.getMinZ());
+                int superNodePlaneMask = superNode.cullLoose(camera, ALL_FRUSTUM_PLANES_MASK);
+                if (superNodePlaneMask != FRUSTUM_OUTSIDE) {
+                    stack.push(superNode, superNodePlaneMask);
+                }
+
+                while (!stack.isEmpty()) {
+                    int planeMask = stack.peekValue();
+                    OctreeNode<E> node = stack.pop();
+
+                    for (int i = 0; i < node.getEntityCount(); ++i) {
+                        E entity = node.getEntity(i);
+
+                        if ((planeMask == 0 || cull(camera, planeMask, entity.getAABB()) != FRUSTUM_OUTSIDE)
+                            && isFirstSuperNodeInFrustum(camera, entity.getAABB(), superIndexX, superIndexY, superIndexZ) && visitor.visit(entity)) {
+                            return true;
+                        }
+                    }
+
+                    for (int i = 0; i < node.getChildCount(); ++i) {
+                        OctreeNode<E> child = node.getChild(i);
+                        int childPlaneMask = planeMask == 0 ? 0 : child.cullLoose(camera, planeMask);
+
+                        if (childPlaneMask != FRUSTUM_OUTSIDE) {
+                            stack.push(child, childPlaneMask);
+                        }
+                    }
+                }
+            }
+        } finally {
+            releaseNodeStack(stack);
+        }
+
+        return false;
+    }
+
+    /**
+     * Tests an AABB against the frustum planes of the plane mask.
+     *
+     * @param camera    The camera whose world planes are tested.
+     * @param planeMask The planes to test, with a bit for each plane index.
+     * @param aabb      The AABB to test.
+     *
+     * @return The planes of the plane mask the AABB is not fully inside of, or {@link #FRUSTUM_OUTSIDE} if it is outside of one of them.
+     */
+    private static int cull(Camera camera, int planeMask, AABB aabb) {
+        Vector3f min = aabb.getMin();
+        Vector3f max = aabb.getMax();
+
+        return cull(camera, planeMask, (min.x + max.x) * 0.5f, (min.y + max.y) * 0.5f, (min.z + max.z) * 0.5f, (max.x - min.x) * 0.5f, (max.y - min.y) * 0.5f,
+            (max.z - min.z) * 0.5f);
+    }
+
+    /**
+     * Tests a box against the frustum planes of the plane mask. A box is outside of a plane if it is on its negative side, like in {@link Camera#contains}.
+     *
+     * @param camera    The camera whose world planes are tested.
+     * @param planeMask The planes to test, with a bit for each plane index.
+     * @param centerX   The box's center on the X axis.
+     * @param centerY   The box's center on the Y axis.
+     * @param centerZ   The box's center on the Z axis.
+     * @param radiusX   The box's radius on the X axis.
+     * @param radiusY   The box's radius on the Y axis.
+     * @param radiusZ   The box's radius on the Z axis.
+     *
+     * @return The planes of the plane mask the box is not fully inside of, or {@link #FRUSTUM_OUTSIDE} if it is outside of one of them.
+     */
+    static int cull(Camera camera, int planeMask, float centerX, float centerY, float centerZ, float radiusX, float radiusY, float radiusZ) {
+        for (int planeIndex = 0; planeIndex < FRUSTUM_PLANE_COUNT; ++planeIndex) {
+            int planeBit = 1 << planeIndex;
+
+            if ((planeMask & planeBit) != 0) {
+                Plane plane = camera.getWorldPlane(planeIndex);
+                Vector3f normal = plane.getNormal();
+                float distance = normal.x * centerX + normal.y * centerY + normal.z * centerZ - plane.getConstant();
+                float projectedRadius = Math.abs(normal.x) * radiusX + Math.abs(normal.y) * radiusY + Math.abs(normal.z) * radiusZ;
+
+                if (distance < -projectedRadius) {
+                    return FRUSTUM_OUTSIDE;
+                }
+                else if (distance > projectedRadius) {
+                    planeMask &= ~planeBit;
+                }
+            }
+        }
+
+        return planeMask;
+    }
+
+    /**
+     * Computes the distance along a ray at which it leaves a super node cell on an axis.
+     *
+     * @param origin    The ray's origin on the axis.
+     * @param direction The ray's direction on the axis.
+     * @param cell      The super index of the cell containing the origin on the axis.
+     *
+     * @return The distance at which the ray enters the next cell on the axis, or infinity if the ray is parallel to the axis.
+     */
+    private static float computeNextCellDistance(float origin, float direction, int cell) {
+        if (direction > 0) {
+            return ((cell + 1) * (float) OctreeNode.MAX_DEPTH_LENGTH - origin) / direction;
+        }
+        else if (direction < 0) {
+            return (cell * (float) OctreeNode.MAX_DEPTH_LENGTH - origin) / direction;
+        }
+
+        return Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Puts the super nodes in the supplied range of super indices that the ray reaches in the queue of a ray cast.
+     *
+     * @param queue       The queue of the ray cast.
+     * @param origin      The ray's origin.
+     * @param direction   The ray's direction.
+     * @param maxDistance The ray's length, in direction lengths.
+     * @param indexMinX   The inclusive minimum super index on the X axis.
+     * @param indexMinY   The inclusive minimum super index on the Y axis.
+     * @param indexMinZ   The inclusive minimum super index on the Z axis.
+     * @param indexMaxX   The inclusive maximum super index on the X axis.
+     * @param indexMaxY   The inclusive maximum super index on the Y axis.
+     * @param indexMaxZ   The inclusive maximum super index on the Z axis.
+     */
+    private void queueRayCastSuperNodes(OctreeDistanceQueue queue, Vector3f origin, Vector3f direction, float maxDistance, int indexMinX, int indexMinY, int indexMinZ,
+        int indexMaxX, int indexMaxY, int indexMaxZ) {
+        for (int x = indexMinX; x <= indexMaxX; ++x) {
+            for (int y = indexMinY; y <= indexMaxY; ++y) {
+                for (int z = indexMinZ; z <= indexMaxZ; ++z) {
+                    OctreeNode<E> superNode = getSuperNode(x, y, z);
+
+                    if (superNode != null) {
+                        float entryDistance = superNode.computeLooseRayEntryDistance(origin, direction, maxDistance);
+
+                        if (entryDistance != RAY_MISS) {
+                            queue.add(superNode, entryDistance);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if an entity intersecting the query bounds must be visited in the supplied super node. In loose mode, an entity is held by one node, so it is always visited. Otherwise,
+     * it is held by all the super nodes it overlaps, so it is only visited in the super node containing the minimum corner of its intersection with the query bounds.
+     *
+     * @param entityMin The entity's minimum.
+     * @param minX      The minimum of the query bounds on the X axis.
+     * @param minY      The minimum of the query bounds on the Y axis.
+     * @param minZ      The minimum of the query bounds on the Z axis.
+     * @param x         The super index on the X axis.
+     * @param y         The super index on the Y axis.
+     * @param z         The super index on the Z axis.
+     *
+     * @return True if the entity must be visited, false if it is visited in another super node.
+     */
+    private boolean isVisitedInSuperNode(Vector3f entityMin, float minX, float minY, float minZ, int x, int y, int z) {
+        return isLoose() || (getSuperIndex(Math.max(entityMin.x, minX)) == x && getSuperIndex(Math.max(entityMin.y, minY)) == y
+            && getSuperIndex(Math.max(entityMin.z, minZ)) == z);
+    }
+
+    /**
+     * Checks if an entity in the frustum must be visited in the supplied super node. In loose mode, an entity is held by one node, so it is always visited. Otherwise, it is held
+     * by all the super nodes it overlaps, and the super nodes in the frustum all accept or all reject it. So it is only visited in the first super node it overlaps that is in the
+     * frustum, in super index order.
+     *
+     * @param camera     The camera whose world planes are tested.
+     * @param entityAABB The entity's AABB.
+     * @param x          The super index on the X axis.
+     * @param y          The super index on the Y axis.
+     * @param z          The super index on the Z axis.
+     *
+     * @return True if the entity must be visited, false if it is visited in another super node.
+     */
+    private boolean isFirstSuperNodeInFrustum(Camera camera, AABB entityAABB, int x, int y, int z) {
+        if (isLoose()) {
+            return true;
+        }
+
+        Vector3f entityMin = entityAABB.getMin();
+        Vector3f entityMax = entityAABB.getMax();
+        int indexMinX = getSuperIndex(entityMin.x);
+        int indexMinY = getSuperIndex(entityMin.y);
+        int indexMinZ = getSuperIndex(entityMin.z);
+        int indexMaxY = getSuperIndex(entityMax.y);
+        int indexMaxZ = getSuperIndex(entityMax.z);
+
+        for (int indexX = indexMinX; indexX <= x; ++indexX) {
+            for (int indexY = indexMinY; indexY <= indexMaxY; ++indexY) {
+                for (int indexZ = indexMinZ; indexZ <= indexMaxZ; ++indexZ) {
+                    if (indexX == x && indexY == y && indexZ == z) {
+                        return true;
+                    }
+
+                    OctreeNode<E> superNode = getSuperNode(indexX, indexY, indexZ);
+
+                    if (superNode != null && superNode.cullLoose(camera, ALL_FRUSTUM_PLANES_MASK) != FRUSTUM_OUTSIDE) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Takes a node stack that is not used by another query, or creates one if all of them are used.
+     *
+     * @return An empty node stack.
+     */
+    OctreeNodeStack<E> obtainNodeStack() {
+        OctreeNodeStack<E> stack = m_freeNodeStacks.poll();
+        return stack == null ? new OctreeNodeStack<>() : stack;
+    }
+
+    /**
+     * Gives back a node stack taken with {@link #obtainNodeStack()} once the query is done.
+     *
+     * @param stack The node stack to give back.
+     */
+    void releaseNodeStack(OctreeNodeStack<E> stack) {
+        stack.clear();
+        m_freeNodeStacks.push(stack);
+    }
+
+    OctreeDistanceQueue obtainDistanceQueue() {
+        OctreeDistanceQueue queue = m_freeDistanceQueues.poll();
+        return queue == null ? new OctreeDistanceQueue() : queue;
+    }
+
+    void releaseDistanceQueue(OctreeDistanceQueue queue) {
+        queue.clear();
+        m_freeDistanceQueues.push(queue);
+    }
+
+    /**
+     * Removes the super node at the supplied index, if it exists.
+     *
+     * @param x The super index on the X axis.
+     * @param y The super index on the Y axis.
+     * @param z The super index on the Z axis.
+     */
+    void removeNode(int x, int y, int z) {
+        m_nodes.remove(packSuperIndex(x, y, z));
+    }
+
+    /**
+     * Adds an entity to the octree. In loose mode, an entity that is already in the octree is moved to the node matching its current AABB.
      *
      * @param entity the entity to add.
      *
      * @return The added entity.
+     *
+     * @throws IllegalArgumentException In loose mode, if the entity is too big to fit in the loose bounds of a node with the maximum depth.
      */
     public E addEntity(E entity) {
-        traverseCreateNodes(entity.getAABB(), (node) -> {
-            node.addEntity(entity);
-        });
+        if (isLoose()) {
+            removeEntity(entity);
+            addLooseEntity(entity);
+        }
+        else {
+            traverseCreateNodes(entity.getAABB(), (node) -> {
+                node.addEntity(entity);
+            });
+        }
 
         return entity;
     }
 
+    /**
+     * Adds an entity that is not in the loose octree to the node with the maximum depth containing its center.
+     *
+     * @param entity The entity to add.
+     */
+    private void addLooseEntity(E entity) {
+        AABB aabb = entity.getAABB();
+
+        if (computeLooseAABBMinDepth(aabb) > OctreeNode.MAX_DEPTH) {
+            throw new IllegalArgumentException("The entity is too big to fit in the loose octree : " + aabb + ".");
+        }
+
+        Vector3f min = aabb.getMin();
+        Vector3f max = aabb.getMax();
+
+        getOrCreateSuperNode(getSuperIndex((min.x + max.x) * 0.5f), getSuperIndex((min.y + max.y) * 0.5f), getSuperIndex((min.z + max.z) * 0.5f)).addEntity(entity);
+    }
+
+    /**
+     * Updates an entity whose AABB changed. In loose mode, the entity is only re-inserted if it left the loose bounds of the node holding it, which is found in constant time.
+     * Otherwise, the entity is removed from the nodes overlapping its old AABB and then added again.
+     *
+     * @param entity    The entity whose AABB changed.
+     * @param oldBounds The entity's AABB before it changed. It is not used in loose mode.
+     *
+     * @return True if the entity was re-inserted, false if it is still held by the same node.
+     */
+    public boolean updateEntity(E entity, AABB oldBounds) {
+        if (isLoose()) {
+            OctreeNode<E> node = m_entityNodes.get(entity);
+
+            if (node != null) {
+                if (node.isLooseContaining(entity.getAABB())) {
+                    return false;
+                }
+
+                m_entityNodes.remove(entity);
+                node.removeHeldEntity(entity);
+            }
+
+            addLooseEntity(entity);
+        }
+        else {
+            removeEntity(entity, oldBounds);
+            addEntity(entity);
+        }
+
+        return true;
+    }
+
     /**
      * Removes the entity from the octree.
      *
@@ -380,21 +1319,38 @@ public class Octree<E extends IOctreeEntity> {
      * @return True if the entity was actually remove, false otherwise.
      */
     public boolean removeEntity(E entity) {
+        if (isLoose()) {
+            OctreeNode<E> node = m_entityNodes.remove(entity);
+            return node != null && node.removeHeldEntity(entity);
+        }
+
+        return removeEntity(entity, entity.getAABB());
+    }
+
+    /**
+     * Removes the entity from the nodes overlapping the supplied AABB. It is used when the entity's AABB changed since it was added.
+     *
+     * @param entity The entity to remove
+     * @param aabb   The entity's AABB when it was added.
+     *
+     * @return True if the entity was actually remove, false otherwise.
+     */
+    private boolean removeEntity(E entity, AABB aabb) {
         boolean wasRemoved = false;
-        int indexMinX = getSuperIndex(entity.getAABB().getMin().x);
-        int indexMinY = getSuperIndex(entity.getAABB().getMin().y);
-        int indexMinZ = getSuperIndex(entity.getAABB().getMin().z);
-        int indexMaxX = getSuperIndex(entity.getAABB().getMax().x);
-        int indexMaxY = getSuperIndex(entity.getAABB().getMax().y);
-        int indexMaxZ = getSuperIndex(entity.getAABB().getMax().z);
+        int indexMinX = getSuperIndex(aabb.getMin().x);
+        int indexMinY = getSuperIndex(aabb.getMin().y);
+        int indexMinZ = getSuperIndex(aabb.getMin().z);
+        int indexMaxX = getSuperIndex(aabb.getMax().x);
+        int indexMaxY = getSuperIndex(aabb.getMax().y);
+        int indexMaxZ = getSuperIndex(aabb.getMax().z);
 
         for (int x = indexMinX; x <= indexMaxX; ++x) {
             for (int y = indexMinY; y <= indexMaxY; ++y) {
                 for (int z = indexMinZ; z <= indexMaxZ; ++z) {
-                    OctreeNode<E> node = m_nodes.get(new Vector3i(x, y, z));
+                    OctreeNode<E> node = getSuperNode(x, y, z);
 
                     if (node != null) {
-                        wasRemoved |= node.removeEntity(entity);
+                        wasRemoved |= node.removeEntity(entity, aabb);
                     }
                 }
             }
@@ -423,13 +1379,73 @@ public class Octree<E extends IOctreeEntity> {
         return depth;
     }
 
+    /**
+     * Computes the AABB's inclusive minimum depth where it can be held in loose mode, which is the smallest depth whose loose margin is at least half of the AABB's biggest
+     * length.
+     *
+     * @param aabb The AABB to check for its minimum depth.
+     *
+     * @return The AABB's inclusive minimum depth where it can be held, or a depth greater than {@link OctreeNode#MAX_DEPTH} if it is too big to be held.
+     */
+    public int computeLooseAABBMinDepth(AABB aabb) {
+        Vector3f min = aabb.getMin();
+        Vector3f max = aabb.getMax();
+        float halfLength = Math.max(max.x - min.x, Math.max(max.y - min.y, max.z - min.z)) / 2f;
+        int depth = OctreeNode.MIN_DEPTH;
+
+        while (depth <= OctreeNode.MAX_DEPTH && halfLength > getLooseMargin(depth)) {
+            ++depth;
+        }
+
+        return depth;
+    }
+
+    /**
+     * Gets the distance by which the loose bounds of a node extend past its bounds on each side. An entity whose center is inside of a node fits in its loose bounds if its radius
+     * is not bigger than that margin.
+     *
+     * @param depth The node's depth.
+     *
+     * @return The loose margin of the nodes with the supplied depth.
+     */
+    float getLooseMargin(int depth) {
+        return (1 << depth) / 2f * (m_looseness - 1);
+    }
+
+    /**
+     * Sets the node directly holding the entity in loose mode. It must be called each time a node starts to hold an entity.
+     *
+     * @param entity The held entity.
+     * @param node   The node holding the entity.
+     */
+    void setEntityNode(E entity, OctreeNode<E> node) {
+        m_entityNodes.put(entity, node);
+    }
+
+    OctreeNodePool<E> getNodePool() {
+        return m_nodePool;
+    }
+
+    /**
+     * Checks if the octree is loose, i.e. if each entity is held by exactly one node whose bounds are expanded by the looseness.
+     *
+     * @return True if the octree is loose, false if it is semi-dynamic.
+     */
+    public boolean isLoose() {
+        return m_entityNodes != null;
+    }
+
+    public float getLooseness() {
+        return m_looseness;
+    }
+
     @Override
     public String toString() {
 
         StringBuilder build = new StringBuilder();
         build.append("Octree{");
 
-        m_nodes.values().forEach((eOctreeNode -> {
+        traverseAllNodes((eOctreeNode -> {
             build.append(eOctreeNode.toTabulatedString());
         }));
 
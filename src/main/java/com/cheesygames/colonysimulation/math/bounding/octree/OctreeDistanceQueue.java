@@ -0,0 +1,115 @@
+package com.cheesygames.colonysimulation.math.bounding.octree;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of octree nodes and entities ordered by their distance, the nearest first. The distance is a squared distance to a point or a distance along a ray, depending on
+ * the query. It is a binary heap stored in parallel arrays, so that adding an item does not wrap it in an entry object, and its arrays are kept when it is cleared, so a queue
+ * reused by many queries stops allocating once it is big enough.
+ */
+class OctreeDistanceQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Object[] m_items;
+    private float[] m_distances;
+    private int m_size;
+
+    OctreeDistanceQueue() {
+        this.m_items = new Object[INITIAL_CAPACITY];
+        this.m_distances = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds an item to the queue.
+     *
+     * @param item     The node or the entity to add.
+     * @param distance The distance by which the item is ordered.
+     */
+    void add(Object item, float distance) {
+        if (m_size == m_items.length) {
+            m_items = Arrays.copyOf(m_items, m_size * 2);
+            m_distances = Arrays.copyOf(m_distances, m_size * 2);
+        }
+
+        int index = m_size++;
+
+        // Sift up
+        while (index > 0) {
+            int parentIndex = (index - 1) >> 1;
+
+            if (m_distances[parentIndex] <= distance) {
+                break;
+            }
+
+            m_items[index] = m_items[parentIndex];
+            m_distances[index] = m_distances[parentIndex];
+            index = parentIndex;
+        }
+
+        m_items[index] = item;
+        m_distances[index] = distance;
+    }
+
+    /**
+     * Gets the distance of the nearest item. The queue must not be empty.
+     *
+     * @return The smallest distance of the queue.
+     */
+    float peekDistance() {
+        return m_distances[0];
+    }
+
+    /**
+     * Removes the nearest item from the queue. The queue must not be empty.
+     *
+     * @return The nearest item.
+     */
+    Object poll() {
+        Object nearestItem = m_items[0];
+        int lastIndex = --m_size;
+        Object lastItem = m_items[lastIndex];
+        float lastDistance = m_distances[lastIndex];
+        int index = 0;
+
+        m_items[lastIndex] = null;
+
+        // Sift down the last item from the root
+        while (true) {
+            int childIndex = index * 2 + 1;
+
+            if (childIndex >= lastIndex) {
+                break;
+            }
+            if (childIndex + 1 < lastIndex && m_distances[childIndex + 1] < m_distances[childIndex]) {
+                ++childIndex;
+            }
+            if (lastDistance <= m_distances[childIndex]) {
+                break;
+            }
+
+            m_items[index] = m_items[childIndex];
+            m_distances[index] = m_distances[childIndex];
+            index = childIndex;
+        }
+
+        if (lastIndex > 0) {
+            m_items[index] = lastItem;
+            m_distances[index] = lastDistance;
+        }
+
+        return nearestItem;
+    }
+
+    boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * Removes all the items, so that the queue does not keep references to nodes that may be recycled.
+     */
+    void clear() {
+        Arrays.fill(m_items, 0, m_size, null);
+        m_size = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cheesygames.colonysimulation.math.bounding.octree;
+
+/**
+ * Defines a primitive {@link Octree} query callback. Unlike the {@link java.util.function.BiConsumer} traversals, the callback is not wrapped in other lambdas by the octree and
+ * its return value is not boxed, so a visitor created once and reused for every query makes the query allocation free.
+ *
+ * @param <E> Entity Type.
+ */
+@FunctionalInterface
+public interface OctreeEntityVisitor<E extends IOctreeEntity> {
+
+    /**
+     * Visits an entity found by the query.
+     *
+     * @param entity The found entity.
+     *
+     * @return True if the query should stop, false otherwise.
+     */
+    boolean visit(E entity);
+}
@@ -4,16 +4,17 @@ import com.cheesygames.colonysimulation.math.bounding.AABB;
 import com.cheesygames.colonysimulation.math.direction.Direction3D;
 import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import com.jme3.math.Vector3f;
-import org.apache.commons.collections4.list.SetUniqueList;
+import com.jme3.renderer.Camera;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * An octree node. It is mainly specified by its index, depth and parent. It holds entities and may have children.
+ * <p>
+ * A node is kept compact because an octree may have a lot of them : its bounds are derived on demand from its depth and index instead of being stored, its entities are held in a
+ * small array whose uniqueness is checked linearly, and its children are obtained from and recycled to the octree's {@link OctreeNodePool}.
  *
  * @param <E> Entity Type.
  */
@@ -32,78 +33,126 @@ public class OctreeNode<E extends IOctreeEntity> {
     static final int MAX_DEPTH_LENGTH = 1 << MAX_DEPTH;
 
     private static final int MAX_ENTITY_THRESHOLD = 3;
-    SetUniqueList<E> m_entities;
+
+    /**
+     * The index in the DIAGONALS_3D array of the child in each octant. The octant has a bit for each axis, set if the child is on the positive side : 4 for X, 2 for Y and 1 for Z.
+     */
+    private static final int[] OCTANT_CHILD_INDICES = computeOctantChildIndices();
+
+    /**
+     * The entities directly held by this node, from index 0 to m_entityCount exclusively. The array is null until the node holds an entity, and it grows when it is full.
+     */
+    private Object[] m_entities;
+    private int m_entityCount;
     private Octree<E> m_octree;
-    private OctreeNode m_parent;
+    private OctreeNode<E> m_parent;
     private int m_depth;
     /**
-     * The index of the super parent indirectly or directly holding this node. The super parent has the maximum depth.
+     * The index of this node among the nodes of its depth, which is its minimum corner divided by its length. For a super parent, it is its index in the octree.
+     */
+    private int m_indexX;
+    private int m_indexY;
+    private int m_indexZ;
+    private OctreeNode<E>[] m_children;
+
+    /**
+     * Creates a reset node. Nodes are created by the {@link OctreeNodePool} and then initialized as a super parent or as a child.
      */
-    private Vector3i m_index;
+    OctreeNode() {
+    }
+
     /**
-     * The relative direction according to its parent center. The direction a is one of the array value from the DIAGONALS_3D array.
+     * Creates an array of nodes. Java cannot create an array of a generic type, so the array is created without its type argument and cast, which is safe since the array is empty.
+     *
+     * @param length The length of the array.
+     * @param <E>    Entity Type.
+     *
+     * @return A new array of null nodes.
      */
-    private Direction3D m_direction;
-    private AABB m_aabb;
-    private OctreeNode[] m_children;
+    @SuppressWarnings("unchecked")
+    static <E extends IOctreeEntity> OctreeNode<E>[] createArray(int length) {
+        return (OctreeNode<E>[]) new OctreeNode<?>[length];
+    }
 
     /**
-     * Constructor for super parent octree nodes. A super parent has the maximum depth.
+     * Initializes a reset node as a super parent octree node. A super parent has the maximum depth.
      *
      * @param octree The parent octree.
-     * @param index  The index at which resides the super parent octree node in the octree.
+     * @param x      The super index on the X axis at which resides the super parent octree node in the octree.
+     * @param y      The super index on the Y axis at which resides the super parent octree node in the octree.
+     * @param z      The super index on the Z axis at which resides the super parent octree node in the octree.
      */
-    public OctreeNode(Octree<E> octree, Vector3i index) {
+    void initializeSuperParent(Octree<E> octree, int x, int y, int z) {
+        initialize(octree, null, MAX_DEPTH, x, y, z);
+    }
+
+    /**
+     * Initializes a reset node.
+     *
+     * @param octree The parent octree.
+     * @param parent The parent node, or null for a super parent.
+     * @param depth  The node's depth.
+     * @param indexX The index of the node among the nodes of its depth on the X axis.
+     * @param indexY The index of the node among the nodes of its depth on the Y axis.
+     * @param indexZ The index of the node among the nodes of its depth on the Z axis.
+     */
+    private void initialize(Octree<E> octree, OctreeNode<E> parent, int depth, int indexX, int indexY, int indexZ) {
         this.m_octree = octree;
-        this.m_parent = null;
-        this.m_depth = MAX_DEPTH;
-        this.m_index = index;
+        this.m_parent = parent;
+        this.m_depth = depth;
+        this.m_indexX = indexX;
+        this.m_indexY = indexY;
+        this.m_indexZ = indexZ;
+    }
 
-        Vector3i directionVector = new Vector3i(index);
-        if (directionVector.x == 0) {
-            directionVector.setX(1);
-        }
-        if (directionVector.y == 0) {
-            directionVector.setY(1);
+    /**
+     * Resets the node so that it can be recycled. The entity array is kept to be reused.
+     */
+    void reset() {
+        if (m_entities != null) {
+            Arrays.fill(m_entities, 0, m_entityCount, null);
         }
-        if (directionVector.z == 0) {
-            directionVector.setZ(1);
+
+        this.m_entityCount = 0;
+        this.m_octree = null;
+        this.m_parent = null;
+        this.m_children = null;
+    }
+
+    private static int[] computeOctantChildIndices() {
+        int[] octantChildIndices = new int[Direction3D.DIAGONALS_3D.length];
+
+        for (Direction3D diagonal : Direction3D.DIAGONALS_3D) {
+            octantChildIndices[computeOctant(diagonal.getDirectionX() > 0, diagonal.getDirectionY() > 0, diagonal.getDirectionZ() > 0)] = diagonal.getDiagonal3DIndex();
         }
 
-        this.m_direction = Direction3D.findDirectionFromVector(directionVector);
-        this.m_aabb = computeAABB();
-        this.m_entities = SetUniqueList.setUniqueList(new ArrayList<>());
+        return octantChildIndices;
     }
 
-    /**
-     * Constructor for an octree node that is also a child of another octree node.
-     *
-     * @param parent    The parent node.
-     * @param direction The relative according to its parent center.
-     */
-    public OctreeNode(OctreeNode parent, Direction3D direction) {
-        this.m_octree = parent.m_octree;
-        this.m_parent = parent;
-        this.m_depth = parent.m_depth - 1;
-        this.m_index = parent.m_index;
-        this.m_direction = direction;
-        this.m_aabb = computeAABB();
-        this.m_entities = SetUniqueList.setUniqueList(new ArrayList<>());
+    private static int computeOctant(boolean isPositiveX, boolean isPositiveY, boolean isPositiveZ) {
+        return (isPositiveX ? 4 : 0) | (isPositiveY ? 2 : 0) | (isPositiveZ ? 1 : 0);
     }
 
     /**
-     * Creates the children but doesn't set the member variables m_children.
+     * Creates the children from the octree's node pool but doesn't set the member variables m_children.
      *
      * @return Newly created children.
      */
-    private OctreeNode[] createChildren() {
-        OctreeNode[] children = null;
+    private OctreeNode<E>[] createChildren() {
+        OctreeNode<E>[] children = null;
 
         if (m_depth > 0) {
-            children = new OctreeNode[Direction3D.DIAGONALS_3D.length];
+            children = m_octree.getNodePool().obtainChildren();
 
             for (int i = 0; i < Direction3D.DIAGONALS_3D.length; ++i) {
-                children[i] = new OctreeNode(this, Direction3D.DIAGONALS_3D[i]);
+                Direction3D direction = Direction3D.DIAGONALS_3D[i];
+
+                children[i].initialize(m_octree,
+                    this,
+                    m_depth - 1,
+                    m_indexX * 2 + (direction.getDirectionX() > 0 ? 1 : 0),
+                    m_indexY * 2 + (direction.getDirectionY() > 0 ? 1 : 0),
+                    m_indexZ * 2 + (direction.getDirectionZ() > 0 ? 1 : 0));
             }
         }
 
@@ -115,9 +164,10 @@ public class OctreeNode<E extends IOctreeEntity> {
      *
      * @param operationOnEntities The operation to execute on the queried entities.
      */
+    @SuppressWarnings("unchecked")
     public void traverseNodeEntitiesRecursive(BiConsumer<OctreeNode<E>, E> operationOnEntities) {
-        for (E entity : m_entities) {
-            operationOnEntities.accept(this, entity);
+        for (int i = 0; i < m_entityCount; ++i) {
+            operationOnEntities.accept(this, (E) m_entities[i]);
         }
 
         if (m_children != null) {
@@ -133,10 +183,11 @@ public class OctreeNode<E extends IOctreeEntity> {
      * @param operationOnEntities The operation to execute on the queried entities.
      * @param minDepth            The inclusive minimum depth. Searching for entities in lower depths than this one is unnecessary.
      */
+    @SuppressWarnings("unchecked")
     public void traverseNodeEntitiesRecursive(int minDepth, BiConsumer<OctreeNode<E>, E> operationOnEntities) {
         if (m_depth >= minDepth) {
-            for (E entity : m_entities) {
-                operationOnEntities.accept(this, entity);
+            for (int i = 0; i < m_entityCount; ++i) {
+                operationOnEntities.accept(this, (E) m_entities[i]);
             }
 
             if (m_children != null && m_depth > minDepth) {
@@ -153,14 +204,15 @@ public class OctreeNode<E extends IOctreeEntity> {
      * @param operationOnEntities The operation to execute on the queried entities.
      * @param aabb                The AABB to intersect the sub-nodes with.
      */
+    @SuppressWarnings("unchecked")
     public void traverseIntersectingNodeEntitiesRecursive(AABB aabb, BiConsumer<OctreeNode<E>, E> operationOnEntities) {
-        for (E entity : m_entities) {
-            operationOnEntities.accept(this, entity);
+        for (int i = 0; i < m_entityCount; ++i) {
+            operationOnEntities.accept(this, (E) m_entities[i]);
         }
 
         if (m_children != null) {
             for (OctreeNode<E> child : m_children) {
-                if (child.m_aabb.isIntersecting(aabb)) {
+                if (child.isLooseIntersecting(aabb)) {
                     child.traverseIntersectingNodeEntitiesRecursive(aabb, operationOnEntities);
                 }
             }
@@ -193,7 +245,7 @@ public class OctreeNode<E extends IOctreeEntity> {
 
         if (m_children != null) {
             for (OctreeNode<E> child : m_children) {
-                if (child.m_aabb.isIntersecting(aabb)) {
+                if (child.isLooseIntersecting(aabb)) {
                     child.traverseIntersectingNodeRecursive(aabb, operationOnNodes);
                 }
             }
@@ -210,46 +262,99 @@ public class OctreeNode<E extends IOctreeEntity> {
      */
     public E addEntity(E entity) {
         if (m_depth == 0) {
-            m_entities.add(entity);
+            holdEntity(entity);
         }
         else {
-            if (m_entities.size() == MAX_ENTITY_THRESHOLD) {
+            if (m_entityCount == MAX_ENTITY_THRESHOLD) {
                 fitEntitiesUnderThresholdIndex();
             }
 
-            if ((m_entities.size() >= MAX_ENTITY_THRESHOLD || m_children != null) && doesAABBFitInChildren(entity.getAABB())) {
+            if ((m_entityCount >= MAX_ENTITY_THRESHOLD || m_children != null) && doesEntityFitInChildren(entity)) {
                 if (m_children == null) {
                     m_children = createChildren();
                 }
 
-                m_children[computeChildIndexFromAABB(entity.getAABB())].addEntity(entity);
+                m_children[computeChildIndex(entity)].addEntity(entity);
             }
             else {
-                m_entities.add(entity);
+                holdEntity(entity);
             }
         }
 
         return entity;
     }
 
+    /**
+     * Directly holds the entity in this node, unless it is already held. In loose mode, the octree is told that this node is now holding the entity.
+     *
+     * @param entity The entity to hold.
+     */
+    private void holdEntity(E entity) {
+        if (indexOfEntity(entity) < 0) {
+            if (m_entities == null) {
+                m_entities = new Object[MAX_ENTITY_THRESHOLD + 1];
+            }
+            else if (m_entityCount == m_entities.length) {
+                m_entities = Arrays.copyOf(m_entities, m_entities.length * 2);
+            }
+
+            m_entities[m_entityCount++] = entity;
+        }
+
+        if (m_octree.isLoose()) {
+            m_octree.setEntityNode(entity, this);
+        }
+    }
+
+    /**
+     * Finds the index of an entity directly held by this node with a linear search, which is faster than hashing for the few entities a node usually holds.
+     *
+     * @param entity The entity to look for.
+     *
+     * @return The index of the entity in m_entities, or -1 if this node does not directly hold it.
+     */
+    private int indexOfEntity(E entity) {
+        for (int i = 0; i < m_entityCount; ++i) {
+            if (m_entities[i].equals(entity)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes the entity at the supplied index by moving the last entity in its place.
+     *
+     * @param index The index of the entity to remove in m_entities.
+     */
+    private void removeEntityAt(int index) {
+        m_entities[index] = m_entities[--m_entityCount];
+        m_entities[m_entityCount] = null;
+    }
+
     /**
      * Fits the entities inclusively under the maximum entity threshold. This will check if those entities fits in any child node. If yes, it will then add them to their respective
      * child node and then remove them from this parent. If no, then it doesn't do anything.
      */
+    @SuppressWarnings("unchecked")
     private void fitEntitiesUnderThresholdIndex() {
-        Iterator<E> it = m_entities.iterator();
+        int index = 0;
         int indexBeforeThreshold = 0;
 
-        while (it.hasNext() && indexBeforeThreshold <= MAX_ENTITY_THRESHOLD) {
-            E entityToFitAgain = it.next();
+        while (index < m_entityCount && indexBeforeThreshold <= MAX_ENTITY_THRESHOLD) {
+            E entityToFitAgain = (E) m_entities[index];
 
-            if (doesAABBFitInChildren(entityToFitAgain.getAABB())) {
+            if (doesEntityFitInChildren(entityToFitAgain)) {
                 if (m_children == null) {
                     m_children = createChildren();
                 }
 
-                m_children[computeChildIndexFromAABB(entityToFitAgain.getAABB())].addEntity(entityToFitAgain);
-                it.remove();
+                m_children[computeChildIndex(entityToFitAgain)].addEntity(entityToFitAgain);
+                removeEntityAt(index);
+            }
+            else {
+                ++index;
             }
 
             ++indexBeforeThreshold;
@@ -257,50 +362,86 @@ public class OctreeNode<E extends IOctreeEntity> {
     }
 
     /**
-     * Removes an entity from this octree node. If the entity removal made the children of a node empty, then the children nodes will be deleted.
+     * Removes an entity from this octree node. If the entity removal made the children of a node empty, then the children nodes will be deleted. It is only used when the octree is
+     * not loose.
      *
      * @param entity The entity to remove.
+     * @param aabb   The entity's AABB when it was added, which tells in which sub-node it is.
      *
      * @return If the removal was successful, i.e. if the entity was actually in this node or in any sub-node.
      */
-    public boolean removeEntity(E entity) {
+    public boolean removeEntity(E entity, AABB aabb) {
         boolean result;
 
-        if (m_depth > 0 && m_children != null && doesAABBFitInChildren(entity.getAABB())) {
-            result = m_children[computeChildIndexFromAABB(entity.getAABB())].removeEntity(entity);
+        if (m_depth > 0 && m_children != null && doesAABBFitInChildren(aabb)) {
+            result = m_children[computeChildIndexFromAABB(aabb)].removeEntity(entity, aabb);
         }
         else {
-            result = m_entities.remove(entity);
-
-            if (m_parent != null) {
-                m_parent.removeChildrenIfEmpty();
-            }
-            else if (m_children == null && isEmpty()) {
-                m_octree.removeNode(m_index);
-                m_octree = null;
-            }
+            result = removeHeldEntity(entity);
         }
 
         return result;
     }
 
     /**
-     * Removes the children nodes if they are all empty in terms of entities.
+     * Removes an entity directly held by this node, without looking into the sub-nodes. The nodes left empty by the removal are deleted.
+     *
+     * @param entity The entity to remove.
+     *
+     * @return If the removal was successful, i.e. if the entity was actually held by this node.
      */
-    private void removeChildrenIfEmpty() {
-        if (m_children != null) {
-            for (OctreeNode<E> child : m_children) {
-                if (!child.isEmpty() && child.m_children != null) {
-                    return;
-                }
-            }
+    boolean removeHeldEntity(E entity) {
+        int index = indexOfEntity(entity);
 
-            for (OctreeNode<E> child : m_children) {
-                child.m_parent = null;
-                child.m_octree = null;
+        if (index >= 0) {
+            removeEntityAt(index);
+        }
+
+        removeEmptyNodes();
+
+        return index >= 0;
+    }
+
+    /**
+     * Deletes the children of the ancestors of this node as long as they are all empty, and then deletes the super parent from the octree if it became empty. The deleted nodes
+     * are recycled to the octree's node pool.
+     */
+    private void removeEmptyNodes() {
+        OctreeNode<E> node = this;
+        OctreeNode<E> parent;
+
+        while ((parent = node.m_parent) != null && parent.removeChildrenIfEmpty()) {
+            node = parent;
+        }
+
+        if (node.m_parent == null && node.m_octree != null && node.m_children == null && node.isEmpty()) {
+            Octree<E> octree = node.m_octree;
+
+            octree.removeNode(node.m_indexX, node.m_indexY, node.m_indexZ);
+            octree.getNodePool().recycleSuperNode(node);
+        }
+    }
+
+    /**
+     * Removes the children nodes if they are all empty in terms of entities and if none of them has children. The removed children are recycled to the octree's node pool.
+     *
+     * @return True if the children were removed, false otherwise.
+     */
+    private boolean removeChildrenIfEmpty() {
+        if (m_children == null) {
+            return false;
+        }
+
+        for (OctreeNode<E> child : m_children) {
+            if (!child.isEmpty() || child.m_children != null) {
+                return false;
             }
-            m_children = null;
         }
+
+        m_octree.getNodePool().recycleChildren(m_children);
+        m_children = null;
+
+        return true;
     }
 
     /**
@@ -313,62 +454,207 @@ public class OctreeNode<E extends IOctreeEntity> {
      * @return The child index in which the AABB should be stored.
      */
     private int computeChildIndexFromAABB(AABB aabb) {
-        Vector3i unnormalizedDirection = new Vector3i();
-        for (int componentIndex = 0; componentIndex < Vector3i.COMPONENT_COUNT; ++componentIndex) {
-            int component = (int) (aabb.getMin().get(componentIndex) - m_aabb.getCenter().get(componentIndex));
+        // The AABB fits in a child, so its minimum tells on which side of the center it is. The center belongs to the positive side, like in Octree.getIndex().
+        return computeChildIndexFromPoint(aabb.getMin().x, aabb.getMin().y, aabb.getMin().z);
+    }
 
-            if (component == 0) {
-                component = (int) (aabb.getMax().get(componentIndex) - m_aabb.getCenter().get(componentIndex));
-            }
+    /**
+     * Computes the index of the child whose bounds contain the supplied point. The center belongs to the positive side, like in {@link Octree#getIndex(float, int)}.
+     *
+     * @param x The point's position on the X axis.
+     * @param y The point's position on the Y axis.
+     * @param z The point's position on the Z axis.
+     *
+     * @return The index of the child containing the point.
+     */
+    private int computeChildIndexFromPoint(float x, float y, float z) {
+        float radius = getRadius();
+        return OCTANT_CHILD_INDICES[computeOctant(x >= getMinX() + radius, y >= getMinY() + radius, z >= getMinZ() + radius)];
+    }
 
-            unnormalizedDirection.set(componentIndex, component);
+    /**
+     * Computes the child index in which the entity should be stored. In loose mode, it is the child containing the entity's center.
+     * <p>
+     * Should only be called if {@link #doesEntityFitInChildren(IOctreeEntity)} returns true.
+     *
+     * @param entity The entity to know in which child to be stored.
+     *
+     * @return The child index in which the entity should be stored.
+     */
+    private int computeChildIndex(E entity) {
+        if (!m_octree.isLoose()) {
+            return computeChildIndexFromAABB(entity.getAABB());
+        }
+
+        Vector3f min = entity.getAABB().getMin();
+        Vector3f max = entity.getAABB().getMax();
+
+        return computeChildIndexFromPoint((min.x + max.x) * 0.5f, (min.y + max.y) * 0.5f, (min.z + max.z) * 0.5f);
+    }
+
+    /**
+     * Checks whether the entity fits in any of the children. In loose mode, the entity fits if its center is inside of this node and if it is small enough for the loose bounds
+     * of the children.
+     *
+     * @param entity The entity to check whether it fits in any of the children.
+     *
+     * @return True if it fits in any of the children, false otherwise.
+     */
+    private boolean doesEntityFitInChildren(E entity) {
+        AABB aabb = entity.getAABB();
+
+        if (!m_octree.isLoose()) {
+            return doesAABBFitInChildren(aabb);
         }
 
-        // Relative indices
-        return Direction3D.findDirectionFromVector(unnormalizedDirection).getDiagonal3DIndex();
+        Vector3f min = aabb.getMin();
+        Vector3f max = aabb.getMax();
+
+        return m_depth - 1 >= m_octree.computeLooseAABBMinDepth(aabb) && isPointIn((min.x + max.x) * 0.5f, (min.y + max.y) * 0.5f, (min.z + max.z) * 0.5f);
     }
 
     /**
-     * Checks whether the supplied AABB fits in any of the children exclusively.
+     * Checks whether the supplied AABB fits in any of the children exclusively. The AABB fits if its minimum and its maximum are in the same child of this node.
      *
      * @param aabb The AABB to check whether it fits in any of the children exclusively.
      *
      * @return True if it fits in any of the children exclusively, false otherwise.
      */
     private boolean doesAABBFitInChildren(AABB aabb) {
-        return Octree.doesAABBFitInDepth(aabb, m_index, m_depth - 1);
+        int childDepth = m_depth - 1;
+        int childIndexX = Octree.getIndex(aabb.getMin().x, childDepth);
+        int childIndexY = Octree.getIndex(aabb.getMin().y, childDepth);
+        int childIndexZ = Octree.getIndex(aabb.getMin().z, childDepth);
+
+        return childIndexX == Octree.getIndex(aabb.getMax().x, childDepth) && childIndexY == Octree.getIndex(aabb.getMax().y, childDepth)
+            && childIndexZ == Octree.getIndex(aabb.getMax().z, childDepth) && childIndexX >> 1 == m_indexX && childIndexY >> 1 == m_indexY && childIndexZ >> 1 == m_indexZ;
     }
 
     /**
-     * Computes the AABB of this octree node. It represents the bounding volume of the node.
+     * Checks if a point is inside of the bounds of this node.
      *
-     * @return A new AABB.
+     * @param x The point's position on the X axis.
+     * @param y The point's position on the Y axis.
+     * @param z The point's position on the Z axis.
+     *
+     * @return True if the point is inside of the node, false otherwise.
      */
-    private AABB computeAABB() {
-        float radius = (1 << m_depth) / 2f;
-        Vector3f parentCenter;
+    private boolean isPointIn(float x, float y, float z) {
+        float length = getLength();
+        float minX = getMinX();
+        float minY = getMinY();
+        float minZ = getMinZ();
 
-        if (m_parent != null) {
-            parentCenter = m_parent.m_aabb.getCenter();
-        }
-        else {
-            parentCenter = m_index.toVector3f().mult(radius);
-            if (m_index.x < 0) {
-                parentCenter.x += radius;
-            }
-            if (m_index.y < 0) {
-                parentCenter.y += radius;
-            }
-            if (m_index.z < 0) {
-                parentCenter.z += radius;
-            }
-        }
+        return x >= minX && x <= minX + length && y >= minY && y <= minY + length && z >= minZ && z <= minZ + length;
+    }
 
-        Vector3f center = new Vector3f(parentCenter.x + radius * m_direction.getDirectionX(),
-            parentCenter.y + radius * m_direction.getDirectionY(),
-            parentCenter.z + radius * m_direction.getDirectionZ());
+    /**
+     * Checks if the loose bounds of this node intersect with the supplied AABB. It is the same as intersecting with {@link #getLooseAABB()}, without creating it.
+     *
+     * @param aabb The AABB to test the intersection with.
+     *
+     * @return If the loose bounds and the AABB intersect.
+     */
+    public boolean isLooseIntersecting(AABB aabb) {
+        Vector3f otherMin = aabb.getMin();
+        Vector3f otherMax = aabb.getMax();
 
-        return new AABB(center, radius);
+        return isLooseIntersecting(otherMin.x, otherMin.y, otherMin.z, otherMax.x, otherMax.y, otherMax.z);
+    }
+
+    /**
+     * Checks if the loose bounds of this node intersect with the supplied bounds.
+     *
+     * @param otherMinX The minimum of the bounds on the X axis.
+     * @param otherMinY The minimum of the bounds on the Y axis.
+     * @param otherMinZ The minimum of the bounds on the Z axis.
+     * @param otherMaxX The maximum of the bounds on the X axis.
+     * @param otherMaxY The maximum of the bounds on the Y axis.
+     * @param otherMaxZ The maximum of the bounds on the Z axis.
+     *
+     * @return If the loose bounds and the supplied bounds intersect.
+     */
+    public boolean isLooseIntersecting(float otherMinX, float otherMinY, float otherMinZ, float otherMaxX, float otherMaxY, float otherMaxZ) {
+        float margin = getLooseMargin();
+        float looseLength = getLength() + margin * 2;
+        float minX = getMinX() - margin;
+        float minY = getMinY() - margin;
+        float minZ = getMinZ() - margin;
+
+        return minX + looseLength > otherMinX && minX < otherMaxX && minY + looseLength > otherMinY && minY < otherMaxY && minZ + looseLength > otherMinZ && minZ < otherMaxZ;
+    }
+
+    /**
+     * Computes the squared distance from a point to the loose bounds of this node.
+     *
+     * @param x The point's position on the X axis.
+     * @param y The point's position on the Y axis.
+     * @param z The point's position on the Z axis.
+     *
+     * @return The squared distance to the loose bounds, which is 0 if the point is inside of them.
+     */
+    public float computeLooseSquaredDistance(float x, float y, float z) {
+        float margin = getLooseMargin();
+        float looseLength = getLength() + margin * 2;
+        float minX = getMinX() - margin;
+        float minY = getMinY() - margin;
+        float minZ = getMinZ() - margin;
+
+        return Octree.computeSquaredDistance(x, y, z, minX, minY, minZ, minX + looseLength, minY + looseLength, minZ + looseLength);
+    }
+
+    /**
+     * Computes the distance along a ray at which it enters the loose bounds of this node.
+     *
+     * @param origin      The ray's origin.
+     * @param direction   The ray's direction.
+     * @param maxDistance The ray's length, in direction lengths.
+     *
+     * @return The entry distance, which is 0 if the origin is inside of the loose bounds, or {@link Octree#RAY_MISS} if the ray does not reach them.
+     */
+    public float computeLooseRayEntryDistance(Vector3f origin, Vector3f direction, float maxDistance) {
+        float margin = getLooseMargin();
+        float looseLength = getLength() + margin * 2;
+        float minX = getMinX() - margin;
+        float minY = getMinY() - margin;
+        float minZ = getMinZ() - margin;
+
+        return Octree.computeRayEntryDistance(origin, direction, maxDistance, minX, minY, minZ, minX + looseLength, minY + looseLength, minZ + looseLength);
+    }
+
+    /**
+     * Tests the loose bounds of this node against the frustum planes of the plane mask.
+     *
+     * @param camera    The camera whose world planes are tested.
+     * @param planeMask The planes to test, with a bit for each plane index. It is usually the plane mask of the parent.
+     *
+     * @return The planes of the plane mask the loose bounds are not fully inside of, or a negative value if they are outside of one of them.
+     */
+    int cullLoose(Camera camera, int planeMask) {
+        float radius = getRadius();
+        float looseRadius = radius + getLooseMargin();
+
+        return Octree.cull(camera, planeMask, getMinX() + radius, getMinY() + radius, getMinZ() + radius, looseRadius, looseRadius, looseRadius);
+    }
+
+    /**
+     * Checks if the supplied AABB is completely inside of the loose bounds of this node. It is the same as {@link #getLooseAABB()} containing it, without creating it.
+     *
+     * @param aabb The AABB to test the containment of.
+     *
+     * @return If the AABB is completely inside of the loose bounds.
+     */
+    public boolean isLooseContaining(AABB aabb) {
+        float margin = getLooseMargin();
+        float looseLength = getLength() + margin * 2;
+        float minX = getMinX() - margin;
+        float minY = getMinY() - margin;
+        float minZ = getMinZ() - margin;
+        Vector3f otherMin = aabb.getMin();
+        Vector3f otherMax = aabb.getMax();
+
+        return minX <= otherMin.x && minX + looseLength >= otherMax.x && minY <= otherMin.y && minY + looseLength >= otherMax.y && minZ <= otherMin.z
+            && minZ + looseLength >= otherMax.z;
     }
 
     /**
@@ -379,7 +665,7 @@ public class OctreeNode<E extends IOctreeEntity> {
      * @return True if the entity is present in this node, false otherwise.
      */
     public boolean contains(E entity) {
-        return m_entities.contains(entity);
+        return indexOfEntity(entity) >= 0;
     }
 
     private String padToDepth() {
@@ -400,13 +686,11 @@ public class OctreeNode<E extends IOctreeEntity> {
                .append("depth=")
                .append(m_depth)
                .append(", index=")
-               .append(m_index)
-               .append(", direction=")
-               .append(m_direction)
+               .append(new Vector3i(m_indexX, m_indexY, m_indexZ))
                .append(", aabb=")
-               .append(m_aabb)
+               .append(getAABB())
                .append(", entities count=")
-               .append(m_entities.size())
+               .append(m_entityCount)
                .append(", children=");
 
         if (m_children != null) {
@@ -422,18 +706,108 @@ public class OctreeNode<E extends IOctreeEntity> {
         return builder.toString();
     }
 
+    public float getMinX() {
+        return m_indexX * (float) getLength();
+    }
+
+    public float getMinY() {
+        return m_indexY * (float) getLength();
+    }
+
+    public float getMinZ() {
+        return m_indexZ * (float) getLength();
+    }
+
+    public int getLength() {
+        return 1 << m_depth;
+    }
+
+    public float getRadius() {
+        return getLength() / 2f;
+    }
+
+    /**
+     * Gets the distance by which the loose bounds of this node extend past its bounds on each side.
+     *
+     * @return The loose margin, which is 0 if the octree is not loose.
+     */
+    public float getLooseMargin() {
+        return m_octree.getLooseMargin(m_depth);
+    }
+
+    /**
+     * Gets the bounds of this node. They are not stored, so a new AABB is created on each call.
+     *
+     * @return A new AABB.
+     */
+    public AABB getAABB() {
+        float radius = getRadius();
+        return new AABB(new Vector3f(getMinX() + radius, getMinY() + radius, getMinZ() + radius), radius);
+    }
+
+    /**
+     * Gets the bounds in which the entities held by this node are. It is the node's AABB expanded by the octree's looseness in loose mode, or the node's AABB otherwise. They are
+     * not stored, so a new AABB is created on each call.
+     *
+     * @return A new AABB.
+     */
+    public AABB getLooseAABB() {
+        float radius = getRadius();
+        return new AABB(new Vector3f(getMinX() + radius, getMinY() + radius, getMinZ() + radius), radius + getLooseMargin());
+    }
+
+    public int getDepth() {
+        return m_depth;
+    }
+
+    public int getEntityCount() {
+        return m_entityCount;
+    }
+
+    /**
+     * Gets an entity directly held by this node.
+     *
+     * @param index The entity's index, between 0 inclusively and {@link #getEntityCount()} exclusively.
+     *
+     * @return The entity at the supplied index.
+     */
+    @SuppressWarnings("unchecked")
+    public E getEntity(int index) {
+        return (E) m_entities[index];
+    }
+
+    /**
+     * Gets the number of children of this node, so that they can be iterated without allocating.
+     *
+     * @return The number of children, which is 0 if the node has no children.
+     */
+    public int getChildCount() {
+        return m_children == null ? 0 : m_children.length;
+    }
+
+    /**
+     * Gets a child of this node.
+     *
+     * @param index The child's index in the DIAGONALS_3D array.
+     *
+     * @return The child at the supplied index.
+     */
+    public OctreeNode<E> getChild(int index) {
+        return m_children[index];
+    }
+
     /**
      * Checks if it's empty; if it does not directly contain any entity. Does not check its children.
      *
      * @return True if this node is directly empty, false otherwise.
      */
     public boolean isEmpty() {
-        return m_entities.isEmpty();
+        return m_entityCount == 0;
     }
 
     @Override
     public String toString() {
-        return "OctreeNode{" + '\n' + "depth=" + m_depth + ", index=" + m_index + ", direction=" + m_direction + ", aabb=" + m_aabb + ", entities count=" + m_entities.size()
+        return "OctreeNode{" + '\n' + "depth=" + m_depth + ", index=" + new Vector3i(m_indexX, m_indexY, m_indexZ) + ", aabb=" + getAABB() + ", entities count=" + m_entityCount
             + ", children=" + Arrays.toString(m_children) + '}';
     }
 }
@@ -0,0 +1,84 @@
+package com.cheesygames.colonysimulation.math.bounding.octree;
+
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+
+import java.util.ArrayDeque;
+
+/**
+ * A pool of octree nodes, which recycles the nodes removed from an octree so that adding and removing entities does not allocate new nodes. The children of a node are always
+ * created and removed together, so they are recycled together with their array.
+ *
+ * @param <E> Entity Type.
+ */
+class OctreeNodePool<E extends IOctreeEntity> {
+
+    /**
+     * The maximum number of super nodes and of children arrays kept in the pool, so that an octree that shrank does not hold on to all of its old nodes.
+     */
+    static final int MAXIMUM_SIZE = 512;
+
+    private ArrayDeque<OctreeNode<E>> m_superNodes;
+    private ArrayDeque<OctreeNode<E>[]> m_children;
+
+    OctreeNodePool() {
+        this.m_superNodes = new ArrayDeque<>();
+        this.m_children = new ArrayDeque<>();
+    }
+
+    /**
+     * Gets a reset node from the pool to be used as a super node, or a new one if the pool is empty.
+     *
+     * @return A reset node.
+     */
+    OctreeNode<E> obtainSuperNode() {
+        OctreeNode<E> node = m_superNodes.poll();
+        return node == null ? new OctreeNode<>() : node;
+    }
+
+    /**
+     * Gets an array of reset nodes from the pool to be used as the children of a node, or a new one if the pool is empty.
+     *
+     * @return An array of {@link Direction3D#DIAGONALS_3D}'s length holding reset nodes.
+     */
+    OctreeNode<E>[] obtainChildren() {
+        OctreeNode<E>[] children = m_children.poll();
+
+        if (children == null) {
+            children = OctreeNode.createArray(Direction3D.DIAGONALS_3D.length);
+
+            for (int i = 0; i < children.length; ++i) {
+                children[i] = new OctreeNode<>();
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * Resets a super node removed from its octree and keeps it in the pool if the pool is not full.
+     *
+     * @param node The super node to recycle. It must not have children.
+     */
+    void recycleSuperNode(OctreeNode<E> node) {
+        node.reset();
+
+        if (m_superNodes.size() < MAXIMUM_SIZE) {
+            m_superNodes.push(node);
+        }
+    }
+
+    /**
+     * Resets the children removed from their parent and keeps them in the pool if the pool is not full.
+     *
+     * @param children The children to recycle. They must not have children.
+     */
+    void recycleChildren(OctreeNode<E>[] children) {
+        for (OctreeNode<E> child : children) {
+            child.reset();
+        }
+
+        if (m_children.size() < MAXIMUM_SIZE) {
+            m_children.push(children);
+        }
+    }
+}
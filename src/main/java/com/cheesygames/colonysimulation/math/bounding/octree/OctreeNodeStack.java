@@ -0,0 +1,71 @@
+package com.cheesygames.colonysimulation.math.bounding.octree;
+
+import java.util.Arrays;
+
+/**
+ * An explicit stack of octree nodes, used to traverse the nodes of an octree without recursion. Each node can be pushed with an int, like the frustum planes its parent was not
+ * fully inside of. Its arrays grow when they are full and are kept when the stack is cleared, so a stack reused by many queries stops allocating once it is big enough.
+ *
+ * @param <E> Entity Type.
+ */
+class OctreeNodeStack<E extends IOctreeEntity> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private OctreeNode<E>[] m_nodes;
+    private int[] m_values;
+    private int m_size;
+
+    OctreeNodeStack() {
+        this.m_nodes = OctreeNode.createArray(INITIAL_CAPACITY);
+        this.m_values = new int[INITIAL_CAPACITY];
+    }
+
+    void push(OctreeNode<E> node) {
+        push(node, 0);
+    }
+
+    /**
+     * Pushes a node with a value that is popped with it.
+     *
+     * @param node  The node to push.
+     * @param value The value of the node, which can be read with {@link #peekValue()} before the node is popped.
+     */
+    void push(OctreeNode<E> node, int value) {
+        if (m_size == m_nodes.length) {
+            m_nodes = Arrays.copyOf(m_nodes, m_size * 2);
+            m_values = Arrays.copyOf(m_values, m_size * 2);
+        }
+
+        m_values[m_size] = value;
+        m_nodes[m_size++] = node;
+    }
+
+    /**
+     * Gets the value pushed with the node on the top of the stack. The stack must not be empty.
+     *
+     * @return The value of the top node.
+     */
+    int peekValue() {
+        return m_values[m_size - 1];
+    }
+
+    OctreeNode<E> pop() {
+        OctreeNode<E> node = m_nodes[--m_size];
+        m_nodes[m_size] = null;
+
+        return node;
+    }
+
+    boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * Removes all the nodes, so that the stack does not keep references to nodes that may be recycled.
+     */
+    void clear() {
+        Arrays.fill(m_nodes, 0, m_size, null);
+        m_size = 0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.cheesygames.colonysimulation.math.bounding.octree;
+
+/**
+ * A hash map from the packed index of a super node to the super node, see {@link Octree#packSuperIndex(int, int, int)}. The keys are primitive longs stored with open addressing
+ * and linear probing, so that looking up a super node never allocates, unlike a map keyed by {@link com.cheesygames.colonysimulation.math.vector.Vector3i}.
+ *
+ * @param <E> Entity Type.
+ */
+class OctreeSuperNodeMap<E extends IOctreeEntity> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] m_keys;
+    /**
+     * The super nodes, at the same indices as their keys. A null value marks an empty slot.
+     */
+    private OctreeNode<E>[] m_values;
+    private int m_size;
+    private int m_mask;
+
+    OctreeSuperNodeMap() {
+        this.m_keys = new long[INITIAL_CAPACITY];
+        this.m_values = OctreeNode.createArray(INITIAL_CAPACITY);
+        this.m_mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Gets the super node with the supplied packed index.
+     *
+     * @param key The packed index of the super node.
+     *
+     * @return The super node, or null if there is none.
+     */
+    OctreeNode<E> get(long key) {
+        for (int slot = getSlot(key); m_values[slot] != null; slot = (slot + 1) & m_mask) {
+            if (m_keys[slot] == key) {
+                return m_values[slot];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Puts the super node with the supplied packed index, replacing the super node that had the same index.
+     *
+     * @param key  The packed index of the super node.
+     * @param node The super node.
+     */
+    void put(long key, OctreeNode<E> node) {
+        if ((m_size + 1) * 2 > m_values.length) {
+            resize(m_values.length * 2);
+        }
+
+        int slot = getSlot(key);
+        while (m_values[slot] != null && m_keys[slot] != key) {
+            slot = (slot + 1) & m_mask;
+        }
+
+        if (m_values[slot] == null) {
+            ++m_size;
+        }
+
+        m_keys[slot] = key;
+        m_values[slot] = node;
+    }
+
+    /**
+     * Removes the super node with the supplied packed index. The following super nodes of the probing sequence are shifted back, so that no tombstone is needed.
+     *
+     * @param key The packed index of the super node.
+     */
+    void remove(long key) {
+        int slot = getSlot(key);
+
+        while (m_values[slot] != null && m_keys[slot] != key) {
+            slot = (slot + 1) & m_mask;
+        }
+
+        if (m_values[slot] == null) {
+            return;
+        }
+
+        --m_size;
+
+        int emptySlot = slot;
+        for (slot = (slot + 1) & m_mask; m_values[slot] != null; slot = (slot + 1) & m_mask) {
+            int idealSlot = getSlot(m_keys[slot]);
+
+            // The entry can fill the empty slot only if the empty slot is between its ideal slot and its slot, cyclically.
+            if (((slot - idealSlot) & m_mask) >= ((slot - emptySlot) & m_mask)) {
+                m_keys[emptySlot] = m_keys[slot];
+                m_values[emptySlot] = m_values[slot];
+                emptySlot = slot;
+            }
+        }
+
+        m_values[emptySlot] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] keys = m_keys;
+        OctreeNode<E>[] values = m_values;
+
+        m_keys = new long[capacity];
+        m_values = OctreeNode.createArray(capacity);
+        m_mask = capacity - 1;
+        m_size = 0;
+
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != null) {
+                put(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int getSlot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32) & m_mask;
+    }
+
+    int size() {
+        return m_size;
+    }
+
+    /**
+     * Gets the number of slots, so that the super nodes can be iterated with {@link #getValueAt(int)} without allocating an iterator.
+     *
+     * @return The number of slots.
+     */
+    int getCapacity() {
+        return m_values.length;
+    }
+
+    /**
+     * Gets the super node in the supplied slot.
+     *
+     * @param slot The slot, between 0 inclusively and {@link #getCapacity()} exclusively.
+     *
+     * @return The super node in the slot, or null if the slot is empty.
+     */
+    OctreeNode<E> getValueAt(int slot) {
+        return m_values[slot];
+    }
+}
@@ -9,12 +9,14 @@ import com.jme3.scene.plugins.blender.math.Vector3d;
 
 /**
  * Ray for ray casting inside a voxel world. Each voxel is considered as a cube within this ray. A ray consists of a starting position, a direction and a length. The voxel distance
- * is computed once the method {@link #rayCastLocal(double, VoxelRayOnTraversing, Vector3i)} or {@link #rayCast(double, VoxelRayOnTraversing)} is called.
+ * is computed once the method {@link #rayCastLocal(double, VoxelRayOnTraversing, Vector3i)} or {@link #rayCast(double, VoxelRayOnTraversing)} is called. A {@link
+ * VoxelRayCellSkipper} can be supplied to jump over cells of voxels, such as empty chunks, instead of traversing their voxels one by one.
  */
 public class VoxelRay {
 
     private Vector3d m_start;
     private Vector3d m_offsettedStart;
+    private VoxelRayTraversal m_traversal;
     private Vector3d m_direction;
     private double m_length;
     private int m_voxelDistance;
@@ -26,6 +28,7 @@ public class VoxelRay {
     public VoxelRay() {
         this.m_start = new Vector3d();
         this.m_offsettedStart = new Vector3d();
+        this.m_traversal = new VoxelRayTraversal();
         this.m_direction = new Vector3d();
         this.m_length = 0;
     }
@@ -39,6 +42,7 @@ public class VoxelRay {
     public VoxelRay(Vector3d start, Vector3d end) {
         this.m_start = new Vector3d(start);
         this.m_offsettedStart = new Vector3d();
+        this.m_traversal = new VoxelRayTraversal();
         this.m_direction = end.subtract(start);
         this.m_length = m_direction.length();
         this.m_direction.normalizeLocal();
@@ -53,6 +57,7 @@ public class VoxelRay {
     public VoxelRay(Vector3f start, Vector3f end) {
         this.m_start = new Vector3d(start);
         this.m_offsettedStart = new Vector3d();
+        this.m_traversal = new VoxelRayTraversal();
         this.m_direction = new Vector3d(end).subtractLocal(m_start);
         this.m_length = m_direction.length();
         this.m_direction.normalizeLocal();
@@ -68,6 +73,7 @@ public class VoxelRay {
     public VoxelRay(Vector3d start, Vector3d direction, double length) {
         this.m_start = new Vector3d(start);
         this.m_offsettedStart = new Vector3d();
+        this.m_traversal = new VoxelRayTraversal();
         this.m_direction = new Vector3d(direction);
         this.m_length = length;
     }
@@ -82,6 +88,7 @@ public class VoxelRay {
     public VoxelRay(Vector3f start, Vector3f direction, float length) {
         this.m_start = new Vector3d(start);
         this.m_offsettedStart = new Vector3d();
+        this.m_traversal = new VoxelRayTraversal();
         this.m_direction = new Vector3d(direction);
         this.m_length = length;
     }
@@ -147,6 +154,121 @@ public class VoxelRay {
      * @see <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.42.3443&rep=rep1&type=pdf">A Fast Voxel Traversal Algorithm</a>
      */
     public void rayCastLocal(double voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, onTraversingVoxel, null, voxelIndex);
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length, jumping over the cells that the supplied cell skipper allows to skip. A
+     * lambda parameter is supplied and called each time a voxel outside of the skipped cells is traversed. This allows the lambda to stop anytime the algorithm to continue its
+     * loop.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. The supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a
+     *                          reference. The return value {@link Boolean} defines if the algorithm should stop.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over.
+     *
+     * @see #rayCastLocal(double, VoxelRayOnTraversing, VoxelRayCellSkipper, Vector3i)
+     */
+    public void rayCast(double voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper) {
+        rayCastLocal(voxelHalfExtent, onTraversingVoxel, cellSkipper, new Vector3i());
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. A lambda parameter is supplied and called each time a voxel is traversed.
+     * This allows the lambda to stop anytime the algorithm to continue its loop.
+     * <p>
+     * If a cell skipper is supplied, the traversal is hierarchical : each time the ray enters a new cell, the cell skipper is asked if the cell can be skipped. If so, the ray
+     * jumps directly to the first voxel after the cell, as if it had stepped voxel by voxel through it, without supplying the cell's voxels to the lambda. Long rays through empty
+     * space thus cost a few steps per cell instead of a few steps per voxel.
+     * <p>
+     * This method is local because the parameter voxelIndex is locally changed to avoid creating a new instance of {@link Vector3i}.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. Without a cell skipper, this method called the same number of times as the value of {@link
+     *                          #getVoxelDistance()}. The supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a reference. The return value
+     *                          {@link Boolean} defines if the algorithm should stop.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to traverse every voxel.
+     * @param voxelIndex        The voxel index to locally modify in order to traverse voxels. This parameter exists simply to avoid creating a new {@link Vector3i} instance.
+     *
+     * @see <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.42.3443&rep=rep1&type=pdf">A Fast Voxel Traversal Algorithm</a>
+     */
+    public void rayCastLocal(double voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, null, onTraversingVoxel, cellSkipper, null, voxelIndex);
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. The visitor is called with the primitive indices of each traversed voxel,
+     * so that the traversal never boxes its return values and the visitor can be inlined in the traversal loop.
+     * <p>
+     * If a cell skipper is supplied, the traversal is hierarchical : each time the ray enters a new cell, the cell skipper is asked if the cell can be skipped. If so, the ray
+     * jumps directly to the first voxel after the cell, as if it had stepped voxel by voxel through it, without supplying the cell's voxels to the visitor.
+     * <p>
+     * This method is local because the parameter voxelIndex is locally changed to avoid creating a new instance of {@link Vector3i}.
+     *
+     * @param voxelHalfExtent The half extent (radius) of a voxel.
+     * @param visitor         The visitor of the traversed voxels. Without a cell skipper, it is called the same number of times as the value of {@link #getVoxelDistance()}. Its
+     *                        return value defines if the algorithm should stop.
+     * @param cellSkipper     The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to traverse every voxel.
+     * @param voxelIndex      The voxel index to locally modify in order to traverse voxels. It holds the last traversed voxel index once the ray cast is done.
+     *
+     * @see <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.42.3443&rep=rep1&type=pdf">A Fast Voxel Traversal Algorithm</a>
+     */
+    public void rayCastLocal(double voxelHalfExtent, VoxelRayVisitor visitor, VoxelRayCellSkipper cellSkipper, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, visitor, cellSkipper, null, voxelIndex);
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length, sphere tracing through the supplied distance field. A lambda parameter is
+     * supplied and called each time a voxel that cannot be jumped over is traversed. This allows the lambda to stop anytime the algorithm to continue its loop.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. The supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a
+     *                          reference. The return value {@link Boolean} defines if the algorithm should stop.
+     * @param distanceField     The distance field, which decides how many voxels the ray can jump over from each voxel.
+     *
+     * @see #rayCastLocal(double, VoxelRayVisitor, VoxelRayCellSkipper, VoxelRayDistanceField, Vector3i)
+     */
+    public void rayCast(double voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel, VoxelRayDistanceField distanceField) {
+        rayCastLocal(voxelHalfExtent, null, onTraversingVoxel, null, distanceField, new Vector3i());
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. The visitor is called with the primitive indices of each traversed voxel.
+     * <p>
+     * If a cell skipper is supplied, the ray jumps over the cells that it allows to skip, like {@link #rayCastLocal(double, VoxelRayVisitor, VoxelRayCellSkipper, Vector3i)}. If a
+     * distance field is supplied, the traversal is sphere traced : each time the ray steps on a voxel that is not jumped over by the cell skipper, the distance field is asked how
+     * far the nearest voxel to traverse is. If it is not the current voxel, the ray jumps directly to the first voxel after the cube of voxels closer than that distance, as if it
+     * had stepped voxel by voxel through it, without supplying the cube's voxels to the visitor. The cost of a ray is then proportional to the number of empty regions it crosses
+     * instead of the number of voxels it crosses.
+     * <p>
+     * This method is local because the parameter voxelIndex is locally changed to avoid creating a new instance of {@link Vector3i}.
+     *
+     * @param voxelHalfExtent The half extent (radius) of a voxel.
+     * @param visitor         The visitor of the traversed voxels. Without a cell skipper nor a distance field, it is called the same number of times as the value of {@link
+     *                        #getVoxelDistance()}. Its return value defines if the algorithm should stop.
+     * @param cellSkipper     The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to not skip any cell.
+     * @param distanceField   The distance field, which decides how many voxels the ray can jump over from each voxel. Can be null to not sphere trace the traversal.
+     * @param voxelIndex      The voxel index to locally modify in order to traverse voxels. It holds the last traversed voxel index once the ray cast is done.
+     *
+     * @see <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.42.3443&rep=rep1&type=pdf">A Fast Voxel Traversal Algorithm</a>
+     */
+    public void rayCastLocal(double voxelHalfExtent, VoxelRayVisitor visitor, VoxelRayCellSkipper cellSkipper, VoxelRayDistanceField distanceField, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, visitor, null, cellSkipper, distanceField, voxelIndex);
+    }
+
+    /**
+     * Casts the ray with either a visitor or the operation of a legacy overload, which the traversal calls from separate call sites. It is the ray cast that every other ray cast
+     * method delegates to.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param visitor           The visitor of the traversed voxels. Must be null if onTraversingVoxel is not.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. Must be null if visitor is not.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to not skip any cell.
+     * @param distanceField     The distance field, which decides how many voxels the ray can jump over from each voxel. Can be null to not sphere trace the traversal.
+     * @param voxelIndex        The voxel index to locally modify in order to traverse voxels. It holds the last traversed voxel index once the ray cast is done.
+     */
+    private void rayCastLocal(double voxelHalfExtent, VoxelRayVisitor visitor, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper,
+        VoxelRayDistanceField distanceField, Vector3i voxelIndex) {
         assert !Double.isNaN(voxelHalfExtent);
 
         assert !Double.isNaN(m_start.x);
@@ -159,7 +281,6 @@ public class VoxelRay {
 
         assert !Double.isNaN(m_length);
 
-        m_wasStopped = false;
         final double voxelExtent = voxelHalfExtent * 2;
 
         // This id of the first/current voxel hit by the ray.
@@ -169,57 +290,8 @@ public class VoxelRay {
         computeVoxelDistance(voxelExtent, voxelIndex);
         assert !Double.isNaN(m_voxelDistance);
 
-        // In which direction the voxel ids are incremented.
-        int stepX = (int) MathExt.getSignZeroPositive(m_direction.x);
-        int stepY = (int) MathExt.getSignZeroPositive(m_direction.y);
-        int stepZ = (int) MathExt.getSignZeroPositive(m_direction.z);
-
-        // Distance along the ray to the next voxel border from the current position (tMaxX, tMaxY, tMaxZ).
-        double nextVoxelBoundaryX = (voxelIndex.x + (MathExt.getNegativeSign(stepX) + 1)) * voxelExtent;
-        double nextVoxelBoundaryY = (voxelIndex.y + (MathExt.getNegativeSign(stepY) + 1)) * voxelExtent;
-        double nextVoxelBoundaryZ = (voxelIndex.z + (MathExt.getNegativeSign(stepZ) + 1)) * voxelExtent;
-
-        // tMaxX, tMaxY, tMaxZ -- distance until next intersection with voxel-border
-        // the value of t at which the ray crosses the first vertical voxel boundary
-        double tMaxX = (m_direction.x != 0) ? (nextVoxelBoundaryX - m_offsettedStart.x) / m_direction.x : Double.MAX_VALUE;
-        double tMaxY = (m_direction.y != 0) ? (nextVoxelBoundaryY - m_offsettedStart.y) / m_direction.y : Double.MAX_VALUE;
-        double tMaxZ = (m_direction.z != 0) ? (nextVoxelBoundaryZ - m_offsettedStart.z) / m_direction.z : Double.MAX_VALUE;
-
-        // tDeltaX, tDeltaY, tDeltaZ --
-        // how far along the ray we must move for the horizontal component to equal the width of a voxel
-        // the direction in which we traverse the grid
-        // can only be FLT_MAX if we never go in that direction
-        double tDeltaX = (m_direction.x != 0) ? stepX * voxelExtent / m_direction.x : Double.MAX_VALUE;
-        double tDeltaY = (m_direction.y != 0) ? stepY * voxelExtent / m_direction.y : Double.MAX_VALUE;
-        double tDeltaZ = (m_direction.z != 0) ? stepZ * voxelExtent / m_direction.z : Double.MAX_VALUE;
-
-        onTraversingVoxel.startRayCast();
-
-        if (onTraversingVoxel.apply(voxelIndex)) {
-            m_wasStopped = true;
-            return;
-        }
-
-        int traversedVoxelCount = 0;
-        while (++traversedVoxelCount < m_voxelDistance) {
-            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
-                voxelIndex.x += stepX;
-                tMaxX += tDeltaX;
-            }
-            else if (tMaxY < tMaxZ) {
-                voxelIndex.y += stepY;
-                tMaxY += tDeltaY;
-            }
-            else {
-                voxelIndex.z += stepZ;
-                tMaxZ += tDeltaZ;
-            }
-
-            if (onTraversingVoxel.apply(voxelIndex)) {
-                m_wasStopped = true;
-                break;
-            }
-        }
+        m_wasStopped = m_traversal.traverse(m_offsettedStart.x, m_offsettedStart.y, m_offsettedStart.z, m_direction.x, m_direction.y, m_direction.z, voxelExtent,
+            m_voxelDistance, visitor, onTraversingVoxel, cellSkipper, distanceField, voxelIndex);
     }
 
     /**
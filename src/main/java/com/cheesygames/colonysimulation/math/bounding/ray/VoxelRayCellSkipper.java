@@ -0,0 +1,37 @@
+package com.cheesygames.colonysimulation.math.bounding.ray;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+
+/**
+ * Defines the coarse level of a hierarchical {@link VoxelRay} ray cast. The voxels are grouped in cells of a power of 2 size on each axis, like the chunks of a world. When the
+ * ray enters a cell that can be skipped, it jumps to the voxel where it leaves the cell instead of traversing the cell's voxels one by one, so that the voxels of the skipped cell
+ * are never supplied to the {@link VoxelRayOnTraversing}.
+ */
+public interface VoxelRayCellSkipper {
+
+    /**
+     * Gets the bit shift count for the cell size on each axis. The cell index of a voxel index is the voxel index shifted right by these bits.
+     *
+     * @return The bit shift count for the cell size on each axis.
+     */
+    Vector3i getCellSizeBits();
+
+    /**
+     * Checks if the ray can jump over the voxels of a cell, which is the case if none of them would stop the ray cast or need to be traversed.
+     *
+     * @param cellIndexX The cell index on the X axis.
+     * @param cellIndexY The cell index on the Y axis.
+     * @param cellIndexZ The cell index on the Z axis.
+     *
+     * @return True if the ray can jump over the cell, false if it must traverse its voxels.
+     */
+    boolean canSkipCell(int cellIndexX, int cellIndexY, int cellIndexZ);
+
+    /**
+     * Allows the skipper to follow the ray cast when the ray jumped over a cell, before the next voxel is traversed.
+     *
+     * @param lastSkippedVoxelIndex The index of the last voxel of the skipped cell along the ray. It is not a new instance but a local instance, so it is a reference.
+     */
+    default void onCellSkipped(Vector3i lastSkippedVoxelIndex) {
+    }
+}
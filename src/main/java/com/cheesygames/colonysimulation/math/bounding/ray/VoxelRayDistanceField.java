@@ -0,0 +1,31 @@
+package com.cheesygames.colonysimulation.math.bounding.ray;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+
+/**
+ * Defines the distance field of a sphere traced {@link VoxelRay} ray cast. Each time the ray steps on a voxel, the distance field is asked how far the nearest voxel that must be
+ * traversed is. The ray then jumps to the voxel where it leaves the cube of voxels closer than that distance, instead of traversing these voxels one by one, so that the voxels
+ * of the cube are never supplied to the {@link VoxelRayVisitor}.
+ */
+public interface VoxelRayDistanceField {
+
+    /**
+     * Gets the Chebyshev distance, in voxels, from a voxel to the nearest voxel that the ray must traverse. Every voxel closer than this distance, the supplied voxel included, can
+     * be jumped over. It does not need to be exact, but it must never be overestimated.
+     *
+     * @param x The voxel index on the X axis.
+     * @param y The voxel index on the Y axis.
+     * @param z The voxel index on the Z axis.
+     *
+     * @return The distance to the nearest voxel to traverse, which is 0 if the supplied voxel must be traversed.
+     */
+    int getDistanceAt(int x, int y, int z);
+
+    /**
+     * Allows the distance field to follow the ray cast when the ray jumped over voxels, before the next voxel is traversed.
+     *
+     * @param lastSkippedVoxelIndex The index of the last voxel jumped over along the ray. It is not a new instance but a local instance, so it is a reference.
+     */
+    default void onVoxelsSkipped(Vector3i lastSkippedVoxelIndex) {
+    }
+}
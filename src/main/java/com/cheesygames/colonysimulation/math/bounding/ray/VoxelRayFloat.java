@@ -0,0 +1,256 @@
+package com.cheesygames.colonysimulation.math.bounding.ray;
+
+import com.cheesygames.colonysimulation.math.MathExt;
+import com.cheesygames.colonysimulation.math.bounding.VoxelWorldUtils;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.jme3.math.Vector3f;
+
+/**
+ * Single precision equivalent of {@link VoxelRay}, for the callers that already work with {@link Vector3f}. Its starting voxel, its number of voxels to traverse and its
+ * distances along the ray are computed in float without any intermediate vector. It does not support the distance fields.
+ * <p>
+ * A float only has 24 bits of mantissa, so the coordinates of the ray, its end included, must stay within {@link #MAXIMUM_COORDINATE} voxels of the origin, which keeps at least 8
+ * bits of precision below the voxel extent. Beyond that, use {@link VoxelRay}. Within that limit, the axis aligned and diagonal rays traverse the same voxels as {@link VoxelRay},
+ * and any other ray traverses the same number of voxels from the same first voxel to the same last voxel. Only the order in which such a ray steps on two axes can differ, where it
+ * passes at less than a float's precision from a voxel edge.
+ */
+public class VoxelRayFloat {
+
+    /**
+     * The maximum absolute coordinate, in voxels, of any point of a ray.
+     */
+    public static final float MAXIMUM_COORDINATE = 1 << 16;
+
+    private Vector3f m_start;
+    private VoxelRayFloatTraversal m_traversal;
+    private Vector3f m_direction;
+    private float m_length;
+    private int m_voxelDistance;
+    private boolean m_wasStopped;
+
+    /**
+     * Constructs an invalid {@link VoxelRayFloat} as its direction and length are null. The setters must be called after constructing a {@link VoxelRayFloat} with this
+     * constructors.
+     */
+    public VoxelRayFloat() {
+        this.m_start = new Vector3f();
+        this.m_traversal = new VoxelRayFloatTraversal();
+        this.m_direction = new Vector3f();
+        this.m_length = 0;
+    }
+
+    /**
+     * Constructs a {@link VoxelRayFloat} from two points : start and end.
+     *
+     * @param start The absolute starting position of the ray.
+     * @param end   The absolute ending position of the ray.
+     */
+    public VoxelRayFloat(Vector3f start, Vector3f end) {
+        this.m_start = new Vector3f(start);
+        this.m_traversal = new VoxelRayFloatTraversal();
+        this.m_direction = end.subtract(start);
+        this.m_length = m_direction.length();
+        this.m_direction.normalizeLocal();
+    }
+
+    /**
+     * Constructs a {@link VoxelRayFloat} from a start, a direction and a length.
+     *
+     * @param start     The absolute starting position of the ray.
+     * @param direction The direction of the ray. Must be normalized.
+     * @param length    The length of the ray.
+     */
+    public VoxelRayFloat(Vector3f start, Vector3f direction, float length) {
+        this.m_start = new Vector3f(start);
+        this.m_traversal = new VoxelRayFloatTraversal();
+        this.m_direction = new Vector3f(direction);
+        this.m_length = length;
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. A lambda parameter is supplied and called each time a voxel is traversed.
+     * This allows the lambda to stop anytime the algorithm to continue its loop.
+     *
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. This method called the same number of times as the value of {@link #getVoxelDistance()}. The
+     *                          supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a reference. The return value {@link Boolean} defines if
+     *                          the algorithm should stop.
+     *
+     * @see VoxelRay#rayCast(VoxelRayOnTraversing)
+     */
+    public void rayCast(VoxelRayOnTraversing onTraversingVoxel) {
+        rayCastLocal(World.VOXEL_HALF_EXTENT, onTraversingVoxel, null, new Vector3i());
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. A lambda parameter is supplied and called each time a voxel is traversed.
+     * This allows the lambda to stop anytime the algorithm to continue its loop.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. This method called the same number of times as the value of {@link #getVoxelDistance()}. The
+     *                          supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a reference. The return value {@link Boolean} defines if
+     *                          the algorithm should stop.
+     *
+     * @see VoxelRay#rayCast(double, VoxelRayOnTraversing)
+     */
+    public void rayCast(float voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel) {
+        rayCastLocal(voxelHalfExtent, onTraversingVoxel, null, new Vector3i());
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. A lambda parameter is supplied and called each time a voxel is traversed.
+     * This allows the lambda to stop anytime the algorithm to continue its loop.
+     * <p>
+     * This method is local because the parameter voxelIndex is locally changed to avoid creating a new instance of {@link Vector3i}.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. This method called the same number of times as the value of {@link #getVoxelDistance()}. The
+     *                          supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a reference. The return value {@link Boolean} defines if
+     *                          the algorithm should stop.
+     * @param voxelIndex        The voxel index to locally modify in order to traverse voxels. This parameter exists simply to avoid creating a new {@link Vector3i} instance.
+     *
+     * @see VoxelRay#rayCastLocal(double, VoxelRayOnTraversing, Vector3i)
+     */
+    public void rayCastLocal(float voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, onTraversingVoxel, null, voxelIndex);
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length, jumping over the cells that the supplied cell skipper allows to skip.
+     * <p>
+     * This method is local because the parameter voxelIndex is locally changed to avoid creating a new instance of {@link Vector3i}.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. The supplied {@link Vector3i} parameter is not a new instance but a local instance, so it is a
+     *                          reference. The return value {@link Boolean} defines if the algorithm should stop.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to traverse every voxel.
+     * @param voxelIndex        The voxel index to locally modify in order to traverse voxels. This parameter exists simply to avoid creating a new {@link Vector3i} instance.
+     *
+     * @see VoxelRay#rayCastLocal(double, VoxelRayOnTraversing, VoxelRayCellSkipper, Vector3i)
+     */
+    public void rayCastLocal(float voxelHalfExtent, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, null, onTraversingVoxel, cellSkipper, voxelIndex);
+    }
+
+    /**
+     * Casts the ray from its starting position towards its direction whilst keeping in mind its length. The visitor is called with the primitive indices of each traversed voxel.
+     *
+     * <p>
+     * This method is local because the parameter voxelIndex is locally changed to avoid creating a new instance of {@link Vector3i}.
+     *
+     * @param voxelHalfExtent The half extent (radius) of a voxel.
+     * @param visitor         The visitor of the traversed voxels. Without a cell skipper, it is called the same number of times as the value of {@link #getVoxelDistance()}. Its
+     *                        return value defines if the algorithm should stop.
+     * @param cellSkipper     The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to traverse every voxel.
+     * @param voxelIndex      The voxel index to locally modify in order to traverse voxels. It holds the last traversed voxel index once the ray cast is done.
+     *
+     * @see VoxelRay#rayCastLocal(double, VoxelRayVisitor, VoxelRayCellSkipper, Vector3i)
+     */
+    public void rayCastLocal(float voxelHalfExtent, VoxelRayVisitor visitor, VoxelRayCellSkipper cellSkipper, Vector3i voxelIndex) {
+        rayCastLocal(voxelHalfExtent, visitor, null, cellSkipper, voxelIndex);
+    }
+
+    /**
+     * Casts the ray with either a visitor or the operation of a legacy overload, which the traversal calls from separate call sites. It is the ray cast that every other ray cast
+     * method delegates to.
+     *
+     * @param voxelHalfExtent   The half extent (radius) of a voxel.
+     * @param visitor           The visitor of the traversed voxels. Must be null if onTraversingVoxel is not.
+     * @param onTraversingVoxel The operation to execute when traversing a voxel. Must be null if visitor is not.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to traverse every voxel.
+     * @param voxelIndex        The voxel index to locally modify in order to traverse voxels. It holds the last traversed voxel index once the ray cast is done.
+     */
+    private void rayCastLocal(float voxelHalfExtent, VoxelRayVisitor visitor, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper, Vector3i voxelIndex) {
+        assert !Float.isNaN(voxelHalfExtent);
+
+        assert !Float.isNaN(m_start.x);
+        assert !Float.isNaN(m_start.y);
+        assert !Float.isNaN(m_start.z);
+
+        assert !Float.isNaN(m_direction.x);
+        assert !Float.isNaN(m_direction.y);
+        assert !Float.isNaN(m_direction.z);
+
+        assert !Float.isNaN(m_length);
+
+        assert Math.abs(m_start.x) + m_length <= MAXIMUM_COORDINATE * voxelHalfExtent * 2;
+        assert Math.abs(m_start.y) + m_length <= MAXIMUM_COORDINATE * voxelHalfExtent * 2;
+        assert Math.abs(m_start.z) + m_length <= MAXIMUM_COORDINATE * voxelHalfExtent * 2;
+
+        final float voxelExtent = voxelHalfExtent * 2;
+
+        // This id of the first/current voxel hit by the ray.
+        final float offsettedStartX = m_start.x + voxelHalfExtent;
+        final float offsettedStartY = m_start.y + voxelHalfExtent;
+        final float offsettedStartZ = m_start.z + voxelHalfExtent;
+        voxelIndex.set(VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, offsettedStartX),
+            VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, offsettedStartY),
+            VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, offsettedStartZ));
+
+        m_voxelDistance = 1 + MathExt.abs(VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, offsettedStartX + m_direction.x * m_length) - voxelIndex.x) + MathExt.abs(
+            VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, offsettedStartY + m_direction.y * m_length) - voxelIndex.y) + MathExt.abs(
+            VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, offsettedStartZ + m_direction.z * m_length) - voxelIndex.z);
+
+        m_wasStopped = m_traversal.traverse(offsettedStartX, offsettedStartY, offsettedStartZ, m_direction.x, m_direction.y, m_direction.z, voxelExtent, m_voxelDistance,
+            visitor, onTraversingVoxel, cellSkipper, voxelIndex);
+    }
+
+    public Vector3f getStart() {
+        return m_start;
+    }
+
+    public Vector3f getDirection() {
+        return m_direction;
+    }
+
+    public float getLength() {
+        return m_length;
+    }
+
+    public int getVoxelDistance() {
+        return m_voxelDistance;
+    }
+
+    public void setStart(Vector3f start) {
+        m_start.set(start);
+    }
+
+    /**
+     * Sets the direction.
+     *
+     * @param direction The direction to set to the ray. Must be normalized.
+     */
+    public void setDirection(Vector3f direction) {
+        m_direction.set(direction);
+    }
+
+    /**
+     * Sets the length of the ray.
+     *
+     * @param length The new length of the ray. Must be positive.
+     */
+    public void setLength(float length) {
+        m_length = length;
+    }
+
+    /**
+     * Sets the end position of the ray, which is not a real variable but a way to set the direction and the length at the same time. The start position does matter for this
+     * method.
+     *
+     * @param end Where the ray ends.
+     */
+    public void setEnd(Vector3f end) {
+        m_direction.set(end).subtractLocal(m_start);
+        m_length = m_direction.length();
+        m_direction.normalizeLocal();
+    }
+
+    /**
+     * Gets if the voxel ray cast was stopped by the "onTraversingVoxel" method call.
+     *
+     * @return True if the voxel ray cast was stopped by the "onTraversingVoxel" method call, false otherwise.
+     */
+    public boolean wasStopped() {
+        return m_wasStopped;
+    }
+}
@@ -0,0 +1,196 @@
+package com.cheesygames.colonysimulation.math.bounding.ray;
+
+import com.cheesygames.colonysimulation.math.MathExt;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+
+/**
+ * Single precision twin of {@link VoxelRayTraversal}, used by {@link VoxelRayFloat}. The distances along the ray are in float, but they are computed and compared exactly like the
+ * double ones, so that the ties between the axes are broken in the same order : Z before Y and Y before X. It only jumps over the cells of a {@link VoxelRayCellSkipper}.
+ */
+final class VoxelRayFloatTraversal {
+
+    private Vector3i m_lastSkippedVoxelIndex;
+
+    VoxelRayFloatTraversal() {
+        this.m_lastSkippedVoxelIndex = new Vector3i();
+    }
+
+    /**
+     * Traverses the voxels of a ray from its starting voxel. The visitor is called with the primitive indices of each traversed voxel.
+     * <p>
+     * If a cell skipper is supplied, the ray jumps over the cells that it allows to skip and lands on the voxel that the voxel by voxel traversal would reach.
+     *
+     * @param offsettedStartX   The starting position of the ray on the X axis, offsetted by a voxel half extent.
+     * @param offsettedStartY   The starting position of the ray on the Y axis, offsetted by a voxel half extent.
+     * @param offsettedStartZ   The starting position of the ray on the Z axis, offsetted by a voxel half extent.
+     * @param directionX        The normalized direction of the ray on the X axis.
+     * @param directionY        The normalized direction of the ray on the Y axis.
+     * @param directionZ        The normalized direction of the ray on the Z axis.
+     * @param voxelExtent       The extent of a voxel, which is twice its half extent.
+     * @param voxelDistance     The number of voxels to traverse.
+     * @param visitor           The visitor of the traversed voxels. Its return value defines if the algorithm should stop. Must be null if onTraversingVoxel is not.
+     * @param onTraversingVoxel The operation of the legacy overloads to execute when traversing a voxel, instead of the visitor. It is called from its own call site, so that it
+     *                          never makes the visitor's call site polymorphic, and it is supplied the voxel index instance. Must be null if visitor is not.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to not skip any cell.
+     * @param voxelIndex        The index of the starting voxel, which is locally modified in order to traverse voxels. It holds the last traversed voxel index once the traversal
+     *                          is done.
+     *
+     * @return True if the visitor or the operation stopped the traversal, false otherwise.
+     *
+     * @see VoxelRayTraversal#traverse(double, double, double, double, double, double, double, int, VoxelRayVisitor, VoxelRayOnTraversing, VoxelRayCellSkipper,
+     * VoxelRayDistanceField, Vector3i)
+     */
+    boolean traverse(float offsettedStartX, float offsettedStartY, float offsettedStartZ, float directionX, float directionY, float directionZ, float voxelExtent,
+        int voxelDistance, VoxelRayVisitor visitor, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper, Vector3i voxelIndex) {
+        // In which direction the voxel ids are incremented.
+        int stepX = (int) MathExt.getSignZeroPositive(directionX);
+        int stepY = (int) MathExt.getSignZeroPositive(directionY);
+        int stepZ = (int) MathExt.getSignZeroPositive(directionZ);
+
+        // Distance along the ray to the next voxel border from the current position (tMaxX, tMaxY, tMaxZ).
+        float nextVoxelBoundaryX = (voxelIndex.x + (MathExt.getNegativeSign(stepX) + 1)) * voxelExtent;
+        float nextVoxelBoundaryY = (voxelIndex.y + (MathExt.getNegativeSign(stepY) + 1)) * voxelExtent;
+        float nextVoxelBoundaryZ = (voxelIndex.z + (MathExt.getNegativeSign(stepZ) + 1)) * voxelExtent;
+
+        // tMaxX, tMaxY, tMaxZ -- distance until next intersection with voxel-border
+        float tMaxX = (directionX != 0) ? (nextVoxelBoundaryX - offsettedStartX) / directionX : Float.MAX_VALUE;
+        float tMaxY = (directionY != 0) ? (nextVoxelBoundaryY - offsettedStartY) / directionY : Float.MAX_VALUE;
+        float tMaxZ = (directionZ != 0) ? (nextVoxelBoundaryZ - offsettedStartZ) / directionZ : Float.MAX_VALUE;
+
+        // tDeltaX, tDeltaY, tDeltaZ -- how far along the ray we must move for the component to equal the width of a voxel
+        float tDeltaX = (directionX != 0) ? stepX * voxelExtent / directionX : Float.MAX_VALUE;
+        float tDeltaY = (directionY != 0) ? stepY * voxelExtent / directionY : Float.MAX_VALUE;
+        float tDeltaZ = (directionZ != 0) ? stepZ * voxelExtent / directionZ : Float.MAX_VALUE;
+
+        // The distance to the next border is computed from the first one instead of being accumulated, for the same reason as in VoxelRayTraversal.
+        final float firstBorderDistanceX = tMaxX;
+        final float firstBorderDistanceY = tMaxY;
+        final float firstBorderDistanceZ = tMaxZ;
+        int crossedBorderCountX = 0;
+        int crossedBorderCountY = 0;
+        int crossedBorderCountZ = 0;
+
+        // The cell of the current voxel, which is only checked against the cell skipper when the ray enters it.
+        final Vector3i cellSizeBits = cellSkipper != null ? cellSkipper.getCellSizeBits() : null;
+        int cellIndexX = 0;
+        int cellIndexY = 0;
+        int cellIndexZ = 0;
+        boolean isInNewCell = cellSkipper != null;
+
+        if (onTraversingVoxel != null) {
+            onTraversingVoxel.startRayCast();
+        }
+        else {
+            visitor.startRayCast();
+        }
+
+        int traversedVoxelCount = 0;
+        while (true) {
+            if (isInNewCell) {
+                cellIndexX = voxelIndex.x >> cellSizeBits.x;
+                cellIndexY = voxelIndex.y >> cellSizeBits.y;
+                cellIndexZ = voxelIndex.z >> cellSizeBits.z;
+                isInNewCell = false;
+
+                if (cellSkipper.canSkipCell(cellIndexX, cellIndexY, cellIndexZ)) {
+                    int crossingCountX = getCellCrossingCount(voxelIndex.x, cellIndexX, cellSizeBits.x, stepX);
+                    int crossingCountY = getCellCrossingCount(voxelIndex.y, cellIndexY, cellSizeBits.y, stepY);
+                    int crossingCountZ = getCellCrossingCount(voxelIndex.z, cellIndexZ, cellSizeBits.z, stepZ);
+
+                    // When the ray leaves the cell through each axis.
+                    float exitX = getBorderDistance(firstBorderDistanceX, tDeltaX, crossedBorderCountX + crossingCountX);
+                    float exitY = getBorderDistance(firstBorderDistanceY, tDeltaY, crossedBorderCountY + crossingCountY);
+                    float exitZ = getBorderDistance(firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ + crossingCountZ);
+
+                    // The exiting axis is chosen like the voxel by voxel traversal chooses its next step, see VoxelRayTraversal.
+                    if (exitX < exitY && exitX < exitZ) {
+                        crossingCountX += 1;
+                        crossingCountY = getCrossingCountBefore(exitX, firstBorderDistanceY, tDeltaY, crossedBorderCountY, crossingCountY, true);
+                        crossingCountZ = getCrossingCountBefore(exitX, firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ, crossingCountZ, true);
+                        m_lastSkippedVoxelIndex.set(voxelIndex.x + stepX * (crossingCountX - 1), voxelIndex.y + stepY * crossingCountY, voxelIndex.z + stepZ * crossingCountZ);
+                    }
+                    else if (exitY < exitZ) {
+                        crossingCountY += 1;
+                        crossingCountX = getCrossingCountBefore(exitY, firstBorderDistanceX, tDeltaX, crossedBorderCountX, crossingCountX, false);
+                        crossingCountZ = getCrossingCountBefore(exitY, firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ, crossingCountZ, true);
+                        m_lastSkippedVoxelIndex.set(voxelIndex.x + stepX * crossingCountX, voxelIndex.y + stepY * (crossingCountY - 1), voxelIndex.z + stepZ * crossingCountZ);
+                    }
+                    else {
+                        crossingCountZ += 1;
+                        crossingCountX = getCrossingCountBefore(exitZ, firstBorderDistanceX, tDeltaX, crossedBorderCountX, crossingCountX, false);
+                        crossingCountY = getCrossingCountBefore(exitZ, firstBorderDistanceY, tDeltaY, crossedBorderCountY, crossingCountY, false);
+                        m_lastSkippedVoxelIndex.set(voxelIndex.x + stepX * crossingCountX, voxelIndex.y + stepY * crossingCountY, voxelIndex.z + stepZ * (crossingCountZ - 1));
+                    }
+
+                    traversedVoxelCount += crossingCountX + crossingCountY + crossingCountZ;
+                    if (traversedVoxelCount >= voxelDistance) {
+                        return false;
+                    }
+
+                    voxelIndex.addLocal(stepX * crossingCountX, stepY * crossingCountY, stepZ * crossingCountZ);
+                    crossedBorderCountX += crossingCountX;
+                    crossedBorderCountY += crossingCountY;
+                    crossedBorderCountZ += crossingCountZ;
+                    tMaxX = getBorderDistance(firstBorderDistanceX, tDeltaX, crossedBorderCountX);
+                    tMaxY = getBorderDistance(firstBorderDistanceY, tDeltaY, crossedBorderCountY);
+                    tMaxZ = getBorderDistance(firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ);
+
+                    cellSkipper.onCellSkipped(m_lastSkippedVoxelIndex);
+                    isInNewCell = true;
+                    continue;
+                }
+            }
+
+            if (onTraversingVoxel != null ? onTraversingVoxel.apply(voxelIndex) : visitor.visit(voxelIndex.x, voxelIndex.y, voxelIndex.z)) {
+                return true;
+            }
+
+            if (++traversedVoxelCount >= voxelDistance) {
+                return false;
+            }
+
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                voxelIndex.x += stepX;
+                tMaxX = getBorderDistance(firstBorderDistanceX, tDeltaX, ++crossedBorderCountX);
+                isInNewCell = cellSkipper != null && (voxelIndex.x >> cellSizeBits.x) != cellIndexX;
+            }
+            else if (tMaxY < tMaxZ) {
+                voxelIndex.y += stepY;
+                tMaxY = getBorderDistance(firstBorderDistanceY, tDeltaY, ++crossedBorderCountY);
+                isInNewCell = cellSkipper != null && (voxelIndex.y >> cellSizeBits.y) != cellIndexY;
+            }
+            else {
+                voxelIndex.z += stepZ;
+                tMaxZ = getBorderDistance(firstBorderDistanceZ, tDeltaZ, ++crossedBorderCountZ);
+                isInNewCell = cellSkipper != null && (voxelIndex.z >> cellSizeBits.z) != cellIndexZ;
+            }
+        }
+    }
+
+    private static int getCellCrossingCount(int voxelIndex, int cellIndex, int cellSizeBits, int step) {
+        return step > 0 ? ((cellIndex + 1) << cellSizeBits) - 1 - voxelIndex : voxelIndex - (cellIndex << cellSizeBits);
+    }
+
+    private static float getBorderDistance(float firstBorderDistance, float tDelta, int borderIndex) {
+        return tDelta == Float.MAX_VALUE ? Float.MAX_VALUE : firstBorderDistance + borderIndex * tDelta;
+    }
+
+    private static int getCrossingCountBefore(float distance, float firstBorderDistance, float tDelta, int crossedBorderCount, int maximumCrossingCount, boolean isCountingTies) {
+        float nextBorderDistance = getBorderDistance(firstBorderDistance, tDelta, crossedBorderCount);
+        int crossingCount = distance <= nextBorderDistance ? 0 : Math.min(maximumCrossingCount, (int) Math.ceil((distance - nextBorderDistance) / tDelta));
+
+        while (crossingCount > 0 && !isCrossedBefore(getBorderDistance(firstBorderDistance, tDelta, crossedBorderCount + crossingCount - 1), distance, isCountingTies)) {
+            --crossingCount;
+        }
+        while (crossingCount < maximumCrossingCount && isCrossedBefore(getBorderDistance(firstBorderDistance, tDelta, crossedBorderCount + crossingCount), distance,
+            isCountingTies)) {
+            ++crossingCount;
+        }
+
+        return crossingCount;
+    }
+
+    private static boolean isCrossedBefore(float borderDistance, float distance, boolean isCountingTies) {
+        return isCountingTies ? borderDistance <= distance : borderDistance < distance;
+    }
+}
@@ -5,12 +5,13 @@ import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import java.util.function.Function;
 
 /**
- * Defines an interface for {@link VoxelRay#} ray cast return condition.
+ * Defines an interface for {@link VoxelRay#} ray cast return condition. Prefer {@link VoxelRayVisitor} in hot loops, since this interface boxes its return value.
  */
 public interface VoxelRayOnTraversing extends Function<Vector3i, Boolean> {
 
     /**
      * Allows the return condition to do some preparations when the ray cast is starting.
      */
-    void startRayCast();
+    default void startRayCast() {
+    }
 }
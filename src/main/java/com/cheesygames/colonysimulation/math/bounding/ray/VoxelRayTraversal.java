@@ -0,0 +1,266 @@
+package com.cheesygames.colonysimulation.math.bounding.ray;
+
+import com.cheesygames.colonysimulation.math.MathExt;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+
+/**
+ * The voxel traversal of {@link VoxelRay}, with its jumps over the cells of a {@link VoxelRayCellSkipper} and over the voxels of a {@link VoxelRayDistanceField}. Its single
+ * precision twin is {@link VoxelRayFloatTraversal}, which must break the ties between the axes the same way.
+ */
+final class VoxelRayTraversal {
+
+    private Vector3i m_lastSkippedVoxelIndex;
+
+    VoxelRayTraversal() {
+        this.m_lastSkippedVoxelIndex = new Vector3i();
+    }
+
+    /**
+     * Traverses the voxels of a ray from its starting voxel. The visitor is called with the primitive indices of each traversed voxel.
+     * <p>
+     * If a cell skipper is supplied, the ray jumps over the cells that it allows to skip. If a distance field is supplied, the ray jumps over the cube of voxels closer than the
+     * distance it reports for each voxel that is not jumped over by the cell skipper. Either way, the ray lands on the voxel that the voxel by voxel traversal would reach.
+     *
+     * @param offsettedStartX   The starting position of the ray on the X axis, offsetted by a voxel half extent.
+     * @param offsettedStartY   The starting position of the ray on the Y axis, offsetted by a voxel half extent.
+     * @param offsettedStartZ   The starting position of the ray on the Z axis, offsetted by a voxel half extent.
+     * @param directionX        The normalized direction of the ray on the X axis.
+     * @param directionY        The normalized direction of the ray on the Y axis.
+     * @param directionZ        The normalized direction of the ray on the Z axis.
+     * @param voxelExtent       The extent of a voxel, which is twice its half extent.
+     * @param voxelDistance     The number of voxels to traverse.
+     * @param visitor           The visitor of the traversed voxels. Its return value defines if the algorithm should stop. Must be null if onTraversingVoxel is not.
+     * @param onTraversingVoxel The operation of the legacy overloads to execute when traversing a voxel, instead of the visitor. It is called from its own call site, so that it
+     *                          never makes the visitor's call site polymorphic, and it is supplied the voxel index instance. Must be null if visitor is not.
+     * @param cellSkipper       The coarse level of the traversal, which decides which cells of voxels the ray can jump over. Can be null to not skip any cell.
+     * @param distanceField     The distance field, which decides how many voxels the ray can jump over from each voxel. Can be null to not sphere trace the traversal.
+     * @param voxelIndex        The index of the starting voxel, which is locally modified in order to traverse voxels. It holds the last traversed voxel index once the traversal
+     *                          is done.
+     *
+     * @return True if the visitor or the operation stopped the traversal, false otherwise.
+     *
+     * @see <a href="http://citeseerx.ist.psu.edu/viewdoc/download?doi=10.1.1.42.3443&rep=rep1&type=pdf">A Fast Voxel Traversal Algorithm</a>
+     */
+    boolean traverse(double offsettedStartX, double offsettedStartY, double offsettedStartZ, double directionX, double directionY, double directionZ, double voxelExtent,
+        int voxelDistance, VoxelRayVisitor visitor, VoxelRayOnTraversing onTraversingVoxel, VoxelRayCellSkipper cellSkipper, VoxelRayDistanceField distanceField,
+        Vector3i voxelIndex) {
+        // In which direction the voxel ids are incremented.
+        int stepX = (int) MathExt.getSignZeroPositive(directionX);
+        int stepY = (int) MathExt.getSignZeroPositive(directionY);
+        int stepZ = (int) MathExt.getSignZeroPositive(directionZ);
+
+        // Distance along the ray to the next voxel border from the current position (tMaxX, tMaxY, tMaxZ).
+        double nextVoxelBoundaryX = (voxelIndex.x + (MathExt.getNegativeSign(stepX) + 1)) * voxelExtent;
+        double nextVoxelBoundaryY = (voxelIndex.y + (MathExt.getNegativeSign(stepY) + 1)) * voxelExtent;
+        double nextVoxelBoundaryZ = (voxelIndex.z + (MathExt.getNegativeSign(stepZ) + 1)) * voxelExtent;
+
+        // tMaxX, tMaxY, tMaxZ -- distance until next intersection with voxel-border
+        // the value of t at which the ray crosses the first vertical voxel boundary
+        double tMaxX = (directionX != 0) ? (nextVoxelBoundaryX - offsettedStartX) / directionX : Double.MAX_VALUE;
+        double tMaxY = (directionY != 0) ? (nextVoxelBoundaryY - offsettedStartY) / directionY : Double.MAX_VALUE;
+        double tMaxZ = (directionZ != 0) ? (nextVoxelBoundaryZ - offsettedStartZ) / directionZ : Double.MAX_VALUE;
+
+        // tDeltaX, tDeltaY, tDeltaZ --
+        // how far along the ray we must move for the horizontal component to equal the width of a voxel
+        // the direction in which we traverse the grid
+        // can only be FLT_MAX if we never go in that direction
+        double tDeltaX = (directionX != 0) ? stepX * voxelExtent / directionX : Double.MAX_VALUE;
+        double tDeltaY = (directionY != 0) ? stepY * voxelExtent / directionY : Double.MAX_VALUE;
+        double tDeltaZ = (directionZ != 0) ? stepZ * voxelExtent / directionZ : Double.MAX_VALUE;
+
+        // The number of voxel borders crossed on each axis. The distance to the next border is computed from the first one instead of being accumulated, so that the voxel by
+        // voxel traversal and the jumps compare the exact same distances, and thus break their ties the same way.
+        final double firstBorderDistanceX = tMaxX;
+        final double firstBorderDistanceY = tMaxY;
+        final double firstBorderDistanceZ = tMaxZ;
+        int crossedBorderCountX = 0;
+        int crossedBorderCountY = 0;
+        int crossedBorderCountZ = 0;
+
+        // The cell of the current voxel, which is only checked against the cell skipper when the ray enters it.
+        final Vector3i cellSizeBits = cellSkipper != null ? cellSkipper.getCellSizeBits() : null;
+        int cellIndexX = 0;
+        int cellIndexY = 0;
+        int cellIndexZ = 0;
+        boolean isInNewCell = cellSkipper != null;
+
+        if (onTraversingVoxel != null) {
+            onTraversingVoxel.startRayCast();
+        }
+        else {
+            visitor.startRayCast();
+        }
+
+        int traversedVoxelCount = 0;
+        while (true) {
+            // How many voxel borders the ray crosses on each axis before leaving the region that it jumps over, if any.
+            int crossingCountX = 0;
+            int crossingCountY = 0;
+            int crossingCountZ = 0;
+            boolean isSkippingCell = false;
+            boolean isSkippingVoxels = false;
+
+            if (isInNewCell) {
+                cellIndexX = voxelIndex.x >> cellSizeBits.x;
+                cellIndexY = voxelIndex.y >> cellSizeBits.y;
+                cellIndexZ = voxelIndex.z >> cellSizeBits.z;
+                isInNewCell = false;
+
+                if (cellSkipper.canSkipCell(cellIndexX, cellIndexY, cellIndexZ)) {
+                    crossingCountX = getCellCrossingCount(voxelIndex.x, cellIndexX, cellSizeBits.x, stepX);
+                    crossingCountY = getCellCrossingCount(voxelIndex.y, cellIndexY, cellSizeBits.y, stepY);
+                    crossingCountZ = getCellCrossingCount(voxelIndex.z, cellIndexZ, cellSizeBits.z, stepZ);
+                    isSkippingCell = true;
+                }
+            }
+
+            if (!isSkippingCell && distanceField != null) {
+                // The cube of voxels closer than the distance is centered on the current voxel, so its border is as far on every axis.
+                int distance = distanceField.getDistanceAt(voxelIndex.x, voxelIndex.y, voxelIndex.z);
+
+                if (distance > 0) {
+                    crossingCountX = distance - 1;
+                    crossingCountY = distance - 1;
+                    crossingCountZ = distance - 1;
+                    isSkippingVoxels = true;
+                }
+            }
+
+            if (isSkippingCell || isSkippingVoxels) {
+                // When the ray leaves the region through each axis.
+                double exitX = getBorderDistance(firstBorderDistanceX, tDeltaX, crossedBorderCountX + crossingCountX);
+                double exitY = getBorderDistance(firstBorderDistanceY, tDeltaY, crossedBorderCountY + crossingCountY);
+                double exitZ = getBorderDistance(firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ + crossingCountZ);
+
+                // The exiting axis is chosen like the voxel by voxel traversal chooses its next step, and the other axes cross every border met before that. On a tie, the voxel
+                // by voxel traversal steps on Z before Y and on Y before X, so the borders met at the exit distance are only crossed on the axes stepped before the exiting one.
+                if (exitX < exitY && exitX < exitZ) {
+                    crossingCountX += 1;
+                    crossingCountY = getCrossingCountBefore(exitX, firstBorderDistanceY, tDeltaY, crossedBorderCountY, crossingCountY, true);
+                    crossingCountZ = getCrossingCountBefore(exitX, firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ, crossingCountZ, true);
+                    m_lastSkippedVoxelIndex.set(voxelIndex.x + stepX * (crossingCountX - 1), voxelIndex.y + stepY * crossingCountY, voxelIndex.z + stepZ * crossingCountZ);
+                }
+                else if (exitY < exitZ) {
+                    crossingCountY += 1;
+                    crossingCountX = getCrossingCountBefore(exitY, firstBorderDistanceX, tDeltaX, crossedBorderCountX, crossingCountX, false);
+                    crossingCountZ = getCrossingCountBefore(exitY, firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ, crossingCountZ, true);
+                    m_lastSkippedVoxelIndex.set(voxelIndex.x + stepX * crossingCountX, voxelIndex.y + stepY * (crossingCountY - 1), voxelIndex.z + stepZ * crossingCountZ);
+                }
+                else {
+                    crossingCountZ += 1;
+                    crossingCountX = getCrossingCountBefore(exitZ, firstBorderDistanceX, tDeltaX, crossedBorderCountX, crossingCountX, false);
+                    crossingCountY = getCrossingCountBefore(exitZ, firstBorderDistanceY, tDeltaY, crossedBorderCountY, crossingCountY, false);
+                    m_lastSkippedVoxelIndex.set(voxelIndex.x + stepX * crossingCountX, voxelIndex.y + stepY * crossingCountY, voxelIndex.z + stepZ * (crossingCountZ - 1));
+                }
+
+                traversedVoxelCount += crossingCountX + crossingCountY + crossingCountZ;
+                if (traversedVoxelCount >= voxelDistance) {
+                    return false;
+                }
+
+                voxelIndex.addLocal(stepX * crossingCountX, stepY * crossingCountY, stepZ * crossingCountZ);
+                crossedBorderCountX += crossingCountX;
+                crossedBorderCountY += crossingCountY;
+                crossedBorderCountZ += crossingCountZ;
+                tMaxX = getBorderDistance(firstBorderDistanceX, tDeltaX, crossedBorderCountX);
+                tMaxY = getBorderDistance(firstBorderDistanceY, tDeltaY, crossedBorderCountY);
+                tMaxZ = getBorderDistance(firstBorderDistanceZ, tDeltaZ, crossedBorderCountZ);
+
+                if (isSkippingCell) {
+                    cellSkipper.onCellSkipped(m_lastSkippedVoxelIndex);
+                }
+                else {
+                    distanceField.onVoxelsSkipped(m_lastSkippedVoxelIndex);
+                }
+
+                isInNewCell = cellSkipper != null;
+                continue;
+            }
+
+            if (onTraversingVoxel != null ? onTraversingVoxel.apply(voxelIndex) : visitor.visit(voxelIndex.x, voxelIndex.y, voxelIndex.z)) {
+                return true;
+            }
+
+            if (++traversedVoxelCount >= voxelDistance) {
+                return false;
+            }
+
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                voxelIndex.x += stepX;
+                tMaxX = getBorderDistance(firstBorderDistanceX, tDeltaX, ++crossedBorderCountX);
+                isInNewCell = cellSkipper != null && (voxelIndex.x >> cellSizeBits.x) != cellIndexX;
+            }
+            else if (tMaxY < tMaxZ) {
+                voxelIndex.y += stepY;
+                tMaxY = getBorderDistance(firstBorderDistanceY, tDeltaY, ++crossedBorderCountY);
+                isInNewCell = cellSkipper != null && (voxelIndex.y >> cellSizeBits.y) != cellIndexY;
+            }
+            else {
+                voxelIndex.z += stepZ;
+                tMaxZ = getBorderDistance(firstBorderDistanceZ, tDeltaZ, ++crossedBorderCountZ);
+                isInNewCell = cellSkipper != null && (voxelIndex.z >> cellSizeBits.z) != cellIndexZ;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of voxel borders that the ray crosses on an axis before reaching the border of the cell.
+     *
+     * @param voxelIndex   The voxel index on the axis.
+     * @param cellIndex    The voxel's cell index on the axis.
+     * @param cellSizeBits The bit shift count for the cell size on the axis.
+     * @param step         The step of the ray on the axis, which is either -1 or 1.
+     *
+     * @return The number of voxel borders to cross on the axis before reaching the border of the cell.
+     */
+    private static int getCellCrossingCount(int voxelIndex, int cellIndex, int cellSizeBits, int step) {
+        return step > 0 ? ((cellIndex + 1) << cellSizeBits) - 1 - voxelIndex : voxelIndex - (cellIndex << cellSizeBits);
+    }
+
+    /**
+     * Gets the distance along the ray at which it crosses a voxel border on an axis.
+     *
+     * @param firstBorderDistance The distance along the ray to the first voxel border on the axis.
+     * @param tDelta              The distance along the ray between two voxel borders on the axis.
+     * @param borderIndex         The number of voxel borders crossed on the axis before this one.
+     *
+     * @return The distance along the ray at which it crosses the border, or {@link Double#MAX_VALUE} if the ray does not move on the axis.
+     */
+    private static double getBorderDistance(double firstBorderDistance, double tDelta, int borderIndex) {
+        return tDelta == Double.MAX_VALUE ? Double.MAX_VALUE : firstBorderDistance + borderIndex * tDelta;
+    }
+
+    /**
+     * Gets the number of voxel borders that the ray crosses on an axis before a distance along the ray, starting from its next border. The borders met exactly at the distance are
+     * only counted if they are crossed first on a tie. The estimate from the division is corrected with {@link #getBorderDistance(double, double, int)}, so that the count agrees
+     * with the distances compared by the voxel by voxel traversal.
+     *
+     * @param distance             The distance along the ray.
+     * @param firstBorderDistance  The distance along the ray to the first voxel border on the axis.
+     * @param tDelta               The distance along the ray between two voxel borders on the axis.
+     * @param crossedBorderCount   The number of voxel borders already crossed on the axis.
+     * @param maximumCrossingCount The maximum number of voxel borders to return.
+     * @param isCountingTies       True to also count the borders met exactly at the distance, false to only count the ones met strictly before it.
+     *
+     * @return The number of voxel borders crossed on the axis before the distance, up to the maximum.
+     */
+    private static int getCrossingCountBefore(double distance, double firstBorderDistance, double tDelta, int crossedBorderCount, int maximumCrossingCount,
+        boolean isCountingTies) {
+        double nextBorderDistance = getBorderDistance(firstBorderDistance, tDelta, crossedBorderCount);
+        int crossingCount = distance <= nextBorderDistance ? 0 : Math.min(maximumCrossingCount, (int) Math.ceil((distance - nextBorderDistance) / tDelta));
+
+        while (crossingCount > 0 && !isCrossedBefore(getBorderDistance(firstBorderDistance, tDelta, crossedBorderCount + crossingCount - 1), distance, isCountingTies)) {
+            --crossingCount;
+        }
+        while (crossingCount < maximumCrossingCount && isCrossedBefore(getBorderDistance(firstBorderDistance, tDelta, crossedBorderCount + crossingCount), distance,
+            isCountingTies)) {
+            ++crossingCount;
+        }
+
+        return crossingCount;
+    }
+
+    private static boolean isCrossedBefore(double borderDistance, double distance, boolean isCountingTies) {
+        return isCountingTies ? borderDistance <= distance : borderDistance < distance;
+    }
+}
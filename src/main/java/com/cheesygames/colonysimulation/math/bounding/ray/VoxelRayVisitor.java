@@ -0,0 +1,26 @@
+package com.cheesygames.colonysimulation.math.bounding.ray;
+
+/**
+ * Defines a primitive {@link VoxelRay} ray cast return condition. Unlike {@link VoxelRayOnTraversing}, the traversed voxel index is supplied as primitives and the return value is
+ * not boxed, so that the visitor can be inlined in the traversal loop.
+ */
+@FunctionalInterface
+public interface VoxelRayVisitor {
+
+    /**
+     * Allows the visitor to do some preparations when the ray cast is starting.
+     */
+    default void startRayCast() {
+    }
+
+    /**
+     * Visits a traversed voxel.
+     *
+     * @param x The voxel index on the X axis.
+     * @param y The voxel index on the Y axis.
+     * @param z The voxel index on the Z axis.
+     *
+     * @return True if the ray cast should stop, false otherwise.
+     */
+    boolean visit(int x, int y, int z);
+}
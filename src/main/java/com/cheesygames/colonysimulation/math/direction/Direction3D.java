@@ -100,6 +100,7 @@ public enum Direction3D {
     BOTTOM_FRONT_LEFT(-1, -1, 1),
     BOTTOM_BACK_LEFT(-1, -1, -1),;
 
+    public static final Direction3D FIRST_ORTHOGONAL = LEFT;
     public static final Direction3D FIRST_DIAGONAL_3D = TOP_FRONT_RIGHT;
     /**
      * All the directions except the ZERO (0, 0, 0).
@@ -313,6 +314,16 @@ public enum Direction3D {
         return swizzleAccordingToDirectionLocal(new Vector3f(vertex));
     }
 
+    /**
+     * Gets this enum value's index among the orthogonal directions, in the enum's order : LEFT, RIGHT, BOTTOM, TOP, BACK and then FRONT. Only the orthogonal directions have such
+     * an index.
+     *
+     * @return This enum value's index among the orthogonal directions.
+     */
+    public int getOrthogonalIndex() {
+        return ordinal() - FIRST_ORTHOGONAL.ordinal();
+    }
+
     /**
      * Gets this enum value's index in the DIAGONALS_3D array.
      *
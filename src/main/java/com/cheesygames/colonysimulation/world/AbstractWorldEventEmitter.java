@@ -30,6 +30,13 @@ public class AbstractWorldEventEmitter implements IWorldEventCommunicator {
         }
     }
 
+    @Override
+    public void chunkVisibilityChanged(Chunk chunk) {
+        for (IWorldEventCommunicator listener : m_listeners) {
+            listener.chunkVisibilityChanged(chunk);
+        }
+    }
+
     public void addListener(IWorldEventCommunicator listener) {
         m_listeners.add(listener);
     }
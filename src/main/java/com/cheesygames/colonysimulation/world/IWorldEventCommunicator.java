@@ -21,4 +21,13 @@ public interface IWorldEventCommunicator {
      * @param chunk The chunk that was removed from the world and that is empty.
      */
     void chunkIsEmpty(Chunk chunk);
+
+    /**
+     * Notice listeners or be noticed by the "chunk visibility changed" event. The chunk's {@link Chunk#isVisible()} changed, so its geometry should be culled or shown
+     * accordingly. Does nothing by default, since only the communicators that render the chunks are concerned.
+     *
+     * @param chunk The chunk whose visibility changed.
+     */
+    default void chunkVisibilityChanged(Chunk chunk) {
+    }
 }
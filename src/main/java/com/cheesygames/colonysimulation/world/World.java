@@ -156,7 +156,7 @@ public class World extends AbstractWorldEventEmitter {
         boolean chunkDoesNotExist = (chunk == null);
 
         if (chunkDoesNotExist) {
-            m_worldGenerator.createChunk(chunkIndex);
+            chunk = m_worldGenerator.createChunk(chunkIndex);
         }
 
         chunk.setVoxelTypeAt(voxelType, chunkRelativeX, chunkRelativeY, chunkRelativeZ);
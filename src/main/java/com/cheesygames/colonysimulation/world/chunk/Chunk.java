@@ -2,8 +2,10 @@ package com.cheesygames.colonysimulation.world.chunk;
 
 import com.cheesygames.colonysimulation.GameGlobal;
 import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.distance.ChunkDistanceField;
 import com.cheesygames.colonysimulation.world.chunk.lighting.ChunkLighting;
 import com.cheesygames.colonysimulation.world.chunk.lighting.ChunkLightingState;
+import com.cheesygames.colonysimulation.world.chunk.visibility.ChunkFaceConnectivityComputer;
 import com.cheesygames.colonysimulation.world.chunk.voxel.Voxel;
 import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
 import com.cheesygames.colonysimulation.world.generation.IWorldGenerator;
@@ -19,11 +21,19 @@ public class Chunk extends AbstractChunk {
     private Mesh m_mesh;
     private boolean m_isEmpty;
     private ChunkLighting m_chunkLighting;
+    private ChunkDistanceField m_distanceField;
+    private int m_version;
+    private int m_lodLevel;
+    private int m_faceConnectivity;
+    private boolean m_isVisible;
 
     public Chunk(Vector3i index) {
         super(index);
         this.m_isEmpty = true;
         this.m_chunkLighting = new ChunkLighting(this);
+        this.m_distanceField = new ChunkDistanceField(this);
+        this.m_faceConnectivity = ChunkFaceConnectivityComputer.ALL_FACES_CONNECTED;
+        this.m_isVisible = true;
     }
 
     /**
@@ -42,13 +52,14 @@ public class Chunk extends AbstractChunk {
                         GameGlobal.world.getAbsoluteIndexY(m_index.y, y),
                         GameGlobal.world.getAbsoluteIndexZ(m_index.z, z));
 
-                    m_voxels[x][y][z].light = m_voxels[x][y][z].voxelType.getLight();
-
                     m_isEmpty &= (m_voxels[x][y][z].voxelType == VoxelType.AIR);
                 }
             }
         }
 
+        m_distanceField.invalidate();
+        ++m_version;
+
         GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().addToAwaitingComputation(this);
     }
 
@@ -114,14 +125,93 @@ public class Chunk extends AbstractChunk {
     }
 
     public void setVoxelTypeAt(VoxelType voxelType, Vector3i voxelIndex) {
-        m_voxels[voxelIndex.x][voxelIndex.y][voxelIndex.z].voxelType = voxelType;
+        setVoxelTypeAt(voxelType, voxelIndex.x, voxelIndex.y, voxelIndex.z);
     }
 
+    /**
+     * Sets the voxel type at the supplied chunk relative indices. If the lighting is already computed, then it is updated incrementally around the voxel at the next lighting
+     * computation. The distance field is invalidated until it is computed again and the chunk's version is incremented.
+     *
+     * @param voxelType The voxel type to set.
+     * @param x         The index on the X axis.
+     * @param y         The index on the Y axis.
+     * @param z         The index on the Z axis.
+     */
     public void setVoxelTypeAt(VoxelType voxelType, int x, int y, int z) {
-        m_voxels[x][y][z].voxelType = voxelType;
+        Voxel voxel = m_voxels[x][y][z];
+
+        if (voxel.voxelType != voxelType) {
+            voxel.voxelType = voxelType;
+            m_isEmpty &= (voxelType == VoxelType.AIR);
+            m_distanceField.invalidate();
+            ++m_version;
+
+            if (m_chunkLighting.updateVoxelLighting(x, y, z)) {
+                GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().addToAwaitingComputation(this);
+            }
+        }
     }
 
     public ChunkLighting getChunkLighting() {
         return m_chunkLighting;
     }
+
+    /**
+     * Gets the distance field of the chunk, which is only computed when the chunk is meshed if the {@link ChunkUpdateManager} computes the distance fields.
+     *
+     * @return The chunk's distance field.
+     */
+    public ChunkDistanceField getDistanceField() {
+        return m_distanceField;
+    }
+
+    /**
+     * Gets the modification counter of the chunk's voxels, which is incremented each time a voxel's type is modified. Two equal versions of the same chunk instance mean that its
+     * voxels did not change in between.
+     *
+     * @return The chunk's version.
+     */
+    public int getVersion() {
+        return m_version;
+    }
+
+    /**
+     * Gets the level of detail at which the chunk is meshed. The level of detail 0 is the full resolution and the level of detail n is downsampled 2 power of n times.
+     *
+     * @return The level of detail of the chunk's mesh.
+     */
+    public int getLodLevel() {
+        return m_lodLevel;
+    }
+
+    public void setLodLevel(int lodLevel) {
+        m_lodLevel = lodLevel;
+    }
+
+    /**
+     * Gets the set of pairs of faces that are connected through non solid voxels, as computed by {@link ChunkFaceConnectivityComputer}. Until the chunk is meshed, all the faces
+     * are considered connected.
+     *
+     * @return The set of connected face pairs.
+     */
+    public int getFaceConnectivity() {
+        return m_faceConnectivity;
+    }
+
+    public void setFaceConnectivity(int faceConnectivity) {
+        m_faceConnectivity = faceConnectivity;
+    }
+
+    /**
+     * Checks if the chunk can be seen from the camera according to the last occlusion culling.
+     *
+     * @return True if the chunk is potentially visible, false if it is occluded or outside of the camera's frustum.
+     */
+    public boolean isVisible() {
+        return m_isVisible;
+    }
+
+    public void setVisible(boolean visible) {
+        m_isVisible = visible;
+    }
 }
@@ -0,0 +1,261 @@
+package com.cheesygames.colonysimulation.world.chunk;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Priority scheduler for the chunks awaiting to be remeshed. The pending chunks are ordered by their distance to the focus point, which is the camera's location if there is a
+ * camera. Chunks outside of the camera's frustum are penalized. Every frame, the chunks are processed in that order until the frame budget is spent.
+ * <p>
+ * The longer a chunk waits, the smaller its priority distance becomes. Thus, distant chunks never starve, even under heavy edits near the focus point.
+ */
+public class ChunkRemeshScheduler {
+
+    public static final float DEFAULT_FRAME_BUDGET_MILLISECONDS = 4f;
+    public static final float DEFAULT_OUT_OF_VIEW_DISTANCE_FACTOR = 4f;
+    public static final float DEFAULT_AGING_HALF_LIFE_SECONDS = 0.5f;
+
+    private static final float NANOSECONDS_PER_MILLISECOND = 1_000_000f;
+    private static final float NANOSECONDS_PER_SECOND = 1_000_000_000f;
+    private static final Comparator<RemeshRequest> PRIORITY_COMPARATOR = (lhs, rhs) -> Float.compare(lhs.m_priority, rhs.m_priority);
+
+    private LongSupplier m_nanoTimeSupplier;
+    private Map<Chunk, RemeshRequest> m_pendingRequests;
+    private List<RemeshRequest> m_sortedRequests;
+    private Camera m_camera;
+    private Vector3f m_focusPoint;
+    private float m_frameBudgetMilliseconds;
+    private float m_outOfViewDistanceFactor;
+    private float m_agingHalfLifeSeconds;
+    private Vector3f m_tmpChunkCenter;
+    private BoundingBox m_tmpChunkBound;
+
+    public ChunkRemeshScheduler() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a scheduler that reads the time from the supplied clock instead of {@link System#nanoTime()}, which is mostly useful to test the aging and the frame budget.
+     *
+     * @param nanoTimeSupplier The clock that supplies the current time in nanoseconds.
+     */
+    public ChunkRemeshScheduler(LongSupplier nanoTimeSupplier) {
+        this.m_nanoTimeSupplier = nanoTimeSupplier;
+        this.m_pendingRequests = new ConcurrentHashMap<>();
+        this.m_sortedRequests = new ArrayList<>();
+        this.m_focusPoint = new Vector3f();
+        this.m_frameBudgetMilliseconds = DEFAULT_FRAME_BUDGET_MILLISECONDS;
+        this.m_outOfViewDistanceFactor = DEFAULT_OUT_OF_VIEW_DISTANCE_FACTOR;
+        this.m_agingHalfLifeSeconds = DEFAULT_AGING_HALF_LIFE_SECONDS;
+        this.m_tmpChunkCenter = new Vector3f();
+        this.m_tmpChunkBound = new BoundingBox();
+    }
+
+    /**
+     * Adds the chunk to the chunks awaiting to be remeshed.
+     *
+     * @param chunk The chunk that needs to be remeshed.
+     *
+     * @return True if the chunk was successfully added, false otherwise. False means that it was already awaiting to be remeshed.
+     */
+    public boolean add(Chunk chunk) {
+        return m_pendingRequests.putIfAbsent(chunk, new RemeshRequest(chunk, m_nanoTimeSupplier.getAsLong())) == null;
+    }
+
+    /**
+     * Processes the pending chunks from the highest priority to the lowest, until the frame budget is spent. At least one chunk is processed per call, so that the scheduler always
+     * progresses. A chunk is no longer pending once it's supplied to the operation, which means that the operation itself can add it back.
+     *
+     * @param remeshOperation The operation that remeshes a chunk.
+     *
+     * @return The number of processed chunks.
+     */
+    public int processFrame(Consumer<Chunk> remeshOperation) {
+        if (m_pendingRequests.isEmpty()) {
+            return 0;
+        }
+
+        long startTime = m_nanoTimeSupplier.getAsLong();
+        long frameBudget = (long) (m_frameBudgetMilliseconds * NANOSECONDS_PER_MILLISECOND);
+
+        for (RemeshRequest request : m_pendingRequests.values()) {
+            request.m_priority = computePriority(request, startTime);
+            m_sortedRequests.add(request);
+        }
+
+        m_sortedRequests.sort(PRIORITY_COMPARATOR);
+
+        int processedChunkCount = 0;
+        for (int i = 0; i < m_sortedRequests.size() && (processedChunkCount == 0 || m_nanoTimeSupplier.getAsLong() - startTime < frameBudget); ++i) {
+            RemeshRequest request = m_sortedRequests.get(i);
+
+            if (m_pendingRequests.remove(request.m_chunk, request)) {
+                remeshOperation.accept(request.m_chunk);
+                ++processedChunkCount;
+            }
+        }
+
+        m_sortedRequests.clear();
+
+        return processedChunkCount;
+    }
+
+    /**
+     * Computes the priority of the supplied request. The lower the priority value, the sooner the chunk will be remeshed. It is the distance between the chunk and the focus point,
+     * multiplied by the out of view factor if there's a camera that can't see the chunk and then divided according to the time the chunk has been waiting.
+     *
+     * @param request     The request to compute its priority.
+     * @param currentTime The current time in nanoseconds.
+     *
+     * @return The request's priority.
+     */
+    private float computePriority(RemeshRequest request, long currentTime) {
+        Chunk chunk = request.m_chunk;
+        Vector3f chunkCenter = chunk.computeCenterLocal(m_tmpChunkCenter);
+        Vector3f focusPoint = getCurrentFocusPoint();
+
+        float priority = focusPoint.distance(chunkCenter);
+
+        if (m_camera != null && !isInView(chunk, chunkCenter)) {
+            priority *= m_outOfViewDistanceFactor;
+        }
+
+        float waitedSeconds = (currentTime - request.m_enqueueTime) / NANOSECONDS_PER_SECOND;
+        return priority / (1f + waitedSeconds / m_agingHalfLifeSeconds);
+    }
+
+    /**
+     * Checks if the chunk is at least partially inside the camera's frustum. The camera's plane state is preserved.
+     *
+     * @param chunk       The chunk to check.
+     * @param chunkCenter The chunk's center.
+     *
+     * @return True if the chunk is at least partially inside the camera's frustum, false otherwise.
+     */
+    private boolean isInView(Chunk chunk, Vector3f chunkCenter) {
+        m_tmpChunkBound.setCenter(chunkCenter);
+        m_tmpChunkBound.setXExtent(chunk.getSize().x / 2f);
+        m_tmpChunkBound.setYExtent(chunk.getSize().y / 2f);
+        m_tmpChunkBound.setZExtent(chunk.getSize().z / 2f);
+        m_tmpChunkBound.setCheckPlane(0);
+
+        int planeState = m_camera.getPlaneState();
+        m_camera.setPlaneState(0);
+        boolean isInView = m_camera.contains(m_tmpChunkBound) != Camera.FrustumIntersect.Outside;
+        m_camera.setPlaneState(planeState);
+
+        return isInView;
+    }
+
+    /**
+     * Checks if the chunk is awaiting to be remeshed.
+     *
+     * @param chunk The chunk to check.
+     *
+     * @return True if the chunk is awaiting to be remeshed, false otherwise.
+     */
+    public boolean contains(Chunk chunk) {
+        return m_pendingRequests.containsKey(chunk);
+    }
+
+    public boolean isEmpty() {
+        return m_pendingRequests.isEmpty();
+    }
+
+    public int size() {
+        return m_pendingRequests.size();
+    }
+
+    public Camera getCamera() {
+        return m_camera;
+    }
+
+    /**
+     * Sets the camera used to compute the priorities. When there's a camera, its location is the focus point and chunks outside of its frustum are penalized.
+     *
+     * @param camera The camera. Can be null.
+     */
+    public void setCamera(Camera camera) {
+        m_camera = camera;
+    }
+
+    /**
+     * Gets the point from which the distances are currently computed. It is the camera's location if there is a camera, otherwise it is the focus point.
+     *
+     * @return The current focus point.
+     */
+    public Vector3f getCurrentFocusPoint() {
+        return m_camera != null ? m_camera.getLocation() : m_focusPoint;
+    }
+
+    public Vector3f getFocusPoint() {
+        return m_focusPoint;
+    }
+
+    /**
+     * Sets the focus point's value, not the reference. The focus point is only used if there is no camera.
+     *
+     * @param focusPoint The focus point from which the distances are computed.
+     */
+    public void setFocusPoint(Vector3f focusPoint) {
+        m_focusPoint.set(focusPoint);
+    }
+
+    public float getFrameBudgetMilliseconds() {
+        return m_frameBudgetMilliseconds;
+    }
+
+    /**
+     * Sets the maximum time to spend remeshing chunks per frame.
+     *
+     * @param frameBudgetMilliseconds The per-frame time budget in milliseconds. Must be positive.
+     */
+    public void setFrameBudgetMilliseconds(float frameBudgetMilliseconds) {
+        m_frameBudgetMilliseconds = frameBudgetMilliseconds;
+    }
+
+    public float getOutOfViewDistanceFactor() {
+        return m_outOfViewDistanceFactor;
+    }
+
+    public void setOutOfViewDistanceFactor(float outOfViewDistanceFactor) {
+        m_outOfViewDistanceFactor = outOfViewDistanceFactor;
+    }
+
+    public float getAgingHalfLifeSeconds() {
+        return m_agingHalfLifeSeconds;
+    }
+
+    /**
+     * Sets the aging half life, which is the waiting time after which a pending chunk's priority distance is halved.
+     *
+     * @param agingHalfLifeSeconds The aging half life in seconds. Must be positive.
+     */
+    public void setAgingHalfLifeSeconds(float agingHalfLifeSeconds) {
+        m_agingHalfLifeSeconds = agingHalfLifeSeconds;
+    }
+
+    /**
+     * A chunk awaiting to be remeshed.
+     */
+    private static final class RemeshRequest {
+
+        private final Chunk m_chunk;
+        private final long m_enqueueTime;
+        private float m_priority;
+
+        private RemeshRequest(Chunk chunk, long enqueueTime) {
+            this.m_chunk = chunk;
+            this.m_enqueueTime = enqueueTime;
+        }
+    }
+}
@@ -1,50 +1,99 @@
 package com.cheesygames.colonysimulation.world.chunk;
 
 import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import com.cheesygames.colonysimulation.world.AbstractWorldEventEmitter;
 import com.cheesygames.colonysimulation.world.chunk.lighting.ChunkLightingManager;
+import com.cheesygames.colonysimulation.world.chunk.lod.ChunkLodManager;
+import com.cheesygames.colonysimulation.world.chunk.mesh.ChunkMesh;
 import com.cheesygames.colonysimulation.world.chunk.mesh.IChunkMeshGenerator;
-
-import java.util.Iterator;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import com.cheesygames.colonysimulation.world.chunk.visibility.ChunkFaceConnectivityComputer;
+import com.cheesygames.colonysimulation.world.chunk.visibility.ChunkOcclusionCuller;
+import com.jme3.math.Vector3f;
 
 public class ChunkUpdateManager extends AbstractWorldEventEmitter {
 
     private IChunkMeshGenerator m_meshGenerator;
     private ChunkLightingManager m_chunkLightingManager;
-    private Set<Chunk> m_chunksToRemesh;
+    private ChunkRemeshScheduler m_remeshScheduler;
+    private ChunkLodManager m_chunkLodManager;
+    private ChunkFaceConnectivityComputer m_faceConnectivityComputer;
+    private ChunkOcclusionCuller m_occlusionCuller;
+    private boolean m_isComputingDistanceFields;
+    private Vector3i m_tmpChunkStartPosition;
+    private Vector3f m_tmpLocalCameraLocation;
 
     public ChunkUpdateManager(IChunkMeshGenerator meshGenerator) {
         m_meshGenerator = meshGenerator;
         m_chunkLightingManager = new ChunkLightingManager();
-        m_chunksToRemesh = ConcurrentHashMap.newKeySet();
+        m_remeshScheduler = new ChunkRemeshScheduler();
+        m_chunkLodManager = new ChunkLodManager();
+        m_faceConnectivityComputer = new ChunkFaceConnectivityComputer();
+        m_occlusionCuller = new ChunkOcclusionCuller();
+        m_tmpChunkStartPosition = new Vector3i();
+        m_tmpLocalCameraLocation = new Vector3f();
     }
 
+    /**
+     * Computes the lighting of the chunks awaiting it, updates the chunks' level of detail and then remeshes the chunks awaiting to be remeshed, by order of priority, until the
+     * frame budget of the {@link ChunkRemeshScheduler} is spent. Finally, the face directions hidden from the focus point and the chunks occluded
+     * from the camera are culled.
+     */
     public void computeChunkMeshes() {
-        m_chunksToRemesh.addAll(m_chunkLightingManager.getChunksAwaitingReset());
-        m_chunksToRemesh.addAll(m_chunkLightingManager.getChunksAwaitingComputation());
+        for (Chunk chunk : m_chunkLightingManager.getChunksAwaitingReset()) {
+            m_remeshScheduler.add(chunk);
+        }
+        for (Chunk chunk : m_chunkLightingManager.getChunksAwaitingComputation()) {
+            m_remeshScheduler.add(chunk);
+        }
 
         m_chunkLightingManager.computeLighting();
+        m_chunkLodManager.updateLodLevels(m_remeshScheduler.getCurrentFocusPoint());
+        m_remeshScheduler.processFrame(this::remeshChunk);
+        updateVisibleFaceDirections(m_remeshScheduler.getCurrentFocusPoint());
 
-        if (!m_chunksToRemesh.isEmpty()) {
-            Iterator<Chunk> chunksToRedrawIterator = m_chunksToRemesh.iterator();
+        if (m_remeshScheduler.getCamera() != null) {
+            m_occlusionCuller.update(m_remeshScheduler.getCamera(), this);
+        }
+    }
 
-            while (chunksToRedrawIterator.hasNext()) {
-                Chunk chunkToRedraw = chunksToRedrawIterator.next();
+    /**
+     * Updates the visible face directions of every chunk mesh, so that the groups of faces pointing away from the camera are not submitted for drawing. The meshes are expected to
+     * be located at their chunk's starting position.
+     *
+     * @param cameraLocation The camera's absolute (world) location.
+     */
+    public void updateVisibleFaceDirections(Vector3f cameraLocation) {
+        for (Chunk chunk : GameGlobal.world.getChunks().values()) {
+            if (chunk.getMesh() instanceof ChunkMesh) {
+                GameGlobal.world.getChunkStartPositionLocal(chunk.getIndex(), m_tmpChunkStartPosition);
+                m_tmpLocalCameraLocation.set(cameraLocation).subtractLocal(m_tmpChunkStartPosition.x, m_tmpChunkStartPosition.y, m_tmpChunkStartPosition.z);
+
+                ((ChunkMesh) chunk.getMesh()).updateVisibleFaceDirections(m_tmpLocalCameraLocation);
+            }
+        }
+    }
 
-                if (chunkToRedraw.computeIsEmpty()) {
-                    GameGlobal.world.removeChunk(chunkToRedraw.getIndex());
-                    chunkIsEmpty(chunkToRedraw);
-                }
-                else {
-                    boolean wasMeshNullBefore = chunkToRedraw.getMesh() == null;
-                    m_meshGenerator.generateMesh(chunkToRedraw);
-                    chunkRemeshed(chunkToRedraw, wasMeshNullBefore);
-                }
+    /**
+     * Remeshes the supplied chunk. If the chunk is empty, then it is removed from the world instead.
+     *
+     * @param chunkToRedraw The chunk to remesh.
+     */
+    private void remeshChunk(Chunk chunkToRedraw) {
+        if (chunkToRedraw.computeIsEmpty()) {
+            GameGlobal.world.removeChunk(chunkToRedraw.getIndex());
+            chunkIsEmpty(chunkToRedraw);
+        }
+        else {
+            boolean wasMeshNullBefore = chunkToRedraw.getMesh() == null;
+            chunkToRedraw.setFaceConnectivity(m_faceConnectivityComputer.compute(chunkToRedraw));
 
-                chunksToRedrawIterator.remove();
+            if (m_isComputingDistanceFields) {
+                chunkToRedraw.getDistanceField().update();
             }
+
+            m_meshGenerator.generateMesh(chunkToRedraw);
+            chunkRemeshed(chunkToRedraw, wasMeshNullBefore);
         }
     }
 
@@ -56,10 +105,39 @@ public class ChunkUpdateManager extends AbstractWorldEventEmitter {
      * @return True if the chunk was successfully added to the queue, false otherwise. False means that it was already awaiting to be remeshed.
      */
     public boolean addToRemeshing(Chunk chunk) {
-        return m_chunksToRemesh.add(chunk);
+        return m_remeshScheduler.add(chunk);
     }
 
     public ChunkLightingManager getChunkLightingManager() {
         return m_chunkLightingManager;
     }
+
+    public ChunkRemeshScheduler getRemeshScheduler() {
+        return m_remeshScheduler;
+    }
+
+    public ChunkLodManager getChunkLodManager() {
+        return m_chunkLodManager;
+    }
+
+    public ChunkOcclusionCuller getOcclusionCuller() {
+        return m_occlusionCuller;
+    }
+
+    /**
+     * Gets if the distance fields of the chunks are computed when the chunks are meshed, so that the rays can be sphere traced through them.
+     *
+     * @return True if the distance fields are computed, false otherwise.
+     */
+    public boolean isComputingDistanceFields() {
+        return m_isComputingDistanceFields;
+    }
+
+    public void setComputingDistanceFields(boolean computingDistanceFields) {
+        m_isComputingDistanceFields = computingDistanceFields;
+    }
+
+    public IChunkMeshGenerator getMeshGenerator() {
+        return m_meshGenerator;
+    }
 }
@@ -17,7 +17,18 @@ public interface IChunk extends IChunkVoxelData {
      * @return A newly created {@link Vector3f} that is the absolute center of the chunk.
      */
     default Vector3f computeCenter() {
-        return new Vector3f(GameGlobal.world.getAbsoluteIndexX(getIndex().x, 0) + getSize().x / 2f + 0.5f,
+        return computeCenterLocal(new Vector3f());
+    }
+
+    /**
+     * Computes the absolute center of the chunk. The method is local, meaning that the supplied center will be set and returned.
+     *
+     * @param center The center to modify and return.
+     *
+     * @return The supplied center, which is now the absolute center of the chunk.
+     */
+    default Vector3f computeCenterLocal(Vector3f center) {
+        return center.set(GameGlobal.world.getAbsoluteIndexX(getIndex().x, 0) + getSize().x / 2f + 0.5f,
             GameGlobal.world.getAbsoluteIndexY(getIndex().y, 0) + getSize().y / 2f + 0.5f,
             GameGlobal.world.getAbsoluteIndexZ(getIndex().z, 0) + getSize().z / 2f + 0.5f);
     }
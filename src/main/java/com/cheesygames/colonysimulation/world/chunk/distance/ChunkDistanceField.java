@@ -0,0 +1,242 @@
+package com.cheesygames.colonysimulation.world.chunk.distance;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.IChunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+
+/**
+ * The Chebyshev distance field of a chunk, which tells how far the nearest non {@link VoxelType#AIR} voxel is from each voxel, so that rays can jump over the air around it. The
+ * distances are stored as bytes at the resolution of bricks of 4 voxels on each axis : the distance of a brick is the Chebyshev distance, in bricks, to the nearest brick that
+ * contains a non air voxel. The bricks outside of the chunk are considered to contain non air voxels, so that the field never tells anything about the neighbour chunks.
+ * <p>
+ * The field is computed with a separable transform of 3 passes, one per axis, when the chunk is meshed, and it is only invalidated when the chunk is modified, so that the
+ * distances are never wrong but the field is recomputed only once for many edits.
+ */
+public class ChunkDistanceField {
+
+    public static final int BRICK_SIZE_BITS = 2;
+
+    /**
+     * The distance of a brick that is farther than any brick of the chunk from the nearest non air brick.
+     */
+    private static final byte INFINITE_DISTANCE = Byte.MAX_VALUE;
+
+    private IChunk m_chunk;
+    private Vector3i m_brickSizeBits;
+    private Vector3i m_brickCount;
+    private byte[] m_brickDistances;
+    private byte[] m_lineDistances;
+    private boolean m_isValid;
+
+    /**
+     * Creates the invalid distance field of a chunk. It must be computed before it can be used.
+     *
+     * @param chunk The chunk of the distance field.
+     */
+    public ChunkDistanceField(IChunk chunk) {
+        this.m_chunk = chunk;
+        this.m_brickSizeBits = new Vector3i();
+        this.m_brickCount = new Vector3i();
+    }
+
+    /**
+     * Computes the distance field if it is invalid.
+     *
+     * @return True if the distance field was computed, false if it was already valid.
+     */
+    public boolean update() {
+        if (m_isValid) {
+            return false;
+        }
+
+        compute();
+        return true;
+    }
+
+    /**
+     * Computes the distance field from the chunk's voxels.
+     */
+    public void compute() {
+        Vector3i size = m_chunk.getSize();
+        m_brickSizeBits.set(Math.min(BRICK_SIZE_BITS, Integer.numberOfTrailingZeros(size.x)),
+            Math.min(BRICK_SIZE_BITS, Integer.numberOfTrailingZeros(size.y)),
+            Math.min(BRICK_SIZE_BITS, Integer.numberOfTrailingZeros(size.z)));
+        m_brickCount.set(size.x >> m_brickSizeBits.x, size.y >> m_brickSizeBits.y, size.z >> m_brickSizeBits.z);
+
+        int brickCount = m_brickCount.x * m_brickCount.y * m_brickCount.z;
+        if (m_brickDistances == null || m_brickDistances.length != brickCount) {
+            m_brickDistances = new byte[brickCount];
+            m_lineDistances = new byte[Math.max(m_brickCount.x, Math.max(m_brickCount.y, m_brickCount.z))];
+        }
+
+        computeNonAirBricks();
+        computeAxisPass(m_brickCount.x, m_brickCount.y * m_brickCount.z, m_brickCount.y * m_brickCount.z, m_brickCount.z, m_brickCount.z);
+        computeAxisPass(m_brickCount.y, m_brickCount.z, m_brickCount.x * m_brickCount.z, m_brickCount.y * m_brickCount.z, m_brickCount.z);
+        computeAxisPass(m_brickCount.z, 1, m_brickCount.x * m_brickCount.y, m_brickCount.z, 1);
+        limitToChunk();
+
+        m_isValid = true;
+    }
+
+    /**
+     * Sets the distance of the bricks that contain a non air voxel to 0 and the distance of the other bricks to infinity.
+     */
+    private void computeNonAirBricks() {
+        for (int x = 0; x < m_brickCount.x; ++x) {
+            for (int y = 0; y < m_brickCount.y; ++y) {
+                for (int z = 0; z < m_brickCount.z; ++z) {
+                    m_brickDistances[getBrickIndex(x, y, z)] = isBrickAir(x, y, z) ? INFINITE_DISTANCE : 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if all the voxels of a brick are air.
+     *
+     * @param brickX The brick index on the X axis.
+     * @param brickY The brick index on the Y axis.
+     * @param brickZ The brick index on the Z axis.
+     *
+     * @return True if the brick only contains air, false otherwise.
+     */
+    private boolean isBrickAir(int brickX, int brickY, int brickZ) {
+        int startX = brickX << m_brickSizeBits.x;
+        int startY = brickY << m_brickSizeBits.y;
+        int startZ = brickZ << m_brickSizeBits.z;
+
+        for (int x = startX; x < startX + (1 << m_brickSizeBits.x); ++x) {
+            for (int y = startY; y < startY + (1 << m_brickSizeBits.y); ++y) {
+                for (int z = startZ; z < startZ + (1 << m_brickSizeBits.z); ++z) {
+                    if (m_chunk.getVoxelAt(x, y, z).voxelType != VoxelType.AIR) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes one pass of the separable Chebyshev distance transform along an axis. Each brick takes the smallest, among the bricks of its line along the axis, of the largest
+     * of the distance between the two bricks and the other brick's distance from the previous passes. The brick lines are short, so each brick simply checks its whole line.
+     *
+     * @param lineLength      The number of bricks on the axis.
+     * @param lineStride      The difference of flat index between two consecutive bricks of a line.
+     * @param lineCount       The number of lines along the axis, which is the product of the brick counts of the two other axes.
+     * @param outerLineStride The difference of flat index between the first bricks of two consecutive lines on the outer of the two other axes.
+     * @param innerLineCount  The number of lines on the inner of the two other axes, whose first bricks have consecutive flat indices.
+     */
+    private void computeAxisPass(int lineLength, int lineStride, int lineCount, int outerLineStride, int innerLineCount) {
+        for (int line = 0; line < lineCount; ++line) {
+            int lineStart = (line / innerLineCount) * outerLineStride + (line % innerLineCount);
+
+            for (int i = 0; i < lineLength; ++i) {
+                m_lineDistances[i] = m_brickDistances[lineStart + i * lineStride];
+            }
+
+            for (int i = 0; i < lineLength; ++i) {
+                int distance = m_lineDistances[i];
+
+                for (int j = 0; j < lineLength && distance > 0; ++j) {
+                    distance = Math.min(distance, Math.max(Math.abs(i - j), m_lineDistances[j]));
+                }
+
+                m_brickDistances[lineStart + i * lineStride] = (byte) distance;
+            }
+        }
+    }
+
+    /**
+     * Limits the distances so that the cube of bricks closer than the distance of a brick never goes outside of the chunk.
+     */
+    private void limitToChunk() {
+        for (int x = 0; x < m_brickCount.x; ++x) {
+            for (int y = 0; y < m_brickCount.y; ++y) {
+                for (int z = 0; z < m_brickCount.z; ++z) {
+                    int brickIndex = getBrickIndex(x, y, z);
+                    int distance = m_brickDistances[brickIndex];
+
+                    distance = Math.min(distance, Math.min(x + 1, m_brickCount.x - x));
+                    distance = Math.min(distance, Math.min(y + 1, m_brickCount.y - y));
+                    distance = Math.min(distance, Math.min(z + 1, m_brickCount.z - z));
+
+                    m_brickDistances[brickIndex] = (byte) distance;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Chebyshev distance, in voxels, from a voxel to the nearest voxel that is not air or that is outside of the chunk. The brick distance is converted to the distance
+     * to the border of the cube of air bricks around the voxel, so it can be up to a brick shorter than the real distance, but it is never longer.
+     *
+     * @param x The chunk relative voxel index on the X axis.
+     * @param y The chunk relative voxel index on the Y axis.
+     * @param z The chunk relative voxel index on the Z axis.
+     *
+     * @return The distance to the nearest voxel that is not air or outside of the chunk, or 0 if the field is invalid or the voxel's brick is not only air.
+     */
+    public int getDistanceAt(int x, int y, int z) {
+        if (!m_isValid) {
+            return 0;
+        }
+
+        int brickX = x >> m_brickSizeBits.x;
+        int brickY = y >> m_brickSizeBits.y;
+        int brickZ = z >> m_brickSizeBits.z;
+        int brickDistance = m_brickDistances[getBrickIndex(brickX, brickY, brickZ)];
+
+        if (brickDistance == 0) {
+            return 0;
+        }
+
+        int distanceX = getDistanceToCubeBorder(x, brickX, brickDistance, m_brickSizeBits.x);
+        int distanceY = getDistanceToCubeBorder(y, brickY, brickDistance, m_brickSizeBits.y);
+        int distanceZ = getDistanceToCubeBorder(z, brickZ, brickDistance, m_brickSizeBits.z);
+
+        return Math.min(distanceX, Math.min(distanceY, distanceZ));
+    }
+
+    /**
+     * Gets the distance, in voxels, from a voxel to the first voxel outside of the cube of bricks closer than the brick distance, on an axis.
+     *
+     * @param voxelIndex    The voxel index on the axis.
+     * @param brickIndex    The voxel's brick index on the axis.
+     * @param brickDistance The distance of the voxel's brick. Must be greater than 0.
+     * @param brickSizeBits The bit shift count for the brick size on the axis.
+     *
+     * @return The distance to the first voxel outside of the cube on the axis.
+     */
+    private static int getDistanceToCubeBorder(int voxelIndex, int brickIndex, int brickDistance, int brickSizeBits) {
+        int cubeStart = (brickIndex - brickDistance + 1) << brickSizeBits;
+        int cubeEnd = ((brickIndex + brickDistance) << brickSizeBits) - 1;
+
+        return Math.min(voxelIndex - cubeStart, cubeEnd - voxelIndex) + 1;
+    }
+
+    private int getBrickIndex(int brickX, int brickY, int brickZ) {
+        return (brickX * m_brickCount.y + brickY) * m_brickCount.z + brickZ;
+    }
+
+    /**
+     * Marks the distance field as invalid, so that it is not used until it is computed again. It must be called each time a voxel of the chunk is modified.
+     */
+    public void invalidate() {
+        m_isValid = false;
+    }
+
+    /**
+     * Gets if the distance field is up to date with the chunk's voxels.
+     *
+     * @return True if the distance field can be used, false if it must be computed again.
+     */
+    public boolean isValid() {
+        return m_isValid;
+    }
+
+    public IChunk getChunk() {
+        return m_chunk;
+    }
+}
@@ -3,135 +3,686 @@ package com.cheesygames.colonysimulation.world.chunk.lighting;
 import com.cheesygames.colonysimulation.GameGlobal;
 import com.cheesygames.colonysimulation.math.direction.Direction3D;
 import com.cheesygames.colonysimulation.math.vector.Vector3i;
-import com.cheesygames.colonysimulation.world.World;
 import com.cheesygames.colonysimulation.world.chunk.Chunk;
 import com.cheesygames.colonysimulation.world.chunk.voxel.Voxel;
 import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelLightUtils;
 import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
+/**
+ * The lighting of a chunk. The lights of the voxels are stored in a primitive array indexed by the chunk relative voxel index, which is (x * sizeY + y) * sizeZ + z. The light is
+ * propagated by a breadth first flood fill from the light emitting voxels : every step propagates all the components of a voxel's light into its non solid adjacent voxels,
+ * attenuated by one. The voxels above the highest light blocking voxel of their column, according to the {@link SunlightHeightmap}, are lit by the sky at full sun intensity
+ * without being propagated, and only those next to a column covered at their height are propagated, into the overhangs and caves.
+ * <p>
+ * The light that reaches a side of the chunk is queued in the border queue of that side, so that the {@link ChunkLightingManager} can propagate it into the adjacent chunk.
+ * <p>
+ * Once computed, the lighting is updated incrementally when a voxel changes : the light that depended on the removed light is cleared by a breadth first "darkness" flood fill,
+ * which also queues the lit voxels at the boundary of the cleared region. Those voxels, along with any new emitter, are then propagated again like any other light.
+ */
 public class ChunkLighting {
 
+    private static final int BORDER_QUEUE_INITIAL_CAPACITY = 1 << 8;
+
     private ChunkLightingState m_lightingState;
     private Chunk m_chunk;
     private Vector3i m_chunkSize;
-    private List<Vector3i> m_voxelsToPropagate;
+    private Vector3i m_chunkSizeBits;
+    private int[] m_lights;
+    private boolean m_isComputed;
+    private LightPropagationQueue[] m_borderQueues;
+    private LightPropagationQueue m_pendingLights;
+    private LightPropagationQueue[] m_borderDarknessQueues;
+    private LightPropagationQueue m_pendingDarkness;
+    private LightPropagationQueue m_reseededVoxels;
+    private int[] m_columnHeights;
+    private Vector3i m_tmpAdjacentChunkIndex;
+    private int[][] m_tmpAdjacentHighestBlockingYs;
 
     public ChunkLighting(Chunk chunk) {
         this.m_lightingState = ChunkLightingState.AWAITING_RESET;
         this.m_chunk = chunk;
         this.m_chunkSize = chunk.getSize();
+        this.m_chunkSizeBits = GameGlobal.world.getChunkSizeBits();
+        this.m_tmpAdjacentChunkIndex = new Vector3i();
+        this.m_tmpAdjacentHighestBlockingYs = new int[Direction3D.ORTHOGONALS.length][];
+
+        assert m_chunkSize.x * m_chunkSize.y * m_chunkSize.z <= LightPropagationQueue.MAXIMUM_VOXEL_COUNT;
     }
 
+    /**
+     * Resets the light of every voxel to the light it emits and computes the column heights. The lights must then be computed from scratch.
+     */
     public void resetLighting() {
-        World world = GameGlobal.world;
-        m_voxelsToPropagate = new ArrayList<>();
+        if (m_lights == null) {
+            m_lights = new int[m_chunkSize.x * m_chunkSize.y * m_chunkSize.z];
+            m_columnHeights = new int[m_chunkSize.x * m_chunkSize.z];
+        }
+
+        m_isComputed = false;
+
+        for (int x = 0; x < m_chunkSize.x; ++x) {
+            for (int z = 0; z < m_chunkSize.z; ++z) {
+                m_columnHeights[getColumnIndex(x, z)] = -1;
+            }
+        }
 
         for (int x = 0; x < m_chunkSize.x; ++x) {
             for (int y = 0; y < m_chunkSize.y; ++y) {
                 for (int z = 0; z < m_chunkSize.z; ++z) {
-                    if (m_chunk.getVoxelAt(x, y, z).voxelType.emitsLight() && doesVoxelHaveRoomToPropagateLight(x, y, z)) {
-                        m_voxelsToPropagate.add(new Vector3i(world.getAbsoluteIndexX(m_chunk.getIndex().x, x),
-                            world.getAbsoluteIndexY(m_chunk.getIndex().y, y),
-                            world.getAbsoluteIndexZ(m_chunk.getIndex().z, z)));
-                    }
+                    VoxelType voxelType = m_chunk.getVoxelAt(x, y, z).voxelType;
+                    m_lights[getVoxelIndex(x, y, z)] = voxelType.getLight();
 
-                    // TODO : Remove stellar light?
-                    m_chunk.getVoxelAt(x, y, z).light = m_chunk.getVoxelAt(x, y, z).voxelType.getLight();
+                    if (voxelType.isSolid()) {
+                        m_columnHeights[getColumnIndex(x, z)] = y;
+                    }
                 }
             }
         }
     }
 
     /**
-     * Resets the lighting and then propagates all the lights.
+     * Checks if the lighting must be reset before it is computed.
+     *
+     * @return True if the lighting must be reset, false otherwise.
      */
-    public void computeLighting() {
-        if (m_lightingState == ChunkLightingState.AWAITING_RESET) {
+    public boolean needsReset() {
+        return m_lightingState == ChunkLightingState.AWAITING_RESET || m_lights == null;
+    }
+
+    /**
+     * Computes the lighting. If the lights were reset, then they are computed from scratch : the lights of the emitters and of the adjacent chunks' sides are propagated.
+     * Otherwise, only the light received from the adjacent chunks since the last computation is propagated.
+     *
+     * @param queue The queue used to propagate the lights. It is empty when the method returns.
+     */
+    public void computeLighting(LightPropagationQueue queue) {
+        if (needsReset()) {
             resetLighting();
         }
 
-        World world = GameGlobal.world;
+        if (m_isComputed) {
+            if (m_pendingDarkness != null) {
+                propagateDarkness(m_pendingDarkness);
+                reseedLights(queue);
+                propagateLights(queue);
+            }
+            if (m_pendingLights != null) {
+                propagateLights(m_pendingLights);
+            }
 
-        Iterator<Vector3i> lightPropagationIterator = m_voxelsToPropagate.iterator();
-        Chunk chunk = m_chunk;
-        Vector3i chunkSize = m_chunkSize;
-        Vector3i nextChunkIndex = new Vector3i();
-        Vector3i voxelRelativeIndexToPropagate = new Vector3i();
+            return;
+        }
 
-        while (lightPropagationIterator.hasNext()) {
-            Vector3i voxelAbsoluteIndexToPropagate = lightPropagationIterator.next();
+        queue.clear();
 
-            world.getChunkIndexLocal(voxelAbsoluteIndexToPropagate, nextChunkIndex);
-            world.getVoxelRelativeIndexLocal(voxelAbsoluteIndexToPropagate, voxelRelativeIndexToPropagate);
-            if (!nextChunkIndex.equals(chunk.getIndex())) {
-                chunk = world.getChunkAt(nextChunkIndex);
-                chunkSize = chunk.getSize();
+        for (int x = 0; x < m_chunkSize.x; ++x) {
+            for (int y = 0; y < m_chunkSize.y; ++y) {
+                for (int z = 0; z < m_chunkSize.z; ++z) {
+                    if (m_chunk.getVoxelAt(x, y, z).voxelType.emitsLight()) {
+                        int voxelIndex = getVoxelIndex(x, y, z);
+                        queue.enqueue(voxelIndex, m_lights[voxelIndex]);
+                    }
+                }
+            }
+        }
+
+        seedSunlight(queue);
 
-                if (chunk.getChunkLighting().getLightingState().ordinal() <= ChunkLightingState.AWAITING_RESET.ordinal()) {
+        for (Direction3D direction : Direction3D.ORTHOGONALS) {
+            pullAdjacentChunkLights(direction, queue);
+        }
 
+        if (m_pendingLights != null) {
+            m_pendingLights.clear();
+        }
+        if (m_pendingDarkness != null) {
+            m_pendingDarkness.clear();
+            m_reseededVoxels.clear();
+        }
+
+        m_isComputed = true;
+        propagateLights(queue);
+    }
+
+    /**
+     * Lights the voxels above the highest light blocking voxel of their column at full sun intensity, column by column. Only the lit voxels next to a column whose highest light
+     * blocking voxel is at their height or higher are queued, because the light can only spread sideways into those columns. Nothing is lit if the chunk's stack was never merged
+     * into the {@link SunlightHeightmap}.
+     *
+     * @param queue The queue into which the lit voxels that must be propagated are added.
+     */
+    private void seedSunlight(LightPropagationQueue queue) {
+        SunlightHeightmap heightmap = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().getSunlightHeightmap();
+        Vector3i chunkIndex = m_chunk.getIndex();
+        int[] highestBlockingYs = heightmap.getHighestBlockingVoxelIndicesY(chunkIndex.x, chunkIndex.z);
+
+        if (highestBlockingYs == null) {
+            return;
+        }
+
+        int[][] adjacentHighestBlockingYs = m_tmpAdjacentHighestBlockingYs;
+        for (Direction3D direction : Direction3D.ORTHOGONALS) {
+            if (direction.getDirectionY() == 0) {
+                adjacentHighestBlockingYs[direction.getOrthogonalIndex()] = heightmap.getHighestBlockingVoxelIndicesY(chunkIndex.x + direction.getDirectionX(),
+                    chunkIndex.z + direction.getDirectionZ());
+            }
+        }
+
+        int chunkStartY = GameGlobal.world.getChunkStartPositionY(chunkIndex.y);
+
+        for (int x = 0; x < m_chunkSize.x; ++x) {
+            for (int z = 0; z < m_chunkSize.z; ++z) {
+                int highestBlockingY = highestBlockingYs[getColumnIndex(x, z)];
+                int lowestSkyY = highestBlockingY == SunlightHeightmap.NO_BLOCKING_VOXEL ? 0 : Math.max(0, highestBlockingY + 1 - chunkStartY);
+                int highestAdjacentBlockingY = SunlightHeightmap.NO_BLOCKING_VOXEL;
+
+                for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                    if (direction.getDirectionY() == 0) {
+                        int adjacentX = x + direction.getDirectionX();
+                        int adjacentZ = z + direction.getDirectionZ();
+                        int[] adjacentColumnHighestBlockingYs = adjacentX >= 0 && adjacentX < m_chunkSize.x && adjacentZ >= 0 && adjacentZ < m_chunkSize.z
+                            ? highestBlockingYs
+                            : adjacentHighestBlockingYs[direction.getOrthogonalIndex()];
+
+                        if (adjacentColumnHighestBlockingYs != null) {
+                            highestAdjacentBlockingY = Math.max(highestAdjacentBlockingY,
+                                adjacentColumnHighestBlockingYs[getColumnIndex(adjacentX & (m_chunkSize.x - 1), adjacentZ & (m_chunkSize.z - 1))]);
+                        }
+                    }
+                }
+
+                for (int y = lowestSkyY; y < m_chunkSize.y; ++y) {
+                    int voxelIndex = getVoxelIndex(x, y, z);
+                    m_lights[voxelIndex] |= VoxelLightUtils.SUN_LIGHT_BITS;
+
+                    if (chunkStartY + y <= highestAdjacentBlockingY) {
+                        queue.enqueue(voxelIndex, m_lights[voxelIndex]);
+                    }
                 }
             }
+        }
+    }
 
-            Voxel voxelToPropagate = chunk.getVoxelAt(voxelRelativeIndexToPropagate);
+    /**
+     * Updates whether the voxels of a range of a column are lit by the sky. The voxels that are no longer lit by the sky are darkened, and the voxels that are now lit by the sky
+     * are lit at full sun intensity and propagated, both at the next {@link #computeLighting(LightPropagationQueue)}. Nothing is done if the lighting was not computed yet,
+     * because it will be computed from scratch.
+     *
+     * @param x     The index on the X axis.
+     * @param z     The index on the Z axis.
+     * @param minY  The lowest index on the Y axis of the range, inclusively.
+     * @param maxY  The highest index on the Y axis of the range, inclusively.
+     * @param isSky Whether the voxels of the range are now lit by the sky.
+     *
+     * @return True if the sunlight of at least one voxel changed, false otherwise.
+     */
+    public boolean updateSkyRange(int x, int z, int minY, int maxY, boolean isSky) {
+        if (!m_isComputed || m_lightingState == ChunkLightingState.AWAITING_RESET) {
+            return false;
+        }
 
-            for (int directionIndex = 0; directionIndex < Direction3D.ORTHOGONALS.length; ++directionIndex) {
-                Vector3i adjacentVoxelDirection = Direction3D.ORTHOGONALS[directionIndex].getDirection();
+        boolean hasSunlightChanged = false;
 
-                int adjacentVoxelX = voxelRelativeIndexToPropagate.x + adjacentVoxelDirection.x;
-                int adjacentVoxelY = voxelRelativeIndexToPropagate.y + adjacentVoxelDirection.y;
-                int adjacentVoxelZ = voxelRelativeIndexToPropagate.z + adjacentVoxelDirection.z;
+        for (int y = minY; y <= maxY; ++y) {
+            int voxelIndex = getVoxelIndex(x, y, z);
+            int light = m_lights[voxelIndex];
+            int sunIntensity = VoxelLightUtils.getSunIntensity(light);
 
-                if (adjacentVoxelX >= 0 && adjacentVoxelX < chunkSize.x && adjacentVoxelY >= 0 && adjacentVoxelY < chunkSize.y && adjacentVoxelZ >= 0
-                    && adjacentVoxelZ < chunkSize.z) {
-                    Voxel adjacentVoxel = chunk.getVoxelAt(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ);
+            if (isSky && sunIntensity != VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY) {
+                if (m_pendingLights == null) {
+                    m_pendingLights = new LightPropagationQueue(BORDER_QUEUE_INITIAL_CAPACITY);
+                }
+
+                m_lights[voxelIndex] = light | VoxelLightUtils.SUN_LIGHT_BITS;
+                m_pendingLights.enqueue(voxelIndex, m_lights[voxelIndex]);
+                hasSunlightChanged = true;
+            }
+            else if (!isSky && sunIntensity != 0) {
+                m_lights[voxelIndex] = light & ~VoxelLightUtils.SUN_LIGHT_BITS;
+                getPendingDarkness().enqueue(voxelIndex, sunIntensity << VoxelLightUtils.SUN_LIGHT_BIT_POSITION);
+                hasSunlightChanged = true;
+            }
+        }
 
-                    if (!adjacentVoxel.voxelType.isSolid()) {
-                        adjacentVoxel.light = VoxelLightUtils.propagateLight(voxelToPropagate.light, adjacentVoxel.light);
+        return hasSunlightChanged;
+    }
 
-                        // TODO : Add adjacent voxels that can receive light propagation to the list
+    /**
+     * Propagates the lights of the adjacent chunk's side that touches this chunk into this chunk's side. Only the voxels of that side are read, the adjacent chunk is never
+     * scanned entirely.
+     *
+     * @param direction The direction of the adjacent chunk.
+     * @param queue     The queue into which the voxels whose light increased are added.
+     */
+    private void pullAdjacentChunkLights(Direction3D direction, LightPropagationQueue queue) {
+        Chunk adjacentChunk = GameGlobal.world.getChunkAt(m_tmpAdjacentChunkIndex.set(m_chunk.getIndex()).addLocal(direction.getDirection()));
+
+        if (adjacentChunk == null || !adjacentChunk.getChunkLighting().isComputed()) {
+            return;
+        }
+
+        int[] adjacentLights = adjacentChunk.getChunkLighting().getLights();
+        int minX = direction.getDirectionX() > 0 ? m_chunkSize.x - 1 : 0;
+        int minY = direction.getDirectionY() > 0 ? m_chunkSize.y - 1 : 0;
+        int minZ = direction.getDirectionZ() > 0 ? m_chunkSize.z - 1 : 0;
+        int maxX = direction.getDirectionX() < 0 ? 0 : m_chunkSize.x - 1;
+        int maxY = direction.getDirectionY() < 0 ? 0 : m_chunkSize.y - 1;
+        int maxZ = direction.getDirectionZ() < 0 ? 0 : m_chunkSize.z - 1;
+
+        for (int x = minX; x <= maxX; ++x) {
+            for (int y = minY; y <= maxY; ++y) {
+                for (int z = minZ; z <= maxZ; ++z) {
+                    if (!m_chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+                        int voxelIndex = getVoxelIndex(x, y, z);
+                        int adjacentLight = adjacentLights[getWrappedVoxelIndex(x + direction.getDirectionX(), y + direction.getDirectionY(), z + direction.getDirectionZ())];
+                        int propagatedLight = VoxelLightUtils.propagateLight(adjacentLight, m_lights[voxelIndex]);
+
+                        if (propagatedLight != m_lights[voxelIndex]) {
+                            m_lights[voxelIndex] = propagatedLight;
+                            queue.enqueue(voxelIndex, propagatedLight);
+                        }
                     }
                 }
             }
         }
+    }
+
+    /**
+     * Receives the light queued in an adjacent chunk's border queue. The entries hold this chunk's voxel indices and the lights of the adjacent chunk's voxels. The voxels whose
+     * light increased are kept pending until the next {@link #computeLighting(LightPropagationQueue)}.
+     *
+     * @param borderQueue The adjacent chunk's border queue that faces this chunk. It is empty when the method returns.
+     *
+     * @return True if the light of at least one voxel increased, false otherwise.
+     */
+    public boolean receiveBorderLights(LightPropagationQueue borderQueue) {
+        boolean hasLightIncreased = false;
+
+        while (!borderQueue.isEmpty()) {
+            int entry = borderQueue.dequeue();
+            int voxelIndex = LightPropagationQueue.getVoxelIndex(entry);
+            int propagatedLight = VoxelLightUtils.propagateLight(LightPropagationQueue.getLight(entry), m_lights[voxelIndex]);
+
+            if (propagatedLight != m_lights[voxelIndex] && !getVoxelAt(voxelIndex).voxelType.isSolid()) {
+                if (m_pendingLights == null) {
+                    m_pendingLights = new LightPropagationQueue(BORDER_QUEUE_INITIAL_CAPACITY);
+                }
+
+                m_lights[voxelIndex] = propagatedLight;
+                m_pendingLights.enqueue(voxelIndex, propagatedLight);
+                hasLightIncreased = true;
+            }
+        }
 
-        m_voxelsToPropagate = null;
-        // TODO : Finish
+        return hasLightIncreased;
     }
 
     /**
-     * Checks if the voxel at the supplied indices has room to propagate light. For a voxel, having room to propagate light means that at least one adjacent voxel of the same chunk
-     * is empty ({@link VoxelType#AIR}) or transparent. If true, then it also checks if those voxels have a lower light intensity than the source voxel.
+     * Updates the lighting after the voxel at the supplied indices changed. The light that the voxel no longer emits or lets through is queued to be cleared, and the light that it
+     * now emits or lets through is queued to be propagated, both at the next {@link #computeLighting(LightPropagationQueue)}. Nothing is done if the lighting was not computed
+     * yet, because it will be computed from scratch.
      *
      * @param x The index on the X axis.
      * @param y The index on the Y axis.
      * @param z The index on the Z axis.
      *
-     * @return True if the voxel at the supplied indices has room to propagate light, false otherwise.
+     * @return True if the lighting must be computed again, false otherwise.
+     */
+    public boolean updateVoxelLighting(int x, int y, int z) {
+        if (!m_isComputed || m_lightingState == ChunkLightingState.AWAITING_RESET) {
+            return false;
+        }
+
+        VoxelType voxelType = m_chunk.getVoxelAt(x, y, z).voxelType;
+        int voxelIndex = getVoxelIndex(x, y, z);
+        int previousLight = m_lights[voxelIndex];
+        int removedLight = previousLight & VoxelLightUtils.getBrighterComponentsMask(previousLight, voxelType.getLight());
+
+        m_lights[voxelIndex] = voxelType.getLight();
+
+        if (removedLight != 0) {
+            getPendingDarkness().enqueue(voxelIndex, removedLight);
+        }
+        if (voxelType.emitsLight()) {
+            getPendingDarkness();
+            m_reseededVoxels.enqueue(voxelIndex, 0);
+        }
+        if (!voxelType.isSolid()) {
+            getPendingDarkness();
+
+            for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                int adjacentVoxelX = x + direction.getDirectionX();
+                int adjacentVoxelY = y + direction.getDirectionY();
+                int adjacentVoxelZ = z + direction.getDirectionZ();
+
+                if (isInside(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ)) {
+                    m_reseededVoxels.enqueue(getVoxelIndex(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ), 0);
+                }
+                else {
+                    Chunk adjacentChunk = GameGlobal.world.getChunkAt(m_tmpAdjacentChunkIndex.set(m_chunk.getIndex()).addLocal(direction.getDirection()));
+
+                    if (adjacentChunk != null && adjacentChunk.getChunkLighting().isComputed()) {
+                        int adjacentLight = adjacentChunk.getChunkLighting().getLights()[getWrappedVoxelIndex(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ)];
+                        m_lights[voxelIndex] = VoxelLightUtils.propagateLight(adjacentLight, m_lights[voxelIndex]);
+                    }
+                }
+            }
+
+            m_reseededVoxels.enqueue(voxelIndex, 0);
+        }
+
+        GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().getSunlightHeightmap().updateVoxel(m_chunk, x, y, z);
+
+        return (m_pendingDarkness != null && (!m_pendingDarkness.isEmpty() || !m_reseededVoxels.isEmpty())) || (m_pendingLights != null && !m_pendingLights.isEmpty());
+    }
+
+    /**
+     * Receives the darkness queued in an adjacent chunk's border darkness queue. The entries hold this chunk's voxel indices and the light that the adjacent chunk's voxels no
+     * longer have. The voxels that were lit by that light are kept pending until the next {@link #computeLighting(LightPropagationQueue)}.
+     *
+     * @param borderDarknessQueue The adjacent chunk's border darkness queue that faces this chunk. It is empty when the method returns.
+     *
+     * @return True if the light of at least one voxel was cleared or must be propagated again, false otherwise.
      */
-    private boolean doesVoxelHaveRoomToPropagateLight(int x, int y, int z) {
-        boolean isThereRoomToPropagateLight = false;
-        Voxel voxel = m_chunk.getVoxelAt(x, y, z);
+    public boolean receiveBorderDarkness(LightPropagationQueue borderDarknessQueue) {
+        LightPropagationQueue pendingDarkness = getPendingDarkness();
+        int previousPendingCount = pendingDarkness.size() + m_reseededVoxels.size();
 
-        for (int directionIndex = 0; directionIndex < Direction3D.ORTHOGONALS.length && !isThereRoomToPropagateLight; ++directionIndex) {
-            Vector3i adjacentVoxelDirection = Direction3D.ORTHOGONALS[directionIndex].getDirection();
+        while (!borderDarknessQueue.isEmpty()) {
+            int entry = borderDarknessQueue.dequeue();
+            darkenVoxel(LightPropagationQueue.getVoxelIndex(entry), LightPropagationQueue.getLight(entry), pendingDarkness);
+        }
 
-            int adjacentVoxelX = x + adjacentVoxelDirection.x;
-            int adjacentVoxelY = y + adjacentVoxelDirection.y;
-            int adjacentVoxelZ = z + adjacentVoxelDirection.z;
+        return pendingDarkness.size() + m_reseededVoxels.size() != previousPendingCount;
+    }
 
-            if (adjacentVoxelX >= 0 && adjacentVoxelX < m_chunkSize.x && adjacentVoxelY >= 0 && adjacentVoxelY < m_chunkSize.y && adjacentVoxelZ >= 0
-                && adjacentVoxelZ < m_chunkSize.z) {
+    /**
+     * Clears the light that depended on the queued removed lights until the queue is empty. The lit voxels at the boundary of the cleared region are reseeded, and the darkness
+     * that reaches a side of the chunk is queued in the border darkness queue of that side.
+     *
+     * @param darknessQueue The queue of removed lights, whose entries hold the voxel index and the light components that the voxel no longer has.
+     */
+    private void propagateDarkness(LightPropagationQueue darknessQueue) {
+        int maskY = m_chunkSize.y - 1;
+        int maskZ = m_chunkSize.z - 1;
+        int shiftX = m_chunkSizeBits.y + m_chunkSizeBits.z;
+        int shiftY = m_chunkSizeBits.z;
+
+        while (!darknessQueue.isEmpty()) {
+            int entry = darknessQueue.dequeue();
+            int voxelIndex = LightPropagationQueue.getVoxelIndex(entry);
+            int removedLight = LightPropagationQueue.getLight(entry);
+            int x = voxelIndex >>> shiftX;
+            int y = (voxelIndex >>> shiftY) & maskY;
+            int z = voxelIndex & maskZ;
 
-                Voxel adjacentVoxel = m_chunk.getVoxelAt(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ);
-                isThereRoomToPropagateLight |= !adjacentVoxel.voxelType.isSolid() && VoxelLightUtils.canPropagateLight(voxel.light, adjacentVoxel.light);
+            for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                int adjacentVoxelX = x + direction.getDirectionX();
+                int adjacentVoxelY = y + direction.getDirectionY();
+                int adjacentVoxelZ = z + direction.getDirectionZ();
+
+                if (isInside(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ)) {
+                    darkenVoxel((adjacentVoxelX << shiftX) | (adjacentVoxelY << shiftY) | adjacentVoxelZ, removedLight, darknessQueue);
+                }
+                else {
+                    getBorderDarknessQueue(direction).enqueue(getWrappedVoxelIndex(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ), removedLight);
+                }
             }
         }
+    }
 
-        return isThereRoomToPropagateLight;
+    /**
+     * Clears the components of the voxel's light that are dimmer than the removed light's, since they may have been lit by it. The voxel is reseeded if one of its
+     * components is at least as bright as the removed light's, because that light comes from another source.
+     *
+     * @param voxelIndex    The chunk relative voxel index of the voxel to darken.
+     * @param removedLight  The light components that an adjacent voxel no longer has.
+     * @param darknessQueue The queue into which the voxel is added if at least one of its components was cleared.
+     */
+    private void darkenVoxel(int voxelIndex, int removedLight, LightPropagationQueue darknessQueue) {
+        if (getVoxelAt(voxelIndex).voxelType.isSolid()) {
+            if (getVoxelAt(voxelIndex).voxelType.emitsLight()) {
+                m_reseededVoxels.enqueue(voxelIndex, 0);
+            }
+
+            return;
+        }
+
+        int light = m_lights[voxelIndex];
+        int litComponentsMask = VoxelLightUtils.getNonZeroComponentsMask(removedLight) & VoxelLightUtils.getNonZeroComponentsMask(light);
+        int darkenedComponentsMask = VoxelLightUtils.getBrighterComponentsMask(removedLight, light) & litComponentsMask;
+        boolean isReseeded = (litComponentsMask & ~darkenedComponentsMask) != 0;
+
+        if (darkenedComponentsMask != 0) {
+            m_lights[voxelIndex] = light & ~darkenedComponentsMask;
+            darknessQueue.enqueue(voxelIndex, light & darkenedComponentsMask);
+        }
+        if (isReseeded) {
+            m_reseededVoxels.enqueue(voxelIndex, 0);
+        }
+    }
+
+    /**
+     * Moves the reseeded voxels into the supplied queue with their current light, which may have been darkened since they were reseeded.
+     *
+     * @param queue The queue of lights to propagate.
+     */
+    private void reseedLights(LightPropagationQueue queue) {
+        queue.clear();
+
+        while (!m_reseededVoxels.isEmpty()) {
+            int voxelIndex = LightPropagationQueue.getVoxelIndex(m_reseededVoxels.dequeue());
+            queue.enqueue(voxelIndex, m_lights[voxelIndex]);
+        }
+    }
+
+    private LightPropagationQueue getPendingDarkness() {
+        if (m_pendingDarkness == null) {
+            m_pendingDarkness = new LightPropagationQueue(BORDER_QUEUE_INITIAL_CAPACITY);
+            m_reseededVoxels = new LightPropagationQueue(BORDER_QUEUE_INITIAL_CAPACITY);
+        }
+
+        return m_pendingDarkness;
+    }
+
+    /**
+     * Propagates the lights of the queued entries until the queue is empty. An adjacent voxel is queued only if its light increased. An entry whose light is no longer the voxel's
+     * light is skipped, because a brighter entry was queued for the same voxel.
+     *
+     * @param queue The queue of lights to propagate.
+     */
+    private void propagateLights(LightPropagationQueue queue) {
+        int maskY = m_chunkSize.y - 1;
+        int maskZ = m_chunkSize.z - 1;
+        int shiftX = m_chunkSizeBits.y + m_chunkSizeBits.z;
+        int shiftY = m_chunkSizeBits.z;
+
+        while (!queue.isEmpty()) {
+            int entry = queue.dequeue();
+            int voxelIndex = LightPropagationQueue.getVoxelIndex(entry);
+            int light = LightPropagationQueue.getLight(entry);
+
+            if (m_lights[voxelIndex] != light) {
+                continue;
+            }
+
+            int x = voxelIndex >>> shiftX;
+            int y = (voxelIndex >>> shiftY) & maskY;
+            int z = voxelIndex & maskZ;
+
+            for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                int adjacentVoxelX = x + direction.getDirectionX();
+                int adjacentVoxelY = y + direction.getDirectionY();
+                int adjacentVoxelZ = z + direction.getDirectionZ();
+
+                if (!isInside(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ)) {
+                    if (VoxelLightUtils.attenuateLight(light) != 0) {
+                        getBorderQueue(direction).enqueue(getWrappedVoxelIndex(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ), light);
+                    }
+                }
+                else if (!m_chunk.getVoxelAt(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ).voxelType.isSolid()) {
+                    int adjacentVoxelIndex = (adjacentVoxelX << shiftX) | (adjacentVoxelY << shiftY) | adjacentVoxelZ;
+                    int adjacentLight = m_lights[adjacentVoxelIndex];
+                    int propagatedLight = VoxelLightUtils.propagateLight(light, adjacentLight);
+
+                    if (propagatedLight != adjacentLight) {
+                        m_lights[adjacentVoxelIndex] = propagatedLight;
+                        queue.enqueue(adjacentVoxelIndex, propagatedLight);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the chunk relative voxel index of indices that may be one voxel outside of the chunk. Those indices are wrapped, so that the result is the voxel index in the adjacent
+     * chunk.
+     *
+     * @param x The index on the X axis, between -1 and the chunk's size inclusively.
+     * @param y The index on the Y axis, between -1 and the chunk's size inclusively.
+     * @param z The index on the Z axis, between -1 and the chunk's size inclusively.
+     *
+     * @return The chunk relative voxel index, in the chunk that holds the voxel.
+     */
+    private int getWrappedVoxelIndex(int x, int y, int z) {
+        return getVoxelIndex(x & (m_chunkSize.x - 1), y & (m_chunkSize.y - 1), z & (m_chunkSize.z - 1));
+    }
+
+    private boolean isInside(int x, int y, int z) {
+        return x >= 0 && x < m_chunkSize.x && y >= 0 && y < m_chunkSize.y && z >= 0 && z < m_chunkSize.z;
+    }
+
+    private Voxel getVoxelAt(int voxelIndex) {
+        return m_chunk.getVoxelAt(voxelIndex >>> (m_chunkSizeBits.y + m_chunkSizeBits.z), (voxelIndex >>> m_chunkSizeBits.z) & (m_chunkSize.y - 1), voxelIndex & (m_chunkSize.z - 1));
+    }
+
+    /**
+     * Gets the border queue of the supplied side, which holds the light that must be propagated into the adjacent chunk in that direction. The entries hold the adjacent chunk's
+     * voxel indices and the lights of this chunk's voxels.
+     *
+     * @param direction The side of the chunk.
+     *
+     * @return The border queue of the supplied side.
+     */
+    public LightPropagationQueue getBorderQueue(Direction3D direction) {
+        if (m_borderQueues == null) {
+            m_borderQueues = new LightPropagationQueue[Direction3D.ORTHOGONALS.length];
+        }
+
+        LightPropagationQueue borderQueue = m_borderQueues[direction.getOrthogonalIndex()];
+        if (borderQueue == null) {
+            m_borderQueues[direction.getOrthogonalIndex()] = borderQueue = new LightPropagationQueue(BORDER_QUEUE_INITIAL_CAPACITY);
+        }
+
+        return borderQueue;
+    }
+
+    /**
+     * Gets the border darkness queue of the supplied side, which holds the light that the voxels of that side no longer have and that must be cleared from the adjacent chunk in
+     * that direction. The entries hold the adjacent chunk's voxel indices and the removed light components of this chunk's voxels.
+     *
+     * @param direction The side of the chunk.
+     *
+     * @return The border darkness queue of the supplied side.
+     */
+    public LightPropagationQueue getBorderDarknessQueue(Direction3D direction) {
+        if (m_borderDarknessQueues == null) {
+            m_borderDarknessQueues = new LightPropagationQueue[Direction3D.ORTHOGONALS.length];
+        }
+
+        LightPropagationQueue borderDarknessQueue = m_borderDarknessQueues[direction.getOrthogonalIndex()];
+        if (borderDarknessQueue == null) {
+            m_borderDarknessQueues[direction.getOrthogonalIndex()] = borderDarknessQueue = new LightPropagationQueue(BORDER_QUEUE_INITIAL_CAPACITY);
+        }
+
+        return borderDarknessQueue;
+    }
+
+    /**
+     * Checks if at least one border queue or border darkness queue holds light to propagate into, or to clear from, an adjacent chunk.
+     *
+     * @return True if there is light to propagate into or to clear from an adjacent chunk, false otherwise.
+     */
+    public boolean hasBorderLights() {
+        return hasNonEmptyQueue(m_borderQueues) || hasNonEmptyQueue(m_borderDarknessQueues);
+    }
+
+    private static boolean hasNonEmptyQueue(LightPropagationQueue[] queues) {
+        if (queues != null) {
+            for (LightPropagationQueue queue : queues) {
+                if (queue != null && !queue.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the lights were computed from scratch since the last reset.
+     *
+     * @return True if the lights were computed since the last reset, false otherwise.
+     */
+    public boolean isComputed() {
+        return m_isComputed;
+    }
+
+    /**
+     * Gets the chunk relative column index, which is the index in the column heights.
+     *
+     * @param x The index on the X axis.
+     * @param z The index on the Z axis.
+     *
+     * @return The chunk relative column index.
+     */
+    public int getColumnIndex(int x, int z) {
+        return (x << m_chunkSizeBits.z) | z;
+    }
+
+    /**
+     * Gets the index on the Y axis of the highest light blocking voxel of every column of the chunk, indexed by {@link #getColumnIndex(int, int)}. A column without any light
+     * blocking voxel has a height of -1. Null until the lighting is first reset.
+     *
+     * @return The column heights.
+     */
+    public int[] getColumnHeights() {
+        return m_columnHeights;
+    }
+
+    /**
+     * Gets the chunk relative voxel index, which is the index in the light array.
+     *
+     * @param x The index on the X axis.
+     * @param y The index on the Y axis.
+     * @param z The index on the Z axis.
+     *
+     * @return The chunk relative voxel index.
+     */
+    public int getVoxelIndex(int x, int y, int z) {
+        return (x << (m_chunkSizeBits.y + m_chunkSizeBits.z)) | (y << m_chunkSizeBits.z) | z;
+    }
+
+    /**
+     * Gets the light of the voxel at the supplied indices. The light is 0 if it was never computed.
+     *
+     * @param x The index on the X axis.
+     * @param y The index on the Y axis.
+     * @param z The index on the Z axis.
+     *
+     * @return The voxel's light.
+     */
+    public int getLightAt(int x, int y, int z) {
+        return m_lights != null ? m_lights[getVoxelIndex(x, y, z)] : 0;
+    }
+
+    /**
+     * Gets the light array, indexed by {@link #getVoxelIndex(int, int, int)}. Null until the lighting is first reset.
+     *
+     * @return The light array.
+     */
+    public int[] getLights() {
+        return m_lights;
     }
 
     public ChunkLightingState getLightingState() {
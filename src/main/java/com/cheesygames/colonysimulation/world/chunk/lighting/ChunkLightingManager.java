@@ -1,22 +1,65 @@
 package com.cheesygames.colonysimulation.world.chunk.lighting;
 
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import com.cheesygames.colonysimulation.world.chunk.Chunk;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 /**
- * Manager for chunk lighting computation.
+ * Manager for chunk lighting computation. The light that leaves a chunk through its sides is propagated into the adjacent chunks until no more light crosses a chunk border. Since
+ * the light is attenuated at every voxel, it cannot travel through more than {@link com.cheesygames.colonysimulation.world.chunk.voxel.VoxelLightUtils#LIGHT_MAXIMUM_INTENSITY}
+ * voxels, which bounds the number of chunks that a light can reach.
+ * <p>
+ * The chunks are lit concurrently on a work-stealing pool. Since a chunk's computation only writes its own lights and border queues, and only reads the sides of its adjacent
+ * chunks, the chunks are split in two phases like a checkerboard : no two adjacent chunks are in the same phase, so they are never computed at the same time. The border queues
+ * are then drained on the calling thread and the phases are repeated until no more light crosses a chunk border.
  */
 public class ChunkLightingManager {
 
+    private static final int PHASE_COUNT = 2;
+
     private Set<Chunk> m_chunksAwaitingReset;
     private Set<Chunk> m_chunksAwaitingComputation;
-
+    private Set<Chunk> m_chunksWithBorderLights;
+    private List<List<Chunk>> m_phaseChunks;
+    private ForkJoinPool m_pool;
+    private ThreadLocal<LightPropagationQueue> m_lightPropagationQueues;
+    private SunlightHeightmap m_sunlightHeightmap;
+
+    /**
+     * Creates a manager that lights the chunks on the common pool.
+     */
     public ChunkLightingManager() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a manager.
+     *
+     * @param pool The work-stealing pool on which the chunks are lit.
+     */
+    public ChunkLightingManager(ForkJoinPool pool) {
         m_chunksAwaitingReset = ConcurrentHashMap.newKeySet();
         m_chunksAwaitingComputation = ConcurrentHashMap.newKeySet();
+        m_chunksWithBorderLights = new HashSet<>();
+        m_phaseChunks = new ArrayList<>(PHASE_COUNT);
+        m_pool = pool;
+        m_lightPropagationQueues = ThreadLocal.withInitial(LightPropagationQueue::new);
+        m_sunlightHeightmap = new SunlightHeightmap(this);
+
+        for (int phase = 0; phase < PHASE_COUNT; ++phase) {
+            m_phaseChunks.add(new ArrayList<>());
+        }
     }
 
     public boolean addToAwaitingReset(Chunk chunk) {
@@ -39,29 +82,127 @@ public class ChunkLightingManager {
         return wasAdded;
     }
 
+    /**
+     * Resets and computes the lighting of the chunks awaiting it, and then propagates the light across the chunk borders until no more light crosses a chunk border. The method
+     * returns once every chunk is lit.
+     */
     public void computeLighting() {
-        Iterator<Chunk> chunkIterator;
+        List<Chunk> chunksToReset = new ArrayList<>(m_chunksAwaitingReset);
+        m_chunksAwaitingReset.removeAll(chunksToReset);
 
-        if (!m_chunksAwaitingReset.isEmpty()) {
-            chunkIterator = m_chunksAwaitingReset.iterator();
-            while (chunkIterator.hasNext()) {
-                Chunk chunk = chunkIterator.next();
+        for (Chunk chunk : m_chunksAwaitingComputation) {
+            if (chunk.getChunkLighting().needsReset()) {
+                chunksToReset.add(chunk);
+            }
+        }
+
+        if (!chunksToReset.isEmpty()) {
+            forEachInParallel(chunksToReset, chunk -> {
                 chunk.getChunkLighting().resetLighting();
                 chunk.getChunkLighting().setLightingState(ChunkLightingState.AWAITING_COMPUTATION);
-                chunkIterator.remove();
+            });
+
+            // The heightmap must be complete before any chunk is lit, since the chunks read the heightmap of their adjacent stacks.
+            for (Chunk chunk : chunksToReset) {
+                m_sunlightHeightmap.mergeChunk(chunk);
             }
+
+            m_chunksAwaitingComputation.addAll(chunksToReset);
         }
 
-        if (!m_chunksAwaitingComputation.isEmpty()) {
-            chunkIterator = m_chunksAwaitingComputation.iterator();
+        while (!m_chunksAwaitingComputation.isEmpty()) {
+            Iterator<Chunk> chunkIterator = m_chunksAwaitingComputation.iterator();
             while (chunkIterator.hasNext()) {
                 Chunk chunk = chunkIterator.next();
-                // TODO : remove comment when ready
-           //     chunk.getChunkLighting().computeLighting();
-                chunk.getChunkLighting().setLightingState(ChunkLightingState.OK);
+                m_phaseChunks.get(getPhase(chunk.getIndex())).add(chunk);
                 chunkIterator.remove();
             }
+
+            for (List<Chunk> phaseChunks : m_phaseChunks) {
+                forEachInParallel(phaseChunks, chunk -> {
+                    chunk.getChunkLighting().computeLighting(m_lightPropagationQueues.get());
+                    chunk.getChunkLighting().setLightingState(ChunkLightingState.OK);
+                });
+
+                for (Chunk chunk : phaseChunks) {
+                    if (chunk.getChunkLighting().hasBorderLights()) {
+                        m_chunksWithBorderLights.add(chunk);
+                    }
+                }
+
+                phaseChunks.clear();
+            }
+
+            propagateBorderLights();
+        }
+    }
+
+    /**
+     * Applies the operation to every supplied chunk on the pool and waits for all of them to be done.
+     *
+     * @param chunks    The chunks on which to apply the operation.
+     * @param operation The operation, which must be safe to apply concurrently on the supplied chunks.
+     */
+    private void forEachInParallel(List<Chunk> chunks, Consumer<Chunk> operation) {
+        if (chunks.size() == 1) {
+            operation.accept(chunks.get(0));
+        }
+        else if (!chunks.isEmpty()) {
+            m_pool.invoke(new ChunkOperationTask(chunks, 0, chunks.size(), operation));
+        }
+    }
+
+    /**
+     * Gets the phase of the chunk at the supplied index. Two adjacent chunks never have the same phase.
+     *
+     * @param chunkIndex The chunk's index.
+     *
+     * @return The chunk's phase, between 0 inclusively and {@link #PHASE_COUNT} exclusively.
+     */
+    private static int getPhase(Vector3i chunkIndex) {
+        return (chunkIndex.x + chunkIndex.y + chunkIndex.z) & 1;
+    }
+
+    /**
+     * Drains the border darkness queues and the border queues of the chunks into their adjacent chunks. The adjacent chunks whose light changed are awaiting computation and are
+     * remeshed. The border queues that face a missing chunk or a chunk whose lighting was never computed are discarded, because that chunk reads the border when its lighting is
+     * computed from scratch.
+     */
+    private void propagateBorderLights() {
+        Vector3i adjacentChunkIndex = new Vector3i();
+
+        for (Chunk chunk : m_chunksWithBorderLights) {
+            for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                LightPropagationQueue borderDarknessQueue = chunk.getChunkLighting().getBorderDarknessQueue(direction);
+                LightPropagationQueue borderQueue = chunk.getChunkLighting().getBorderQueue(direction);
+
+                if (borderDarknessQueue.isEmpty() && borderQueue.isEmpty()) {
+                    continue;
+                }
+
+                Chunk adjacentChunk = GameGlobal.world.getChunkAt(adjacentChunkIndex.set(chunk.getIndex()).addLocal(direction.getDirection()));
+
+                if (adjacentChunk != null && adjacentChunk.getChunkLighting().isComputed()) {
+                    // The darkness is received first, so that the received light is not cleared by it.
+                    boolean isAdjacentChunkDarkened = adjacentChunk.getChunkLighting().receiveBorderDarkness(borderDarknessQueue);
+                    boolean isAdjacentChunkLit = adjacentChunk.getChunkLighting().receiveBorderLights(borderQueue);
+
+                    if (isAdjacentChunkDarkened || isAdjacentChunkLit) {
+                        addToAwaitingComputation(adjacentChunk);
+                        GameGlobal.world.remeshChunk(adjacentChunk);
+                    }
+                }
+
+                borderDarknessQueue.clear();
+                borderQueue.clear();
+            }
         }
+
+        m_chunksWithBorderLights.clear();
+    }
+
+    public SunlightHeightmap getSunlightHeightmap() {
+        return m_sunlightHeightmap;
     }
 
     public Set<Chunk> getChunksAwaitingReset() {
@@ -71,4 +212,33 @@ public class ChunkLightingManager {
     public Set<Chunk> getChunksAwaitingComputation() {
         return m_chunksAwaitingComputation;
     }
-}
\ No newline at end of file
+
+    /**
+     * Task that applies an operation to a range of chunks, by splitting the range in halves so that idle threads can steal them.
+     */
+    private static final class ChunkOperationTask extends RecursiveAction {
+
+        private final List<Chunk> m_chunks;
+        private final int m_start;
+        private final int m_end;
+        private final Consumer<Chunk> m_operation;
+
+        private ChunkOperationTask(List<Chunk> chunks, int start, int end, Consumer<Chunk> operation) {
+            this.m_chunks = chunks;
+            this.m_start = start;
+            this.m_end = end;
+            this.m_operation = operation;
+        }
+
+        @Override
+        protected void compute() {
+            if (m_end - m_start == 1) {
+                m_operation.accept(m_chunks.get(m_start));
+            }
+            else {
+                int middle = (m_start + m_end) >>> 1;
+                invokeAll(new ChunkOperationTask(m_chunks, m_start, middle, m_operation), new ChunkOperationTask(m_chunks, middle, m_end, m_operation));
+            }
+        }
+    }
+}
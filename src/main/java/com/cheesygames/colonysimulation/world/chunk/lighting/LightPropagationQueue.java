@@ -0,0 +1,117 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+/**
+ * A first in first out queue of light propagation entries, backed by a primitive ring buffer. An entry packs a chunk relative voxel index and the light to propagate from that
+ * voxel in a single int, so that the queue never allocates while propagating. The ring buffer only grows when it is full.
+ */
+public class LightPropagationQueue {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 1 << 12;
+
+    private static final int LIGHT_BIT_COUNT = 16;
+    private static final int LIGHT_BITS = (1 << LIGHT_BIT_COUNT) - 1;
+
+    /**
+     * The maximum number of voxels that a chunk can have for its relative voxel indices to be packed.
+     */
+    public static final int MAXIMUM_VOXEL_COUNT = 1 << (Integer.SIZE - LIGHT_BIT_COUNT);
+
+    private int[] m_entries;
+    private int m_head;
+    private int m_size;
+
+    public LightPropagationQueue() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param initialCapacity The initial capacity, which is rounded up to a power of 2.
+     */
+    public LightPropagationQueue(int initialCapacity) {
+        this.m_entries = new int[Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1];
+    }
+
+    /**
+     * Adds an entry at the tail of the queue.
+     *
+     * @param voxelIndex The chunk relative voxel index. Must be lower than {@link #MAXIMUM_VOXEL_COUNT}.
+     * @param light      The light to propagate from the voxel. Only the 16 lowest bits are kept, which are the color and sun components.
+     */
+    public void enqueue(int voxelIndex, int light) {
+        if (m_size == m_entries.length) {
+            grow();
+        }
+
+        m_entries[(m_head + m_size) & (m_entries.length - 1)] = (voxelIndex << LIGHT_BIT_COUNT) | (light & LIGHT_BITS);
+        ++m_size;
+    }
+
+    /**
+     * Removes the entry at the head of the queue. The queue must not be empty.
+     *
+     * @return The packed entry. Use {@link #getVoxelIndex(int)} and {@link #getLight(int)} to unpack it.
+     */
+    public int dequeue() {
+        int entry = m_entries[m_head];
+
+        m_head = (m_head + 1) & (m_entries.length - 1);
+        --m_size;
+
+        return entry;
+    }
+
+    /**
+     * Doubles the capacity of the ring buffer and unwraps its entries.
+     */
+    private void grow() {
+        int[] entries = new int[m_entries.length << 1];
+        int headLength = m_entries.length - m_head;
+
+        System.arraycopy(m_entries, m_head, entries, 0, headLength);
+        System.arraycopy(m_entries, 0, entries, headLength, m_head);
+
+        m_entries = entries;
+        m_head = 0;
+    }
+
+    public void clear() {
+        m_head = 0;
+        m_size = 0;
+    }
+
+    public boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    public int size() {
+        return m_size;
+    }
+
+    public int getCapacity() {
+        return m_entries.length;
+    }
+
+    /**
+     * Gets the chunk relative voxel index of a packed entry.
+     *
+     * @param entry The packed entry.
+     *
+     * @return The chunk relative voxel index.
+     */
+    public static int getVoxelIndex(int entry) {
+        return entry >>> LIGHT_BIT_COUNT;
+    }
+
+    /**
+     * Gets the light of a packed entry.
+     *
+     * @param entry The packed entry.
+     *
+     * @return The light to propagate.
+     */
+    public static int getLight(int entry) {
+        return entry & LIGHT_BITS;
+    }
+}
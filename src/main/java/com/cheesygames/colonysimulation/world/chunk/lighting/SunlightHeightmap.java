@@ -0,0 +1,342 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+
+import java.util.Arrays;
+
+/**
+ * Heightmap of the highest light blocking voxel of every (x, z) column of voxels, across the vertical stacks of chunks. The voxels above the highest light blocking voxel of their
+ * column are lit by the sun at full intensity, without any propagation. The heightmap is built from the column heights of every chunk, as computed by
+ * {@link ChunkLighting#resetLighting()}, and is updated incrementally when a voxel changes or when a chunk is added on top of a column.
+ */
+public class SunlightHeightmap {
+
+    /**
+     * The highest light blocking absolute voxel index on the Y axis of a column that has no light blocking voxel.
+     */
+    public static final int NO_BLOCKING_VOXEL = Integer.MIN_VALUE;
+
+    private ChunkColumnMap m_chunkColumns;
+    private ChunkLightingManager m_lightingManager;
+
+    /**
+     * Creates an empty heightmap.
+     *
+     * @param lightingManager The lighting manager to which the chunks whose sunlight changed are added.
+     */
+    public SunlightHeightmap(ChunkLightingManager lightingManager) {
+        this.m_chunkColumns = new ChunkColumnMap();
+        this.m_lightingManager = lightingManager;
+    }
+
+    /**
+     * Gets the highest light blocking absolute voxel indices on the Y axis of the columns of voxels of the supplied stack of chunks. The array is indexed like the chunk column
+     * heights, which is x * sizeZ + z.
+     *
+     * @param chunkIndexX The index of the stack of chunks on the X axis.
+     * @param chunkIndexZ The index of the stack of chunks on the Z axis.
+     *
+     * @return The highest light blocking absolute voxel indices on the Y axis, {@link #NO_BLOCKING_VOXEL} for the columns without any, or null if no chunk of the stack was merged.
+     */
+    public int[] getHighestBlockingVoxelIndicesY(int chunkIndexX, int chunkIndexZ) {
+        ChunkColumn chunkColumn = m_chunkColumns.get(packColumnIndex(chunkIndexX, chunkIndexZ));
+
+        return chunkColumn != null ? chunkColumn.m_highestBlockingVoxelIndicesY : null;
+    }
+
+    /**
+     * Merges the column heights of a chunk whose lighting was reset into the heightmap. If the chunk covers the columns below it, then the voxels of the lower chunks that are no
+     * longer lit by the sky are darkened. Must not be called while chunks are lit.
+     *
+     * @param chunk The chunk whose lighting was reset.
+     */
+    public void mergeChunk(Chunk chunk) {
+        World world = GameGlobal.world;
+        Vector3i chunkIndex = chunk.getIndex();
+        long columnIndex = packColumnIndex(chunkIndex.x, chunkIndex.z);
+        ChunkColumn chunkColumn = m_chunkColumns.get(columnIndex);
+
+        if (chunkColumn == null) {
+            chunkColumn = new ChunkColumn(world.getChunkSize().x * world.getChunkSize().z, chunkIndex.y);
+            m_chunkColumns.put(columnIndex, chunkColumn);
+        }
+
+        chunkColumn.m_minChunkIndexY = Math.min(chunkColumn.m_minChunkIndexY, chunkIndex.y);
+        chunkColumn.m_maxChunkIndexY = Math.max(chunkColumn.m_maxChunkIndexY, chunkIndex.y);
+
+        int[] columnHeights = chunk.getChunkLighting().getColumnHeights();
+        int chunkStartY = world.getChunkStartPositionY(chunkIndex.y);
+
+        int chunkSizeY = world.getChunkSize().y;
+
+        for (int columnIndexInChunk = 0; columnIndexInChunk < columnHeights.length; ++columnIndexInChunk) {
+            int previousHighestBlockingY = chunkColumn.m_highestBlockingVoxelIndicesY[columnIndexInChunk];
+            int chunkHighestBlockingY = columnHeights[columnIndexInChunk] >= 0 ? chunkStartY + columnHeights[columnIndexInChunk] : NO_BLOCKING_VOXEL;
+
+            if (chunkHighestBlockingY > previousHighestBlockingY) {
+                chunkColumn.m_highestBlockingVoxelIndicesY[columnIndexInChunk] = chunkHighestBlockingY;
+                updateSkyRange(chunk, chunkColumn, columnIndexInChunk, getLowestSkyVoxelIndexY(chunkColumn, previousHighestBlockingY), chunkStartY - 1, false);
+            }
+            else if (chunkHighestBlockingY < previousHighestBlockingY && previousHighestBlockingY >= chunkStartY && previousHighestBlockingY < chunkStartY + chunkSizeY) {
+                // The chunk held the highest light blocking voxel before it was reset, but no longer does.
+                int newHighestBlockingY = chunkHighestBlockingY != NO_BLOCKING_VOXEL
+                    ? chunkHighestBlockingY
+                    : findHighestBlockingVoxelIndexY(chunkColumn, new Vector3i(chunkIndex.x, chunkIndex.y - 1, chunkIndex.z), columnIndexInChunk);
+
+                chunkColumn.m_highestBlockingVoxelIndicesY[columnIndexInChunk] = newHighestBlockingY;
+                updateSkyRange(chunk, chunkColumn, columnIndexInChunk, getLowestSkyVoxelIndexY(chunkColumn, newHighestBlockingY), chunkStartY - 1, true);
+            }
+        }
+    }
+
+    /**
+     * Updates the heightmap after the voxel at the supplied chunk relative indices changed. The voxels that are no longer lit by the sky are darkened and the voxels that are now
+     * lit by the sky are lit, in every chunk of the stack.
+     *
+     * @param chunk The chunk whose voxel changed.
+     * @param x     The chunk relative index on the X axis.
+     * @param y     The chunk relative index on the Y axis.
+     * @param z     The chunk relative index on the Z axis.
+     */
+    public void updateVoxel(Chunk chunk, int x, int y, int z) {
+        World world = GameGlobal.world;
+        Vector3i chunkIndex = chunk.getIndex();
+        ChunkColumn chunkColumn = m_chunkColumns.get(packColumnIndex(chunkIndex.x, chunkIndex.z));
+
+        if (chunkColumn == null) {
+            return;
+        }
+
+        int[] columnHeights = chunk.getChunkLighting().getColumnHeights();
+        int columnIndexInChunk = (x << world.getChunkSizeBits().z) | z;
+        int highestBlockingY = chunkColumn.m_highestBlockingVoxelIndicesY[columnIndexInChunk];
+        int voxelIndexY = world.getAbsoluteIndexY(chunkIndex.y, y);
+
+        if (chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+            columnHeights[columnIndexInChunk] = Math.max(columnHeights[columnIndexInChunk], y);
+
+            if (voxelIndexY > highestBlockingY) {
+                chunkColumn.m_highestBlockingVoxelIndicesY[columnIndexInChunk] = voxelIndexY;
+                updateSkyRange(chunk, chunkColumn, columnIndexInChunk, getLowestSkyVoxelIndexY(chunkColumn, highestBlockingY), voxelIndexY - 1, false);
+            }
+        }
+        else {
+            if (columnHeights[columnIndexInChunk] == y) {
+                columnHeights[columnIndexInChunk] = findHighestBlockingVoxelIndexY(chunk, x, y - 1, z);
+            }
+
+            if (voxelIndexY == highestBlockingY) {
+                int newHighestBlockingY = findHighestBlockingVoxelIndexY(chunkColumn, chunkIndex, columnIndexInChunk);
+
+                chunkColumn.m_highestBlockingVoxelIndicesY[columnIndexInChunk] = newHighestBlockingY;
+                updateSkyRange(chunk, chunkColumn, columnIndexInChunk, getLowestSkyVoxelIndexY(chunkColumn, newHighestBlockingY), voxelIndexY, true);
+            }
+        }
+    }
+
+    /**
+     * Updates whether the voxels of a column are lit by the sky, in every computed chunk of the stack that overlaps the supplied range. The chunks other than the supplied chunk
+     * are added to the chunks awaiting computation and are remeshed.
+     *
+     * @param chunk              The chunk that caused the update, which is updated but never added to the chunks awaiting computation.
+     * @param chunkColumn        The stack of chunks.
+     * @param columnIndexInChunk The chunk relative index of the column of voxels.
+     * @param minVoxelIndexY     The lowest absolute voxel index on the Y axis of the range, inclusively.
+     * @param maxVoxelIndexY     The highest absolute voxel index on the Y axis of the range, inclusively.
+     * @param isSky              Whether the voxels of the range are now lit by the sky.
+     */
+    private void updateSkyRange(Chunk chunk, ChunkColumn chunkColumn, int columnIndexInChunk, int minVoxelIndexY, int maxVoxelIndexY, boolean isSky) {
+        if (minVoxelIndexY > maxVoxelIndexY) {
+            return;
+        }
+
+        World world = GameGlobal.world;
+        Vector3i chunkIndex = new Vector3i(chunk.getIndex());
+        int chunkSizeY = world.getChunkSize().y;
+        int x = columnIndexInChunk >>> world.getChunkSizeBits().z;
+        int z = columnIndexInChunk & (world.getChunkSize().z - 1);
+        int minChunkIndexY = Math.max(chunkColumn.m_minChunkIndexY, Math.floorDiv(minVoxelIndexY, chunkSizeY));
+        int maxChunkIndexY = Math.min(chunkColumn.m_maxChunkIndexY, Math.floorDiv(maxVoxelIndexY, chunkSizeY));
+
+        for (chunkIndex.y = minChunkIndexY; chunkIndex.y <= maxChunkIndexY; ++chunkIndex.y) {
+            Chunk updatedChunk = world.getChunkAt(chunkIndex);
+
+            if (updatedChunk == null) {
+                updatedChunk = chunkIndex.equals(chunk.getIndex()) ? chunk : null;
+            }
+            if (updatedChunk != null) {
+                int chunkStartY = world.getChunkStartPositionY(chunkIndex.y);
+                boolean hasSunlightChanged = updatedChunk.getChunkLighting()
+                                                         .updateSkyRange(x,
+                                                             z,
+                                                             Math.max(0, minVoxelIndexY - chunkStartY),
+                                                             Math.min(chunkSizeY - 1, maxVoxelIndexY - chunkStartY),
+                                                             isSky);
+
+                if (hasSunlightChanged && updatedChunk != chunk) {
+                    m_lightingManager.addToAwaitingComputation(updatedChunk);
+                    world.remeshChunk(updatedChunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the highest light blocking voxel of a column of voxels of a chunk, at or below the supplied index.
+     *
+     * @param chunk The chunk.
+     * @param x     The chunk relative index on the X axis.
+     * @param y     The chunk relative index on the Y axis from which to search downward.
+     * @param z     The chunk relative index on the Z axis.
+     *
+     * @return The chunk relative index on the Y axis of the highest light blocking voxel, or -1 if there is none.
+     */
+    private static int findHighestBlockingVoxelIndexY(Chunk chunk, int x, int y, int z) {
+        while (y >= 0 && !chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+            --y;
+        }
+
+        return y;
+    }
+
+    /**
+     * Finds the highest light blocking voxel of a column of voxels in a stack of chunks, from the column heights of the chunks at or below the supplied chunk.
+     *
+     * @param chunkColumn        The stack of chunks.
+     * @param chunkIndex         The index of the highest chunk in which to search.
+     * @param columnIndexInChunk The chunk relative index of the column of voxels.
+     *
+     * @return The highest light blocking absolute voxel index on the Y axis, or {@link #NO_BLOCKING_VOXEL} if there is none.
+     */
+    private static int findHighestBlockingVoxelIndexY(ChunkColumn chunkColumn, Vector3i chunkIndex, int columnIndexInChunk) {
+        World world = GameGlobal.world;
+        Vector3i lowerChunkIndex = new Vector3i(chunkIndex);
+
+        for (; lowerChunkIndex.y >= chunkColumn.m_minChunkIndexY; --lowerChunkIndex.y) {
+            Chunk lowerChunk = world.getChunkAt(lowerChunkIndex);
+
+            if (lowerChunk != null && lowerChunk.getChunkLighting().getColumnHeights() != null && lowerChunk.getChunkLighting().getColumnHeights()[columnIndexInChunk] >= 0) {
+                return world.getChunkStartPositionY(lowerChunkIndex.y) + lowerChunk.getChunkLighting().getColumnHeights()[columnIndexInChunk];
+            }
+        }
+
+        return NO_BLOCKING_VOXEL;
+    }
+
+    /**
+     * Packs the index of a stack of chunks into a long, so that its heightmap is looked up without allocating a key.
+     *
+     * @param chunkIndexX The index of the stack of chunks on the X axis.
+     * @param chunkIndexZ The index of the stack of chunks on the Z axis.
+     *
+     * @return The packed index of the stack of chunks.
+     */
+    private static long packColumnIndex(int chunkIndexX, int chunkIndexZ) {
+        return ((long) chunkIndexX << Integer.SIZE) | (chunkIndexZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the lowest absolute voxel index on the Y axis that is lit by the sky in a column whose highest light blocking voxel is supplied.
+     *
+     * @param chunkColumn      The stack of chunks.
+     * @param highestBlockingY The highest light blocking absolute voxel index on the Y axis of the column.
+     *
+     * @return The lowest absolute voxel index on the Y axis lit by the sky.
+     */
+    private static int getLowestSkyVoxelIndexY(ChunkColumn chunkColumn, int highestBlockingY) {
+        return highestBlockingY == NO_BLOCKING_VOXEL ? GameGlobal.world.getChunkStartPositionY(chunkColumn.m_minChunkIndexY) : highestBlockingY + 1;
+    }
+
+    /**
+     * The heightmap of a vertical stack of chunks.
+     */
+    private static final class ChunkColumn {
+
+        private int[] m_highestBlockingVoxelIndicesY;
+        private int m_minChunkIndexY;
+        private int m_maxChunkIndexY;
+
+        private ChunkColumn(int columnCount, int chunkIndexY) {
+            this.m_highestBlockingVoxelIndicesY = new int[columnCount];
+            this.m_minChunkIndexY = chunkIndexY;
+            this.m_maxChunkIndexY = chunkIndexY;
+
+            Arrays.fill(m_highestBlockingVoxelIndicesY, NO_BLOCKING_VOXEL);
+        }
+    }
+
+    /**
+     * A hash map from the packed index of a stack of chunks to its heightmap, see {@link #packColumnIndex(int, int)}. The keys are primitive longs stored with open addressing and
+     * linear probing, so that the lookups done while the chunks are lit never allocate. The stacks of chunks are never removed.
+     */
+    private static final class ChunkColumnMap {
+
+        private static final int INITIAL_CAPACITY = 16;
+        private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+        private long[] m_keys;
+        /**
+         * The heightmaps, at the same indices as their keys. A null value marks an empty slot.
+         */
+        private ChunkColumn[] m_values;
+        private int m_size;
+        private int m_mask;
+
+        private ChunkColumnMap() {
+            this.m_keys = new long[INITIAL_CAPACITY];
+            this.m_values = new ChunkColumn[INITIAL_CAPACITY];
+            this.m_mask = INITIAL_CAPACITY - 1;
+        }
+
+        private ChunkColumn get(long key) {
+            for (int slot = getSlot(key); m_values[slot] != null; slot = (slot + 1) & m_mask) {
+                if (m_keys[slot] == key) {
+                    return m_values[slot];
+                }
+            }
+
+            return null;
+        }
+
+        private void put(long key, ChunkColumn chunkColumn) {
+            if ((m_size + 1) * 2 > m_values.length) {
+                resize(m_values.length * 2);
+            }
+
+            int slot = getSlot(key);
+            while (m_values[slot] != null && m_keys[slot] != key) {
+                slot = (slot + 1) & m_mask;
+            }
+
+            if (m_values[slot] == null) {
+                ++m_size;
+            }
+
+            m_keys[slot] = key;
+            m_values[slot] = chunkColumn;
+        }
+
+        private void resize(int capacity) {
+            long[] keys = m_keys;
+            ChunkColumn[] values = m_values;
+
+            m_keys = new long[capacity];
+            m_values = new ChunkColumn[capacity];
+            m_mask = capacity - 1;
+            m_size = 0;
+
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] != null) {
+                    put(keys[i], values[i]);
+                }
+            }
+        }
+
+        private int getSlot(long key) {
+            return (int) ((key * HASH_MULTIPLIER) >>> 32) & m_mask;
+        }
+    }
+}
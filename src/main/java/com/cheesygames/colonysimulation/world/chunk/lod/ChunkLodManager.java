@@ -0,0 +1,197 @@
+package com.cheesygames.colonysimulation.world.chunk.lod;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.EmptyChunk;
+import com.cheesygames.colonysimulation.world.chunk.IChunkVoxelData;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Manager for the chunks' level of detail (LOD). A chunk at the level of detail n is meshed from a voxel grid downsampled 2 power of n times. The level of detail of a chunk is
+ * chosen according to its distance to the focus point, with an hysteresis so that a chunk at a threshold distance does not switch back and forth.
+ * <p>
+ * Seams between chunks of different levels of detail are closed by skirts : the side faces of a chunk are always generated when the adjacent chunk has a different level of
+ * detail.
+ * <p>
+ * The levels of detail are only re-evaluated when the focus point enters another chunk, when the number of chunks of the world changes or when the LOD settings change. The
+ * thresholds are far greater than a chunk, so a focus point moving inside its chunk never needs a scan of the whole world.
+ */
+public class ChunkLodManager {
+
+    /**
+     * The distance thresholds between the levels of detail. The element at the index n is the distance from which the level of detail n + 1 is used.
+     */
+    public static final float[] DEFAULT_LOD_DISTANCES = { 96f, 192f, 384f };
+    public static final float DEFAULT_HYSTERESIS_RATIO = 0.1f;
+    public static final DownsamplingMode DEFAULT_DOWNSAMPLING_MODE = DownsamplingMode.ANY_SOLID;
+
+    private float[] m_lodDistances;
+    private float m_hysteresisRatio;
+    private DownsamplingMode m_downsamplingMode;
+    private Vector3i m_focusChunkIndex;
+    private int m_evaluatedChunkCount;
+    private boolean m_areLodLevelsOutdated;
+    private Vector3f m_tmpChunkCenter;
+    private Vector3i m_tmpAdjacentChunkIndex;
+    private Vector3i m_tmpFocusVoxelIndex;
+    private Vector3i m_tmpFocusChunkIndex;
+
+    public ChunkLodManager() {
+        this.m_lodDistances = DEFAULT_LOD_DISTANCES.clone();
+        this.m_hysteresisRatio = DEFAULT_HYSTERESIS_RATIO;
+        this.m_downsamplingMode = DEFAULT_DOWNSAMPLING_MODE;
+        this.m_focusChunkIndex = new Vector3i();
+        this.m_areLodLevelsOutdated = true;
+        this.m_tmpChunkCenter = new Vector3f();
+        this.m_tmpAdjacentChunkIndex = new Vector3i();
+        this.m_tmpFocusVoxelIndex = new Vector3i();
+        this.m_tmpFocusChunkIndex = new Vector3i();
+    }
+
+    /**
+     * Updates the level of detail of all the chunks of the world according to their distance to the focus point, if the focus point entered another chunk, if the number of
+     * chunks changed or if the LOD settings changed since the last evaluation. The chunks whose level of detail changed are added to the remeshing queue, as well as their
+     * adjacent chunks because their seams changed.
+     *
+     * @param focusPoint The point from which the distances are computed, usually the camera's location.
+     *
+     * @return True if the levels of detail were re-evaluated, false otherwise.
+     */
+    public boolean updateLodLevels(Vector3f focusPoint) {
+        World world = GameGlobal.world;
+        Vector3i focusChunkIndex = world.getChunkIndexLocal(m_tmpFocusVoxelIndex.set((int) FastMath.floor(focusPoint.x + World.VOXEL_HALF_EXTENT),
+            (int) FastMath.floor(focusPoint.y + World.VOXEL_HALF_EXTENT),
+            (int) FastMath.floor(focusPoint.z + World.VOXEL_HALF_EXTENT)), m_tmpFocusChunkIndex);
+
+        if (!m_areLodLevelsOutdated && focusChunkIndex.equals(m_focusChunkIndex) && world.getChunks().size() == m_evaluatedChunkCount) {
+            return false;
+        }
+
+        m_focusChunkIndex.set(focusChunkIndex);
+        m_evaluatedChunkCount = world.getChunks().size();
+        m_areLodLevelsOutdated = false;
+
+        for (Chunk chunk : world.getChunks().values()) {
+            float distance = focusPoint.distance(chunk.computeCenterLocal(m_tmpChunkCenter));
+            int lodLevel = computeLodLevel(chunk.getLodLevel(), distance, chunk.getSize());
+
+            if (lodLevel != chunk.getLodLevel()) {
+                chunk.setLodLevel(lodLevel);
+                world.remeshChunk(chunk);
+
+                for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                    m_tmpAdjacentChunkIndex.set(chunk.getIndex()).addLocal(direction.getDirection());
+                    world.remeshChunk(m_tmpAdjacentChunkIndex);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the level of detail for a chunk at the supplied distance. The hysteresis ratio widens the threshold to cross in order to leave the current level of detail.
+     *
+     * @param currentLodLevel The current level of detail of the chunk.
+     * @param distance        The distance between the chunk and the focus point.
+     * @param chunkSize       The chunk's size, which bounds the maximum level of detail.
+     *
+     * @return The new level of detail of the chunk.
+     */
+    public int computeLodLevel(int currentLodLevel, float distance, Vector3i chunkSize) {
+        int maxLodLevel = Math.min(m_lodDistances.length, Integer.numberOfTrailingZeros(Math.min(chunkSize.x, Math.min(chunkSize.y, chunkSize.z))));
+        int lodLevel = Math.min(currentLodLevel, maxLodLevel);
+
+        while (lodLevel < maxLodLevel && distance > m_lodDistances[lodLevel] * (1f + m_hysteresisRatio)) {
+            ++lodLevel;
+        }
+        while (lodLevel > 0 && distance < m_lodDistances[lodLevel - 1] * (1f - m_hysteresisRatio)) {
+            --lodLevel;
+        }
+
+        return lodLevel;
+    }
+
+    /**
+     * Creates the voxel data used to mesh the supplied chunk at its level of detail. At the level of detail 0, it is the chunk itself.
+     *
+     * @param chunk The chunk to mesh.
+     *
+     * @return The voxel data to mesh.
+     */
+    public IChunkVoxelData createVoxelData(Chunk chunk) {
+        return chunk.getLodLevel() == 0 ? chunk : new DownsampledChunkVoxelData(chunk, chunk.getLodLevel(), m_downsamplingMode);
+    }
+
+    /**
+     * Creates the adjacent voxel data of the supplied chunk, at the chunk's level of detail. An adjacent chunk that has a different level of detail is replaced by {@link
+     * EmptyChunk#DEFAULT_EMPTY_CHUNK}, so that the side faces are generated and close the seams.
+     *
+     * @param chunk The chunk to mesh.
+     *
+     * @return The voxel data of the adjacent chunks, by direction.
+     */
+    public Map<Direction3D, IChunkVoxelData> createAdjacentVoxelData(Chunk chunk) {
+        Map<Direction3D, IChunkVoxelData> adjacentVoxelData = new HashMap<>(Direction3D.ORTHOGONALS.length);
+        Vector3i adjacentChunkIndex = new Vector3i();
+
+        for (Direction3D direction : Direction3D.ORTHOGONALS) {
+            adjacentChunkIndex.set(chunk.getIndex()).addLocal(direction.getDirection());
+            Chunk adjacentChunk = GameGlobal.world.getChunkAt(adjacentChunkIndex);
+
+            if (adjacentChunk == null || adjacentChunk.getLodLevel() != chunk.getLodLevel()) {
+                adjacentVoxelData.put(direction, EmptyChunk.DEFAULT_EMPTY_CHUNK);
+            }
+            else {
+                adjacentVoxelData.put(direction, createVoxelData(adjacentChunk));
+            }
+        }
+
+        return adjacentVoxelData;
+    }
+
+    public float[] getLodDistances() {
+        return m_lodDistances;
+    }
+
+    /**
+     * Sets the distance thresholds between the levels of detail. The element at the index n is the distance from which the level of detail n + 1 is used. Thus, the array's length
+     * is the maximum level of detail.
+     *
+     * @param lodDistances The ascending distance thresholds.
+     */
+    public void setLodDistances(float[] lodDistances) {
+        m_lodDistances = lodDistances;
+        m_areLodLevelsOutdated = true;
+    }
+
+    public float getHysteresisRatio() {
+        return m_hysteresisRatio;
+    }
+
+    /**
+     * Sets the hysteresis ratio. A chunk leaves its level of detail only when it is farther than the threshold plus this ratio of it, or nearer than the threshold minus this ratio
+     * of it.
+     *
+     * @param hysteresisRatio The hysteresis ratio, between 0 inclusively and 1 exclusively.
+     */
+    public void setHysteresisRatio(float hysteresisRatio) {
+        m_hysteresisRatio = hysteresisRatio;
+        m_areLodLevelsOutdated = true;
+    }
+
+    public DownsamplingMode getDownsamplingMode() {
+        return m_downsamplingMode;
+    }
+
+    public void setDownsamplingMode(DownsamplingMode downsamplingMode) {
+        m_downsamplingMode = downsamplingMode;
+    }
+}
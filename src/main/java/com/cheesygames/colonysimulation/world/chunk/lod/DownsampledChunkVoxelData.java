@@ -0,0 +1,122 @@
+package com.cheesygames.colonysimulation.world.chunk.lod;
+
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.IChunkVoxelData;
+import com.cheesygames.colonysimulation.world.chunk.voxel.Voxel;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+
+import java.util.Arrays;
+
+/**
+ * A downsampled view of a {@link Chunk}'s voxels for a level of detail. Each of its voxels represents a cubic block of full resolution voxels, which has a length of 2 power of the
+ * level of detail. The voxels are lazily reduced and then cached, so that only reading the sides of an adjacent chunk does not downsample it entirely.
+ */
+public class DownsampledChunkVoxelData implements IChunkVoxelData {
+
+    private Chunk m_chunk;
+    private int m_lodLevel;
+    private int m_scale;
+    private DownsamplingMode m_downsamplingMode;
+    private Vector3i m_size;
+    private Voxel[] m_voxels;
+    private int[] m_tmpVoxelTypeCounts;
+
+    /**
+     * Creates a downsampled view of the supplied chunk.
+     *
+     * @param chunk            The full resolution chunk to downsample.
+     * @param lodLevel         The level of detail. Must be positive and 2 power of it must not be greater than the chunk's size.
+     * @param downsamplingMode How the blocks of voxels are reduced.
+     */
+    public DownsampledChunkVoxelData(Chunk chunk, int lodLevel, DownsamplingMode downsamplingMode) {
+        this.m_chunk = chunk;
+        this.m_lodLevel = lodLevel;
+        this.m_scale = 1 << lodLevel;
+        this.m_downsamplingMode = downsamplingMode;
+        this.m_size = new Vector3i(chunk.getSize().x >> lodLevel, chunk.getSize().y >> lodLevel, chunk.getSize().z >> lodLevel);
+        this.m_voxels = new Voxel[m_size.x * m_size.y * m_size.z];
+        this.m_tmpVoxelTypeCounts = new int[VoxelType.values().length];
+
+        assert m_size.x > 0 && m_size.y > 0 && m_size.z > 0;
+    }
+
+    @Override
+    public Voxel getVoxelAt(int x, int y, int z) {
+        int voxelIndex = (x * m_size.y + y) * m_size.z + z;
+        Voxel voxel = m_voxels[voxelIndex];
+
+        if (voxel == null) {
+            m_voxels[voxelIndex] = voxel = new Voxel(downsampleVoxelType(x, y, z));
+        }
+
+        return voxel;
+    }
+
+    @Override
+    public Voxel getVoxelFromPositiveSide(Direction3D direction, int x, int y, int z) {
+        return getVoxelAt(direction.getDirectionX() * direction.getDirectionX() * (m_size.x - 1) + ((-(direction.getDirectionX() * direction.getDirectionX()) | 1) * x),
+            direction.getDirectionY() * direction.getDirectionY() * (m_size.y - 1) + ((-(direction.getDirectionY() * direction.getDirectionY()) | 1) * y),
+            direction.getDirectionZ() * direction.getDirectionZ() * (m_size.z - 1) + ((-(direction.getDirectionZ() * direction.getDirectionZ()) | 1) * z));
+    }
+
+    /**
+     * Reduces the block of full resolution voxels represented by the downsampled voxel at the supplied indices.
+     *
+     * @param x The downsampled index on the X axis.
+     * @param y The downsampled index on the Y axis.
+     * @param z The downsampled index on the Z axis.
+     *
+     * @return The voxel type that represents the block.
+     */
+    private VoxelType downsampleVoxelType(int x, int y, int z) {
+        int[] voxelTypeCounts = m_tmpVoxelTypeCounts;
+        Arrays.fill(voxelTypeCounts, 0);
+
+        int startX = x << m_lodLevel;
+        int startY = y << m_lodLevel;
+        int startZ = z << m_lodLevel;
+
+        for (int blockX = startX; blockX < startX + m_scale; ++blockX) {
+            for (int blockY = startY; blockY < startY + m_scale; ++blockY) {
+                for (int blockZ = startZ; blockZ < startZ + m_scale; ++blockZ) {
+                    ++voxelTypeCounts[m_chunk.getVoxelAt(blockX, blockY, blockZ).voxelType.ordinal()];
+                }
+            }
+        }
+
+        return m_downsamplingMode.reduce(voxelTypeCounts);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return m_chunk.isEmpty();
+    }
+
+    public Chunk getChunk() {
+        return m_chunk;
+    }
+
+    public int getLodLevel() {
+        return m_lodLevel;
+    }
+
+    /**
+     * Gets the number of full resolution voxels along one axis that a downsampled voxel represents.
+     *
+     * @return The downsampling scale.
+     */
+    public int getScale() {
+        return m_scale;
+    }
+
+    /**
+     * Gets the number of downsampled voxels on each axis.
+     *
+     * @return The downsampled size.
+     */
+    public Vector3i getSize() {
+        return m_size;
+    }
+}
@@ -0,0 +1,65 @@
+package com.cheesygames.colonysimulation.world.chunk.lod;
+
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+
+/**
+ * How a block of full resolution voxels is reduced to a single voxel type when downsampling a chunk.
+ */
+public enum DownsamplingMode {
+
+    /**
+     * The most frequent voxel type of the block. In case of a tie, solid voxel types are preferred so that thin walls do not disappear.
+     */
+    MAJORITY {
+        @Override
+        public VoxelType reduce(int[] voxelTypeCounts) {
+            VoxelType reducedVoxelType = VoxelType.AIR;
+            int reducedVoxelTypeCount = -1;
+
+            for (VoxelType voxelType : VOXEL_TYPES) {
+                int count = voxelTypeCounts[voxelType.ordinal()];
+
+                if (count > reducedVoxelTypeCount || (count == reducedVoxelTypeCount && voxelType.isSolid() && !reducedVoxelType.isSolid())) {
+                    reducedVoxelType = voxelType;
+                    reducedVoxelTypeCount = count;
+                }
+            }
+
+            return reducedVoxelType;
+        }
+    },
+
+    /**
+     * The most frequent solid voxel type of the block if there is at least one solid voxel. Otherwise, the most frequent voxel type. Distant terrain never gets holes with this
+     * mode, but it gets bulkier.
+     */
+    ANY_SOLID {
+        @Override
+        public VoxelType reduce(int[] voxelTypeCounts) {
+            VoxelType reducedVoxelType = null;
+            int reducedVoxelTypeCount = 0;
+
+            for (VoxelType voxelType : VOXEL_TYPES) {
+                int count = voxelTypeCounts[voxelType.ordinal()];
+
+                if (voxelType.isSolid() && count > reducedVoxelTypeCount) {
+                    reducedVoxelType = voxelType;
+                    reducedVoxelTypeCount = count;
+                }
+            }
+
+            return reducedVoxelType != null ? reducedVoxelType : MAJORITY.reduce(voxelTypeCounts);
+        }
+    };
+
+    private static final VoxelType[] VOXEL_TYPES = VoxelType.values();
+
+    /**
+     * Reduces the supplied voxel type counts to a single voxel type.
+     *
+     * @param voxelTypeCounts The number of voxels of each voxel type in the block to reduce, indexed by {@link VoxelType#ordinal()}.
+     *
+     * @return The voxel type that represents the whole block.
+     */
+    public abstract VoxelType reduce(int[] voxelTypeCounts);
+}
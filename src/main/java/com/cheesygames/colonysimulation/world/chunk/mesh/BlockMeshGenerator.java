@@ -7,12 +7,12 @@ import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import com.cheesygames.colonysimulation.world.World;
 import com.cheesygames.colonysimulation.world.chunk.Chunk;
 import com.cheesygames.colonysimulation.world.chunk.IChunkVoxelData;
+import com.cheesygames.colonysimulation.world.chunk.lod.ChunkLodManager;
 import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
 
-import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -39,42 +39,57 @@ public class BlockMeshGenerator implements IChunkMeshGenerator {
             chunk.setMesh(mesh);
         }
 
-        Vector3i chunkSize = chunk.getSize();
-        Map<Direction3D, IChunkVoxelData> adjacentChunks = GameGlobal.world.getAdjacentChunks(chunk.getIndex());
+        ChunkLodManager chunkLodManager = GameGlobal.world.getChunkUpdateManager().getChunkLodManager();
+        int lodLevel = chunk.getLodLevel();
+        Vector3i voxelDataSize = new Vector3i(chunk.getSize().x >> lodLevel, chunk.getSize().y >> lodLevel, chunk.getSize().z >> lodLevel);
+        IChunkVoxelData voxelData = chunkLodManager.createVoxelData(chunk);
+        Map<Direction3D, IChunkVoxelData> adjacentVoxelData = chunkLodManager.createAdjacentVoxelData(chunk);
 
         List<Vector3f> vertices = new ArrayList<>();
         List<Vector3f> normals = new ArrayList<>();
 
-        for (int x = 0; x < chunkSize.x; ++x) {
-            for (int y = 0; y < chunkSize.y; ++y) {
-                for (int z = 0; z < chunkSize.z; ++z) {
-                    generateVoxelMesh(chunk, adjacentChunks, x, y, z, vertices, normals);
+        for (int x = 0; x < voxelDataSize.x; ++x) {
+            for (int y = 0; y < voxelDataSize.y; ++y) {
+                for (int z = 0; z < voxelDataSize.z; ++z) {
+                    generateVoxelMesh(voxelData, voxelDataSize, adjacentVoxelData, x, y, z, vertices, normals);
                 }
             }
         }
 
+        if (lodLevel > 0) {
+            scaleDownsampledVertices(vertices, 1 << lodLevel);
+        }
+
+        int[] faceDirectionVertexCounts = sortFacesByDirection(vertices, normals);
+
         MeshBufferUtils.setMeshBuffer(mesh, VertexBuffer.Type.Position, MeshBufferUtils.createPositionBuffer(vertices));
         MeshBufferUtils.setMeshBuffer(mesh, VertexBuffer.Type.Normal, MeshBufferUtils.createNormalBuffer(normals));
+
+        if (mesh instanceof ChunkMesh) {
+            ((ChunkMesh) mesh).setFaceDirectionVertexCounts(faceDirectionVertexCounts);
+        }
+
         mesh.updateBound();
 
         return mesh;
     }
 
     @Override
-    public void generateVoxelMesh(Chunk chunk, Map<Direction3D, IChunkVoxelData> adjacentChunks, int x, int y, int z, List<Vector3f> vertices, List<Vector3f> normals) {
-        if (chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+    public void generateVoxelMesh(IChunkVoxelData voxelData, Vector3i voxelDataSize, Map<Direction3D, IChunkVoxelData> adjacentVoxelData, int x, int y, int z, List<Vector3f> vertices,
+        List<Vector3f> normals) {
+        if (voxelData.getVoxelAt(x, y, z).voxelType.isSolid()) {
             for (Direction3D cubeFace : Direction3D.ORTHOGONALS) {
                 VoxelType adjacentVoxelType;
                 int adjacentVoxelX = x + cubeFace.getDirectionX();
                 int adjacentVoxelY = y + cubeFace.getDirectionY();
                 int adjacentVoxelZ = z + cubeFace.getDirectionZ();
 
-                if (adjacentVoxelX < 0 || adjacentVoxelX >= chunk.getSize().x || adjacentVoxelY < 0 || adjacentVoxelY >= chunk.getSize().y || adjacentVoxelZ < 0
-                    || adjacentVoxelZ >= chunk.getSize().z) {
-                    adjacentVoxelType = adjacentChunks.get(cubeFace).getVoxelFromPositiveSide(cubeFace.getOpposite(), x, y, z).voxelType;
+                if (adjacentVoxelX < 0 || adjacentVoxelX >= voxelDataSize.x || adjacentVoxelY < 0 || adjacentVoxelY >= voxelDataSize.y || adjacentVoxelZ < 0
+                    || adjacentVoxelZ >= voxelDataSize.z) {
+                    adjacentVoxelType = adjacentVoxelData.get(cubeFace).getVoxelFromPositiveSide(cubeFace.getOpposite(), x, y, z).voxelType;
                 }
                 else {
-                    adjacentVoxelType = chunk.getVoxelAt(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ).voxelType;
+                    adjacentVoxelType = voxelData.getVoxelAt(adjacentVoxelX, adjacentVoxelY, adjacentVoxelZ).voxelType;
                 }
 
                 if (!adjacentVoxelType.isSolid()) {
@@ -86,4 +101,81 @@ public class BlockMeshGenerator implements IChunkMeshGenerator {
             }
         }
     }
+
+    /**
+     * Converts the vertices of a downsampled voxel grid into the chunk's full resolution space. A downsampled voxel at the index i covers the full resolution voxels from i * scale
+     * to i * scale + scale - 1 inclusively.
+     *
+     * @param vertices The downsampled vertices to locally scale.
+     * @param scale    The number of full resolution voxels along one axis that a downsampled voxel represents.
+     */
+    private static void scaleDownsampledVertices(List<Vector3f> vertices, int scale) {
+        float offset = (scale - 1) * World.VOXEL_HALF_EXTENT;
+
+        for (Vector3f vertex : vertices) {
+            vertex.multLocal(scale).addLocal(offset, offset, offset);
+        }
+    }
+
+    /**
+     * Sorts the faces by direction, following {@link Direction3D#getOrthogonalIndex()}, so that the faces pointing in the same direction are contiguous. The order of the faces
+     * pointing in the same direction is preserved.
+     *
+     * @param vertices The vertices to sort, {@link MeshBufferUtils#VERTICES_PER_QUAD} per face.
+     * @param normals  The normals to sort along the vertices.
+     *
+     * @return The number of vertices of each face direction, indexed by {@link Direction3D#getOrthogonalIndex()}.
+     */
+    private static int[] sortFacesByDirection(List<Vector3f> vertices, List<Vector3f> normals) {
+        int[] faceDirectionVertexCounts = new int[Direction3D.ORTHOGONALS.length];
+
+        for (int i = 0; i < normals.size(); i += MeshBufferUtils.VERTICES_PER_QUAD) {
+            faceDirectionVertexCounts[getFaceDirection(normals.get(i)).getOrthogonalIndex()] += MeshBufferUtils.VERTICES_PER_QUAD;
+        }
+
+        int[] faceDirectionNextVertexIndices = new int[faceDirectionVertexCounts.length];
+        for (int i = 1; i < faceDirectionNextVertexIndices.length; ++i) {
+            faceDirectionNextVertexIndices[i] = faceDirectionNextVertexIndices[i - 1] + faceDirectionVertexCounts[i - 1];
+        }
+
+        Vector3f[] sortedVertices = new Vector3f[vertices.size()];
+        Vector3f[] sortedNormals = new Vector3f[normals.size()];
+
+        for (int i = 0; i < normals.size(); i += MeshBufferUtils.VERTICES_PER_QUAD) {
+            int faceDirectionIndex = getFaceDirection(normals.get(i)).getOrthogonalIndex();
+            int sortedVertexIndex = faceDirectionNextVertexIndices[faceDirectionIndex];
+
+            for (int j = 0; j < MeshBufferUtils.VERTICES_PER_QUAD; ++j) {
+                sortedVertices[sortedVertexIndex + j] = vertices.get(i + j);
+                sortedNormals[sortedVertexIndex + j] = normals.get(i + j);
+            }
+
+            faceDirectionNextVertexIndices[faceDirectionIndex] += MeshBufferUtils.VERTICES_PER_QUAD;
+        }
+
+        for (int i = 0; i < sortedVertices.length; ++i) {
+            vertices.set(i, sortedVertices[i]);
+            normals.set(i, sortedNormals[i]);
+        }
+
+        return faceDirectionVertexCounts;
+    }
+
+    /**
+     * Gets the orthogonal direction of a face from its normal.
+     *
+     * @param normal The face's axis aligned normal.
+     *
+     * @return The direction in which the face points.
+     */
+    private static Direction3D getFaceDirection(Vector3f normal) {
+        if (normal.x != 0) {
+            return normal.x > 0 ? Direction3D.RIGHT : Direction3D.LEFT;
+        }
+        else if (normal.y != 0) {
+            return normal.y > 0 ? Direction3D.TOP : Direction3D.BOTTOM;
+        }
+
+        return normal.z > 0 ? Direction3D.FRONT : Direction3D.BACK;
+    }
 }
@@ -1,23 +1,188 @@
 package com.cheesygames.colonysimulation.world.chunk.mesh;
 
 import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.MeshBufferUtils;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
 import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Vector3f;
 import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.util.BufferUtils;
+
+import java.nio.IntBuffer;
 
 /**
- * A mesh optimized for chunks.
+ * A mesh optimized for chunks. Its faces are grouped by direction, so that the groups of faces that all point away from the camera are excluded from its index buffer. The index
+ * buffer is sized for all the faces and rewritten in place when the visible face directions change.
  */
 public class ChunkMesh extends Mesh {
 
+    public static final int ALL_FACE_DIRECTIONS_MASK = (1 << Direction3D.ORTHOGONALS.length) - 1;
+
+    private int[] m_faceDirectionVertexStarts;
+    private int[] m_faceDirectionVertexCounts;
+    private int m_visibleFaceDirectionsMask;
+    private IntBuffer m_indexBuffer;
+
     public ChunkMesh() {
         getBound().setCenter(GameGlobal.world.getChunkSize().x / 2f, GameGlobal.world.getChunkSize().y / 2f, GameGlobal.world.getChunkSize().z / 2f);
 
         ((BoundingBox) getBound()).setXExtent(GameGlobal.world.getChunkSize().x / 2f);
         ((BoundingBox) getBound()).setYExtent(GameGlobal.world.getChunkSize().y / 2f);
         ((BoundingBox) getBound()).setZExtent(GameGlobal.world.getChunkSize().z / 2f);
+
+        this.m_faceDirectionVertexStarts = new int[Direction3D.ORTHOGONALS.length];
+        this.m_faceDirectionVertexCounts = new int[Direction3D.ORTHOGONALS.length];
+        this.m_visibleFaceDirectionsMask = ALL_FACE_DIRECTIONS_MASK;
     }
 
     @Override
     public void updateBound() {
     }
+
+    /**
+     * Sets the range of vertices of each group of faces. The vertices must be sorted by face direction, following {@link Direction3D#getOrthogonalIndex()}. The index buffer is
+     * then rebuilt with the currently visible face directions, and is only reallocated if it cannot hold the indices of all the faces.
+     *
+     * @param faceDirectionVertexCounts The number of vertices of each face direction, indexed by {@link Direction3D#getOrthogonalIndex()}.
+     */
+    public void setFaceDirectionVertexCounts(int[] faceDirectionVertexCounts) {
+        int vertexStart = 0;
+
+        for (int i = 0; i < m_faceDirectionVertexCounts.length; ++i) {
+            m_faceDirectionVertexStarts[i] = vertexStart;
+            m_faceDirectionVertexCounts[i] = faceDirectionVertexCounts[i];
+            vertexStart += faceDirectionVertexCounts[i];
+        }
+
+        if (m_indexBuffer == null || m_indexBuffer.capacity() < vertexStart) {
+            IntBuffer previousIndexBuffer = m_indexBuffer;
+
+            m_indexBuffer = BufferUtils.createIntBuffer(vertexStart);
+            updateIndexBuffer();
+
+            if (previousIndexBuffer != null) {
+                BufferUtils.destroyDirectBuffer(previousIndexBuffer);
+            }
+        }
+        else {
+            updateIndexBuffer();
+        }
+    }
+
+    /**
+     * Updates the visible face directions according to the camera's location relative to the chunk's voxels. A group of faces is hidden when the camera is behind the plane of
+     * the chunk's side that faces the same way, because then all of its faces point away from the camera. The index buffer is only rewritten if the visible face directions
+     * changed and the face directions' vertices were set.
+     *
+     * @param localCameraLocation The camera's location relative to the chunk's first voxel, which is the mesh's local space.
+     *
+     * @return True if the visible face directions changed, false otherwise.
+     */
+    public boolean updateVisibleFaceDirections(Vector3f localCameraLocation) {
+        Vector3i chunkSize = GameGlobal.world.getChunkSize();
+        int visibleFaceDirectionsMask = 0;
+
+        for (Direction3D direction : Direction3D.ORTHOGONALS) {
+            boolean isVisible = isFaceDirectionVisible(direction.getDirectionX(), localCameraLocation.x, chunkSize.x)
+                && isFaceDirectionVisible(direction.getDirectionY(), localCameraLocation.y, chunkSize.y)
+                && isFaceDirectionVisible(direction.getDirectionZ(), localCameraLocation.z, chunkSize.z);
+
+            if (isVisible) {
+                visibleFaceDirectionsMask |= 1 << direction.getOrthogonalIndex();
+            }
+        }
+
+        if (visibleFaceDirectionsMask != m_visibleFaceDirectionsMask) {
+            m_visibleFaceDirectionsMask = visibleFaceDirectionsMask;
+
+            if (m_indexBuffer != null) {
+                updateIndexBuffer();
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the faces pointing in the supplied direction on one axis can be visible from the camera's location on that same axis.
+     *
+     * @param directionComponent  The face direction's component on the axis.
+     * @param localCameraLocation The camera's location relative to the chunk's first voxel on the axis.
+     * @param chunkSize           The chunk's size on the axis.
+     *
+     * @return True if some faces pointing in the direction can be visible, false otherwise.
+     */
+    private static boolean isFaceDirectionVisible(int directionComponent, float localCameraLocation, int chunkSize) {
+        if (directionComponent > 0) {
+            return localCameraLocation > -World.VOXEL_HALF_EXTENT;
+        }
+        else if (directionComponent < 0) {
+            return localCameraLocation < chunkSize - World.VOXEL_HALF_EXTENT;
+        }
+
+        return true;
+    }
+
+    /**
+     * Rewrites the index buffer in place so that it only references the vertices of the visible face directions. Its limit is the number of visible indices.
+     */
+    private void updateIndexBuffer() {
+        m_indexBuffer.clear();
+
+        for (int i = 0; i < m_faceDirectionVertexCounts.length; ++i) {
+            if ((m_visibleFaceDirectionsMask & (1 << i)) != 0) {
+                for (int index = m_faceDirectionVertexStarts[i]; index < m_faceDirectionVertexStarts[i] + m_faceDirectionVertexCounts[i]; ++index) {
+                    m_indexBuffer.put(index);
+                }
+            }
+        }
+
+        m_indexBuffer.flip();
+
+        VertexBuffer indexVertexBuffer = getBuffer(VertexBuffer.Type.Index);
+
+        if (indexVertexBuffer == null) {
+            MeshBufferUtils.setMeshBuffer(this, VertexBuffer.Type.Index, m_indexBuffer);
+        }
+        else {
+            indexVertexBuffer.updateData(m_indexBuffer);
+            updateCounts();
+        }
+    }
+
+    /**
+     * Gets the bit mask of the visible face directions. The bit at {@link Direction3D#getOrthogonalIndex()} is set if the faces pointing in that direction are visible.
+     *
+     * @return The bit mask of the visible face directions.
+     */
+    public int getVisibleFaceDirectionsMask() {
+        return m_visibleFaceDirectionsMask;
+    }
+
+    /**
+     * Gets the first vertex of the faces pointing in the supplied direction.
+     *
+     * @param direction The orthogonal direction of the faces.
+     *
+     * @return The first vertex of the faces pointing in the supplied direction.
+     */
+    public int getFaceDirectionVertexStart(Direction3D direction) {
+        return m_faceDirectionVertexStarts[direction.getOrthogonalIndex()];
+    }
+
+    /**
+     * Gets the number of vertices of the faces pointing in the supplied direction.
+     *
+     * @param direction The orthogonal direction of the faces.
+     *
+     * @return The number of vertices of the faces pointing in the supplied direction.
+     */
+    public int getFaceDirectionVertexCount(Direction3D direction) {
+        return m_faceDirectionVertexCounts[direction.getOrthogonalIndex()];
+    }
 }
@@ -1,7 +1,7 @@
 package com.cheesygames.colonysimulation.world.chunk.mesh;
 
 import com.cheesygames.colonysimulation.math.direction.Direction3D;
-import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import com.cheesygames.colonysimulation.world.chunk.Chunk;
 import com.cheesygames.colonysimulation.world.chunk.IChunkVoxelData;
 import com.jme3.math.Vector3f;
@@ -15,7 +15,27 @@ import java.util.Map;
  */
 public interface IChunkMeshGenerator {
 
+    /**
+     * Generates the mesh of the supplied chunk at the chunk's level of detail.
+     *
+     * @param chunk The chunk to mesh.
+     *
+     * @return The chunk's mesh.
+     */
     Mesh generateMesh(Chunk chunk);
 
-    void generateVoxelMesh(Chunk chunk, Map<Direction3D, IChunkVoxelData> adjacentChunks, int x, int y, int z, List<Vector3f> vertices, List<Vector3f> normals);
+    /**
+     * Generates the mesh of a single voxel.
+     *
+     * @param voxelData         The voxel data that contains the voxel to mesh. It is either a chunk or a downsampled chunk.
+     * @param voxelDataSize     The number of voxels on each axis of the voxel data.
+     * @param adjacentVoxelData The voxel data of the adjacent chunks, at the same level of detail as the supplied voxel data.
+     * @param x                 The voxel's index on the X axis.
+     * @param y                 The voxel's index on the Y axis.
+     * @param z                 The voxel's index on the Z axis.
+     * @param vertices          The vertices to which the voxel's vertices are added.
+     * @param normals           The normals to which the voxel's normals are added.
+     */
+    void generateVoxelMesh(IChunkVoxelData voxelData, Vector3i voxelDataSize, Map<Direction3D, IChunkVoxelData> adjacentVoxelData, int x, int y, int z, List<Vector3f> vertices,
+        List<Vector3f> normals);
 }
@@ -0,0 +1,267 @@
+package com.cheesygames.colonysimulation.world.chunk.region;
+
+import com.cheesygames.colonysimulation.math.MeshBufferUtils;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.mesh.ChunkMesh;
+import com.jme3.bounding.BoundingBox;
+import com.jme3.material.Material;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Spatial;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.util.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A region of chunks whose meshes are merged into a single geometry. Every chunk owns a slice of the region's vertex buffers, so that remeshing a chunk only rewrites its own
+ * slice. The index buffer only references the visible chunks and, for each of them, its visible face directions.
+ */
+public class ChunkRegion {
+
+    private Vector3i m_index;
+    private Mesh m_mesh;
+    private Geometry m_geometry;
+    private FloatBuffer m_positionBuffer;
+    private FloatBuffer m_normalBuffer;
+    private IntBuffer m_indexBuffer;
+    private VertexRangeAllocator m_vertexRangeAllocator;
+    private Map<Chunk, ChunkSlice> m_chunkSlices;
+    private boolean m_isIndexBufferOutdated;
+
+    /**
+     * Creates an empty region.
+     *
+     * @param index                 The region's index.
+     * @param regionSize            The number of voxels of the region on each axis.
+     * @param initialVertexCapacity The initial number of vertices that the region's buffers can hold. The buffers grow when full.
+     * @param material              The material of the region's geometry.
+     */
+    public ChunkRegion(Vector3i index, Vector3i regionSize, int initialVertexCapacity, Material material) {
+        this.m_index = index;
+        this.m_mesh = new Mesh();
+        this.m_positionBuffer = BufferUtils.createFloatBuffer(initialVertexCapacity * MeshBufferUtils.POSITION_BUFFER_COMPONENT_COUNT);
+        this.m_normalBuffer = BufferUtils.createFloatBuffer(initialVertexCapacity * MeshBufferUtils.NORMAL_BUFFER_COMPONENT_COUNT);
+        this.m_indexBuffer = BufferUtils.createIntBuffer(0);
+        this.m_vertexRangeAllocator = new VertexRangeAllocator(initialVertexCapacity);
+        this.m_chunkSlices = new HashMap<>();
+
+        MeshBufferUtils.setMeshBuffer(m_mesh, VertexBuffer.Type.Position, m_positionBuffer);
+        MeshBufferUtils.setMeshBuffer(m_mesh, VertexBuffer.Type.Normal, m_normalBuffer);
+        MeshBufferUtils.setMeshBuffer(m_mesh, VertexBuffer.Type.Index, m_indexBuffer);
+        m_mesh.setBound(new BoundingBox(new Vector3f(-World.VOXEL_HALF_EXTENT, -World.VOXEL_HALF_EXTENT, -World.VOXEL_HALF_EXTENT),
+            new Vector3f(regionSize.x - World.VOXEL_HALF_EXTENT, regionSize.y - World.VOXEL_HALF_EXTENT, regionSize.z - World.VOXEL_HALF_EXTENT)));
+
+        this.m_geometry = new Geometry("ChunkRegion" + index, m_mesh);
+        m_geometry.setMaterial(material);
+        m_geometry.setCullHint(Spatial.CullHint.Always);
+    }
+
+    /**
+     * Copies the supplied chunk's mesh into its slice of the region's vertex buffers. The previous slice of the chunk is freed.
+     *
+     * @param chunk       The remeshed chunk. Its mesh must be a {@link ChunkMesh}.
+     * @param chunkOffset The position of the chunk's first voxel relative to the region's first voxel.
+     */
+    public void updateChunk(Chunk chunk, Vector3i chunkOffset) {
+        ChunkMesh chunkMesh = (ChunkMesh) chunk.getMesh();
+        FloatBuffer chunkPositions = chunkMesh.getFloatBuffer(VertexBuffer.Type.Position);
+        FloatBuffer chunkNormals = chunkMesh.getFloatBuffer(VertexBuffer.Type.Normal);
+        int vertexCount = chunkPositions.limit() / MeshBufferUtils.POSITION_BUFFER_COMPONENT_COUNT;
+
+        removeChunk(chunk);
+
+        int vertexStart = m_vertexRangeAllocator.allocate(vertexCount);
+        if (vertexStart == VertexRangeAllocator.ALLOCATION_FAILED) {
+            growVertexBuffers(vertexCount);
+            vertexStart = m_vertexRangeAllocator.allocate(vertexCount);
+        }
+
+        for (int i = 0; i < vertexCount; ++i) {
+            int component = i * MeshBufferUtils.POSITION_BUFFER_COMPONENT_COUNT;
+            int regionComponent = (vertexStart + i) * MeshBufferUtils.POSITION_BUFFER_COMPONENT_COUNT;
+
+            m_positionBuffer.put(regionComponent, chunkPositions.get(component) + chunkOffset.x);
+            m_positionBuffer.put(regionComponent + 1, chunkPositions.get(component + 1) + chunkOffset.y);
+            m_positionBuffer.put(regionComponent + 2, chunkPositions.get(component + 2) + chunkOffset.z);
+            m_normalBuffer.put(regionComponent, chunkNormals.get(component));
+            m_normalBuffer.put(regionComponent + 1, chunkNormals.get(component + 1));
+            m_normalBuffer.put(regionComponent + 2, chunkNormals.get(component + 2));
+        }
+
+        m_chunkSlices.put(chunk, new ChunkSlice(vertexStart, vertexCount));
+        m_mesh.getBuffer(VertexBuffer.Type.Position).setUpdateNeeded();
+        m_mesh.getBuffer(VertexBuffer.Type.Normal).setUpdateNeeded();
+        m_isIndexBufferOutdated = true;
+    }
+
+    /**
+     * Removes the supplied chunk from the region and frees its slice of the vertex buffers.
+     *
+     * @param chunk The chunk to remove.
+     */
+    public void removeChunk(Chunk chunk) {
+        ChunkSlice slice = m_chunkSlices.remove(chunk);
+
+        if (slice != null) {
+            m_vertexRangeAllocator.free(slice.m_vertexStart, slice.m_vertexCount);
+            m_isIndexBufferOutdated = true;
+        }
+    }
+
+    /**
+     * Grows the vertex buffers so that the supplied number of vertices can be allocated. The capacity is at least doubled to amortize the copies. The previous buffers are
+     * destroyed once the mesh uses the larger ones, rather than waiting for the garbage collector to free their native memory.
+     *
+     * @param vertexCount The number of vertices that must fit.
+     */
+    private void growVertexBuffers(int vertexCount) {
+        int capacity = Math.max(m_vertexRangeAllocator.getCapacity() * 2, m_vertexRangeAllocator.getCapacity() + vertexCount);
+        FloatBuffer previousPositionBuffer = m_positionBuffer;
+        FloatBuffer previousNormalBuffer = m_normalBuffer;
+
+        m_positionBuffer = copyIntoLargerBuffer(m_positionBuffer, capacity * MeshBufferUtils.POSITION_BUFFER_COMPONENT_COUNT);
+        m_normalBuffer = copyIntoLargerBuffer(m_normalBuffer, capacity * MeshBufferUtils.NORMAL_BUFFER_COMPONENT_COUNT);
+        m_vertexRangeAllocator.grow(capacity);
+
+        MeshBufferUtils.setMeshBuffer(m_mesh, VertexBuffer.Type.Position, m_positionBuffer);
+        MeshBufferUtils.setMeshBuffer(m_mesh, VertexBuffer.Type.Normal, m_normalBuffer);
+
+        BufferUtils.destroyDirectBuffer(previousPositionBuffer);
+        BufferUtils.destroyDirectBuffer(previousNormalBuffer);
+    }
+
+    private static FloatBuffer copyIntoLargerBuffer(FloatBuffer buffer, int capacity) {
+        FloatBuffer largerBuffer = BufferUtils.createFloatBuffer(capacity);
+
+        buffer.clear();
+        largerBuffer.put(buffer);
+        largerBuffer.clear();
+
+        return largerBuffer;
+    }
+
+    /**
+     * Rebuilds the index buffer if a chunk was updated or removed, or if the visibility or the visible face directions of a chunk changed since the last rebuild.
+     *
+     * @return True if the index buffer was rebuilt, false otherwise.
+     */
+    public boolean updateIndexBuffer() {
+        boolean isIndexBufferOutdated = m_isIndexBufferOutdated;
+
+        for (Map.Entry<Chunk, ChunkSlice> chunkSlice : m_chunkSlices.entrySet()) {
+            isIndexBufferOutdated |= chunkSlice.getValue().isOutdated(chunkSlice.getKey());
+        }
+
+        if (!isIndexBufferOutdated) {
+            return false;
+        }
+
+        int indexCount = 0;
+        for (Map.Entry<Chunk, ChunkSlice> chunkSlice : m_chunkSlices.entrySet()) {
+            indexCount += chunkSlice.getValue().computeVisibleVertexCount(chunkSlice.getKey());
+        }
+
+        IntBuffer previousIndexBuffer = null;
+        if (m_indexBuffer.capacity() < indexCount) {
+            previousIndexBuffer = m_indexBuffer;
+            m_indexBuffer = BufferUtils.createIntBuffer(indexCount);
+        }
+
+        m_indexBuffer.clear();
+        for (Map.Entry<Chunk, ChunkSlice> chunkSlice : m_chunkSlices.entrySet()) {
+            chunkSlice.getValue().putVisibleIndices(chunkSlice.getKey(), m_indexBuffer);
+        }
+        m_indexBuffer.flip();
+
+        MeshBufferUtils.setMeshBuffer(m_mesh, VertexBuffer.Type.Index, m_indexBuffer);
+
+        if (previousIndexBuffer != null) {
+            BufferUtils.destroyDirectBuffer(previousIndexBuffer);
+        }
+
+        m_geometry.setCullHint(indexCount == 0 ? Spatial.CullHint.Always : Spatial.CullHint.Inherit);
+        m_isIndexBufferOutdated = false;
+
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return m_chunkSlices.isEmpty();
+    }
+
+    public Vector3i getIndex() {
+        return m_index;
+    }
+
+    public Geometry getGeometry() {
+        return m_geometry;
+    }
+
+    /**
+     * The range of vertices of a chunk in the region's vertex buffers, along with the chunk's visibility when the index buffer was last built.
+     */
+    private static final class ChunkSlice {
+
+        private final int m_vertexStart;
+        private final int m_vertexCount;
+        private boolean m_isVisible;
+        private int m_visibleFaceDirectionsMask;
+
+        private ChunkSlice(int vertexStart, int vertexCount) {
+            this.m_vertexStart = vertexStart;
+            this.m_vertexCount = vertexCount;
+        }
+
+        private boolean isOutdated(Chunk chunk) {
+            return m_isVisible != chunk.isVisible() || m_visibleFaceDirectionsMask != ((ChunkMesh) chunk.getMesh()).getVisibleFaceDirectionsMask();
+        }
+
+        private int computeVisibleVertexCount(Chunk chunk) {
+            ChunkMesh chunkMesh = (ChunkMesh) chunk.getMesh();
+            int visibleVertexCount = 0;
+
+            if (chunk.isVisible()) {
+                for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                    if ((chunkMesh.getVisibleFaceDirectionsMask() & (1 << direction.getOrthogonalIndex())) != 0) {
+                        visibleVertexCount += chunkMesh.getFaceDirectionVertexCount(direction);
+                    }
+                }
+            }
+
+            return visibleVertexCount;
+        }
+
+        /**
+         * Puts the indices of the visible faces of the chunk and remembers the visibility that was used.
+         *
+         * @param chunk       The chunk that owns this slice.
+         * @param indexBuffer The index buffer to fill.
+         */
+        private void putVisibleIndices(Chunk chunk, IntBuffer indexBuffer) {
+            ChunkMesh chunkMesh = (ChunkMesh) chunk.getMesh();
+
+            m_isVisible = chunk.isVisible();
+            m_visibleFaceDirectionsMask = chunkMesh.getVisibleFaceDirectionsMask();
+
+            if (m_isVisible) {
+                for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                    if ((m_visibleFaceDirectionsMask & (1 << direction.getOrthogonalIndex())) != 0) {
+                        int vertexStart = m_vertexStart + chunkMesh.getFaceDirectionVertexStart(direction);
+
+                        for (int i = vertexStart; i < vertexStart + chunkMesh.getFaceDirectionVertexCount(direction); ++i) {
+                            indexBuffer.put(i);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
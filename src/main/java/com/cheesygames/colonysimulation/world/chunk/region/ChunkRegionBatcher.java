@@ -0,0 +1,160 @@
+package com.cheesygames.colonysimulation.world.chunk.region;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.IWorldEventCommunicator;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.mesh.ChunkMesh;
+import com.jme3.material.Material;
+import com.jme3.scene.Node;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Batches the chunk meshes by regions of N by N by N chunks, so that each region is drawn with a single geometry instead of one geometry per chunk. It listens to the world's
+ * events to keep the regions up to date, and {@link #update()} must be called every frame after the chunks are meshed. The regions' geometries are frustum culled by jMonkey as
+ * a whole.
+ */
+public class ChunkRegionBatcher implements IWorldEventCommunicator {
+
+    public static final int DEFAULT_REGION_SIZE_IN_CHUNKS = 4;
+    public static final int DEFAULT_INITIAL_VERTEX_CAPACITY = 1 << 14;
+
+    private Map<Vector3i, ChunkRegion> m_regions;
+    private Material m_material;
+    private Node m_parentNode;
+    private int m_regionSizeInChunks;
+    private int m_initialVertexCapacity;
+    private Vector3i m_tmpRegionIndex;
+
+    /**
+     * Creates a batcher whose regions are attached to the terrain node.
+     *
+     * @param material The material of the regions' geometries.
+     */
+    public ChunkRegionBatcher(Material material) {
+        this(material, GameGlobal.terrainNode, DEFAULT_REGION_SIZE_IN_CHUNKS, DEFAULT_INITIAL_VERTEX_CAPACITY);
+    }
+
+    /**
+     * Creates a batcher.
+     *
+     * @param material              The material of the regions' geometries.
+     * @param parentNode            The node to which the regions' geometries are attached.
+     * @param regionSizeInChunks    The number of chunks of a region on each axis.
+     * @param initialVertexCapacity The initial number of vertices that a region's buffers can hold.
+     */
+    public ChunkRegionBatcher(Material material, Node parentNode, int regionSizeInChunks, int initialVertexCapacity) {
+        this.m_regions = new HashMap<>();
+        this.m_material = material;
+        this.m_parentNode = parentNode;
+        this.m_regionSizeInChunks = regionSizeInChunks;
+        this.m_initialVertexCapacity = initialVertexCapacity;
+        this.m_tmpRegionIndex = new Vector3i();
+    }
+
+    @Override
+    public void chunkRemeshed(Chunk chunk, boolean wasMeshNullBefore) {
+        if (chunk.getMesh() instanceof ChunkMesh) {
+            Vector3i regionIndex = computeRegionIndexLocal(chunk.getIndex(), m_tmpRegionIndex);
+            ChunkRegion region = m_regions.get(regionIndex);
+
+            if (region == null) {
+                region = createRegion(new Vector3i(regionIndex));
+            }
+
+            region.updateChunk(chunk, computeChunkOffset(chunk.getIndex(), regionIndex));
+        }
+    }
+
+    @Override
+    public void chunkIsEmpty(Chunk chunk) {
+        ChunkRegion region = m_regions.get(computeRegionIndexLocal(chunk.getIndex(), m_tmpRegionIndex));
+
+        if (region != null) {
+            region.removeChunk(chunk);
+        }
+    }
+
+    @Override
+    public void chunkVisibilityChanged(Chunk chunk) {
+        // The regions compare the chunks' visibility when they are updated.
+    }
+
+    /**
+     * Rebuilds the index buffers of the regions that changed and detaches the regions that no longer hold any chunk.
+     */
+    public void update() {
+        Iterator<ChunkRegion> regionIterator = m_regions.values().iterator();
+
+        while (regionIterator.hasNext()) {
+            ChunkRegion region = regionIterator.next();
+
+            if (region.isEmpty()) {
+                m_parentNode.detachChild(region.getGeometry());
+                regionIterator.remove();
+            }
+            else {
+                region.updateIndexBuffer();
+            }
+        }
+    }
+
+    private ChunkRegion createRegion(Vector3i regionIndex) {
+        World world = GameGlobal.world;
+        Vector3i chunkSize = world.getChunkSize();
+        Vector3i regionSize = new Vector3i(chunkSize.x * m_regionSizeInChunks, chunkSize.y * m_regionSizeInChunks, chunkSize.z * m_regionSizeInChunks);
+        ChunkRegion region = new ChunkRegion(regionIndex, regionSize, m_initialVertexCapacity, m_material);
+
+        region.getGeometry()
+              .setLocalTranslation(world.getChunkStartPositionX(regionIndex.x * m_regionSizeInChunks),
+                  world.getChunkStartPositionY(regionIndex.y * m_regionSizeInChunks),
+                  world.getChunkStartPositionZ(regionIndex.z * m_regionSizeInChunks));
+
+        m_regions.put(regionIndex, region);
+        m_parentNode.attachChild(region.getGeometry());
+
+        return region;
+    }
+
+    /**
+     * Computes the index of the region that holds the chunk at the supplied index. The method is local, meaning that the supplied region index will be set and returned.
+     *
+     * @param chunkIndex  The chunk's index.
+     * @param regionIndex The region index to modify and return.
+     *
+     * @return The supplied region index, which is now the index of the chunk's region.
+     */
+    public Vector3i computeRegionIndexLocal(Vector3i chunkIndex, Vector3i regionIndex) {
+        return regionIndex.set(Math.floorDiv(chunkIndex.x, m_regionSizeInChunks),
+            Math.floorDiv(chunkIndex.y, m_regionSizeInChunks),
+            Math.floorDiv(chunkIndex.z, m_regionSizeInChunks));
+    }
+
+    /**
+     * Computes the position of the chunk's first voxel relative to its region's first voxel.
+     *
+     * @param chunkIndex  The chunk's index.
+     * @param regionIndex The index of the chunk's region.
+     *
+     * @return The chunk's offset in its region.
+     */
+    private Vector3i computeChunkOffset(Vector3i chunkIndex, Vector3i regionIndex) {
+        World world = GameGlobal.world;
+
+        return new Vector3i(world.getChunkStartPositionX(chunkIndex.x - regionIndex.x * m_regionSizeInChunks),
+            world.getChunkStartPositionY(chunkIndex.y - regionIndex.y * m_regionSizeInChunks),
+            world.getChunkStartPositionZ(chunkIndex.z - regionIndex.z * m_regionSizeInChunks));
+    }
+
+    public Map<Vector3i, ChunkRegion> getRegions() {
+        return m_regions;
+    }
+
+    public int getRegionSizeInChunks() {
+        return m_regionSizeInChunks;
+    }
+}
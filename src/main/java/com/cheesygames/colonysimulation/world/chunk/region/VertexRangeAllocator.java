@@ -0,0 +1,100 @@
+package com.cheesygames.colonysimulation.world.chunk.region;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * First fit allocator of vertex ranges inside a buffer. Adjacent free ranges are merged when a range is freed, so that the buffer doesn't fragment over time.
+ */
+public class VertexRangeAllocator {
+
+    public static final int ALLOCATION_FAILED = -1;
+
+    private TreeMap<Integer, Integer> m_freeRanges;
+    private int m_capacity;
+
+    /**
+     * Creates an allocator whose whole capacity is free.
+     *
+     * @param capacity The number of vertices that the buffer can hold.
+     */
+    public VertexRangeAllocator(int capacity) {
+        this.m_freeRanges = new TreeMap<>();
+        this.m_capacity = 0;
+
+        grow(capacity);
+    }
+
+    /**
+     * Allocates a range of contiguous vertices.
+     *
+     * @param vertexCount The number of vertices to allocate.
+     *
+     * @return The first vertex of the allocated range, or {@link #ALLOCATION_FAILED} if there isn't any free range large enough.
+     */
+    public int allocate(int vertexCount) {
+        if (vertexCount == 0) {
+            return 0;
+        }
+
+        for (Map.Entry<Integer, Integer> freeRange : m_freeRanges.entrySet()) {
+            if (freeRange.getValue() >= vertexCount) {
+                int start = freeRange.getKey();
+                int remainingVertexCount = freeRange.getValue() - vertexCount;
+
+                m_freeRanges.remove(start);
+                if (remainingVertexCount > 0) {
+                    m_freeRanges.put(start + vertexCount, remainingVertexCount);
+                }
+
+                return start;
+            }
+        }
+
+        return ALLOCATION_FAILED;
+    }
+
+    /**
+     * Frees a previously allocated range of vertices.
+     *
+     * @param start       The first vertex of the range.
+     * @param vertexCount The number of vertices of the range.
+     */
+    public void free(int start, int vertexCount) {
+        if (vertexCount == 0) {
+            return;
+        }
+
+        Map.Entry<Integer, Integer> previousFreeRange = m_freeRanges.floorEntry(start);
+        if (previousFreeRange != null && previousFreeRange.getKey() + previousFreeRange.getValue() == start) {
+            m_freeRanges.remove(previousFreeRange.getKey());
+            start = previousFreeRange.getKey();
+            vertexCount += previousFreeRange.getValue();
+        }
+
+        Integer nextFreeRangeVertexCount = m_freeRanges.remove(start + vertexCount);
+        if (nextFreeRangeVertexCount != null) {
+            vertexCount += nextFreeRangeVertexCount;
+        }
+
+        m_freeRanges.put(start, vertexCount);
+    }
+
+    /**
+     * Grows the capacity of the allocator. The new vertices are free.
+     *
+     * @param capacity The new capacity. Must not be smaller than the current capacity.
+     */
+    public void grow(int capacity) {
+        assert capacity >= m_capacity;
+
+        int previousCapacity = m_capacity;
+        m_capacity = capacity;
+
+        free(previousCapacity, capacity - previousCapacity);
+    }
+
+    public int getCapacity() {
+        return m_capacity;
+    }
+}
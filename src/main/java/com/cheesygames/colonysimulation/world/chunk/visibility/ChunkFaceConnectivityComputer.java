@@ -0,0 +1,207 @@
+package com.cheesygames.colonysimulation.world.chunk.visibility;
+
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.IChunk;
+
+import java.util.Arrays;
+
+/**
+ * Computes which pairs of a chunk's six faces are connected through non solid voxels. The result is a set of 15 bits, one for each pair of distinct faces, as returned by {@link
+ * #getFacePairBit(Direction3D, Direction3D)}. Two faces are connected when a flood fill of the non solid voxels starting from one of them reaches the other.
+ * <p>
+ * The computer keeps its flood fill buffers between computations, so it must not be shared between threads.
+ */
+public class ChunkFaceConnectivityComputer {
+
+    public static final int FACE_PAIR_COUNT = Direction3D.ORTHOGONALS.length * (Direction3D.ORTHOGONALS.length - 1) / 2;
+    public static final int ALL_FACES_CONNECTED = (1 << FACE_PAIR_COUNT) - 1;
+    public static final int NO_FACES_CONNECTED = 0;
+
+    private boolean[] m_visitedVoxels;
+    private int[] m_voxelQueue;
+
+    public ChunkFaceConnectivityComputer() {
+        this.m_visitedVoxels = new boolean[0];
+        this.m_voxelQueue = new int[0];
+    }
+
+    /**
+     * Computes the face connectivity of the supplied chunk.
+     *
+     * @param chunk The chunk to compute its face connectivity.
+     *
+     * @return The set of connected face pairs.
+     */
+    public int compute(IChunk chunk) {
+        Vector3i size = chunk.getSize();
+        int voxelCount = size.x * size.y * size.z;
+
+        if (m_visitedVoxels.length != voxelCount) {
+            m_visitedVoxels = new boolean[voxelCount];
+            m_voxelQueue = new int[voxelCount];
+        }
+        else {
+            Arrays.fill(m_visitedVoxels, false);
+        }
+
+        int faceConnectivity = NO_FACES_CONNECTED;
+
+        for (int x = 0; x < size.x && faceConnectivity != ALL_FACES_CONNECTED; ++x) {
+            for (int y = 0; y < size.y; ++y) {
+                for (int z = 0; z < size.z; ++z) {
+                    boolean isOnChunkSide = x == 0 || x == size.x - 1 || y == 0 || y == size.y - 1 || z == 0 || z == size.z - 1;
+                    int voxelIndex = (x * size.y + y) * size.z + z;
+
+                    if (isOnChunkSide && !m_visitedVoxels[voxelIndex] && !chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+                        faceConnectivity |= computeFacePairs(floodFill(chunk, size, voxelIndex));
+                    }
+                }
+            }
+        }
+
+        return faceConnectivity;
+    }
+
+    /**
+     * Flood fills the non solid voxels connected to the supplied starting voxel and marks them as visited.
+     *
+     * @param chunk           The chunk to flood fill.
+     * @param size            The chunk's size.
+     * @param startVoxelIndex The flat index of the non solid voxel from which to start.
+     *
+     * @return The bit mask of the faces touched by the filled voxels, indexed by {@link Direction3D#getOrthogonalIndex()}.
+     */
+    private int floodFill(IChunk chunk, Vector3i size, int startVoxelIndex) {
+        int touchedFaces = 0;
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        m_visitedVoxels[startVoxelIndex] = true;
+        m_voxelQueue[queueEnd++] = startVoxelIndex;
+
+        while (queueStart < queueEnd) {
+            int voxelIndex = m_voxelQueue[queueStart++];
+            int z = voxelIndex % size.z;
+            int y = (voxelIndex / size.z) % size.y;
+            int x = voxelIndex / (size.z * size.y);
+
+            touchedFaces |= computeTouchedFaces(size, x, y, z);
+
+            for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                int adjacentX = x + direction.getDirectionX();
+                int adjacentY = y + direction.getDirectionY();
+                int adjacentZ = z + direction.getDirectionZ();
+
+                if (adjacentX >= 0 && adjacentX < size.x && adjacentY >= 0 && adjacentY < size.y && adjacentZ >= 0 && adjacentZ < size.z) {
+                    int adjacentVoxelIndex = (adjacentX * size.y + adjacentY) * size.z + adjacentZ;
+
+                    if (!m_visitedVoxels[adjacentVoxelIndex] && !chunk.getVoxelAt(adjacentX, adjacentY, adjacentZ).voxelType.isSolid()) {
+                        m_visitedVoxels[adjacentVoxelIndex] = true;
+                        m_voxelQueue[queueEnd++] = adjacentVoxelIndex;
+                    }
+                }
+            }
+        }
+
+        return touchedFaces;
+    }
+
+    /**
+     * Computes the chunk's faces touched by the voxel at the supplied indices.
+     *
+     * @param size The chunk's size.
+     * @param x    The voxel's index on the X axis.
+     * @param y    The voxel's index on the Y axis.
+     * @param z    The voxel's index on the Z axis.
+     *
+     * @return The bit mask of the touched faces, indexed by {@link Direction3D#getOrthogonalIndex()}.
+     */
+    private static int computeTouchedFaces(Vector3i size, int x, int y, int z) {
+        int touchedFaces = 0;
+
+        if (x == 0) {
+            touchedFaces |= 1 << Direction3D.LEFT.getOrthogonalIndex();
+        }
+        if (x == size.x - 1) {
+            touchedFaces |= 1 << Direction3D.RIGHT.getOrthogonalIndex();
+        }
+        if (y == 0) {
+            touchedFaces |= 1 << Direction3D.BOTTOM.getOrthogonalIndex();
+        }
+        if (y == size.y - 1) {
+            touchedFaces |= 1 << Direction3D.TOP.getOrthogonalIndex();
+        }
+        if (z == 0) {
+            touchedFaces |= 1 << Direction3D.BACK.getOrthogonalIndex();
+        }
+        if (z == size.z - 1) {
+            touchedFaces |= 1 << Direction3D.FRONT.getOrthogonalIndex();
+        }
+
+        return touchedFaces;
+    }
+
+    /**
+     * Computes the set of face pairs that are connected when all the supplied faces are connected together.
+     *
+     * @param touchedFaces The bit mask of faces, indexed by {@link Direction3D#getOrthogonalIndex()}.
+     *
+     * @return The set of connected face pairs.
+     */
+    private static int computeFacePairs(int touchedFaces) {
+        int facePairs = NO_FACES_CONNECTED;
+
+        for (int i = 0; i < Direction3D.ORTHOGONALS.length; ++i) {
+            if ((touchedFaces & (1 << i)) != 0) {
+                for (int j = i + 1; j < Direction3D.ORTHOGONALS.length; ++j) {
+                    if ((touchedFaces & (1 << j)) != 0) {
+                        facePairs |= 1 << getFacePairIndex(i, j);
+                    }
+                }
+            }
+        }
+
+        return facePairs;
+    }
+
+    /**
+     * Gets the index of the pair of faces in a face connectivity set.
+     *
+     * @param lhsOrthogonalIndex The {@link Direction3D#getOrthogonalIndex()} of the first face.
+     * @param rhsOrthogonalIndex The {@link Direction3D#getOrthogonalIndex()} of the second face. Must be different from the first face.
+     *
+     * @return The index of the bit that represents the pair of faces.
+     */
+    private static int getFacePairIndex(int lhsOrthogonalIndex, int rhsOrthogonalIndex) {
+        int min = Math.min(lhsOrthogonalIndex, rhsOrthogonalIndex);
+        int max = Math.max(lhsOrthogonalIndex, rhsOrthogonalIndex);
+
+        return min * (2 * Direction3D.ORTHOGONALS.length - min - 1) / 2 + max - min - 1;
+    }
+
+    /**
+     * Gets the bit that represents the pair of faces in a face connectivity set.
+     *
+     * @param lhs The first face.
+     * @param rhs The second face. Must be different from the first face.
+     *
+     * @return The bit that represents the pair of faces.
+     */
+    public static int getFacePairBit(Direction3D lhs, Direction3D rhs) {
+        return 1 << getFacePairIndex(lhs.getOrthogonalIndex(), rhs.getOrthogonalIndex());
+    }
+
+    /**
+     * Checks if the two faces are connected according to the supplied face connectivity set.
+     *
+     * @param faceConnectivity The set of connected face pairs.
+     * @param lhs              The first face.
+     * @param rhs              The second face. Must be different from the first face.
+     *
+     * @return True if the faces are connected, false otherwise.
+     */
+    public static boolean areFacesConnected(int faceConnectivity, Direction3D lhs, Direction3D rhs) {
+        return (faceConnectivity & getFacePairBit(lhs, rhs)) != 0;
+    }
+}
@@ -0,0 +1,260 @@
+package com.cheesygames.colonysimulation.world.chunk.visibility;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.reflection.IEnumCachedValues;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.IWorldEventCommunicator;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+
+import java.util.Arrays;
+
+/**
+ * Occlusion culler for chunks based upon their face connectivity. A breadth first traversal starts from the camera's chunk and only goes from a chunk to an adjacent one through
+ * a pair of connected faces, so that enclosed caves are never reached from the surface. The traversal never goes back in a direction opposite to one it already took, and it
+ * skips the chunks outside of the camera's frustum. The chunks that are not reached are not visible.
+ * <p>
+ * Positions where there is no chunk are empty, thus all of their faces are connected.
+ * <p>
+ * The traversal steps are packed in ints and the reached chunks are flagged in an array indexed like the traversal bounds, so that the traversal never allocates once its buffers
+ * are big enough.
+ */
+public class ChunkOcclusionCuller {
+
+    private static final int TRAVELED_DIRECTIONS_BIT_COUNT = Direction3D.ORTHOGONALS.length;
+    private static final int TRAVELED_DIRECTIONS_BITS = (1 << TRAVELED_DIRECTIONS_BIT_COUNT) - 1;
+    private static final int ENTRY_FACE_BIT_COUNT = 3;
+    private static final int ENTRY_FACE_BITS = (1 << ENTRY_FACE_BIT_COUNT) - 1;
+    private static final int NO_ENTRY_FACE = ENTRY_FACE_BITS;
+    private static final int TRAVERSAL_INDEX_SHIFT = TRAVELED_DIRECTIONS_BIT_COUNT + ENTRY_FACE_BIT_COUNT;
+
+    /**
+     * The maximum number of chunks that the traversal bounds can hold for their indices to be packed in the traversal steps.
+     */
+    public static final int MAXIMUM_TRAVERSED_CHUNK_COUNT = 1 << (Integer.SIZE - TRAVERSAL_INDEX_SHIFT);
+
+    private boolean[] m_reachedChunks;
+    private int[] m_traversalQueue;
+    private Vector3i m_minChunkIndex;
+    private Vector3i m_maxChunkIndex;
+    private Vector3i m_traversalSize;
+    private Vector3i m_tmpVoxelIndex;
+    private Vector3i m_tmpStartChunkIndex;
+    private Vector3i m_tmpChunkIndex;
+    private Vector3i m_tmpAdjacentChunkIndex;
+    private BoundingBox m_tmpChunkBound;
+
+    public ChunkOcclusionCuller() {
+        this.m_reachedChunks = new boolean[0];
+        this.m_traversalQueue = new int[0];
+        this.m_minChunkIndex = new Vector3i();
+        this.m_maxChunkIndex = new Vector3i();
+        this.m_traversalSize = new Vector3i();
+        this.m_tmpVoxelIndex = new Vector3i();
+        this.m_tmpStartChunkIndex = new Vector3i();
+        this.m_tmpChunkIndex = new Vector3i();
+        this.m_tmpAdjacentChunkIndex = new Vector3i();
+        this.m_tmpChunkBound = new BoundingBox();
+    }
+
+    /**
+     * Traverses the chunks from the camera's chunk and updates the visibility of all the chunks of the world. The event emitter is noticed of every chunk whose visibility
+     * changed.
+     *
+     * @param camera       The camera from which the chunks are seen.
+     * @param eventEmitter The emitter of the "chunk visibility changed" events.
+     */
+    public void update(Camera camera, IWorldEventCommunicator eventEmitter) {
+        World world = GameGlobal.world;
+        Vector3f cameraLocation = camera.getLocation();
+        Vector3i startChunkIndex = world.getChunkIndexLocal(m_tmpVoxelIndex.set((int) FastMath.floor(cameraLocation.x + World.VOXEL_HALF_EXTENT),
+            (int) FastMath.floor(cameraLocation.y + World.VOXEL_HALF_EXTENT),
+            (int) FastMath.floor(cameraLocation.z + World.VOXEL_HALF_EXTENT)), m_tmpStartChunkIndex);
+
+        computeTraversalBounds(startChunkIndex);
+        traverse(camera, startChunkIndex);
+
+        for (Chunk chunk : world.getChunks().values()) {
+            boolean isVisible = m_reachedChunks[getTraversalIndex(chunk.getIndex())];
+
+            if (isVisible != chunk.isVisible()) {
+                chunk.setVisible(isVisible);
+                eventEmitter.chunkVisibilityChanged(chunk);
+            }
+        }
+    }
+
+    /**
+     * Computes the bounds of the traversal, which is the smallest box that holds all the chunks of the world and the camera's chunk. Since the traversal never goes back in an
+     * opposite direction, it could never come back into that box after leaving it. The traversal buffers are then cleared, and grown if the box holds more chunks than they do.
+     *
+     * @param startChunkIndex The camera's chunk index.
+     */
+    private void computeTraversalBounds(Vector3i startChunkIndex) {
+        m_minChunkIndex.set(startChunkIndex);
+        m_maxChunkIndex.set(startChunkIndex);
+
+        for (Vector3i chunkIndex : GameGlobal.world.getChunks().keySet()) {
+            m_minChunkIndex.set(Math.min(m_minChunkIndex.x, chunkIndex.x), Math.min(m_minChunkIndex.y, chunkIndex.y), Math.min(m_minChunkIndex.z, chunkIndex.z));
+            m_maxChunkIndex.set(Math.max(m_maxChunkIndex.x, chunkIndex.x), Math.max(m_maxChunkIndex.y, chunkIndex.y), Math.max(m_maxChunkIndex.z, chunkIndex.z));
+        }
+
+        m_traversalSize.set(m_maxChunkIndex.x - m_minChunkIndex.x + 1, m_maxChunkIndex.y - m_minChunkIndex.y + 1, m_maxChunkIndex.z - m_minChunkIndex.z + 1);
+        long traversedChunkCount = (long) m_traversalSize.x * m_traversalSize.y * m_traversalSize.z;
+
+        if (traversedChunkCount > MAXIMUM_TRAVERSED_CHUNK_COUNT) {
+            throw new IllegalStateException("The traversal bounds hold " + traversedChunkCount + " chunks, but at most " + MAXIMUM_TRAVERSED_CHUNK_COUNT + " can be traversed.");
+        }
+
+        if (m_reachedChunks.length < traversedChunkCount) {
+            m_reachedChunks = new boolean[(int) traversedChunkCount];
+            m_traversalQueue = new int[(int) traversedChunkCount];
+        }
+        else {
+            Arrays.fill(m_reachedChunks, 0, (int) traversedChunkCount, false);
+        }
+    }
+
+    /**
+     * Traverses the chunks through their connected faces, from the camera's chunk. Every chunk is queued at most once, so the queue never holds more steps than the traversal
+     * bounds hold chunks.
+     *
+     * @param camera          The camera from which the chunks are seen.
+     * @param startChunkIndex The camera's chunk index.
+     */
+    private void traverse(Camera camera, Vector3i startChunkIndex) {
+        int planeState = camera.getPlaneState();
+        int startTraversalIndex = getTraversalIndex(startChunkIndex);
+        int queueStart = 0;
+        int queueEnd = 0;
+
+        m_reachedChunks[startTraversalIndex] = true;
+        m_traversalQueue[queueEnd++] = packStep(startTraversalIndex, NO_ENTRY_FACE, 0);
+
+        while (queueStart < queueEnd) {
+            int step = m_traversalQueue[queueStart++];
+            Vector3i chunkIndex = getTraversedChunkIndex(step >>> TRAVERSAL_INDEX_SHIFT, m_tmpChunkIndex);
+            Chunk chunk = GameGlobal.world.getChunkAt(chunkIndex);
+            int faceConnectivity = chunk != null ? chunk.getFaceConnectivity() : ChunkFaceConnectivityComputer.ALL_FACES_CONNECTED;
+
+            for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                if (!canTraverse(step, faceConnectivity, direction)) {
+                    continue;
+                }
+
+                Vector3i adjacentChunkIndex = m_tmpAdjacentChunkIndex.set(chunkIndex).addLocal(direction.getDirection());
+
+                if (isWithinTraversalBounds(adjacentChunkIndex)) {
+                    int adjacentTraversalIndex = getTraversalIndex(adjacentChunkIndex);
+
+                    if (!m_reachedChunks[adjacentTraversalIndex] && isInView(camera, adjacentChunkIndex)) {
+                        m_reachedChunks[adjacentTraversalIndex] = true;
+                        m_traversalQueue[queueEnd++] = packStep(adjacentTraversalIndex,
+                            direction.getOpposite().getOrthogonalIndex(),
+                            (step & TRAVELED_DIRECTIONS_BITS) | (1 << direction.getOrthogonalIndex()));
+                    }
+                }
+            }
+        }
+
+        camera.setPlaneState(planeState);
+    }
+
+    /**
+     * Checks if the traversal can leave the step's chunk in the supplied direction. It can't go back in a direction opposite to one it already took, nor leave through a face that
+     * is not connected to the one it entered through.
+     *
+     * @param step             The packed step of the chunk to leave.
+     * @param faceConnectivity The chunk's face connectivity.
+     * @param direction        The direction in which to leave the chunk.
+     *
+     * @return True if the traversal can leave the chunk in the supplied direction, false otherwise.
+     */
+    private static boolean canTraverse(int step, int faceConnectivity, Direction3D direction) {
+        if ((step & (1 << direction.getOpposite().getOrthogonalIndex())) != 0) {
+            return false;
+        }
+
+        int entryFaceIndex = (step >>> TRAVELED_DIRECTIONS_BIT_COUNT) & ENTRY_FACE_BITS;
+
+        if (entryFaceIndex == NO_ENTRY_FACE) {
+            return true;
+        }
+
+        Direction3D entryFace = IEnumCachedValues.getCachedValues(Direction3D.class)[Direction3D.FIRST_ORTHOGONAL.ordinal() + entryFaceIndex];
+
+        return direction != entryFace && ChunkFaceConnectivityComputer.areFacesConnected(faceConnectivity, entryFace, direction);
+    }
+
+    /**
+     * Packs a traversal step in an int.
+     *
+     * @param traversalIndex     The reached chunk's index in the traversal bounds.
+     * @param entryFaceIndex     The {@link Direction3D#getOrthogonalIndex()} of the chunk's face through which it was reached, or NO_ENTRY_FACE for the camera's chunk.
+     * @param traveledDirections The bit mask of the directions taken to reach the chunk, indexed by {@link Direction3D#getOrthogonalIndex()}.
+     *
+     * @return The packed traversal step.
+     */
+    private static int packStep(int traversalIndex, int entryFaceIndex, int traveledDirections) {
+        return (traversalIndex << TRAVERSAL_INDEX_SHIFT) | (entryFaceIndex << TRAVELED_DIRECTIONS_BIT_COUNT) | traveledDirections;
+    }
+
+    /**
+     * Gets the flat index of a chunk in the traversal bounds. The chunk must be within the traversal bounds.
+     *
+     * @param chunkIndex The chunk's index.
+     *
+     * @return The flat index of the chunk in the traversal bounds.
+     */
+    private int getTraversalIndex(Vector3i chunkIndex) {
+        return ((chunkIndex.x - m_minChunkIndex.x) * m_traversalSize.y + chunkIndex.y - m_minChunkIndex.y) * m_traversalSize.z + chunkIndex.z - m_minChunkIndex.z;
+    }
+
+    /**
+     * Gets the index of a chunk from its flat index in the traversal bounds.
+     *
+     * @param traversalIndex The flat index of the chunk in the traversal bounds.
+     * @param store          The vector in which to store the chunk's index.
+     *
+     * @return The supplied store vector.
+     */
+    private Vector3i getTraversedChunkIndex(int traversalIndex, Vector3i store) {
+        return store.set(m_minChunkIndex.x + traversalIndex / (m_traversalSize.z * m_traversalSize.y),
+            m_minChunkIndex.y + (traversalIndex / m_traversalSize.z) % m_traversalSize.y,
+            m_minChunkIndex.z + traversalIndex % m_traversalSize.z);
+    }
+
+    private boolean isWithinTraversalBounds(Vector3i chunkIndex) {
+        return chunkIndex.x >= m_minChunkIndex.x && chunkIndex.y >= m_minChunkIndex.y && chunkIndex.z >= m_minChunkIndex.z && chunkIndex.x <= m_maxChunkIndex.x
+            && chunkIndex.y <= m_maxChunkIndex.y && chunkIndex.z <= m_maxChunkIndex.z;
+    }
+
+    /**
+     * Checks if the chunk at the supplied index is at least partially inside the camera's frustum. The camera's plane state is overwritten.
+     *
+     * @param camera     The camera from which the chunks are seen.
+     * @param chunkIndex The chunk's index.
+     *
+     * @return True if the chunk is at least partially inside the camera's frustum, false otherwise.
+     */
+    private boolean isInView(Camera camera, Vector3i chunkIndex) {
+        World world = GameGlobal.world;
+        Vector3i chunkSize = world.getChunkSize();
+
+        m_tmpChunkBound.setCenter(world.getChunkStartPositionX(chunkIndex.x) + chunkSize.x / 2f - World.VOXEL_HALF_EXTENT,
+            world.getChunkStartPositionY(chunkIndex.y) + chunkSize.y / 2f - World.VOXEL_HALF_EXTENT,
+            world.getChunkStartPositionZ(chunkIndex.z) + chunkSize.z / 2f - World.VOXEL_HALF_EXTENT);
+        m_tmpChunkBound.setXExtent(chunkSize.x / 2f);
+        m_tmpChunkBound.setYExtent(chunkSize.y / 2f);
+        m_tmpChunkBound.setZExtent(chunkSize.z / 2f);
+        m_tmpChunkBound.setCheckPlane(0);
+
+        camera.setPlaneState(0);
+        return camera.contains(m_tmpChunkBound) != Camera.FrustumIntersect.Outside;
+    }
+}
@@ -8,7 +8,6 @@ public class Voxel {
     public static final Voxel EMPTY_VOXEL = new Voxel();
 
     public VoxelType voxelType;
-    public int light;
 
     public Voxel() {
         voxelType = VoxelType.AIR;
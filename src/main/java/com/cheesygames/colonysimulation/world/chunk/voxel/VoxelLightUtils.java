@@ -27,8 +27,13 @@ public final class VoxelLightUtils {
     public static final int B_LIGHT_BITS = 0xF << B_LIGHT_BIT_POSITION;
     public static final int SUN_LIGHT_BITS = 0xF << SUN_LIGHT_BIT_POSITION;
 
+    private static final int COMPONENTS_LOWEST_BITS = 0x1111;
+    private static final int EVEN_COMPONENTS_BITS = R_LIGHT_BITS | B_LIGHT_BITS;
+    private static final int LANES_GUARD_BITS = (1 << G_LIGHT_BIT_POSITION) | (1 << SUN_LIGHT_BIT_POSITION);
+
     /**
-     * Propagates the light from the source into the destination and then returns the result. Does not propagate the sunlight.
+     * Propagates the light from the source into the destination and then returns the result. Every component of the destination, including the sunlight, becomes the maximum
+     * between itself and the source's component attenuated by one. All the components are computed at once within the int.
      *
      * @param source      The source of the light to propagate. Must be the light from an adjacent voxel to the destination.
      * @param destination The destination where the light will propagate. Must be the light from an adjacent voxel to the source.
@@ -36,17 +41,12 @@ public final class VoxelLightUtils {
      * @return The destination's light affected by the propagation of the source's light.
      */
     public static int propagateLight(int source, int destination) {
-        for (int componentIndex = 0; componentIndex < COLOR_COMPONENT_COUNT; ++componentIndex) {
-            if (getComponent(source, componentIndex) > getComponent(destination, componentIndex)) {
-                destination = setComponentIntensity(destination, getComponentIntensity(source, componentIndex) - 1, componentIndex);
-            }
-        }
-
-        return destination;
+        return maxLight(attenuateLight(source), destination);
     }
 
     /**
-     * Checks if the source light can propagate its light into the destination light. It only checks for the color lighting and the sunlight.
+     * Checks if the source light can propagate its light into the destination light, which is if at least one component of the source attenuated by one is brighter than the
+     * destination's. It checks for the color lighting and the sunlight.
      *
      * @param source      The source light that needs to know if its light can propagate.
      * @param destination The destination into which the source light needs to know if its light can propagate.
@@ -54,13 +54,102 @@ public final class VoxelLightUtils {
      * @return True if the source light can propagate into the destination, false otherwise.
      */
     public static boolean canPropagateLight(int source, int destination) {
-        boolean canPropagateLight = false;
+        return getBrighterComponentsMask(attenuateLight(source), destination) != 0;
+    }
 
-        for (int componentIndex = 0; componentIndex < COLOR_COMPONENT_COUNT && !canPropagateLight; ++componentIndex) {
-            canPropagateLight |= getComponent(source, componentIndex) > getComponent(destination, componentIndex);
+    /**
+     * Propagates the lights of a slice of sources into a slice of destinations, such as a whole row of voxels into the adjacent row. Every destination is modified like
+     * {@link #propagateLight(int, int)} with the source at the same position in its slice.
+     *
+     * @param sources           The array of source lights.
+     * @param sourceOffset      The index of the first source light.
+     * @param destinations      The array of destination lights to modify.
+     * @param destinationOffset The index of the first destination light.
+     * @param length            The number of lights to propagate.
+     *
+     * @return True if at least one destination changed, false otherwise.
+     */
+    public static boolean propagateLights(int[] sources, int sourceOffset, int[] destinations, int destinationOffset, int length) {
+        int changedBits = 0;
+
+        for (int i = 0; i < length; ++i) {
+            int destination = destinations[destinationOffset + i];
+            int propagatedLight = propagateLight(sources[sourceOffset + i], destination);
+
+            changedBits |= propagatedLight ^ destination;
+            destinations[destinationOffset + i] = propagatedLight;
         }
 
-        return canPropagateLight;
+        return changedBits != 0;
+    }
+
+    /**
+     * Attenuates every component of the light by one, without going below 0. The light must only have its component bits set.
+     *
+     * @param light The light to attenuate.
+     *
+     * @return The attenuated light.
+     */
+    public static int attenuateLight(int light) {
+        // Subtracts the lowest bit of every non zero component, which never borrows from the next component.
+        return light - ((light | (light >>> 1) | (light >>> 2) | (light >>> 3)) & COMPONENTS_LOWEST_BITS);
+    }
+
+    /**
+     * Computes the maximum of every component of two lights. The lights must only have their component bits set.
+     *
+     * @param first  The first light.
+     * @param second The second light.
+     *
+     * @return The light whose components are the maximum of both lights' components.
+     */
+    public static int maxLight(int first, int second) {
+        int brighterComponentsMask = getBrighterComponentsMask(first, second);
+
+        return (first & brighterComponentsMask) | (second & ~brighterComponentsMask);
+    }
+
+    /**
+     * Gets the mask of the components of the first light that are brighter than the second light's. The lights must only have their component bits set.
+     *
+     * @param first  The first light.
+     * @param second The second light.
+     *
+     * @return The mask whose component bits are all set for the first light's components that are brighter than the second light's, and cleared for the others.
+     */
+    public static int getBrighterComponentsMask(int first, int second) {
+        int evenComponentsMask = getBrighterLanesMask(first & EVEN_COMPONENTS_BITS, second & EVEN_COMPONENTS_BITS);
+        int oddComponentsMask = getBrighterLanesMask((first >>> INDIVIDUAL_LIGHT_BIT_COUNT) & EVEN_COMPONENTS_BITS,
+            (second >>> INDIVIDUAL_LIGHT_BIT_COUNT) & EVEN_COMPONENTS_BITS);
+
+        return evenComponentsMask | (oddComponentsMask << INDIVIDUAL_LIGHT_BIT_COUNT);
+    }
+
+    /**
+     * Gets the mask of the components of the light that are not 0. The light must only have its component bits set.
+     *
+     * @param light The light.
+     *
+     * @return The mask whose component bits are all set for the light's components that are not 0, and cleared for the others.
+     */
+    public static int getNonZeroComponentsMask(int light) {
+        return ((light | (light >>> 1) | (light >>> 2) | (light >>> 3)) & COMPONENTS_LOWEST_BITS) * LIGHT_MAXIMUM_INTENSITY;
+    }
+
+    /**
+     * Gets the mask of the lanes of the first value that are greater than the second value's. Each lane holds a single component in its lowest bits, the other half being free so
+     * that the subtraction of a lane never borrows from the next one.
+     *
+     * @param first  The first value, whose lanes each hold a component.
+     * @param second The second value, whose lanes each hold a component.
+     *
+     * @return The mask whose component bits are all set in the lanes where the first value's component is greater than the second value's.
+     */
+    private static int getBrighterLanesMask(int first, int second) {
+        // The guard bit of a lane stays set if and only if the second component is greater than or equal to the first.
+        int isNotBrighterBits = ((second | LANES_GUARD_BITS) - first) & LANES_GUARD_BITS;
+
+        return ((isNotBrighterBits ^ LANES_GUARD_BITS) >>> INDIVIDUAL_LIGHT_BIT_COUNT) * LIGHT_MAXIMUM_INTENSITY;
     }
 
     /**
@@ -128,7 +217,7 @@ public final class VoxelLightUtils {
      * @return The light with the color component set to the supplied parameter at the specified index.
      */
     public static int setComponent(int light, int color, int index) {
-        return light | getComponent(color, index);
+        return (light & ~(LIGHT_MAXIMUM_INTENSITY << (index * INDIVIDUAL_LIGHT_BIT_COUNT))) | getComponent(color, index);
     }
 
     /**
@@ -139,7 +228,7 @@ public final class VoxelLightUtils {
      * @return The light with the red component set to the supplied parameter.
      */
     public static int setRed(int light, int red) {
-        return light | getRed(red);
+        return (light & ~R_LIGHT_BITS) | getRed(red);
     }
 
     /**
@@ -150,7 +239,7 @@ public final class VoxelLightUtils {
      * @return The light with the green component set to the supplied parameter.
      */
     public static int setGreen(int light, int green) {
-        return light | getGreen(green);
+        return (light & ~G_LIGHT_BITS) | getGreen(green);
     }
 
     /**
@@ -161,7 +250,7 @@ public final class VoxelLightUtils {
      * @return The light with the blue component set to the supplied parameter.
      */
     public static int setBlue(int light, int blue) {
-        return light | getBlue(blue);
+        return (light & ~B_LIGHT_BITS) | getBlue(blue);
     }
 
     /**
@@ -172,7 +261,7 @@ public final class VoxelLightUtils {
      * @return The light with the sun component set to the supplied parameter.
      */
     public static int setSun(int light, int sun) {
-        return light | getSun(sun);
+        return (light & ~SUN_LIGHT_BITS) | getSun(sun);
     }
 
     /**
@@ -243,7 +332,7 @@ public final class VoxelLightUtils {
      * @return The light which its color component's intensity was set at the specified index.
      */
     public static int setComponentIntensity(int light, int intensity, int index) {
-        return light | ((intensity << (index * INDIVIDUAL_LIGHT_BIT_COUNT)));
+        return (light & ~(LIGHT_MAXIMUM_INTENSITY << (index * INDIVIDUAL_LIGHT_BIT_COUNT))) | (intensity << (index * INDIVIDUAL_LIGHT_BIT_COUNT));
     }
 
     /**
@@ -256,7 +345,7 @@ public final class VoxelLightUtils {
      * @return The light which its red component's intensity was set.
      */
     public static int setRedIntensity(int light, int redIntensity) {
-        return light | ((redIntensity << R_LIGHT_BIT_POSITION));
+        return (light & ~R_LIGHT_BITS) | (redIntensity << R_LIGHT_BIT_POSITION);
     }
 
     /**
@@ -269,7 +358,7 @@ public final class VoxelLightUtils {
      * @return The light which its green component's intensity was set.
      */
     public static int setGreenIntensity(int light, int greenIntensity) {
-        return light | ((greenIntensity << G_LIGHT_BIT_POSITION));
+        return (light & ~G_LIGHT_BITS) | (greenIntensity << G_LIGHT_BIT_POSITION);
     }
 
     /**
@@ -282,7 +371,7 @@ public final class VoxelLightUtils {
      * @return The light which its blue component's intensity was set.
      */
     public static int setBlueIntensity(int light, int blueIntensity) {
-        return light | ((blueIntensity << B_LIGHT_BIT_POSITION));
+        return (light & ~B_LIGHT_BITS) | (blueIntensity << B_LIGHT_BIT_POSITION);
     }
 
     /**
@@ -295,7 +384,7 @@ public final class VoxelLightUtils {
      * @return The light which its sun component's intensity was set.
      */
     public static int setSunIntensity(int light, int sunIntensity) {
-        return light | ((sunIntensity << SUN_LIGHT_BIT_POSITION));
+        return (light & ~SUN_LIGHT_BITS) | (sunIntensity << SUN_LIGHT_BIT_POSITION);
     }
 
     private VoxelLightUtils() {
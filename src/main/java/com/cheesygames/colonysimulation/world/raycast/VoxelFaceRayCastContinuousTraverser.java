@@ -27,6 +27,7 @@ public class VoxelFaceRayCastContinuousTraverser extends VoxelRayCastContinuousT
     protected Vector3i m_incomingDirectionVector;
     protected Direction3D m_incomingDirection;
     protected int m_traversedVoxelCount;
+    protected boolean m_hasSkippedCell;
 
     /**
      * Constructs a {@link VoxelFaceRayCastContinuousTraverser}.
@@ -93,11 +94,26 @@ public class VoxelFaceRayCastContinuousTraverser extends VoxelRayCastContinuousT
     public void startRayCast() {
         super.startRayCast();
         m_traversedVoxelCount = 0;
+        m_hasSkippedCell = false;
+    }
+
+    /**
+     * Keeps the last skipped voxel as the last traversed voxel, so that the incoming direction of the next traversed voxel is still the face through which the ray enters it.
+     *
+     * @param lastSkippedVoxelIndex The index of the last voxel of the skipped chunk along the ray.
+     */
+    @Override
+    public void onCellSkipped(Vector3i lastSkippedVoxelIndex) {
+        m_lastTraversedVoxelIndex.set(lastSkippedVoxelIndex);
+        m_world.getChunkIndexLocal(lastSkippedVoxelIndex, m_lastTraversedChunkIndex);
+        m_world.getVoxelRelativeIndexLocal(lastSkippedVoxelIndex, m_lastTraversedRelativeVoxelIndex);
+        m_lastTraversedChunk = m_world.getOrEmptyChunkAt(m_lastTraversedChunkIndex);
+        m_hasSkippedCell = true;
     }
 
     @Override
     protected boolean applyOnTraversing(Vector3i absoluteVoxelIndex) {
-        if (m_traversedVoxelCount == 0) {
+        if (m_traversedVoxelCount == 0 && !m_hasSkippedCell) {
             m_lastTraversedVoxelIndex.set(absoluteVoxelIndex);
         }
 
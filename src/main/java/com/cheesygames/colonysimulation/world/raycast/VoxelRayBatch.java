@@ -0,0 +1,248 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.jme3.math.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * A batch of rays to cast at once with a {@link VoxelRayBatchCaster}, such as the line of sight checks of a game tick. The rays and their results are stored as structures of
+ * primitive arrays, which are only reallocated when the batch grows. A batch is meant to be cleared and reused instead of being created again, so that casting a batch of rays
+ * does not allocate.
+ */
+public class VoxelRayBatch {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 1 << 8;
+
+    /**
+     * The maximum number of rays in a batch, so that a ray index can be packed with its sorting key.
+     */
+    public static final int MAXIMUM_CAPACITY = 1 << 21;
+
+    private int m_rayCount;
+    private double[] m_startXs;
+    private double[] m_startYs;
+    private double[] m_startZs;
+    private double[] m_endXs;
+    private double[] m_endYs;
+    private double[] m_endZs;
+    private boolean[] m_hits;
+    private int[] m_hitVoxelIndexXs;
+    private int[] m_hitVoxelIndexYs;
+    private int[] m_hitVoxelIndexZs;
+    private Direction3D[] m_hitFaces;
+    private long[] m_sortKeys;
+
+    public VoxelRayBatch() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param initialCapacity The number of rays that the batch can hold before growing. It cannot exceed {@link #MAXIMUM_CAPACITY}.
+     *
+     * @throws IllegalArgumentException If the initial capacity exceeds {@link #MAXIMUM_CAPACITY}.
+     */
+    public VoxelRayBatch(int initialCapacity) {
+        if (initialCapacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("A ray batch cannot hold more than " + MAXIMUM_CAPACITY + " rays, but its initial capacity is " + initialCapacity + ".");
+        }
+
+        this.m_startXs = new double[initialCapacity];
+        this.m_startYs = new double[initialCapacity];
+        this.m_startZs = new double[initialCapacity];
+        this.m_endXs = new double[initialCapacity];
+        this.m_endYs = new double[initialCapacity];
+        this.m_endZs = new double[initialCapacity];
+        this.m_hits = new boolean[initialCapacity];
+        this.m_hitVoxelIndexXs = new int[initialCapacity];
+        this.m_hitVoxelIndexYs = new int[initialCapacity];
+        this.m_hitVoxelIndexZs = new int[initialCapacity];
+        this.m_hitFaces = new Direction3D[initialCapacity];
+        this.m_sortKeys = new long[initialCapacity];
+    }
+
+    /**
+     * Adds a ray to the batch. Its result is unknown until the batch is cast.
+     *
+     * @param startX The absolute starting position of the ray on the X axis.
+     * @param startY The absolute starting position of the ray on the Y axis.
+     * @param startZ The absolute starting position of the ray on the Z axis.
+     * @param endX   The absolute ending position of the ray on the X axis.
+     * @param endY   The absolute ending position of the ray on the Y axis.
+     * @param endZ   The absolute ending position of the ray on the Z axis.
+     *
+     * @return The index of the ray in the batch, which is used to get its result.
+     */
+    public int addRay(double startX, double startY, double startZ, double endX, double endY, double endZ) {
+        if (m_rayCount == m_startXs.length) {
+            grow();
+        }
+
+        m_startXs[m_rayCount] = startX;
+        m_startYs[m_rayCount] = startY;
+        m_startZs[m_rayCount] = startZ;
+        m_endXs[m_rayCount] = endX;
+        m_endYs[m_rayCount] = endY;
+        m_endZs[m_rayCount] = endZ;
+
+        return m_rayCount++;
+    }
+
+    /**
+     * Adds a ray to the batch. Its result is unknown until the batch is cast.
+     *
+     * @param start The absolute starting position of the ray.
+     * @param end   The absolute ending position of the ray.
+     *
+     * @return The index of the ray in the batch, which is used to get its result.
+     */
+    public int addRay(Vector3f start, Vector3f end) {
+        return addRay(start.x, start.y, start.z, end.x, end.y, end.z);
+    }
+
+    /**
+     * Doubles the capacity of every array of the batch.
+     */
+    private void grow() {
+        if (m_startXs.length >= MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("A ray batch cannot hold more than " + MAXIMUM_CAPACITY + " rays.");
+        }
+
+        int capacity = Math.min(MAXIMUM_CAPACITY, Math.max(1, m_startXs.length << 1));
+
+        m_startXs = Arrays.copyOf(m_startXs, capacity);
+        m_startYs = Arrays.copyOf(m_startYs, capacity);
+        m_startZs = Arrays.copyOf(m_startZs, capacity);
+        m_endXs = Arrays.copyOf(m_endXs, capacity);
+        m_endYs = Arrays.copyOf(m_endYs, capacity);
+        m_endZs = Arrays.copyOf(m_endZs, capacity);
+        m_hits = Arrays.copyOf(m_hits, capacity);
+        m_hitVoxelIndexXs = Arrays.copyOf(m_hitVoxelIndexXs, capacity);
+        m_hitVoxelIndexYs = Arrays.copyOf(m_hitVoxelIndexYs, capacity);
+        m_hitVoxelIndexZs = Arrays.copyOf(m_hitVoxelIndexZs, capacity);
+        m_hitFaces = Arrays.copyOf(m_hitFaces, capacity);
+        m_sortKeys = Arrays.copyOf(m_sortKeys, capacity);
+    }
+
+    /**
+     * Removes all the rays of the batch, but keeps its capacity.
+     */
+    public void clear() {
+        m_rayCount = 0;
+    }
+
+    /**
+     * Sets the result of a ray that hit a voxel.
+     *
+     * @param rayIndex      The index of the ray in the batch.
+     * @param hitVoxelIndex The absolute index of the hit voxel.
+     * @param hitFace       The face of the hit voxel through which the ray entered it.
+     */
+    void setHit(int rayIndex, Vector3i hitVoxelIndex, Direction3D hitFace) {
+        m_hits[rayIndex] = true;
+        m_hitVoxelIndexXs[rayIndex] = hitVoxelIndex.x;
+        m_hitVoxelIndexYs[rayIndex] = hitVoxelIndex.y;
+        m_hitVoxelIndexZs[rayIndex] = hitVoxelIndex.z;
+        m_hitFaces[rayIndex] = hitFace;
+    }
+
+    /**
+     * Sets the result of a ray that did not hit any voxel.
+     *
+     * @param rayIndex The index of the ray in the batch.
+     */
+    void setMiss(int rayIndex) {
+        m_hits[rayIndex] = false;
+        m_hitFaces[rayIndex] = null;
+    }
+
+    public int getRayCount() {
+        return m_rayCount;
+    }
+
+    public int getCapacity() {
+        return m_startXs.length;
+    }
+
+    public double getStartX(int rayIndex) {
+        return m_startXs[rayIndex];
+    }
+
+    public double getStartY(int rayIndex) {
+        return m_startYs[rayIndex];
+    }
+
+    public double getStartZ(int rayIndex) {
+        return m_startZs[rayIndex];
+    }
+
+    public double getEndX(int rayIndex) {
+        return m_endXs[rayIndex];
+    }
+
+    public double getEndY(int rayIndex) {
+        return m_endYs[rayIndex];
+    }
+
+    public double getEndZ(int rayIndex) {
+        return m_endZs[rayIndex];
+    }
+
+    /**
+     * Gets if the ray hit a solid voxel during the last cast of the batch.
+     *
+     * @param rayIndex The index of the ray in the batch.
+     *
+     * @return True if the ray hit a solid voxel, false if its line of sight is clear.
+     */
+    public boolean isHit(int rayIndex) {
+        return m_hits[rayIndex];
+    }
+
+    /**
+     * Gets the absolute index of the voxel hit by the ray. Only valid if the ray hit a voxel.
+     *
+     * @param rayIndex      The index of the ray in the batch.
+     * @param hitVoxelIndex The vector in which to store the hit voxel's index.
+     *
+     * @return The supplied vector.
+     */
+    public Vector3i getHitVoxelIndexLocal(int rayIndex, Vector3i hitVoxelIndex) {
+        return hitVoxelIndex.set(m_hitVoxelIndexXs[rayIndex], m_hitVoxelIndexYs[rayIndex], m_hitVoxelIndexZs[rayIndex]);
+    }
+
+    public int getHitVoxelIndexX(int rayIndex) {
+        return m_hitVoxelIndexXs[rayIndex];
+    }
+
+    public int getHitVoxelIndexY(int rayIndex) {
+        return m_hitVoxelIndexYs[rayIndex];
+    }
+
+    public int getHitVoxelIndexZ(int rayIndex) {
+        return m_hitVoxelIndexZs[rayIndex];
+    }
+
+    /**
+     * Gets the face of the hit voxel through which the ray entered it.
+     *
+     * @param rayIndex The index of the ray in the batch.
+     *
+     * @return The face through which the ray entered the hit voxel, {@link Direction3D#ZERO} if the ray started inside the hit voxel and null if the ray did not hit any voxel.
+     */
+    public Direction3D getHitFace(int rayIndex) {
+        return m_hitFaces[rayIndex];
+    }
+
+    /**
+     * Gets the sorting keys of the rays, which are computed and sorted by the {@link VoxelRayBatchCaster}. Only the first {@link #getRayCount()} keys are used.
+     *
+     * @return The sorting keys of the rays.
+     */
+    long[] getSortKeys() {
+        return m_sortKeys;
+    }
+}
@@ -0,0 +1,230 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.VoxelWorldUtils;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayCellSkipper;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayVisitor;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Casts batches of rays against the solid voxels of a {@link World}, such as the line of sight checks of colonists and creatures. The rays of a {@link VoxelRayBatch} are sorted by
+ * the chunk in which they start, so that consecutive rays traverse the same chunks, and the sorted rays are split among the workers of a work-stealing pool. Each worker reuses its
+ * own {@link VoxelRay} and primitive traverser, which jumps over the empty chunks, so that a cast does not allocate besides its few split tasks.
+ * <p>
+ * The world must not be modified while a batch is cast.
+ */
+public class VoxelRayBatchCaster {
+
+    /**
+     * The number of rays below which a task casts its rays instead of splitting them further.
+     */
+    private static final int TASK_RAY_COUNT = 64;
+
+    private static final int SORT_KEY_RAY_INDEX_BIT_COUNT = Integer.numberOfTrailingZeros(VoxelRayBatch.MAXIMUM_CAPACITY);
+    private static final long SORT_KEY_RAY_INDEX_BITS = (1L << SORT_KEY_RAY_INDEX_BIT_COUNT) - 1;
+    private static final int SORT_KEY_CHUNK_INDEX_BIT_COUNT = (Long.SIZE - 1 - SORT_KEY_RAY_INDEX_BIT_COUNT) / 3;
+    private static final int SORT_KEY_CHUNK_INDEX_BITS = (1 << SORT_KEY_CHUNK_INDEX_BIT_COUNT) - 1;
+
+    /**
+     * If the voxel types stop the rays, indexed by their ordinal.
+     */
+    private static final boolean[] SOLID_VOXEL_TYPES = new boolean[VoxelType.values().length];
+
+    static {
+        for (VoxelType voxelType : VoxelType.values()) {
+            SOLID_VOXEL_TYPES[voxelType.ordinal()] = voxelType.isSolid();
+        }
+    }
+
+    private World m_world;
+    private ForkJoinPool m_pool;
+    private ThreadLocal<RayCaster> m_rayCasters;
+
+    /**
+     * Creates a batch caster that casts the rays on the common pool.
+     *
+     * @param world The world in which to cast the rays.
+     */
+    public VoxelRayBatchCaster(World world) {
+        this(world, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a batch caster.
+     *
+     * @param world The world in which to cast the rays.
+     * @param pool  The work-stealing pool on which the rays are cast.
+     */
+    public VoxelRayBatchCaster(World world, ForkJoinPool pool) {
+        this.m_world = world;
+        this.m_pool = pool;
+        this.m_rayCasters = ThreadLocal.withInitial(() -> new RayCaster(m_world));
+    }
+
+    /**
+     * Casts all the rays of the batch and stores their results in the batch. A ray stops at the first solid voxel that it traverses, including the voxel in which it starts.
+     *
+     * @param batch The batch of rays to cast.
+     */
+    public void rayCast(VoxelRayBatch batch) {
+        int rayCount = batch.getRayCount();
+
+        if (rayCount > 0) {
+            sortRays(batch);
+            m_pool.invoke(new RayCastTask(batch, 0, rayCount));
+        }
+    }
+
+    /**
+     * Sorts the rays of the batch by the chunk in which they start. The sorting key of a ray packs its starting chunk index and the ray's index, so that sorting the keys sorts
+     * the rays without allocating.
+     *
+     * @param batch The batch whose rays to sort.
+     */
+    private void sortRays(VoxelRayBatch batch) {
+        Vector3i chunkSizeBits = m_world.getChunkSizeBits();
+        long[] sortKeys = batch.getSortKeys();
+
+        final double voxelExtent = World.VOXEL_HALF_EXTENT * 2;
+
+        for (int rayIndex = 0; rayIndex < batch.getRayCount(); ++rayIndex) {
+            int chunkIndexX = VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, batch.getStartX(rayIndex) + World.VOXEL_HALF_EXTENT) >> chunkSizeBits.x;
+            int chunkIndexY = VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, batch.getStartY(rayIndex) + World.VOXEL_HALF_EXTENT) >> chunkSizeBits.y;
+            int chunkIndexZ = VoxelWorldUtils.getVoxelIndexNoOffset(voxelExtent, batch.getStartZ(rayIndex) + World.VOXEL_HALF_EXTENT) >> chunkSizeBits.z;
+
+            sortKeys[rayIndex] = ((long) (chunkIndexX & SORT_KEY_CHUNK_INDEX_BITS) << (SORT_KEY_RAY_INDEX_BIT_COUNT + 2 * SORT_KEY_CHUNK_INDEX_BIT_COUNT))
+                | ((long) (chunkIndexY & SORT_KEY_CHUNK_INDEX_BITS) << (SORT_KEY_RAY_INDEX_BIT_COUNT + SORT_KEY_CHUNK_INDEX_BIT_COUNT))
+                | ((long) (chunkIndexZ & SORT_KEY_CHUNK_INDEX_BITS) << SORT_KEY_RAY_INDEX_BIT_COUNT)
+                | rayIndex;
+        }
+
+        Arrays.sort(sortKeys, 0, batch.getRayCount());
+    }
+
+    public World getWorld() {
+        return m_world;
+    }
+
+    /**
+     * The ray and traverser of a worker, which are reused for every ray that the worker casts. It follows the ray cast to know the last voxel before the hit voxel, from which the
+     * hit face is deduced.
+     */
+    private static final class RayCaster implements VoxelRayVisitor, VoxelRayCellSkipper {
+
+        private final VoxelRay m_ray;
+        private final VoxelRayCastPrimitiveTraverser m_traverser;
+        private final Vector3d m_start;
+        private final Vector3d m_end;
+        private final Vector3i m_voxelIndex;
+        private final Vector3i m_lastVoxelIndex;
+        private boolean m_hasLastVoxel;
+
+        private RayCaster(World world) {
+            this.m_ray = new VoxelRay();
+            this.m_traverser = new VoxelRayCastPrimitiveTraverser(world, (relativeX, relativeY, relativeZ, voxelTypeOrdinal) -> SOLID_VOXEL_TYPES[voxelTypeOrdinal]);
+            this.m_start = new Vector3d();
+            this.m_end = new Vector3d();
+            this.m_voxelIndex = new Vector3i();
+            this.m_lastVoxelIndex = new Vector3i();
+        }
+
+        /**
+         * Casts a ray of the batch and stores its result in the batch.
+         *
+         * @param batch    The batch of the ray.
+         * @param rayIndex The index of the ray in the batch.
+         */
+        private void rayCast(VoxelRayBatch batch, int rayIndex) {
+            m_ray.setStart(m_start.set(batch.getStartX(rayIndex), batch.getStartY(rayIndex), batch.getStartZ(rayIndex)));
+            m_ray.setEnd(m_end.set(batch.getEndX(rayIndex), batch.getEndY(rayIndex), batch.getEndZ(rayIndex)));
+            m_ray.rayCastLocal(World.VOXEL_HALF_EXTENT, this, this, m_voxelIndex);
+
+            if (m_ray.wasStopped()) {
+                Direction3D hitFace = Direction3D.ZERO;
+
+                if (m_hasLastVoxel) {
+                    hitFace = Direction3D.findDirectionFromVectorLocal(m_lastVoxelIndex.subtractLocal(m_voxelIndex));
+                }
+
+                batch.setHit(rayIndex, m_voxelIndex, hitFace);
+            }
+            else {
+                batch.setMiss(rayIndex);
+            }
+        }
+
+        @Override
+        public void startRayCast() {
+            m_traverser.startRayCast();
+            m_hasLastVoxel = false;
+        }
+
+        @Override
+        public boolean visit(int x, int y, int z) {
+            if (m_traverser.visit(x, y, z)) {
+                return true;
+            }
+
+            m_lastVoxelIndex.set(x, y, z);
+            m_hasLastVoxel = true;
+
+            return false;
+        }
+
+        @Override
+        public Vector3i getCellSizeBits() {
+            return m_traverser.getCellSizeBits();
+        }
+
+        @Override
+        public boolean canSkipCell(int cellIndexX, int cellIndexY, int cellIndexZ) {
+            return m_traverser.canSkipCell(cellIndexX, cellIndexY, cellIndexZ);
+        }
+
+        @Override
+        public void onCellSkipped(Vector3i lastSkippedVoxelIndex) {
+            m_lastVoxelIndex.set(lastSkippedVoxelIndex);
+            m_hasLastVoxel = true;
+        }
+    }
+
+    /**
+     * Casts a range of the sorted rays of a batch, splitting it in halves until the ranges are small enough.
+     */
+    private final class RayCastTask extends RecursiveAction {
+
+        private final VoxelRayBatch m_batch;
+        private final int m_start;
+        private final int m_end;
+
+        private RayCastTask(VoxelRayBatch batch, int start, int end) {
+            this.m_batch = batch;
+            this.m_start = start;
+            this.m_end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (m_end - m_start <= TASK_RAY_COUNT) {
+                RayCaster rayCaster = m_rayCasters.get();
+                long[] sortKeys = m_batch.getSortKeys();
+
+                for (int i = m_start; i < m_end; ++i) {
+                    rayCaster.rayCast(m_batch, (int) (sortKeys[i] & SORT_KEY_RAY_INDEX_BITS));
+                }
+            }
+            else {
+                int middle = (m_start + m_end) >>> 1;
+                invokeAll(new RayCastTask(m_batch, m_start, middle), new RayCastTask(m_batch, middle, m_end));
+            }
+        }
+    }
+}
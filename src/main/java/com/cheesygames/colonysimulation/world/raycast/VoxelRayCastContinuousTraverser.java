@@ -1,6 +1,7 @@
 package com.cheesygames.colonysimulation.world.raycast;
 
 import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayCellSkipper;
 import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayOnTraversing;
 import com.cheesygames.colonysimulation.math.vector.Vector3i;
 import com.cheesygames.colonysimulation.world.World;
@@ -15,18 +16,23 @@ import java.util.function.BiFunction;
  * The user supplies a {@link BiFunction} that acts as the break condition of the {@link VoxelRay} and as what to do whilst traversing the world. The break condition takes the
  * absolute voxel index, the voxel type and returns a boolean that signifies if the voxel traversal should stop (true) or not (false). Bear in mind to not modify the absolute
  * index, as it will interfere will the ray cast.
+ * <p>
+ * The traverser can also be supplied as the {@link VoxelRayCellSkipper} of the ray cast, in which case the ray jumps over the chunks that are empty or absent from the world. The
+ * break condition is then never called with the voxels of these chunks, so it must only be done if the break condition never stops on an {@link VoxelType#AIR} voxel.
  */
-public class VoxelRayCastContinuousTraverser implements VoxelRayOnTraversing {
+public class VoxelRayCastContinuousTraverser implements VoxelRayOnTraversing, VoxelRayCellSkipper {
 
     protected World m_world;
     protected Vector3i m_chunkIndex;
     protected IChunkVoxelData m_chunk;
     protected Vector3i m_relativeVoxelIndex;
+    protected Vector3i m_skippedChunkIndex;
     protected BiFunction<Vector3i, VoxelType, Boolean> m_returnCondition;
 
     public VoxelRayCastContinuousTraverser() {
         m_chunkIndex = new Vector3i();
         m_relativeVoxelIndex = new Vector3i();
+        m_skippedChunkIndex = new Vector3i();
     }
 
     public VoxelRayCastContinuousTraverser(World world) {
@@ -56,6 +62,25 @@ public class VoxelRayCastContinuousTraverser implements VoxelRayOnTraversing {
         return applyOnTraversing(absoluteVoxelIndex);
     }
 
+    @Override
+    public Vector3i getCellSizeBits() {
+        return m_world.getChunkSizeBits();
+    }
+
+    /**
+     * Checks if the ray can jump over a chunk, which is the case if it is empty or absent from the world.
+     *
+     * @param cellIndexX The chunk index on the X axis.
+     * @param cellIndexY The chunk index on the Y axis.
+     * @param cellIndexZ The chunk index on the Z axis.
+     *
+     * @return True if the chunk is empty or absent, false otherwise.
+     */
+    @Override
+    public boolean canSkipCell(int cellIndexX, int cellIndexY, int cellIndexZ) {
+        return m_world.getOrEmptyChunkAt(m_skippedChunkIndex.set(cellIndexX, cellIndexY, cellIndexZ)).isEmpty();
+    }
+
     /**
      * Detects the chunk in which the traversing voxel is. If it is different from the precedent chunk or if there is no precedent chunk, then set it according to the absolute
      * (world) voxel index's parent chunk.
@@ -0,0 +1,20 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+/**
+ * The break condition of a {@link VoxelRayCastPrimitiveTraverser}. The traversed voxel is supplied as primitives, so that the condition never boxes nor allocates.
+ */
+@FunctionalInterface
+public interface VoxelRayCastPrimitiveCondition {
+
+    /**
+     * Decides what to do with the traversed voxel and if the voxel traversal should continue.
+     *
+     * @param relativeX        The chunk relative index of the voxel on the X axis.
+     * @param relativeY        The chunk relative index of the voxel on the Y axis.
+     * @param relativeZ        The chunk relative index of the voxel on the Z axis.
+     * @param voxelTypeOrdinal The ordinal of the voxel's {@link com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType}.
+     *
+     * @return True if the voxel traversing should stop, false otherwise.
+     */
+    boolean shouldStop(int relativeX, int relativeY, int relativeZ, int voxelTypeOrdinal);
+}
@@ -0,0 +1,153 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayCellSkipper;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayDistanceField;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayVisitor;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.IChunkVoxelData;
+
+/**
+ * The primitive equivalent of {@link VoxelRayCastContinuousTraverser}, used by a {@link VoxelRay} through {@link VoxelRay#rayCastLocal(double, VoxelRayVisitor,
+ * VoxelRayCellSkipper, Vector3i)}. The traversed voxel indices, the chunk relative indices and the voxel type ordinal are passed as primitives to a {@link
+ * VoxelRayCastPrimitiveCondition}, so that no value is boxed and the whole traversal step can be inlined.
+ * <p>
+ * The chunk of the traversed voxel is only looked up when the ray enters another chunk. The traverser can also be supplied as the {@link VoxelRayCellSkipper} of the ray cast, in
+ * which case the ray jumps over the chunks that are empty or absent from the world, so it must only be done if the condition never stops on an air voxel. For the same reason, it
+ * can be supplied as the {@link VoxelRayDistanceField} of the ray cast, in which case the ray is sphere traced through the distance fields of the chunks.
+ */
+public class VoxelRayCastPrimitiveTraverser implements VoxelRayVisitor, VoxelRayCellSkipper, VoxelRayDistanceField {
+
+    protected World m_world;
+    protected Vector3i m_chunkSizeBits;
+    protected Vector3i m_chunkIndex;
+    protected IChunkVoxelData m_chunk;
+    protected Vector3i m_skippedChunkIndex;
+    protected Vector3i m_distanceChunkIndex;
+    protected IChunkVoxelData m_distanceChunk;
+    protected VoxelRayCastPrimitiveCondition m_returnCondition;
+
+    /**
+     * Constructs a {@link VoxelRayCastPrimitiveTraverser}.
+     *
+     * @param world           The world in which to traverse voxels.
+     * @param returnCondition The break condition, which decides what to do with each traversed voxel and if the voxel traversal should stop.
+     */
+    public VoxelRayCastPrimitiveTraverser(World world, VoxelRayCastPrimitiveCondition returnCondition) {
+        this.m_world = world;
+        this.m_chunkSizeBits = world.getChunkSizeBits();
+        this.m_chunkIndex = new Vector3i();
+        this.m_skippedChunkIndex = new Vector3i();
+        this.m_distanceChunkIndex = new Vector3i();
+        this.m_returnCondition = returnCondition;
+    }
+
+    @Override
+    public void startRayCast() {
+        m_chunk = null;
+        m_distanceChunk = null;
+    }
+
+    @Override
+    public boolean visit(int x, int y, int z) {
+        int chunkIndexX = x >> m_chunkSizeBits.x;
+        int chunkIndexY = y >> m_chunkSizeBits.y;
+        int chunkIndexZ = z >> m_chunkSizeBits.z;
+
+        if (m_chunk == null || !m_chunkIndex.equals(chunkIndexX, chunkIndexY, chunkIndexZ)) {
+            m_chunk = m_world.getOrEmptyChunkAt(m_chunkIndex.set(chunkIndexX, chunkIndexY, chunkIndexZ));
+        }
+
+        int relativeX = x - (chunkIndexX << m_chunkSizeBits.x);
+        int relativeY = y - (chunkIndexY << m_chunkSizeBits.y);
+        int relativeZ = z - (chunkIndexZ << m_chunkSizeBits.z);
+
+        return m_returnCondition.shouldStop(relativeX, relativeY, relativeZ, m_chunk.getVoxelAt(relativeX, relativeY, relativeZ).voxelType.ordinal());
+    }
+
+    @Override
+    public Vector3i getCellSizeBits() {
+        return m_chunkSizeBits;
+    }
+
+    /**
+     * Checks if the ray can jump over a chunk, which is the case if it is empty or absent from the world.
+     *
+     * @param cellIndexX The chunk index on the X axis.
+     * @param cellIndexY The chunk index on the Y axis.
+     * @param cellIndexZ The chunk index on the Z axis.
+     *
+     * @return True if the chunk is empty or absent, false otherwise.
+     */
+    @Override
+    public boolean canSkipCell(int cellIndexX, int cellIndexY, int cellIndexZ) {
+        return m_world.getOrEmptyChunkAt(m_skippedChunkIndex.set(cellIndexX, cellIndexY, cellIndexZ)).isEmpty();
+    }
+
+    /**
+     * Gets the distance from a voxel to the nearest non air voxel according to the distance field of its chunk. The chunks that are empty or absent from the world are entirely
+     * air, so the distance is the one to their border. The chunks whose distance field is not computed must be traversed voxel by voxel.
+     *
+     * @param x The voxel index on the X axis.
+     * @param y The voxel index on the Y axis.
+     * @param z The voxel index on the Z axis.
+     *
+     * @return The distance to the nearest voxel to traverse, which is 0 if the voxel must be traversed.
+     */
+    @Override
+    public int getDistanceAt(int x, int y, int z) {
+        int chunkIndexX = x >> m_chunkSizeBits.x;
+        int chunkIndexY = y >> m_chunkSizeBits.y;
+        int chunkIndexZ = z >> m_chunkSizeBits.z;
+
+        if (m_distanceChunk == null || !m_distanceChunkIndex.equals(chunkIndexX, chunkIndexY, chunkIndexZ)) {
+            m_distanceChunk = m_world.getOrEmptyChunkAt(m_distanceChunkIndex.set(chunkIndexX, chunkIndexY, chunkIndexZ));
+        }
+
+        int relativeX = x - (chunkIndexX << m_chunkSizeBits.x);
+        int relativeY = y - (chunkIndexY << m_chunkSizeBits.y);
+        int relativeZ = z - (chunkIndexZ << m_chunkSizeBits.z);
+
+        if (m_distanceChunk.isEmpty()) {
+            int distanceX = Math.min(relativeX + 1, (1 << m_chunkSizeBits.x) - relativeX);
+            int distanceY = Math.min(relativeY + 1, (1 << m_chunkSizeBits.y) - relativeY);
+            int distanceZ = Math.min(relativeZ + 1, (1 << m_chunkSizeBits.z) - relativeZ);
+
+            return Math.min(distanceX, Math.min(distanceY, distanceZ));
+        }
+
+        return m_distanceChunk instanceof Chunk ? ((Chunk) m_distanceChunk).getDistanceField().getDistanceAt(relativeX, relativeY, relativeZ) : 0;
+    }
+
+    public VoxelRayCastPrimitiveCondition getReturnCondition() {
+        return m_returnCondition;
+    }
+
+    public void setReturnCondition(VoxelRayCastPrimitiveCondition returnCondition) {
+        m_returnCondition = returnCondition;
+    }
+
+    public World getWorld() {
+        return m_world;
+    }
+
+    /**
+     * Gets the last traversed voxel's chunk index. By last voxel, it means that it can locally change for each traversed voxel.
+     *
+     * @return The last traversed voxel's chunk index.
+     */
+    public Vector3i getChunkIndex() {
+        return m_chunkIndex;
+    }
+
+    /**
+     * Gets the last traversed voxel's chunk. By last voxel, it means that it can locally change for each traversed voxel.
+     *
+     * @return The last traversed voxel's chunk, or null if no voxel was traversed since the ray cast started.
+     */
+    public IChunkVoxelData getChunk() {
+        return m_chunk;
+    }
+}
@@ -0,0 +1,363 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayCellSkipper;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayVisitor;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.IChunkVoxelData;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the line of sight queries between voxels, such as the ones that the AI asks every tick while nothing changes. An entry is keyed by the pair of voxels and stores, along
+ * with the visibility, the chunks crossed by the ray up to where it stopped and their {@link Chunk#getVersion()}. A cached visibility is valid as long as the same chunks are in the
+ * world with the same versions, so that a repeated query only costs a version check per crossed chunk instead of a ray cast.
+ * <p>
+ * The least recently used entries are evicted when the cache is full. The cache is not thread safe.
+ */
+public class VoxelVisibilityCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1 << 12;
+
+    /**
+     * If the voxel types block the line of sight, indexed by their ordinal.
+     */
+    private static final boolean[] SOLID_VOXEL_TYPES = new boolean[VoxelType.values().length];
+
+    static {
+        for (VoxelType voxelType : VoxelType.values()) {
+            SOLID_VOXEL_TYPES[voxelType.ordinal()] = voxelType.isSolid();
+        }
+    }
+
+    private World m_world;
+    private int m_maximumSize;
+    private Map<VisibilityKey, VisibilityEntry> m_entries;
+    private VisibilityKey m_lookupKey;
+    private Vector3i m_chunkIndex;
+    private LineOfSightCaster m_caster;
+    private long m_hitCount;
+    private long m_missCount;
+
+    /**
+     * Creates a visibility cache of the default maximum size.
+     *
+     * @param world The world in which to cast the rays.
+     */
+    public VoxelVisibilityCache(World world) {
+        this(world, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a visibility cache.
+     *
+     * @param world       The world in which to cast the rays.
+     * @param maximumSize The maximum number of cached voxel pairs, above which the least recently used pair is evicted.
+     */
+    public VoxelVisibilityCache(World world, int maximumSize) {
+        this.m_world = world;
+        this.m_maximumSize = maximumSize;
+        this.m_entries = new LinkedHashMap<VisibilityKey, VisibilityEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<VisibilityKey, VisibilityEntry> eldest) {
+                return size() > m_maximumSize;
+            }
+        };
+        this.m_lookupKey = new VisibilityKey();
+        this.m_chunkIndex = new Vector3i();
+        this.m_caster = new LineOfSightCaster(world);
+    }
+
+    /**
+     * Checks if a voxel can see another voxel, which is the case if the ray between their centers does not traverse any solid voxel besides themselves. The result is taken from
+     * the cache if it is still valid, or else a ray is cast and its result is cached.
+     *
+     * @param from The absolute index of the voxel that looks.
+     * @param to   The absolute index of the voxel to see.
+     *
+     * @return True if the voxel can be seen, false otherwise.
+     */
+    public boolean isVisible(Vector3i from, Vector3i to) {
+        VisibilityEntry entry = m_entries.get(m_lookupKey.set(from, to));
+
+        if (entry != null && entry.isValid(m_world, m_chunkIndex)) {
+            ++m_hitCount;
+            return entry.m_isVisible;
+        }
+
+        ++m_missCount;
+        boolean isVisible = m_caster.isVisible(from, to);
+        m_entries.put(new VisibilityKey().set(from, to), m_caster.createEntry(isVisible));
+
+        return isVisible;
+    }
+
+    /**
+     * Removes all the cached voxel pairs, but keeps the hit and miss counters.
+     */
+    public void clear() {
+        m_entries.clear();
+    }
+
+    /**
+     * Resets the hit and miss counters to 0.
+     */
+    public void resetCounters() {
+        m_hitCount = 0;
+        m_missCount = 0;
+    }
+
+    public int getSize() {
+        return m_entries.size();
+    }
+
+    public int getMaximumSize() {
+        return m_maximumSize;
+    }
+
+    /**
+     * Gets the number of queries answered by a valid cached entry since the counters were reset.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHitCount() {
+        return m_hitCount;
+    }
+
+    /**
+     * Gets the number of queries that needed a ray cast since the counters were reset, because their voxel pair was not cached or because its entry was no longer valid.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMissCount() {
+        return m_missCount;
+    }
+
+    public World getWorld() {
+        return m_world;
+    }
+
+    /**
+     * Gets the version of a chunk. The chunks that are not in the world are always empty, so their version never changes.
+     *
+     * @param chunk The chunk to get the version of.
+     *
+     * @return The chunk's version.
+     */
+    private static int getVersion(IChunkVoxelData chunk) {
+        return chunk instanceof Chunk ? ((Chunk) chunk).getVersion() : 0;
+    }
+
+    /**
+     * The key of a cached visibility, which is the pair of voxels.
+     */
+    private static final class VisibilityKey {
+
+        private int m_fromX;
+        private int m_fromY;
+        private int m_fromZ;
+        private int m_toX;
+        private int m_toY;
+        private int m_toZ;
+
+        private VisibilityKey set(Vector3i from, Vector3i to) {
+            m_fromX = from.x;
+            m_fromY = from.y;
+            m_fromZ = from.z;
+            m_toX = to.x;
+            m_toY = to.y;
+            m_toZ = to.z;
+
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof VisibilityKey)) {
+                return false;
+            }
+
+            VisibilityKey key = (VisibilityKey) o;
+            return m_fromX == key.m_fromX && m_fromY == key.m_fromY && m_fromZ == key.m_fromZ && m_toX == key.m_toX && m_toY == key.m_toY && m_toZ == key.m_toZ;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = m_fromX;
+            hash = 31 * hash + m_fromY;
+            hash = 31 * hash + m_fromZ;
+            hash = 31 * hash + m_toX;
+            hash = 31 * hash + m_toY;
+            hash = 31 * hash + m_toZ;
+
+            return hash;
+        }
+    }
+
+    /**
+     * A cached visibility and the versions of the chunks that its ray crossed.
+     */
+    private static final class VisibilityEntry {
+
+        private final boolean m_isVisible;
+        private final int[] m_chunkIndices;
+        private final IChunkVoxelData[] m_chunks;
+        private final int[] m_chunkVersions;
+
+        private VisibilityEntry(boolean isVisible, int[] chunkIndices, IChunkVoxelData[] chunks, int[] chunkVersions) {
+            this.m_isVisible = isVisible;
+            this.m_chunkIndices = chunkIndices;
+            this.m_chunks = chunks;
+            this.m_chunkVersions = chunkVersions;
+        }
+
+        /**
+         * Checks if the crossed chunks are still the same chunk instances in the world and that their voxels were not modified since the visibility was cached.
+         *
+         * @param world      The world of the chunks.
+         * @param chunkIndex The vector in which to store the index of the checked chunks.
+         *
+         * @return True if the cached visibility is still valid, false otherwise.
+         */
+        private boolean isValid(World world, Vector3i chunkIndex) {
+            for (int i = 0; i < m_chunks.length; ++i) {
+                IChunkVoxelData chunk = world.getOrEmptyChunkAt(chunkIndex.set(m_chunkIndices[i * 3], m_chunkIndices[i * 3 + 1], m_chunkIndices[i * 3 + 2]));
+
+                if (chunk != m_chunks[i] || getVersion(chunk) != m_chunkVersions[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Casts the lines of sight and records the chunks that they cross. The ray cast jumps over the empty chunks, but they are recorded when the ray enters them like the other
+     * chunks, since a voxel could be added to them.
+     */
+    private static final class LineOfSightCaster implements VoxelRayVisitor, VoxelRayCellSkipper {
+
+        private final World m_world;
+        private final VoxelRay m_ray;
+        private final VoxelRayCastPrimitiveTraverser m_traverser;
+        private final Vector3d m_start;
+        private final Vector3d m_end;
+        private final Vector3i m_voxelIndex;
+        private final Vector3i m_chunkIndex;
+        private final Vector3i m_from;
+        private final Vector3i m_to;
+        private int m_chunkCount;
+        private int[] m_chunkIndices;
+        private IChunkVoxelData[] m_chunks;
+        private int[] m_chunkVersions;
+
+        private LineOfSightCaster(World world) {
+            this.m_world = world;
+            this.m_ray = new VoxelRay();
+            this.m_traverser = new VoxelRayCastPrimitiveTraverser(world, (relativeX, relativeY, relativeZ, voxelTypeOrdinal) -> SOLID_VOXEL_TYPES[voxelTypeOrdinal]);
+            this.m_start = new Vector3d();
+            this.m_end = new Vector3d();
+            this.m_voxelIndex = new Vector3i();
+            this.m_chunkIndex = new Vector3i();
+            this.m_from = new Vector3i();
+            this.m_to = new Vector3i();
+            this.m_chunkIndices = new int[3 * 8];
+            this.m_chunks = new IChunkVoxelData[8];
+            this.m_chunkVersions = new int[8];
+        }
+
+        /**
+         * Casts a ray between the centers of two voxels.
+         *
+         * @param from The absolute index of the voxel that looks.
+         * @param to   The absolute index of the voxel to see.
+         *
+         * @return True if the ray does not traverse any solid voxel besides the two voxels, false otherwise.
+         */
+        private boolean isVisible(Vector3i from, Vector3i to) {
+            final double voxelExtent = World.VOXEL_HALF_EXTENT * 2;
+
+            m_from.set(from);
+            m_to.set(to);
+            m_chunkCount = 0;
+
+            m_ray.setStart(m_start.set(from.x * voxelExtent, from.y * voxelExtent, from.z * voxelExtent));
+            m_ray.setEnd(m_end.set(to.x * voxelExtent, to.y * voxelExtent, to.z * voxelExtent));
+            m_ray.rayCastLocal(World.VOXEL_HALF_EXTENT, this, this, m_voxelIndex);
+
+            return !m_ray.wasStopped();
+        }
+
+        /**
+         * Creates the cache entry of the last cast ray.
+         *
+         * @param isVisible The visibility found by the last cast ray.
+         *
+         * @return A new cache entry.
+         */
+        private VisibilityEntry createEntry(boolean isVisible) {
+            return new VisibilityEntry(isVisible,
+                Arrays.copyOf(m_chunkIndices, m_chunkCount * 3),
+                Arrays.copyOf(m_chunks, m_chunkCount),
+                Arrays.copyOf(m_chunkVersions, m_chunkCount));
+        }
+
+        @Override
+        public void startRayCast() {
+            m_traverser.startRayCast();
+        }
+
+        @Override
+        public boolean visit(int x, int y, int z) {
+            if (m_from.equals(x, y, z) || m_to.equals(x, y, z)) {
+                return false;
+            }
+
+            return m_traverser.visit(x, y, z);
+        }
+
+        @Override
+        public Vector3i getCellSizeBits() {
+            return m_world.getChunkSizeBits();
+        }
+
+        /**
+         * Records the chunk that the ray enters and checks if the ray can jump over it, which is the case if it is empty or absent from the world.
+         *
+         * @param cellIndexX The chunk index on the X axis.
+         * @param cellIndexY The chunk index on the Y axis.
+         * @param cellIndexZ The chunk index on the Z axis.
+         *
+         * @return True if the chunk is empty or absent, false otherwise.
+         */
+        @Override
+        public boolean canSkipCell(int cellIndexX, int cellIndexY, int cellIndexZ) {
+            IChunkVoxelData chunk = m_world.getOrEmptyChunkAt(m_chunkIndex.set(cellIndexX, cellIndexY, cellIndexZ));
+
+            if (m_chunkCount == m_chunks.length) {
+                m_chunkIndices = Arrays.copyOf(m_chunkIndices, m_chunkIndices.length << 1);
+                m_chunks = Arrays.copyOf(m_chunks, m_chunks.length << 1);
+                m_chunkVersions = Arrays.copyOf(m_chunkVersions, m_chunkVersions.length << 1);
+            }
+
+            m_chunkIndices[m_chunkCount * 3] = cellIndexX;
+            m_chunkIndices[m_chunkCount * 3 + 1] = cellIndexY;
+            m_chunkIndices[m_chunkCount * 3 + 2] = cellIndexZ;
+            m_chunks[m_chunkCount] = chunk;
+            m_chunkVersions[m_chunkCount] = getVersion(chunk);
+            ++m_chunkCount;
+
+            return chunk.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.cheesygames.colonysimulation.math.bounding;
+
+import com.cheesygames.colonysimulation.math.MathExt;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayCellSkipper;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayFloat;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.World;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the class {@link VoxelRayFloat}, which must traverse the same voxels as {@link VoxelRay} for the configurations of {@link VoxelRay_Tests}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VoxelRayFloat_Tests {
+
+    private static final int REPEAT_COUNT_HALF_EXTENT = 3;
+    private static final int VECTOR3_COMPONENT_COUNT = 3;
+    private static final int DIAGONAL_COUNT = 8;
+    private static final int RANDOM_RAY_COUNT = 2000;
+    private static final Vector3i SKIPPED_CELL_SIZE_BITS = new Vector3i(2, 2, 2);
+    private static final float TIED_RAY_LENGTH = 40;
+
+    @Test
+    public void rayCast_startNaN_assertError() {
+        VoxelRayFloat ray = new VoxelRayFloat(new Vector3f(Float.NaN, Float.NaN, Float.NaN), Vector3f.UNIT_X, 1);
+
+        assertThrows(AssertionError.class, () -> ray.rayCast((voxelIndex) -> false));
+    }
+
+    @Test
+    public void rayCast_startBeyondMaximumCoordinate_assertError() {
+        VoxelRayFloat ray = new VoxelRayFloat(new Vector3f(VoxelRayFloat.MAXIMUM_COORDINATE * 2, 0, 0), Vector3f.UNIT_X, 1);
+
+        assertThrows(AssertionError.class, () -> ray.rayCast((voxelIndex) -> false));
+    }
+
+    @RepeatedTest(REPEAT_COUNT_HALF_EXTENT)
+    public void rayCast_axisDirections_sameVoxelsAsDoubleRay(RepetitionInfo repetitionInfo) {
+        final int halfExtentIndex = repetitionInfo.getCurrentRepetition();
+        final float halfExtent = World.VOXEL_HALF_EXTENT * halfExtentIndex;
+
+        for (int axis = 0; axis < VECTOR3_COMPONENT_COUNT; ++axis) {
+            for (int sign = -1; sign <= 1; sign += 2) {
+                Vector3f direction = new Vector3f();
+                direction.set(axis, sign);
+
+                assertSameTraversal(new Vector3f(), direction, 0, halfExtent);
+                assertSameTraversal(new Vector3f(halfExtent, halfExtent, halfExtent), direction, 0, halfExtent);
+                assertSameTraversal(new Vector3f(-halfExtent, -halfExtent, -halfExtent), direction, 0, halfExtent);
+                assertSameTraversal(new Vector3f(), direction, halfExtent, halfExtent);
+                assertSameTraversal(new Vector3f(), direction, 3 * halfExtentIndex, halfExtent);
+                assertSameTraversal(direction.mult(-halfExtentIndex), direction, halfExtentIndex, halfExtent);
+                assertSameTraversal(direction.mult(-halfExtentIndex), direction, 2 * halfExtentIndex, halfExtent);
+            }
+        }
+    }
+
+    @RepeatedTest(REPEAT_COUNT_HALF_EXTENT)
+    public void rayCast_diagonalDirections_sameVoxelsAsDoubleRay(RepetitionInfo repetitionInfo) {
+        final int halfExtentIndex = repetitionInfo.getCurrentRepetition();
+        final float halfExtent = World.VOXEL_HALF_EXTENT * halfExtentIndex;
+
+        for (int binaryDirection = 0; binaryDirection < DIAGONAL_COUNT; ++binaryDirection) {
+            Vector3f diagonal = new Vector3f(MathExt.getSignZeroPositive((binaryDirection >>> 2) - 1),
+                MathExt.getSignZeroPositive(((binaryDirection & (1 << 1)) >>> 1) - 1),
+                MathExt.getSignZeroPositive((binaryDirection & 1) - 1));
+
+            assertSameTraversal(new Vector3f(), diagonal.normalize(), 3 * halfExtentIndex, halfExtent);
+            assertSameTraversal(diagonal.mult(halfExtentIndex), diagonal.negate().normalizeLocal(), halfExtentIndex, halfExtent);
+        }
+    }
+
+    /**
+     * The voxels of random rays may differ where a ray passes at less than a float's precision from a voxel edge, but the rays must still start and end in the same voxels.
+     */
+    @Test
+    public void rayCast_randomRays_sameEndVoxelsAsDoubleRay() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < RANDOM_RAY_COUNT; ++i) {
+            Vector3f start = new Vector3f(randomCoordinate(random), randomCoordinate(random), randomCoordinate(random));
+            Vector3f end = new Vector3f(randomCoordinate(random), randomCoordinate(random), randomCoordinate(random));
+            List<Vector3i> traversedVoxels = getTraversedVoxels(new VoxelRay(new Vector3d(start.x, start.y, start.z), new Vector3d(end.x, end.y, end.z)));
+            List<Vector3i> traversedVoxelsFloat = getTraversedVoxels(new VoxelRayFloat(start, end));
+
+            assertEquals(traversedVoxels.size(), traversedVoxelsFloat.size());
+            assertEquals(traversedVoxels.get(0), traversedVoxelsFloat.get(0));
+            assertEquals(traversedVoxels.get(traversedVoxels.size() - 1), traversedVoxelsFloat.get(traversedVoxelsFloat.size() - 1));
+        }
+    }
+
+    @Test
+    public void rayCastLocal_tiedRaysSkippingCells_sameVoxelsOutsideOfSkippedCells() {
+        VoxelRayCellSkipper cellSkipper = new VoxelRayCellSkipper() {
+            @Override
+            public Vector3i getCellSizeBits() {
+                return SKIPPED_CELL_SIZE_BITS;
+            }
+
+            @Override
+            public boolean canSkipCell(int cellIndexX, int cellIndexY, int cellIndexZ) {
+                return ((cellIndexX + cellIndexY + cellIndexZ) & 1) == 0;
+            }
+        };
+
+        for (Vector3d start : VoxelTestWorld.TIED_RAY_STARTS) {
+            for (Vector3d direction : VoxelTestWorld.TIED_RAY_DIRECTIONS) {
+                assertSameVoxelsOutsideOfSkippedCells(new VoxelRayFloat(toVector3f(start), toVector3f(direction).normalizeLocal(), TIED_RAY_LENGTH), cellSkipper);
+                assertSameVoxelsOutsideOfSkippedCells(new VoxelRayFloat(toVector3f(start), toVector3f(direction).negateLocal().normalizeLocal(), TIED_RAY_LENGTH), cellSkipper);
+            }
+        }
+    }
+
+    /**
+     * Asserts that a {@link VoxelRayFloat} and a {@link VoxelRay} built from the same parameters traverse the same voxels in the same order.
+     *
+     * @param start      The starting position of the rays.
+     * @param direction  The normalized direction of the rays.
+     * @param length     The length of the rays.
+     * @param halfExtent The half extent of a voxel.
+     */
+    private static void assertSameTraversal(Vector3f start, Vector3f direction, float length, float halfExtent) {
+        VoxelRay ray = new VoxelRay(new Vector3d(start.x, start.y, start.z), new Vector3d(direction.x, direction.y, direction.z), length);
+        VoxelRayFloat rayFloat = new VoxelRayFloat(start, direction, length);
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+        List<Vector3i> traversedVoxelsFloat = new ArrayList<>();
+
+        ray.rayCast(halfExtent, (voxelIndex) -> !traversedVoxels.add(new Vector3i(voxelIndex)));
+        rayFloat.rayCast(halfExtent, (voxelIndex) -> !traversedVoxelsFloat.add(new Vector3i(voxelIndex)));
+
+        assertEquals(traversedVoxels, traversedVoxelsFloat);
+        assertEquals(ray.getVoxelDistance(), rayFloat.getVoxelDistance());
+    }
+
+    /**
+     * Asserts that a {@link VoxelRayFloat} jumping over cells traverses the same voxels as without jumping, minus the voxels of the skipped cells.
+     *
+     * @param ray         The ray to cast.
+     * @param cellSkipper The cells to jump over.
+     */
+    private static void assertSameVoxelsOutsideOfSkippedCells(VoxelRayFloat ray, VoxelRayCellSkipper cellSkipper) {
+        Vector3i cellSizeBits = cellSkipper.getCellSizeBits();
+        List<Vector3i> expectedVoxels = new ArrayList<>();
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+
+        ray.rayCastLocal(World.VOXEL_HALF_EXTENT, (x, y, z) -> {
+            if (!cellSkipper.canSkipCell(x >> cellSizeBits.x, y >> cellSizeBits.y, z >> cellSizeBits.z)) {
+                expectedVoxels.add(new Vector3i(x, y, z));
+            }
+
+            return false;
+        }, null, new Vector3i());
+        ray.rayCastLocal(World.VOXEL_HALF_EXTENT, (x, y, z) -> !traversedVoxels.add(new Vector3i(x, y, z)), cellSkipper, new Vector3i());
+
+        assertEquals(expectedVoxels, traversedVoxels);
+    }
+
+    private static List<Vector3i> getTraversedVoxels(VoxelRay ray) {
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+        ray.rayCast((voxelIndex) -> !traversedVoxels.add(new Vector3i(voxelIndex)));
+
+        return traversedVoxels;
+    }
+
+    private static List<Vector3i> getTraversedVoxels(VoxelRayFloat ray) {
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+        ray.rayCast((voxelIndex) -> !traversedVoxels.add(new Vector3i(voxelIndex)));
+
+        return traversedVoxels;
+    }
+
+    private static Vector3f toVector3f(Vector3d vector) {
+        return new Vector3f((float) vector.x, (float) vector.y, (float) vector.z);
+    }
+
+    private static float randomCoordinate(Random random) {
+        return (random.nextFloat() * 2 - 1) * 64;
+    }
+}
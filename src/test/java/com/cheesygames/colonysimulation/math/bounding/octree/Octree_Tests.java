@@ -0,0 +1,411 @@
+package com.cheesygames.colonysimulation.math.bounding.octree;
+
+import com.cheesygames.colonysimulation.math.bounding.AABB;
+import com.jme3.bounding.BoundingBox;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link Octree}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class Octree_Tests {
+
+    private static final int ENTITY_COUNT = 300;
+    private static final int MOVE_COUNT = 20;
+    private static final int QUERY_COUNT = 50;
+    private static final float WORLD_HALF_EXTENT = 150;
+
+    private Random m_random;
+    private List<MovingEntity> m_entities;
+
+    @BeforeEach
+    public void setup() {
+        m_random = new Random(0);
+        m_entities = new ArrayList<>();
+
+        for (int i = 0; i < ENTITY_COUNT; ++i) {
+            m_entities.add(new MovingEntity(createRandomAABB()));
+        }
+    }
+
+    @Test
+    public void updateEntity_looseRandomMoves_queriesMatchBruteForce() {
+        Octree<MovingEntity> octree = new Octree<>(Octree.DEFAULT_LOOSENESS);
+        m_entities.forEach(octree::addEntity);
+
+        for (int move = 0; move < MOVE_COUNT; ++move) {
+            moveEntities(octree);
+            assertQueriesMatchBruteForce(octree);
+        }
+
+        for (MovingEntity entity : m_entities) {
+            assertEquals(1, octree.findEntityNodes(entity).size());
+        }
+    }
+
+    @Test
+    public void updateEntity_semiDynamicRandomMoves_queriesMatchBruteForce() {
+        Octree<MovingEntity> octree = new Octree<>();
+        m_entities.forEach(octree::addEntity);
+
+        for (int move = 0; move < MOVE_COUNT; ++move) {
+            moveEntities(octree);
+            assertQueriesMatchBruteForce(octree);
+        }
+    }
+
+    @Test
+    public void forEachIntersecting_semiDynamicRandomMoves_eachIntersectingEntityVisitedOnce() {
+        assertEachIntersectingEntityVisitedOnce(false);
+    }
+
+    @Test
+    public void forEachIntersecting_looseRandomMoves_eachIntersectingEntityVisitedOnce() {
+        assertEachIntersectingEntityVisitedOnce(true);
+    }
+
+    @Test
+    public void findNearest_semiDynamicRandomPoints_sameDistancesAsSortedEntities() {
+        assertNearestAtSameDistancesAsSortedEntities(false);
+    }
+
+    @Test
+    public void findNearest_looseRandomPoints_sameDistancesAsSortedEntities() {
+        assertNearestAtSameDistancesAsSortedEntities(true);
+    }
+
+    @Test
+    public void forEachWithinRadius_semiDynamicRandomSpheres_eachEntityWithinRadiusVisitedOnce() {
+        assertEachEntityWithinRadiusVisitedOnce(false);
+    }
+
+    @Test
+    public void forEachWithinRadius_looseRandomSpheres_eachEntityWithinRadiusVisitedOnce() {
+        assertEachEntityWithinRadiusVisitedOnce(true);
+    }
+
+    @Test
+    public void rayCast_semiDynamicRandomRays_nearestEntryDistanceHit() {
+        assertRayCastsHitNearestEntryDistance(false);
+    }
+
+    @Test
+    public void rayCast_looseRandomRays_nearestEntryDistanceHit() {
+        assertRayCastsHitNearestEntryDistance(true);
+    }
+
+    @Test
+    public void forEachInFrustum_semiDynamicRandomCameras_sameEntitiesAsPerEntityCulling() {
+        assertSameEntitiesInFrustumAsPerEntityCulling(false);
+    }
+
+    @Test
+    public void forEachInFrustum_looseRandomCameras_sameEntitiesAsPerEntityCulling() {
+        assertSameEntitiesInFrustumAsPerEntityCulling(true);
+    }
+
+    @Test
+    public void forEachIntersecting_reusedVisitor_noAllocation() {
+        Octree<MovingEntity> octree = new Octree<>(Octree.DEFAULT_LOOSENESS);
+        m_entities.forEach(octree::addEntity);
+
+        int[] visitedCount = new int[1];
+        OctreeEntityVisitor<MovingEntity> visitor = (entity) -> {
+            ++visitedCount[0];
+            return false;
+        };
+        AABB query = new AABB(new Vector3f(), WORLD_HALF_EXTENT / 2);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            octree.forEachIntersecting(query, visitor);
+        }
+
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            octree.forEachIntersecting(query, visitor);
+        }
+        allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBytes;
+
+        assertTrue(visitedCount[0] > 0);
+        assertEquals(0, allocatedBytes);
+    }
+
+    @Test
+    public void updateEntity_looseSmallMove_notReinserted() {
+        Octree<MovingEntity> octree = new Octree<>(Octree.DEFAULT_LOOSENESS);
+        MovingEntity entity = new MovingEntity(new AABB(new Vector3f(10.5f, 10.5f, 10.5f), 0.25f));
+        octree.addEntity(entity);
+        OctreeNode<MovingEntity> node = octree.findEntityNodes(entity).get(0);
+
+        AABB oldBounds = entity.getAABB();
+        entity.m_aabb = new AABB(new Vector3f(10.6f, 10.4f, 10.5f), 0.25f);
+        assertFalse(octree.updateEntity(entity, oldBounds));
+        assertEquals(node, octree.findEntityNodes(entity).get(0));
+
+        oldBounds = entity.getAABB();
+        entity.m_aabb = new AABB(new Vector3f(-100, 40, 3), 0.25f);
+        assertTrue(octree.updateEntity(entity, oldBounds));
+        assertTrue(octree.findEntityNodes(entity).get(0).getLooseAABB().isContaining(entity.getAABB()));
+    }
+
+    @Test
+    public void removeEntity_looseAllEntities_noNodeLeft() {
+        Octree<MovingEntity> octree = new Octree<>(Octree.DEFAULT_LOOSENESS);
+        m_entities.forEach(octree::addEntity);
+        moveEntities(octree);
+
+        for (MovingEntity entity : m_entities) {
+            assertTrue(octree.removeEntity(entity));
+            assertFalse(octree.removeEntity(entity));
+        }
+
+        List<OctreeNode<MovingEntity>> nodes = new ArrayList<>();
+        octree.traverseAllNodes(nodes::add);
+        assertTrue(nodes.isEmpty());
+    }
+
+    @Test
+    public void addEntity_looseTooBig_illegalArgumentException() {
+        Octree<MovingEntity> octree = new Octree<>(Octree.DEFAULT_LOOSENESS);
+        assertThrows(IllegalArgumentException.class, () -> octree.addEntity(new MovingEntity(new AABB(new Vector3f(), OctreeNode.MAX_DEPTH_LENGTH))));
+    }
+
+    private static Octree<MovingEntity> createOctree(boolean isLoose) {
+        return isLoose ? new Octree<>(Octree.DEFAULT_LOOSENESS) : new Octree<>();
+    }
+
+    private void assertEachIntersectingEntityVisitedOnce(boolean isLoose) {
+        Octree<MovingEntity> octree = createOctree(isLoose);
+        m_entities.forEach(octree::addEntity);
+
+        for (int move = 0; move < MOVE_COUNT; ++move) {
+            moveEntities(octree);
+
+            for (int i = 0; i < QUERY_COUNT; ++i) {
+                AABB query = createRandomAABB();
+                Set<MovingEntity> expected = new HashSet<>();
+                List<MovingEntity> visited = new ArrayList<>();
+
+                for (MovingEntity entity : m_entities) {
+                    if (entity.getAABB().isIntersecting(query)) {
+                        expected.add(entity);
+                    }
+                }
+
+                assertFalse(octree.forEachIntersecting(query, (entity) -> {
+                    visited.add(entity);
+                    return false;
+                }));
+                assertEquals(expected.size(), visited.size());
+                assertEquals(expected, new HashSet<>(visited));
+            }
+        }
+    }
+
+    private void assertNearestAtSameDistancesAsSortedEntities(boolean isLoose) {
+        Octree<MovingEntity> octree = createOctree(isLoose);
+        m_entities.forEach(octree::addEntity);
+        moveEntities(octree);
+
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            Vector3f point = createRandomAABB().getCenter();
+            int k = 1 + m_random.nextInt(10);
+            Predicate<MovingEntity> filter = (entity) -> entity.getAABB().getMin().y > 0;
+            List<MovingEntity> expected = new ArrayList<>();
+
+            for (MovingEntity entity : m_entities) {
+                if (filter.test(entity)) {
+                    expected.add(entity);
+                }
+            }
+            expected.sort(Comparator.comparingDouble((entity) -> Octree.computeSquaredDistance(point, entity)));
+
+            List<MovingEntity> nearest = octree.findNearest(point, k, filter);
+
+            assertEquals(k, nearest.size());
+            assertEquals(k, new HashSet<>(nearest).size());
+            for (int j = 0; j < k; ++j) {
+                assertEquals(Octree.computeSquaredDistance(point, expected.get(j)), Octree.computeSquaredDistance(point, nearest.get(j)));
+            }
+        }
+    }
+
+    private void assertEachEntityWithinRadiusVisitedOnce(boolean isLoose) {
+        Octree<MovingEntity> octree = createOctree(isLoose);
+        m_entities.forEach(octree::addEntity);
+        moveEntities(octree);
+
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            Vector3f point = createRandomAABB().getCenter();
+            float radius = m_random.nextFloat() * 80;
+            Set<MovingEntity> expected = new HashSet<>();
+            List<MovingEntity> visited = new ArrayList<>();
+
+            for (MovingEntity entity : m_entities) {
+                if (Octree.computeSquaredDistance(point, entity) <= radius * radius) {
+                    expected.add(entity);
+                }
+            }
+
+            assertFalse(octree.forEachWithinRadius(point, radius, (entity) -> {
+                visited.add(entity);
+                return false;
+            }));
+            assertEquals(expected.size(), visited.size());
+            assertEquals(expected, new HashSet<>(visited));
+        }
+    }
+
+    private void assertRayCastsHitNearestEntryDistance(boolean isLoose) {
+        Octree<MovingEntity> octree = createOctree(isLoose);
+        m_entities.forEach(octree::addEntity);
+        moveEntities(octree);
+
+        int hitCount = 0;
+        for (int i = 0; i < QUERY_COUNT * 4; ++i) {
+            Vector3f origin = createRandomAABB().getCenter();
+            Vector3f direction = new Vector3f(m_random.nextFloat() * 2 - 1, m_random.nextFloat() * 2 - 1, m_random.nextFloat() * 2 - 1);
+
+            // Some rays are axis aligned, to cover the directions with null components.
+            if (i % 4 == 0) {
+                direction.set(i % 3 == 0 ? 1 : 0, i % 3 == 1 ? -1 : 0, i % 3 == 2 ? 1 : 0);
+            }
+
+            direction.normalizeLocal();
+            float maxDistance = m_random.nextFloat() * WORLD_HALF_EXTENT * 2;
+            Predicate<MovingEntity> filter = (entity) -> entity.getAABB().getMin().x > -WORLD_HALF_EXTENT / 2;
+            float expectedEntryDistance = Octree.RAY_MISS;
+
+            for (MovingEntity entity : m_entities) {
+                float entryDistance = Octree.computeRayEntryDistance(origin, direction, maxDistance, entity);
+
+                if (filter.test(entity) && entryDistance != Octree.RAY_MISS && (expectedEntryDistance == Octree.RAY_MISS || entryDistance < expectedEntryDistance)) {
+                    expectedEntryDistance = entryDistance;
+                }
+            }
+
+            MovingEntity hitEntity = octree.rayCast(origin, direction, maxDistance, filter);
+
+            if (expectedEntryDistance == Octree.RAY_MISS) {
+                assertNull(hitEntity);
+            }
+            else {
+                ++hitCount;
+                assertNotNull(hitEntity);
+                assertEquals(expectedEntryDistance, Octree.computeRayEntryDistance(origin, direction, maxDistance, hitEntity));
+            }
+        }
+
+        assertTrue(hitCount > 0);
+    }
+
+    private void assertSameEntitiesInFrustumAsPerEntityCulling(boolean isLoose) {
+        Octree<MovingEntity> octree = createOctree(isLoose);
+        m_entities.forEach(octree::addEntity);
+        moveEntities(octree);
+
+        Camera camera = new Camera(640, 480);
+        camera.setFrustumPerspective(60, 640 / 480f, 1, WORLD_HALF_EXTENT);
+
+        int visibleCount = 0;
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            camera.setLocation(createRandomAABB().getCenter());
+            camera.lookAt(createRandomAABB().getCenter(), Vector3f.UNIT_Y);
+
+            Set<MovingEntity> expected = new HashSet<>();
+            List<MovingEntity> visited = new ArrayList<>();
+
+            for (MovingEntity entity : m_entities) {
+                AABB aabb = entity.getAABB();
+                BoundingBox bound = new BoundingBox(aabb.getMin(), aabb.getMax());
+
+                // The camera skips the planes its plane state says the previous bound was inside of.
+                camera.setPlaneState(0);
+                if (camera.contains(bound) != Camera.FrustumIntersect.Outside) {
+                    expected.add(entity);
+                }
+            }
+
+            assertFalse(octree.forEachInFrustum(camera, (entity) -> {
+                visited.add(entity);
+                return false;
+            }));
+            assertEquals(expected.size(), visited.size());
+            assertEquals(expected, new HashSet<>(visited));
+
+            visibleCount += expected.size();
+        }
+
+        assertTrue(visibleCount > 0);
+    }
+
+    private void moveEntities(Octree<MovingEntity> octree) {
+        for (MovingEntity entity : m_entities) {
+            AABB oldBounds = entity.getAABB();
+            Vector3f offset = new Vector3f(m_random.nextFloat() * 2 - 1, m_random.nextFloat() * 2 - 1, m_random.nextFloat() * 2 - 1).multLocal(m_random.nextInt(4) == 0 ? 40 : 2);
+            Vector3f halfLengths = oldBounds.getMax().subtract(oldBounds.getCenter());
+
+            entity.m_aabb = new AABB(oldBounds.getCenter().add(offset), halfLengths.x, halfLengths.y, halfLengths.z);
+            octree.updateEntity(entity, oldBounds);
+        }
+    }
+
+    private void assertQueriesMatchBruteForce(Octree<MovingEntity> octree) {
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            AABB query = createRandomAABB();
+            Set<MovingEntity> expected = new HashSet<>();
+            Set<MovingEntity> found = new HashSet<>();
+
+            for (MovingEntity entity : m_entities) {
+                if (entity.getAABB().isIntersecting(query)) {
+                    expected.add(entity);
+                }
+            }
+
+            octree.traverseIntersectingNodesEntitiesRecursive(query, (node, entity) -> {
+                if (entity.getAABB().isIntersecting(query)) {
+                    found.add(entity);
+                }
+            });
+
+            assertEquals(expected, found);
+        }
+    }
+
+    private AABB createRandomAABB() {
+        Vector3f center = new Vector3f(m_random.nextFloat() * 2 - 1, m_random.nextFloat() * 2 - 1, m_random.nextFloat() * 2 - 1).multLocal(WORLD_HALF_EXTENT);
+        return new AABB(center, 0.1f + m_random.nextFloat() * 5, 0.1f + m_random.nextFloat() * 5, 0.1f + m_random.nextFloat() * 5);
+    }
+
+    /**
+     * An entity whose AABB is replaced when it moves.
+     */
+    private static class MovingEntity implements IOctreeEntity {
+
+        private AABB m_aabb;
+
+        public MovingEntity(AABB aabb) {
+            this.m_aabb = aabb;
+        }
+
+        @Override
+        public AABB getAABB() {
+            return m_aabb;
+        }
+    }
+}
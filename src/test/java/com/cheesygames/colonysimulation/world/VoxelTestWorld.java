@@ -0,0 +1,116 @@
+package com.cheesygames.colonysimulation.world;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.Voxel;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.cheesygames.colonysimulation.world.generation.IWorldGenerator;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+
+import java.util.Random;
+
+/**
+ * Builds headless worlds of generated chunks for the tests and benchmarks. It is public because the tests of several packages share it.
+ */
+public final class VoxelTestWorld {
+
+    /**
+     * Voxel centres, from which the diagonal rays cross voxel borders of several axes at the exact same distance.
+     */
+    public static final Vector3d[] TIED_RAY_STARTS = {
+        new Vector3d(3, 4, -6), new Vector3d(3, 4, 6), new Vector3d(-20, 5, 3), new Vector3d(-10, 40, 7), new Vector3d(-1, -1, 31), new Vector3d(10, -20, 40),
+        new Vector3d(50, -20, 70), new Vector3d(31, 31, 31)
+    };
+
+    /**
+     * Directions of the rays starting from {@link #TIED_RAY_STARTS}. They are not normalized, and their opposites should be tested as well.
+     */
+    public static final Vector3d[] TIED_RAY_DIRECTIONS = {
+        new Vector3d(1, 0, 0), new Vector3d(0, 1, 0), new Vector3d(0, 0, 1), new Vector3d(1, 1, 0), new Vector3d(1, -1, 0), new Vector3d(0, 1, 1), new Vector3d(1, 0, 1),
+        new Vector3d(1, 1, 1), new Vector3d(-1, 1, 1), new Vector3d(2, 1, 0), new Vector3d(1, 2, 2)
+    };
+
+    /**
+     * Gives the type of each voxel of the generated chunks.
+     */
+    @FunctionalInterface
+    public interface VoxelTypeFunction {
+
+        /**
+         * Gets the type of a voxel.
+         *
+         * @param x The absolute voxel index on the X axis.
+         * @param y The absolute voxel index on the Y axis.
+         * @param z The absolute voxel index on the Z axis.
+         *
+         * @return The type of the voxel.
+         */
+        VoxelType getVoxelType(int x, int y, int z);
+    }
+
+    /**
+     * Creates a new world without any chunk and sets it as the global world.
+     *
+     * @return The new world.
+     */
+    public static World createWorld() {
+        return GameGlobal.world = new World();
+    }
+
+    /**
+     * Creates a chunk whose voxels are given by a function, but does not add it to the world.
+     *
+     * @param chunkIndex        The index of the chunk.
+     * @param voxelTypeFunction The type of each voxel of the chunk.
+     *
+     * @return The new chunk.
+     */
+    public static Chunk createChunk(Vector3i chunkIndex, VoxelTypeFunction voxelTypeFunction) {
+        IWorldGenerator generator = new IWorldGenerator() {
+            @Override
+            public void generateWorld() {
+            }
+
+            @Override
+            public Voxel generateVoxel(int x, int y, int z) {
+                return new Voxel(voxelTypeFunction.getVoxelType(x, y, z));
+            }
+        };
+
+        return generator.createChunk(chunkIndex);
+    }
+
+    /**
+     * Creates a chunk whose voxels are given by a function and adds it to the global world. The chunk must not be empty.
+     *
+     * @param chunkIndex        The index of the chunk.
+     * @param voxelTypeFunction The type of each voxel of the chunk.
+     *
+     * @return The new chunk.
+     */
+    public static Chunk addChunk(Vector3i chunkIndex, VoxelTypeFunction voxelTypeFunction) {
+        Chunk chunk = createChunk(chunkIndex, voxelTypeFunction);
+        GameGlobal.world.addChunk(chunkIndex, chunk);
+
+        return chunk;
+    }
+
+    /**
+     * Creates a function of air voxels randomly replaced by solid voxels. The function draws a random number for each voxel, so the chunks must be generated in the same order to
+     * get the same voxels.
+     *
+     * @param solidRatio The probability of a voxel to be solid.
+     * @param seed       The seed of the solid voxels' placement.
+     *
+     * @return A new function of random solid voxels.
+     */
+    public static VoxelTypeFunction createRandomSolids(double solidRatio, long seed) {
+        Random random = new Random(seed);
+
+        return (x, y, z) -> random.nextDouble() < solidRatio ? VoxelType.SOLID : VoxelType.AIR;
+    }
+
+    private VoxelTestWorld() {
+    }
+}
@@ -0,0 +1,124 @@
+package com.cheesygames.colonysimulation.world.chunk;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkRemeshScheduler}. The scheduler reads a fake clock, which only advances when the tests say so.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkRemeshScheduler_Tests {
+
+    private static final long NANOSECONDS_PER_SECOND = 1_000_000_000L;
+
+    private long m_time;
+    private long m_timeStepPerRead;
+    private ChunkRemeshScheduler m_scheduler;
+    private List<Chunk> m_processedChunks;
+
+    @BeforeEach
+    public void setup() {
+        VoxelTestWorld.createWorld();
+
+        m_time = 0;
+        m_timeStepPerRead = 0;
+        m_scheduler = new ChunkRemeshScheduler(() -> m_time += m_timeStepPerRead);
+        m_scheduler.setAgingHalfLifeSeconds(1f);
+        m_processedChunks = new ArrayList<>();
+    }
+
+    @Test
+    public void processFrame_chunksAddedAtTheSameTime_processedFromNearestToFarthest() {
+        Chunk farChunk = createChunk(new Vector3i(4, 0, 0));
+        Chunk nearChunk = createChunk(new Vector3i(1, 0, 0));
+        Chunk middleChunk = createChunk(new Vector3i(0, 0, -3));
+
+        m_scheduler.add(farChunk);
+        m_scheduler.add(nearChunk);
+        m_scheduler.add(middleChunk);
+
+        assertEquals(3, m_scheduler.processFrame(m_processedChunks::add));
+        assertEquals(Arrays.asList(nearChunk, middleChunk, farChunk), m_processedChunks);
+        assertTrue(m_scheduler.isEmpty());
+    }
+
+    @Test
+    public void processFrame_nearChunkOutOfView_penalizedByOutOfViewFactor() {
+        Camera camera = new Camera(640, 480);
+        camera.setFrustumPerspective(60, 1, 0.1f, 1000);
+        camera.setLocation(new Vector3f(16, 16, 16));
+        camera.lookAt(new Vector3f(1000, 16, 16), Vector3f.UNIT_Y);
+        m_scheduler.setCamera(camera);
+
+        Chunk behindChunk = createChunk(new Vector3i(-2, 0, 0));
+        Chunk frontChunk = createChunk(new Vector3i(3, 0, 0));
+
+        m_scheduler.add(behindChunk);
+        m_scheduler.add(frontChunk);
+        m_scheduler.processFrame(m_processedChunks::add);
+
+        assertEquals(Arrays.asList(frontChunk, behindChunk), m_processedChunks);
+
+        m_processedChunks.clear();
+        m_scheduler.setOutOfViewDistanceFactor(1f);
+        m_scheduler.add(behindChunk);
+        m_scheduler.add(frontChunk);
+        m_scheduler.processFrame(m_processedChunks::add);
+
+        assertEquals(Arrays.asList(behindChunk, frontChunk), m_processedChunks);
+    }
+
+    @Test
+    public void processFrame_farChunkWaitedMoreThanItsDistanceRatioInHalfLives_processedFirst() {
+        Chunk farChunk = createChunk(new Vector3i(3, 0, 0));
+        Chunk nearChunk = createChunk(new Vector3i(1, 0, 0));
+
+        // The far chunk is about 2 times farther, so it needs to wait a bit more than 1 half life longer than the near chunk to get ahead of it.
+        m_scheduler.add(farChunk);
+        m_time += NANOSECONDS_PER_SECOND;
+        m_scheduler.add(nearChunk);
+        m_scheduler.processFrame(m_processedChunks::add);
+
+        assertEquals(Arrays.asList(nearChunk, farChunk), m_processedChunks);
+
+        m_processedChunks.clear();
+        m_scheduler.add(farChunk);
+        m_time += 3 * NANOSECONDS_PER_SECOND;
+        m_scheduler.add(nearChunk);
+        m_scheduler.processFrame(m_processedChunks::add);
+
+        assertEquals(Arrays.asList(farChunk, nearChunk), m_processedChunks);
+    }
+
+    @Test
+    public void processFrame_frameBudgetSpentByEveryChunk_oneChunkPerFrame() {
+        m_scheduler.setFrameBudgetMilliseconds(1f);
+        m_timeStepPerRead = NANOSECONDS_PER_SECOND;
+
+        for (int i = 0; i < 3; ++i) {
+            m_scheduler.add(createChunk(new Vector3i(i, 0, 0)));
+        }
+
+        assertEquals(1, m_scheduler.processFrame(m_processedChunks::add));
+        assertEquals(2, m_scheduler.size());
+        assertEquals(1, m_scheduler.processFrame(m_processedChunks::add));
+        assertEquals(1, m_scheduler.processFrame(m_processedChunks::add));
+        assertEquals(0, m_scheduler.processFrame(m_processedChunks::add));
+        assertEquals(3, m_processedChunks.size());
+    }
+
+    private static Chunk createChunk(Vector3i chunkIndex) {
+        return VoxelTestWorld.createChunk(chunkIndex, (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+    }
+}
@@ -0,0 +1,122 @@
+package com.cheesygames.colonysimulation.world.chunk.distance;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.junit.jupiter.api.*;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkDistanceField}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkDistanceField_Tests {
+
+    private static final double SOLID_RATIO = 0.0005;
+
+    private World m_world;
+    private Chunk m_chunk;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+
+        VoxelTypeFunction voxelTypes = VoxelTestWorld.createRandomSolids(SOLID_RATIO, 0);
+
+        Vector3i chunkIndex = new Vector3i();
+        m_chunk = VoxelTestWorld.createChunk(chunkIndex, voxelTypes);
+        m_world.addChunk(chunkIndex, m_chunk);
+    }
+
+    @Test
+    public void getDistanceAt_randomChunk_neverOverestimated() {
+        ChunkDistanceField distanceField = m_chunk.getDistanceField();
+        Vector3i size = m_chunk.getSize();
+        int skippableVoxelCount = 0;
+
+        distanceField.compute();
+
+        for (int x = 0; x < size.x; ++x) {
+            for (int y = 0; y < size.y; ++y) {
+                for (int z = 0; z < size.z; ++z) {
+                    int distance = distanceField.getDistanceAt(x, y, z);
+
+                    if (distance > 0) {
+                        ++skippableVoxelCount;
+                        assertTrue(isAirCube(x, y, z, distance - 1), "Overestimated distance " + distance + " at " + new Vector3i(x, y, z));
+                    }
+                }
+            }
+        }
+
+        assertTrue(skippableVoxelCount > 0);
+    }
+
+    @Test
+    public void getDistanceAt_afterEdit_invalidUntilUpdated() {
+        ChunkDistanceField distanceField = m_chunk.getDistanceField();
+        Vector3i voxelIndex = findAirVoxel();
+
+        distanceField.compute();
+        m_chunk.setVoxelTypeAt(VoxelType.SOLID, voxelIndex);
+
+        assertFalse(distanceField.isValid());
+        assertEquals(0, distanceField.getDistanceAt(voxelIndex.x, voxelIndex.y, voxelIndex.z));
+        assertTrue(distanceField.update());
+        assertEquals(0, distanceField.getDistanceAt(voxelIndex.x, voxelIndex.y, voxelIndex.z));
+        assertFalse(distanceField.update());
+    }
+
+    /**
+     * Checks if all the voxels of the cube are air and inside of the chunk.
+     *
+     * @param x          The cube's center on the X axis.
+     * @param y          The cube's center on the Y axis.
+     * @param z          The cube's center on the Z axis.
+     * @param halfExtent The number of voxels between the center and the border of the cube.
+     *
+     * @return True if the cube is only made of air inside of the chunk, false otherwise.
+     */
+    private boolean isAirCube(int x, int y, int z, int halfExtent) {
+        Vector3i size = m_chunk.getSize();
+
+        if (x - halfExtent < 0 || y - halfExtent < 0 || z - halfExtent < 0 || x + halfExtent >= size.x || y + halfExtent >= size.y || z + halfExtent >= size.z) {
+            return false;
+        }
+
+        for (int cubeX = x - halfExtent; cubeX <= x + halfExtent; ++cubeX) {
+            for (int cubeY = y - halfExtent; cubeY <= y + halfExtent; ++cubeY) {
+                for (int cubeZ = z - halfExtent; cubeZ <= z + halfExtent; ++cubeZ) {
+                    if (m_chunk.getVoxelAt(cubeX, cubeY, cubeZ).voxelType != VoxelType.AIR) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private Vector3i findAirVoxel() {
+        Vector3i size = m_chunk.getSize();
+
+        for (int x = 0; x < size.x; ++x) {
+            for (int y = 0; y < size.y; ++y) {
+                for (int z = 0; z < size.z; ++z) {
+                    if (m_chunk.getVoxelAt(x, y, z).voxelType == VoxelType.AIR) {
+                        return new Vector3i(x, y, z);
+                    }
+                }
+            }
+        }
+
+        throw new IllegalStateException("The chunk has no air voxel.");
+    }
+}
@@ -0,0 +1,65 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link ChunkLightingManager#computeLighting()} when a world of random caves is loaded, by number of threads of the lighting pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkLightingManager_Benchmark {
+
+    private static final long SEED = 0;
+    private static final int WORLD_SIZE_IN_CHUNKS = 4;
+    private static final float EMITTER_RATIO = 0.005f;
+    private static final float SOLID_RATIO = 0.3f;
+
+    @Param({ "1", "2", "4" })
+    public int parallelism;
+
+    private List<Chunk> m_chunks;
+    private ForkJoinPool m_pool;
+    private ChunkLightingManager m_lightingManager;
+
+    @Setup
+    public void setup() {
+        m_chunks = LightingTestWorld.createWorld(new Vector3i(0, 0, 0),
+            new Vector3i(WORLD_SIZE_IN_CHUNKS - 1, WORLD_SIZE_IN_CHUNKS - 1, WORLD_SIZE_IN_CHUNKS - 1),
+            LightingTestWorld.createCaves(EMITTER_RATIO, SOLID_RATIO, new Random(SEED)));
+
+        m_pool = new ForkJoinPool(parallelism);
+        m_lightingManager = new ChunkLightingManager(m_pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        m_pool.shutdown();
+    }
+
+    @Benchmark
+    public void computeLighting() {
+        for (Chunk chunk : m_chunks) {
+            m_lightingManager.addToAwaitingReset(chunk);
+        }
+
+        m_lightingManager.computeLighting();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ChunkLightingManager_Benchmark.class.getSimpleName()).build()).run();
+    }
+}
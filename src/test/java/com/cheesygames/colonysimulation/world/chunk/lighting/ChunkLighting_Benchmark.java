@@ -0,0 +1,82 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link ChunkLighting#computeLighting(LightPropagationQueue)} on a chunk of generated terrain, whose air voxels are randomly replaced by {@link VoxelType#LIGHT}
+ * emitters. The full computation is compared to the incremental update of a single block placed next to an emitter and then removed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkLighting_Benchmark {
+
+    private static final long SEED = 0;
+
+    @Param({ "0.001", "0.01" })
+    public double emitterRatio;
+
+    private Chunk m_chunk;
+    private LightPropagationQueue m_queue;
+    private Vector3i m_editedVoxel;
+
+    @Setup
+    public void setup() {
+        VoxelTestWorld.createWorld();
+
+        m_chunk = VoxelTestWorld.createChunk(new Vector3i(), LightingTestWorld.createMountainousTerrain(emitterRatio, SEED));
+        m_queue = new LightPropagationQueue();
+        m_editedVoxel = findAirVoxelNextToEmitter();
+        m_chunk.getChunkLighting().computeLighting(m_queue);
+    }
+
+    private Vector3i findAirVoxelNextToEmitter() {
+        Vector3i chunkSize = m_chunk.getSize();
+
+        for (int x = 1; x < chunkSize.x; ++x) {
+            for (int y = 0; y < chunkSize.y; ++y) {
+                for (int z = 0; z < chunkSize.z; ++z) {
+                    if (m_chunk.getVoxelAt(x, y, z).voxelType == VoxelType.AIR && m_chunk.getVoxelAt(x - 1, y, z).voxelType == VoxelType.LIGHT) {
+                        return new Vector3i(x, y, z);
+                    }
+                }
+            }
+        }
+
+        throw new IllegalStateException("The chunk has no air voxel next to an emitter.");
+    }
+
+    @Benchmark
+    public int[] computeLighting() {
+        m_chunk.getChunkLighting().setLightingState(ChunkLightingState.AWAITING_RESET);
+        m_chunk.getChunkLighting().computeLighting(m_queue);
+
+        return m_chunk.getChunkLighting().getLights();
+    }
+
+    @Benchmark
+    public int[] placeAndRemoveBlock() {
+        m_chunk.setVoxelTypeAt(VoxelType.SOLID, m_editedVoxel);
+        m_chunk.getChunkLighting().computeLighting(m_queue);
+        m_chunk.setVoxelTypeAt(VoxelType.AIR, m_editedVoxel);
+        m_chunk.getChunkLighting().computeLighting(m_queue);
+
+        return m_chunk.getChunkLighting().getLights();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ChunkLighting_Benchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,454 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelLightUtils;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkLighting}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkLighting_Tests {
+
+    private static final int EMITTED_INTENSITY = VoxelLightUtils.getRedIntensity(VoxelType.LIGHT.getLight());
+
+    private LightPropagationQueue m_queue;
+    private Vector3i m_chunkSize;
+
+    @BeforeEach
+    public void setup() {
+        VoxelTestWorld.createWorld();
+        m_chunkSize = GameGlobal.world.getChunkSize();
+        m_queue = new LightPropagationQueue(1);
+    }
+
+    @Test
+    public void computeLighting_noEmitter_allDark() {
+        Chunk chunk = createLitChunk((x, y, z) -> (x + y + z) % 3 == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        forEachVoxel((x, y, z) -> assertEquals(0, chunk.getChunkLighting().getLightAt(x, y, z)));
+    }
+
+    @Test
+    public void computeLighting_singleEmitterInAir_manhattanFalloff() {
+        Vector3i emitter = new Vector3i(m_chunkSize.x / 2, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        Chunk chunk = createLitChunk((x, y, z) -> x == emitter.x && y == emitter.y && z == emitter.z ? VoxelType.LIGHT : VoxelType.AIR);
+
+        forEachVoxel((x, y, z) -> {
+            int expectedIntensity = Math.max(0, EMITTED_INTENSITY - manhattanDistance(emitter, x, y, z));
+            int light = chunk.getChunkLighting().getLightAt(x, y, z);
+
+            assertEquals(expectedIntensity, VoxelLightUtils.getRedIntensity(light));
+            assertEquals(expectedIntensity, VoxelLightUtils.getGreenIntensity(light));
+            assertEquals(0, VoxelLightUtils.getBlueIntensity(light));
+            assertEquals(0, VoxelLightUtils.getSunIntensity(light));
+        });
+    }
+
+    @Test
+    public void computeLighting_twoEmitters_maximumOfBoth() {
+        Vector3i firstEmitter = new Vector3i(4, 4, 4);
+        Vector3i secondEmitter = new Vector3i(12, 6, 9);
+        Chunk chunk = createLitChunk((x, y, z) -> (x == firstEmitter.x && y == firstEmitter.y && z == firstEmitter.z) || (x == secondEmitter.x && y == secondEmitter.y
+            && z == secondEmitter.z) ? VoxelType.LIGHT : VoxelType.AIR);
+
+        forEachVoxel((x, y, z) -> {
+            if (chunk.getVoxelAt(x, y, z).voxelType == VoxelType.AIR) {
+                int expectedIntensity = Math.max(0, EMITTED_INTENSITY - Math.min(manhattanDistance(firstEmitter, x, y, z), manhattanDistance(secondEmitter, x, y, z)));
+                assertEquals(expectedIntensity, VoxelLightUtils.getRedIntensity(chunk.getChunkLighting().getLightAt(x, y, z)));
+            }
+        });
+    }
+
+    @Test
+    public void computeLighting_emitterEnclosedBySolid_noLeak() {
+        Vector3i emitter = new Vector3i(8, 8, 8);
+        Chunk chunk = createLitChunk((x, y, z) -> {
+            int distance = manhattanDistance(emitter, x, y, z);
+            return distance == 0 ? VoxelType.LIGHT : (Math.max(Math.abs(x - emitter.x), Math.max(Math.abs(y - emitter.y), Math.abs(z - emitter.z))) == 2
+                ? VoxelType.SOLID
+                : VoxelType.AIR);
+        });
+
+        forEachVoxel((x, y, z) -> {
+            int chebyshevDistance = Math.max(Math.abs(x - emitter.x), Math.max(Math.abs(y - emitter.y), Math.abs(z - emitter.z)));
+
+            if (chebyshevDistance > 2) {
+                assertEquals(0, chunk.getChunkLighting().getLightAt(x, y, z));
+            }
+        });
+    }
+
+    @Test
+    public void computeLighting_wallWithHole_lightGoesAroundThroughHole() {
+        int wallX = 10;
+        Vector3i hole = new Vector3i(wallX, 8, 8);
+        Vector3i emitter = new Vector3i(8, 8, 8);
+        Chunk chunk = createLitChunk((x, y, z) -> {
+            if (x == emitter.x && y == emitter.y && z == emitter.z) {
+                return VoxelType.LIGHT;
+            }
+
+            return x == wallX && !(y == hole.y && z == hole.z) ? VoxelType.SOLID : VoxelType.AIR;
+        });
+
+        // Beyond the wall, the light can only come through the hole.
+        forEachVoxel((x, y, z) -> {
+            if (x > wallX) {
+                int expectedIntensity = Math.max(0, EMITTED_INTENSITY - manhattanDistance(emitter, hole.x, hole.y, hole.z) - manhattanDistance(hole, x, y, z));
+                assertEquals(expectedIntensity, VoxelLightUtils.getRedIntensity(chunk.getChunkLighting().getLightAt(x, y, z)));
+            }
+        });
+    }
+
+    @Test
+    public void computeLighting_solidVoxels_receiveNoLight() {
+        Chunk chunk = createLitChunk((x, y, z) -> x == 5 && y == 5 && z == 5 ? VoxelType.LIGHT : (y == 4 ? VoxelType.SOLID : VoxelType.AIR));
+
+        forEachVoxel((x, y, z) -> {
+            if (y == 4) {
+                assertEquals(0, chunk.getChunkLighting().getLightAt(x, y, z));
+            }
+        });
+    }
+
+    @Test
+    public void computeLighting_computedTwice_sameLights() {
+        Chunk chunk = createLitChunk((x, y, z) -> (x * 7 + y * 13 + z * 5) % 97 == 0 ? VoxelType.LIGHT : ((x * y + z) % 5 == 0 ? VoxelType.SOLID : VoxelType.AIR));
+        int[] firstLights = chunk.getChunkLighting().getLights().clone();
+
+        chunk.getChunkLighting().setLightingState(ChunkLightingState.AWAITING_RESET);
+        chunk.getChunkLighting().computeLighting(m_queue);
+
+        Assertions.assertArrayEquals(firstLights, chunk.getChunkLighting().getLights());
+        assertEquals(0, m_queue.size());
+    }
+
+    @Test
+    public void computeLighting_emitterNearBorder_lightCrossesIntoAdjacentChunk() {
+        Vector3i emitter = new Vector3i(m_chunkSize.x - 2, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        Chunk[] chunks = addChunks(emitter, new Vector3i(0, 0, 0), new Vector3i(1, 0, 0));
+
+        GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().computeLighting();
+
+        assertManhattanFalloff(emitter, chunks);
+    }
+
+    @Test
+    public void computeLighting_emitterNearCorner_lightCrossesTwoBorders() {
+        Vector3i emitter = new Vector3i(m_chunkSize.x - 1, m_chunkSize.y - 1, m_chunkSize.z / 2);
+        Chunk[] chunks = addChunks(emitter, new Vector3i(0, 0, 0), new Vector3i(1, 0, 0), new Vector3i(0, 1, 0), new Vector3i(1, 1, 0));
+
+        GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().computeLighting();
+
+        assertManhattanFalloff(emitter, chunks);
+    }
+
+    @Test
+    public void computeLighting_emitterAddedBetweenLitChunks_onlyReachedChunkRelitAndRemeshed() {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Vector3i emitter = new Vector3i(m_chunkSize.x - 1, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        Chunk[] litChunks = addChunks(emitter, new Vector3i(1, 0, 0), new Vector3i(-1, 0, 0));
+
+        lightingManager.computeLighting();
+
+        Chunk emitterChunk = addChunks(emitter, new Vector3i(0, 0, 0))[0];
+        lightingManager.computeLighting();
+
+        assertManhattanFalloff(emitter, emitterChunk, litChunks[0], litChunks[1]);
+        assertTrue(GameGlobal.world.getChunkUpdateManager().getRemeshScheduler().contains(litChunks[0]));
+        assertFalse(GameGlobal.world.getChunkUpdateManager().getRemeshScheduler().contains(litChunks[1]));
+        assertEquals(ChunkLightingState.OK, litChunks[0].getChunkLighting().getLightingState());
+    }
+
+    @Test
+    public void computeLighting_chunkAddedNextToLitEmitterChunk_pullsLightFromBorder() {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Vector3i emitter = new Vector3i(1, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        Chunk emitterChunk = addChunks(emitter, new Vector3i(0, 0, 0))[0];
+
+        lightingManager.computeLighting();
+
+        Chunk adjacentChunk = addChunks(emitter, new Vector3i(-1, 0, 0))[0];
+        lightingManager.computeLighting();
+
+        assertManhattanFalloff(emitter, emitterChunk, adjacentChunk);
+    }
+
+    @Test
+    public void setVoxelTypeAt_randomEditsAcrossBorder_sameLightsAsFullComputation() {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Random random = new Random(0);
+        VoxelTypeFunction caves = LightingTestWorld.createCaves(0.005f, 0.3f, random);
+        Chunk[] chunks = new Chunk[] { VoxelTestWorld.addChunk(new Vector3i(0, 0, 0), caves), VoxelTestWorld.addChunk(new Vector3i(1, 0, 0), caves) };
+        VoxelType[] voxelTypes = VoxelType.values();
+
+        lightingManager.computeLighting();
+
+        for (int edit = 0; edit < 200; ++edit) {
+            Chunk chunk = chunks[random.nextInt(chunks.length)];
+            // Most edits are near the shared border, so that the darkness and the light cross it.
+            int x = chunk == chunks[0] ? m_chunkSize.x - 1 - random.nextInt(4) : random.nextInt(4);
+
+            chunk.setVoxelTypeAt(voxelTypes[random.nextInt(voxelTypes.length)], x, random.nextInt(m_chunkSize.y), random.nextInt(m_chunkSize.z));
+
+            if (edit % 10 == 0) {
+                lightingManager.computeLighting();
+                assertSameLightsAsFullComputation(chunks);
+            }
+        }
+    }
+
+    @Test
+    public void setVoxelTypeAt_emitterRemovedThenRestored_darkThenSameLights() {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Vector3i emitter = new Vector3i(m_chunkSize.x - 2, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        Chunk[] chunks = addChunks(emitter, new Vector3i(0, 0, 0), new Vector3i(1, 0, 0));
+
+        lightingManager.computeLighting();
+        chunks[0].setVoxelTypeAt(VoxelType.AIR, emitter);
+        lightingManager.computeLighting();
+
+        // The chunks are open to the sky, so only the color components are dark.
+        for (Chunk chunk : chunks) {
+            forEachVoxel((x, y, z) -> assertEquals(0, chunk.getChunkLighting().getLightAt(x, y, z) & ~VoxelLightUtils.SUN_LIGHT_BITS));
+        }
+
+        chunks[0].setVoxelTypeAt(VoxelType.LIGHT, emitter);
+        lightingManager.computeLighting();
+
+        assertManhattanFalloff(emitter, chunks);
+    }
+
+    @Test
+    public void computeLighting_parallelPhases_sameLightsAsSequential() {
+        VoxelTypeFunction caves = LightingTestWorld.createCaves(0.005f, 0.3f, new Random(1));
+        Chunk[] chunks = new Chunk[27];
+
+        for (int i = 0; i < chunks.length; ++i) {
+            chunks[i] = VoxelTestWorld.addChunk(new Vector3i(i % 3, (i / 3) % 3, i / 9), caves);
+        }
+
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        ForkJoinPool sequentialPool = new ForkJoinPool(1);
+        int[][] parallelLights = computeLightingFromScratch(new ChunkLightingManager(parallelPool), chunks);
+        int[][] sequentialLights = computeLightingFromScratch(new ChunkLightingManager(sequentialPool), chunks);
+
+        parallelPool.shutdown();
+        sequentialPool.shutdown();
+
+        for (int i = 0; i < chunks.length; ++i) {
+            Assertions.assertArrayEquals(sequentialLights[i], parallelLights[i]);
+        }
+    }
+
+    @Test
+    public void computeLighting_floorWithOverhang_skyLitAndSunFalloffUnderOverhang() {
+        int overhangY = 10;
+        int overhangMin = 8;
+        int overhangMax = 23;
+        Chunk chunk = VoxelTestWorld.addChunk(new Vector3i(),
+            (x, y, z) -> y == 0 || (y == overhangY && x >= overhangMin && x <= overhangMax && z >= overhangMin && z <= overhangMax) ? VoxelType.SOLID : VoxelType.AIR);
+
+        GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().computeLighting();
+
+        forEachVoxel((x, y, z) -> {
+            int sunIntensity = VoxelLightUtils.getSunIntensity(chunk.getChunkLighting().getLightAt(x, y, z));
+
+            if (chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+                assertEquals(0, sunIntensity);
+            }
+            else if (y < overhangY && x >= overhangMin && x <= overhangMax && z >= overhangMin && z <= overhangMax) {
+                int distanceToSky = Math.min(Math.min(x - overhangMin + 1, overhangMax + 1 - x), Math.min(z - overhangMin + 1, overhangMax + 1 - z));
+                assertEquals(Math.max(0, VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY - distanceToSky), sunIntensity);
+            }
+            else {
+                assertEquals(VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY, sunIntensity);
+            }
+        });
+    }
+
+    @Test
+    public void setVoxelTypeAt_roofPlacedAndRemovedAboveLowerChunk_sameLightsAsFullComputation() {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Chunk lowerChunk = VoxelTestWorld.addChunk(new Vector3i(0, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+        Chunk upperChunk = VoxelTestWorld.addChunk(new Vector3i(0, 1, 0), (x, y, z) -> y == 2 * m_chunkSize.y - 1 && x == 0 && z == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        lightingManager.computeLighting();
+        upperChunk.setVoxelTypeAt(VoxelType.SOLID, m_chunkSize.x / 2, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        lightingManager.computeLighting();
+
+        assertEquals(VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY - 1,
+            VoxelLightUtils.getSunIntensity(lowerChunk.getChunkLighting().getLightAt(m_chunkSize.x / 2, m_chunkSize.y / 2, m_chunkSize.z / 2)));
+        assertSameLightsAsFullComputation(lowerChunk, upperChunk);
+
+        upperChunk.setVoxelTypeAt(VoxelType.AIR, m_chunkSize.x / 2, m_chunkSize.y / 2, m_chunkSize.z / 2);
+        lightingManager.computeLighting();
+
+        assertEquals(VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY,
+            VoxelLightUtils.getSunIntensity(lowerChunk.getChunkLighting().getLightAt(m_chunkSize.x / 2, m_chunkSize.y / 2, m_chunkSize.z / 2)));
+        assertSameLightsAsFullComputation(lowerChunk, upperChunk);
+    }
+
+    @Test
+    public void computeLighting_roofChunkAddedAboveLitChunk_lowerChunkDark() {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Chunk lowerChunk = VoxelTestWorld.addChunk(new Vector3i(0, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        lightingManager.computeLighting();
+        VoxelTestWorld.addChunk(new Vector3i(0, 1, 0), (x, y, z) -> y == m_chunkSize.y ? VoxelType.SOLID : VoxelType.AIR);
+        lightingManager.computeLighting();
+
+        forEachVoxel((x, y, z) -> assertEquals(0, lowerChunk.getChunkLighting().getLightAt(x, y, z)));
+    }
+
+    @Test
+    public void computeLighting_mountainousWorldWithEdits_sameLightsAsReference() {
+        List<Chunk> chunks = LightingTestWorld.createMountainousWorld(new Vector3i(-1, -1, -1), new Vector3i(0, 0, 0), 0.005, 0);
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        Random random = new Random(0);
+
+        lightingManager.computeLighting();
+        assertNull(ReferenceLighting.findMismatch(chunks));
+
+        for (int i = 0; i < 50; ++i) {
+            Chunk chunk = chunks.get(random.nextInt(chunks.size()));
+            VoxelType voxelType = VoxelType.values()[random.nextInt(VoxelType.values().length)];
+
+            chunk.setVoxelTypeAt(voxelType, random.nextInt(m_chunkSize.x), random.nextInt(m_chunkSize.y), random.nextInt(m_chunkSize.z));
+        }
+
+        lightingManager.computeLighting();
+        assertNull(ReferenceLighting.findMismatch(chunks));
+    }
+
+    @Test
+    public void lightPropagationQueue_wrapsAndGrows_firstInFirstOut() {
+        LightPropagationQueue queue = new LightPropagationQueue(4);
+        int nextEnqueued = 0;
+        int nextDequeued = 0;
+
+        for (int i = 0; i < 100; ++i) {
+            for (int j = 0; j < i % 7; ++j, ++nextEnqueued) {
+                queue.enqueue(nextEnqueued, nextEnqueued & 0xFFFF);
+            }
+            for (int j = 0; j < i % 5 && !queue.isEmpty(); ++j, ++nextDequeued) {
+                int entry = queue.dequeue();
+
+                assertEquals(nextDequeued, LightPropagationQueue.getVoxelIndex(entry));
+                assertEquals(nextDequeued & 0xFFFF, LightPropagationQueue.getLight(entry));
+            }
+        }
+
+        assertEquals(nextEnqueued - nextDequeued, queue.size());
+    }
+
+    private Chunk createLitChunk(VoxelTypeFunction voxelTypeFunction) {
+        Chunk chunk = VoxelTestWorld.createChunk(new Vector3i(), voxelTypeFunction);
+        chunk.getChunkLighting().computeLighting(m_queue);
+
+        return chunk;
+    }
+
+    /**
+     * Generates and adds chunks to the world. The chunks are filled with air, except for the absolute emitter and a single solid voxel at the corner of each chunk that is the
+     * farthest from the emitter, so that no chunk is empty.
+     */
+    private Chunk[] addChunks(Vector3i emitter, Vector3i... chunkIndices) {
+        VoxelTypeFunction voxelTypeFunction = (x, y, z) -> {
+            if (x == emitter.x && y == emitter.y && z == emitter.z) {
+                return VoxelType.LIGHT;
+            }
+
+            boolean isFarthestCorner = (x & (m_chunkSize.x - 1)) == 0 && (y & (m_chunkSize.y - 1)) == 0 && (z & (m_chunkSize.z - 1)) == m_chunkSize.z - 1;
+
+            return isFarthestCorner ? VoxelType.SOLID : VoxelType.AIR;
+        };
+
+        Chunk[] chunks = new Chunk[chunkIndices.length];
+        for (int i = 0; i < chunkIndices.length; ++i) {
+            chunks[i] = VoxelTestWorld.addChunk(chunkIndices[i], voxelTypeFunction);
+        }
+
+        return chunks;
+    }
+
+    private static int[][] computeLightingFromScratch(ChunkLightingManager lightingManager, Chunk... chunks) {
+        int[][] lights = new int[chunks.length][];
+
+        for (Chunk chunk : chunks) {
+            lightingManager.addToAwaitingReset(chunk);
+        }
+
+        lightingManager.computeLighting();
+
+        for (int i = 0; i < chunks.length; ++i) {
+            lights[i] = chunks[i].getChunkLighting().getLights().clone();
+        }
+
+        return lights;
+    }
+
+    private void assertSameLightsAsFullComputation(Chunk... chunks) {
+        ChunkLightingManager lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        int[][] incrementalLights = new int[chunks.length][];
+
+        for (int i = 0; i < chunks.length; ++i) {
+            incrementalLights[i] = chunks[i].getChunkLighting().getLights().clone();
+            lightingManager.addToAwaitingReset(chunks[i]);
+        }
+
+        lightingManager.computeLighting();
+
+        for (int i = 0; i < chunks.length; ++i) {
+            Assertions.assertArrayEquals(chunks[i].getChunkLighting().getLights(), incrementalLights[i]);
+        }
+    }
+
+    private void assertManhattanFalloff(Vector3i emitter, Chunk... chunks) {
+        for (Chunk chunk : chunks) {
+            Vector3i chunkStartPosition = GameGlobal.world.getChunkStartPosition(chunk.getIndex());
+
+            forEachVoxel((x, y, z) -> {
+                if (chunk.getVoxelAt(x, y, z).voxelType == VoxelType.AIR) {
+                    int distance = manhattanDistance(emitter, chunkStartPosition.x + x, chunkStartPosition.y + y, chunkStartPosition.z + z);
+                    assertEquals(Math.max(0, EMITTED_INTENSITY - distance), VoxelLightUtils.getRedIntensity(chunk.getChunkLighting().getLightAt(x, y, z)));
+                }
+            });
+        }
+    }
+
+    private void forEachVoxel(VoxelConsumer voxelConsumer) {
+        for (int x = 0; x < m_chunkSize.x; ++x) {
+            for (int y = 0; y < m_chunkSize.y; ++y) {
+                for (int z = 0; z < m_chunkSize.z; ++z) {
+                    voxelConsumer.accept(x, y, z);
+                }
+            }
+        }
+    }
+
+    private static int manhattanDistance(Vector3i from, int x, int y, int z) {
+        return Math.abs(x - from.x) + Math.abs(y - from.y) + Math.abs(z - from.z);
+    }
+
+    @FunctionalInterface
+    private interface VoxelConsumer {
+
+        void accept(int x, int y, int z);
+    }
+}
@@ -0,0 +1,169 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the whole lighting engine, driven through {@link ChunkLightingManager} on headless worlds of mountainous terrain whose air voxels are randomly replaced by
+ * {@link VoxelType#LIGHT} emitters. It measures the initial lighting of the whole world, the relighting latency of a single edit and the propagation of an emitter across a
+ * chunk border. The lights are verified against {@link ReferenceLighting} before and after every trial, so that an optimization cannot silently break the lighting. Run it
+ * through {@link #main(String[])} to also report the allocations per operation.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LightingEngine_Benchmark {
+
+    private static final long SEED = 0;
+
+    @Param({ "2", "4" })
+    public int worldSizeInChunks;
+
+    @Param({ "0.001", "0.01" })
+    public double emitterRatio;
+
+    private List<Chunk> m_chunks;
+    private ChunkLightingManager m_lightingManager;
+    private Chunk m_editedChunk;
+    private Vector3i m_editedVoxel;
+    private Chunk m_borderChunk;
+    private Vector3i m_borderVoxel;
+
+    /**
+     * Counts the voxels lit by the operations, so that JMH reports the lit voxels per second next to the operations per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LitVoxelsCounter {
+
+        public long voxels;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            voxels = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int halfWorldSizeInChunks = worldSizeInChunks / 2;
+
+        m_chunks = LightingTestWorld.createMountainousWorld(new Vector3i(-halfWorldSizeInChunks, -halfWorldSizeInChunks, -halfWorldSizeInChunks),
+            new Vector3i(worldSizeInChunks - halfWorldSizeInChunks - 1, worldSizeInChunks - halfWorldSizeInChunks - 1, worldSizeInChunks - halfWorldSizeInChunks - 1),
+            emitterRatio,
+            SEED);
+        m_lightingManager = GameGlobal.world.getChunkUpdateManager().getChunkLightingManager();
+        m_lightingManager.computeLighting();
+
+        findEditedVoxel();
+        findBorderVoxel();
+        verifyLighting();
+    }
+
+    /**
+     * Finds an air voxel next to an emitter, so that placing a block there darkens and relights its surroundings.
+     */
+    private void findEditedVoxel() {
+        Vector3i chunkSize = GameGlobal.world.getChunkSize();
+
+        for (Chunk chunk : m_chunks) {
+            for (int x = 1; x < chunkSize.x; ++x) {
+                for (int y = 0; y < chunkSize.y; ++y) {
+                    for (int z = 0; z < chunkSize.z; ++z) {
+                        if (chunk.getVoxelAt(x, y, z).voxelType == VoxelType.AIR && chunk.getVoxelAt(x - 1, y, z).voxelType == VoxelType.LIGHT) {
+                            m_editedChunk = chunk;
+                            m_editedVoxel = new Vector3i(x, y, z);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        throw new IllegalStateException("The world has no air voxel next to an emitter.");
+    }
+
+    /**
+     * Finds an air voxel on the positive X face of a chunk, whose adjacent voxel in the next chunk is also air, so that an emitter placed there lights both chunks.
+     */
+    private void findBorderVoxel() {
+        Vector3i chunkSize = GameGlobal.world.getChunkSize();
+        int x = chunkSize.x - 1;
+
+        for (Chunk chunk : m_chunks) {
+            Chunk adjacentChunk = GameGlobal.world.getChunkAt(new Vector3i(chunk.getIndex()).addLocal(1, 0, 0));
+
+            if (adjacentChunk != null) {
+                for (int y = 0; y < chunkSize.y; ++y) {
+                    for (int z = 0; z < chunkSize.z; ++z) {
+                        if (chunk.getVoxelAt(x, y, z).voxelType == VoxelType.AIR && adjacentChunk.getVoxelAt(0, y, z).voxelType == VoxelType.AIR) {
+                            m_borderChunk = chunk;
+                            m_borderVoxel = new Vector3i(x, y, z);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        throw new IllegalStateException("The world has no air voxel on a border between two chunks.");
+    }
+
+    @TearDown(Level.Trial)
+    public void verifyLighting() {
+        String mismatch = ReferenceLighting.findMismatch(m_chunks);
+
+        if (mismatch != null) {
+            throw new IllegalStateException("The lighting differs from the reference lighting. " + mismatch);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void fullWorldLighting(LitVoxelsCounter counter) {
+        Vector3i chunkSize = GameGlobal.world.getChunkSize();
+
+        for (Chunk chunk : m_chunks) {
+            m_lightingManager.addToAwaitingReset(chunk);
+        }
+
+        m_lightingManager.computeLighting();
+        counter.voxels += (long) m_chunks.size() * chunkSize.x * chunkSize.y * chunkSize.z;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void singleEditRelight() {
+        m_editedChunk.setVoxelTypeAt(VoxelType.SOLID, m_editedVoxel);
+        m_lightingManager.computeLighting();
+        m_editedChunk.setVoxelTypeAt(VoxelType.AIR, m_editedVoxel);
+        m_lightingManager.computeLighting();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void crossChunkPropagation() {
+        m_borderChunk.setVoxelTypeAt(VoxelType.LIGHT, m_borderVoxel);
+        m_lightingManager.computeLighting();
+        m_borderChunk.setVoxelTypeAt(VoxelType.AIR, m_borderVoxel);
+        m_lightingManager.computeLighting();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LightingEngine_Benchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
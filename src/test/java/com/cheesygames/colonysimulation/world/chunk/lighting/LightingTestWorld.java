@@ -0,0 +1,109 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.cheesygames.colonysimulation.world.generation.IWorldGenerator;
+import com.cheesygames.colonysimulation.world.generation.MountainousWorldGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds headless worlds for the lighting tests and benchmarks.
+ */
+final class LightingTestWorld {
+
+    /**
+     * Creates a new world of mountainous terrain, whose air voxels are randomly replaced by {@link VoxelType#LIGHT} emitters, and sets it as the global world. The chunks are
+     * added to the world, except for the empty ones, but are not lit.
+     *
+     * @param minChunkIndex The index of the lowest chunk, inclusively.
+     * @param maxChunkIndex The index of the highest chunk, inclusively.
+     * @param emitterRatio  The probability of an air voxel to be replaced by an emitter.
+     * @param seed          The seed of the emitters' placement.
+     *
+     * @return The chunks added to the world.
+     */
+    static List<Chunk> createMountainousWorld(Vector3i minChunkIndex, Vector3i maxChunkIndex, double emitterRatio, long seed) {
+        return createWorld(minChunkIndex, maxChunkIndex, createMountainousTerrain(emitterRatio, seed));
+    }
+
+    /**
+     * Creates a new world whose voxels are given by a function and sets it as the global world. The chunks are added to the world, except for the empty ones, but are not lit.
+     *
+     * @param minChunkIndex     The index of the lowest chunk, inclusively.
+     * @param maxChunkIndex     The index of the highest chunk, inclusively.
+     * @param voxelTypeFunction The type of each voxel of the world.
+     *
+     * @return The chunks added to the world.
+     */
+    static List<Chunk> createWorld(Vector3i minChunkIndex, Vector3i maxChunkIndex, VoxelTypeFunction voxelTypeFunction) {
+        VoxelTestWorld.createWorld();
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (int x = minChunkIndex.x; x <= maxChunkIndex.x; ++x) {
+            for (int y = minChunkIndex.y; y <= maxChunkIndex.y; ++y) {
+                for (int z = minChunkIndex.z; z <= maxChunkIndex.z; ++z) {
+                    Vector3i chunkIndex = new Vector3i(x, y, z);
+                    Chunk chunk = VoxelTestWorld.createChunk(chunkIndex, voxelTypeFunction);
+
+                    if (!chunk.isEmpty()) {
+                        GameGlobal.world.addChunk(chunkIndex, chunk);
+                        chunks.add(chunk);
+                    }
+                    else {
+                        GameGlobal.world.getChunkUpdateManager().getChunkLightingManager().getChunksAwaitingComputation().remove(chunk);
+                    }
+                }
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Creates a function of mountainous terrain, whose air voxels are randomly replaced by {@link VoxelType#LIGHT} emitters. The function draws a random number for each air
+     * voxel, so the chunks must be generated in the same order to get the same emitters.
+     *
+     * @param emitterRatio The probability of an air voxel to be replaced by an emitter.
+     * @param seed         The seed of the emitters' placement.
+     *
+     * @return A new function of mountainous terrain.
+     */
+    static VoxelTypeFunction createMountainousTerrain(double emitterRatio, long seed) {
+        IWorldGenerator terrainGenerator = new MountainousWorldGenerator();
+        Random random = new Random(seed);
+
+        return (x, y, z) -> {
+            VoxelType voxelType = terrainGenerator.generateVoxel(x, y, z).voxelType;
+
+            return voxelType == VoxelType.AIR && random.nextDouble() < emitterRatio ? VoxelType.LIGHT : voxelType;
+        };
+    }
+
+    /**
+     * Creates a function of random caves, made of solid voxels, air voxels and {@link VoxelType#LIGHT} emitters. The function draws a number from the supplied random for each
+     * voxel.
+     *
+     * @param emitterRatio The probability of a voxel to be an emitter.
+     * @param solidRatio   The probability of a voxel to be an emitter or a solid voxel.
+     * @param random       The random that places the voxels.
+     *
+     * @return A new function of random caves.
+     */
+    static VoxelTypeFunction createCaves(float emitterRatio, float solidRatio, Random random) {
+        return (x, y, z) -> {
+            float value = random.nextFloat();
+
+            return value < emitterRatio ? VoxelType.LIGHT : (value < solidRatio ? VoxelType.SOLID : VoxelType.AIR);
+        };
+    }
+
+    private LightingTestWorld() {
+    }
+}
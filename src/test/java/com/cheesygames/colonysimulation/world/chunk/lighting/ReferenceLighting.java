@@ -0,0 +1,189 @@
+package com.cheesygames.colonysimulation.world.chunk.lighting;
+
+import com.cheesygames.colonysimulation.GameGlobal;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector2i;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Brute force lighting of a set of chunks, used as the reference of the lighting engine. Every voxel starts with the light it emits, plus the full sun intensity if no light
+ * blocking voxel of the chunks is above it. The whole set of chunks is then relaxed until no light changes : every non solid voxel takes, for every component, the brightest
+ * adjacent component attenuated by one. It is slow, but too simple to be wrong, and it does not share any code with the lighting engine.
+ */
+final class ReferenceLighting {
+
+    private static final int COMPONENT_COUNT = 4;
+    private static final int COMPONENT_BIT_COUNT = 4;
+    private static final int COMPONENT_MAXIMUM_INTENSITY = 0xF;
+    private static final int SUN_COMPONENT_INDEX = 3;
+
+    /**
+     * Computes the reference lights of the chunks. The light only travels through the supplied chunks.
+     *
+     * @param chunks The chunks to light.
+     *
+     * @return The lights of every chunk, indexed like {@link ChunkLighting#getLights()}.
+     */
+    static Map<Chunk, int[]> computeLights(Collection<Chunk> chunks) {
+        World world = GameGlobal.world;
+        Vector3i chunkSize = world.getChunkSize();
+        Map<Vector3i, Chunk> chunksByIndex = new HashMap<>();
+        Map<Vector2i, Integer> highestBlockingYs = new HashMap<>();
+        Map<Chunk, int[]> lights = new HashMap<>();
+
+        for (Chunk chunk : chunks) {
+            chunksByIndex.put(chunk.getIndex(), chunk);
+            forEachVoxel(chunkSize, (x, y, z) -> {
+                if (chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+                    highestBlockingYs.merge(getAbsoluteColumn(chunk, x, z), world.getAbsoluteIndexY(chunk.getIndex().y, y), Math::max);
+                }
+            });
+        }
+
+        for (Chunk chunk : chunks) {
+            int[] chunkLights = new int[chunkSize.x * chunkSize.y * chunkSize.z];
+
+            forEachVoxel(chunkSize, (x, y, z) -> {
+                VoxelType voxelType = chunk.getVoxelAt(x, y, z).voxelType;
+                Integer highestBlockingY = highestBlockingYs.get(getAbsoluteColumn(chunk, x, z));
+                boolean isSky = !voxelType.isSolid() && (highestBlockingY == null || world.getAbsoluteIndexY(chunk.getIndex().y, y) > highestBlockingY);
+
+                chunkLights[getVoxelIndex(chunkSize, x, y, z)] = voxelType.getLight() | (isSky ? COMPONENT_MAXIMUM_INTENSITY << (SUN_COMPONENT_INDEX * COMPONENT_BIT_COUNT) : 0);
+            });
+
+            lights.put(chunk, chunkLights);
+        }
+
+        boolean hasChanged = true;
+        while (hasChanged) {
+            hasChanged = false;
+
+            for (Chunk chunk : chunks) {
+                hasChanged |= relaxChunk(chunk, chunksByIndex, lights);
+            }
+        }
+
+        return lights;
+    }
+
+    /**
+     * Compares the lights of the chunks to the reference lights.
+     *
+     * @param chunks The lit chunks.
+     *
+     * @return The description of the first voxel whose light differs from the reference, or null if all the lights are the same.
+     */
+    static String findMismatch(Collection<Chunk> chunks) {
+        Vector3i chunkSize = GameGlobal.world.getChunkSize();
+        Map<Chunk, int[]> referenceLights = computeLights(chunks);
+
+        for (Chunk chunk : chunks) {
+            int[] chunkReferenceLights = referenceLights.get(chunk);
+
+            for (int x = 0; x < chunkSize.x; ++x) {
+                for (int y = 0; y < chunkSize.y; ++y) {
+                    for (int z = 0; z < chunkSize.z; ++z) {
+                        int expectedLight = chunkReferenceLights[getVoxelIndex(chunkSize, x, y, z)];
+                        int light = chunk.getChunkLighting().getLightAt(x, y, z);
+
+                        if (light != expectedLight) {
+                            return String.format("Chunk %s, voxel (%d, %d, %d) : expected light 0x%04X but was 0x%04X", chunk.getIndex(), x, y, z, expectedLight, light);
+                        }
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean relaxChunk(Chunk chunk, Map<Vector3i, Chunk> chunksByIndex, Map<Chunk, int[]> lights) {
+        Vector3i chunkSize = GameGlobal.world.getChunkSize();
+        int[] chunkLights = lights.get(chunk);
+        int[][] adjacentChunkLights = new int[Direction3D.ORTHOGONALS.length][];
+        boolean hasChanged = false;
+
+        for (Direction3D direction : Direction3D.ORTHOGONALS) {
+            Chunk adjacentChunk = chunksByIndex.get(new Vector3i(chunk.getIndex()).addLocal(direction.getDirection()));
+            adjacentChunkLights[direction.getOrthogonalIndex()] = adjacentChunk != null ? lights.get(adjacentChunk) : null;
+        }
+
+        for (int x = 0; x < chunkSize.x; ++x) {
+            for (int y = 0; y < chunkSize.y; ++y) {
+                for (int z = 0; z < chunkSize.z; ++z) {
+                    if (chunk.getVoxelAt(x, y, z).voxelType.isSolid()) {
+                        continue;
+                    }
+
+                    int voxelIndex = getVoxelIndex(chunkSize, x, y, z);
+                    int light = chunkLights[voxelIndex];
+
+                    for (Direction3D direction : Direction3D.ORTHOGONALS) {
+                        int adjacentX = x + direction.getDirectionX();
+                        int adjacentY = y + direction.getDirectionY();
+                        int adjacentZ = z + direction.getDirectionZ();
+                        boolean isInside = adjacentX >= 0 && adjacentX < chunkSize.x && adjacentY >= 0 && adjacentY < chunkSize.y && adjacentZ >= 0 && adjacentZ < chunkSize.z;
+                        int[] lightsOfAdjacentVoxel = isInside ? chunkLights : adjacentChunkLights[direction.getOrthogonalIndex()];
+
+                        if (lightsOfAdjacentVoxel != null) {
+                            int adjacentLight = lightsOfAdjacentVoxel[getVoxelIndex(chunkSize,
+                                Math.floorMod(adjacentX, chunkSize.x),
+                                Math.floorMod(adjacentY, chunkSize.y),
+                                Math.floorMod(adjacentZ, chunkSize.z))];
+
+                            for (int componentIndex = 0; componentIndex < COMPONENT_COUNT; ++componentIndex) {
+                                int bitPosition = componentIndex * COMPONENT_BIT_COUNT;
+                                int attenuatedIntensity = ((adjacentLight >>> bitPosition) & COMPONENT_MAXIMUM_INTENSITY) - 1;
+
+                                if (attenuatedIntensity > ((light >>> bitPosition) & COMPONENT_MAXIMUM_INTENSITY)) {
+                                    light = (light & ~(COMPONENT_MAXIMUM_INTENSITY << bitPosition)) | (attenuatedIntensity << bitPosition);
+                                }
+                            }
+                        }
+                    }
+
+                    if (light != chunkLights[voxelIndex]) {
+                        chunkLights[voxelIndex] = light;
+                        hasChanged = true;
+                    }
+                }
+            }
+        }
+
+        return hasChanged;
+    }
+
+    private static Vector2i getAbsoluteColumn(Chunk chunk, int x, int z) {
+        return new Vector2i(GameGlobal.world.getAbsoluteIndexX(chunk.getIndex().x, x), GameGlobal.world.getAbsoluteIndexZ(chunk.getIndex().z, z));
+    }
+
+    private static int getVoxelIndex(Vector3i chunkSize, int x, int y, int z) {
+        return (x * chunkSize.y + y) * chunkSize.z + z;
+    }
+
+    private static void forEachVoxel(Vector3i chunkSize, VoxelConsumer voxelConsumer) {
+        for (int x = 0; x < chunkSize.x; ++x) {
+            for (int y = 0; y < chunkSize.y; ++y) {
+                for (int z = 0; z < chunkSize.z; ++z) {
+                    voxelConsumer.accept(x, y, z);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface VoxelConsumer {
+
+        void accept(int x, int y, int z);
+    }
+
+    private ReferenceLighting() {
+    }
+}
@@ -0,0 +1,98 @@
+package com.cheesygames.colonysimulation.world.chunk.lod;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.math.Vector3f;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkLodManager}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkLodManager_Tests {
+
+    private World m_world;
+    private ChunkLodManager m_lodManager;
+    private Vector3i m_chunkSize;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+        m_lodManager = new ChunkLodManager();
+        m_lodManager.setLodDistances(new float[] { 100f, 200f, 400f });
+        m_lodManager.setHysteresisRatio(0.1f);
+        m_chunkSize = m_world.getChunkSize();
+    }
+
+    @Test
+    public void computeLodLevel_distanceWithinHysteresis_currentLodLevelKept() {
+        assertEquals(0, m_lodManager.computeLodLevel(0, 109f, m_chunkSize));
+        assertEquals(1, m_lodManager.computeLodLevel(1, 91f, m_chunkSize));
+        assertEquals(1, m_lodManager.computeLodLevel(1, 219f, m_chunkSize));
+        assertEquals(2, m_lodManager.computeLodLevel(2, 181f, m_chunkSize));
+    }
+
+    @Test
+    public void computeLodLevel_distanceBeyondHysteresis_lodLevelChanged() {
+        assertEquals(1, m_lodManager.computeLodLevel(0, 111f, m_chunkSize));
+        assertEquals(0, m_lodManager.computeLodLevel(1, 89f, m_chunkSize));
+        assertEquals(2, m_lodManager.computeLodLevel(1, 221f, m_chunkSize));
+        assertEquals(1, m_lodManager.computeLodLevel(2, 179f, m_chunkSize));
+    }
+
+    @Test
+    public void computeLodLevel_farJump_severalLodLevelsAtOnce() {
+        assertEquals(3, m_lodManager.computeLodLevel(0, 1000f, m_chunkSize));
+        assertEquals(0, m_lodManager.computeLodLevel(3, 10f, m_chunkSize));
+    }
+
+    @Test
+    public void computeLodLevel_smallChunk_boundedByChunkSize() {
+        assertEquals(2, m_lodManager.computeLodLevel(0, 1000f, new Vector3i(4, 8, 4)));
+    }
+
+    @Test
+    public void updateLodLevels_focusPointInsideSameChunk_notReevaluated() {
+        Chunk chunk = VoxelTestWorld.addChunk(new Vector3i(6, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+        Vector3f focusPoint = new Vector3f(1, 1, 1);
+
+        assertTrue(m_lodManager.updateLodLevels(focusPoint));
+        assertEquals(1, chunk.getLodLevel());
+
+        assertFalse(m_lodManager.updateLodLevels(focusPoint.set(m_chunkSize.x - 2, 1, 1)));
+        assertEquals(1, chunk.getLodLevel());
+    }
+
+    @Test
+    public void updateLodLevels_focusPointInAnotherChunk_reevaluated() {
+        Chunk chunk = VoxelTestWorld.addChunk(new Vector3i(6, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        m_lodManager.updateLodLevels(new Vector3f(1, 1, 1));
+
+        assertTrue(m_lodManager.updateLodLevels(new Vector3f(5 * m_chunkSize.x, 1, 1)));
+        assertEquals(0, chunk.getLodLevel());
+    }
+
+    @Test
+    public void updateLodLevels_chunkAddedOrSettingsChanged_reevaluated() {
+        Vector3f focusPoint = new Vector3f(1, 1, 1);
+
+        m_lodManager.updateLodLevels(focusPoint);
+        Chunk chunk = VoxelTestWorld.addChunk(new Vector3i(6, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        assertTrue(m_lodManager.updateLodLevels(focusPoint));
+        assertEquals(1, chunk.getLodLevel());
+
+        m_lodManager.setLodDistances(new float[] { 1000f });
+
+        assertTrue(m_lodManager.updateLodLevels(focusPoint));
+        assertEquals(0, chunk.getLodLevel());
+    }
+}
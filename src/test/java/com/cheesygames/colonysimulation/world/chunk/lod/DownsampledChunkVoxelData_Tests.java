@@ -0,0 +1,79 @@
+package com.cheesygames.colonysimulation.world.chunk.lod;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the class {@link DownsampledChunkVoxelData}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DownsampledChunkVoxelData_Tests {
+
+    private Chunk m_chunk;
+
+    /**
+     * Creates a chunk whose first blocks of 2 by 2 by 2 voxels hold, in order along the X axis : 3 solid voxels, 4 solid voxels, 2 light voxels and 1 solid voxel. The other
+     * voxels are air.
+     */
+    @BeforeEach
+    public void setup() {
+        VoxelTestWorld.createWorld();
+
+        m_chunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> {
+            if (x >= 6 || y >= 2 || z >= 2) {
+                return VoxelType.AIR;
+            }
+
+            int blockX = x >> 1;
+            int localX = x & 1;
+
+            if (blockX == 0) {
+                return y == 0 && !(localX == 1 && z == 1) ? VoxelType.SOLID : VoxelType.AIR;
+            }
+            else if (blockX == 1) {
+                return y == 0 ? VoxelType.SOLID : VoxelType.AIR;
+            }
+            else if (y == 0 && z == 0) {
+                return VoxelType.LIGHT;
+            }
+
+            return localX == 0 && y == 1 && z == 0 ? VoxelType.SOLID : VoxelType.AIR;
+        });
+    }
+
+    @Test
+    public void getVoxelAt_majority_mostFrequentVoxelTypeWithSolidOnTies() {
+        DownsampledChunkVoxelData voxelData = new DownsampledChunkVoxelData(m_chunk, 1, DownsamplingMode.MAJORITY);
+
+        assertEquals(VoxelType.AIR, voxelData.getVoxelAt(0, 0, 0).voxelType);
+        assertEquals(VoxelType.SOLID, voxelData.getVoxelAt(1, 0, 0).voxelType);
+        assertEquals(VoxelType.AIR, voxelData.getVoxelAt(2, 0, 0).voxelType);
+        assertEquals(VoxelType.AIR, voxelData.getVoxelAt(3, 0, 0).voxelType);
+    }
+
+    @Test
+    public void getVoxelAt_anySolid_mostFrequentSolidVoxelTypeIfAny() {
+        DownsampledChunkVoxelData voxelData = new DownsampledChunkVoxelData(m_chunk, 1, DownsamplingMode.ANY_SOLID);
+
+        assertEquals(VoxelType.SOLID, voxelData.getVoxelAt(0, 0, 0).voxelType);
+        assertEquals(VoxelType.SOLID, voxelData.getVoxelAt(1, 0, 0).voxelType);
+        assertEquals(VoxelType.LIGHT, voxelData.getVoxelAt(2, 0, 0).voxelType);
+        assertEquals(VoxelType.AIR, voxelData.getVoxelAt(3, 0, 0).voxelType);
+    }
+
+    @Test
+    public void getVoxelAt_higherLodLevel_wholeBlockReducedToOneVoxel() {
+        DownsampledChunkVoxelData voxelData = new DownsampledChunkVoxelData(m_chunk, 2, DownsamplingMode.ANY_SOLID);
+
+        assertEquals(new Vector3i(m_chunk.getSize().x >> 2, m_chunk.getSize().y >> 2, m_chunk.getSize().z >> 2), voxelData.getSize());
+        assertEquals(4, voxelData.getScale());
+        assertEquals(VoxelType.SOLID, voxelData.getVoxelAt(0, 0, 0).voxelType);
+        assertEquals(VoxelType.LIGHT, voxelData.getVoxelAt(1, 0, 0).voxelType);
+        assertEquals(VoxelType.AIR, new DownsampledChunkVoxelData(m_chunk, 2, DownsamplingMode.MAJORITY).getVoxelAt(1, 0, 0).voxelType);
+    }
+}
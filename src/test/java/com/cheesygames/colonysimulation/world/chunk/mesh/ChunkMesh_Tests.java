@@ -0,0 +1,89 @@
+package com.cheesygames.colonysimulation.world.chunk.mesh;
+
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.VertexBuffer;
+import org.junit.jupiter.api.*;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkMesh}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkMesh_Tests {
+
+    private static final int[] FACE_DIRECTION_VERTEX_COUNTS = { 6, 12, 6, 18, 0, 6 };
+
+    private ChunkMesh m_mesh;
+
+    @BeforeEach
+    public void setup() {
+        VoxelTestWorld.createWorld();
+        m_mesh = new ChunkMesh();
+        m_mesh.setFaceDirectionVertexCounts(FACE_DIRECTION_VERTEX_COUNTS);
+    }
+
+    @Test
+    public void updateVisibleFaceDirections_cameraOnEachSide_sameIndexBufferWithVisibleIndicesOnly() {
+        IntBuffer indexBuffer = getIndexBuffer();
+
+        assertEquals(48, indexBuffer.limit());
+
+        for (Direction3D direction : Direction3D.ORTHOGONALS) {
+            Vector3f localCameraLocation = new Vector3f(16, 16, 16).addLocal(direction.getDirectionX() * 100, direction.getDirectionY() * 100, direction.getDirectionZ() * 100);
+
+            assertTrue(m_mesh.updateVisibleFaceDirections(localCameraLocation));
+            assertSame(indexBuffer, getIndexBuffer());
+            assertVisibleIndices(indexBuffer);
+            assertEquals(indexBuffer.limit() / 3, m_mesh.getTriangleCount());
+        }
+    }
+
+    @Test
+    public void setFaceDirectionVertexCounts_moreVertices_indexBufferGrown() {
+        IntBuffer indexBuffer = getIndexBuffer();
+
+        m_mesh.setFaceDirectionVertexCounts(new int[] { 6, 6, 6, 6, 6, 6 });
+
+        assertSame(indexBuffer, getIndexBuffer());
+        assertEquals(36, indexBuffer.limit());
+
+        m_mesh.setFaceDirectionVertexCounts(new int[] { 60, 6, 6, 6, 6, 6 });
+
+        assertNotSame(indexBuffer, getIndexBuffer());
+        assertEquals(90, getIndexBuffer().limit());
+        assertVisibleIndices(getIndexBuffer());
+    }
+
+    private IntBuffer getIndexBuffer() {
+        return (IntBuffer) m_mesh.getBuffer(VertexBuffer.Type.Index).getData();
+    }
+
+    /**
+     * Asserts that the index buffer holds the vertices of the visible face directions, in the order of {@link Direction3D#getOrthogonalIndex()}, and only those.
+     */
+    private void assertVisibleIndices(IntBuffer indexBuffer) {
+        int position = 0;
+
+        for (int i = 0; i < Direction3D.ORTHOGONALS.length; ++i) {
+            Direction3D direction = Direction3D.values()[Direction3D.FIRST_ORTHOGONAL.ordinal() + i];
+
+            if ((m_mesh.getVisibleFaceDirectionsMask() & (1 << i)) != 0) {
+                int vertexStart = m_mesh.getFaceDirectionVertexStart(direction);
+
+                for (int index = vertexStart; index < vertexStart + m_mesh.getFaceDirectionVertexCount(direction); ++index) {
+                    assertEquals(index, indexBuffer.get(position++));
+                }
+            }
+        }
+
+        assertEquals(position, indexBuffer.limit());
+    }
+}
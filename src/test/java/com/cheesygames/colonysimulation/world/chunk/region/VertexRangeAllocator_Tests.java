@@ -0,0 +1,88 @@
+package com.cheesygames.colonysimulation.world.chunk.region;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the class {@link VertexRangeAllocator}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VertexRangeAllocator_Tests {
+
+    @Test
+    public void allocate_rangesUntilFull_contiguousRangesThenFailure() {
+        VertexRangeAllocator allocator = new VertexRangeAllocator(100);
+
+        assertEquals(0, allocator.allocate(30));
+        assertEquals(30, allocator.allocate(50));
+        assertEquals(VertexRangeAllocator.ALLOCATION_FAILED, allocator.allocate(21));
+        assertEquals(80, allocator.allocate(20));
+        assertEquals(VertexRangeAllocator.ALLOCATION_FAILED, allocator.allocate(1));
+    }
+
+    @Test
+    public void allocate_noVertex_neverFails() {
+        VertexRangeAllocator allocator = new VertexRangeAllocator(10);
+
+        allocator.allocate(10);
+
+        assertEquals(0, allocator.allocate(0));
+    }
+
+    @Test
+    public void free_rangeBetweenAllocatedRanges_firstFitReusesIt() {
+        VertexRangeAllocator allocator = new VertexRangeAllocator(100);
+        allocator.allocate(20);
+        int start = allocator.allocate(30);
+        allocator.allocate(10);
+
+        allocator.free(start, 30);
+
+        assertEquals(start, allocator.allocate(25));
+        assertEquals(start + 25, allocator.allocate(5));
+        assertEquals(60, allocator.allocate(40));
+    }
+
+    @Test
+    public void free_rangesOnBothSidesThenMiddle_mergedIntoOneFreeRange() {
+        VertexRangeAllocator allocator = new VertexRangeAllocator(90);
+        int first = allocator.allocate(30);
+        int middle = allocator.allocate(30);
+        int last = allocator.allocate(30);
+
+        allocator.free(first, 30);
+        allocator.free(last, 30);
+
+        assertEquals(VertexRangeAllocator.ALLOCATION_FAILED, allocator.allocate(31));
+
+        allocator.free(middle, 30);
+
+        assertEquals(0, allocator.allocate(90));
+    }
+
+    @Test
+    public void grow_lastRangeFree_newVerticesMergedWithIt() {
+        VertexRangeAllocator allocator = new VertexRangeAllocator(100);
+        allocator.allocate(60);
+
+        allocator.grow(150);
+
+        assertEquals(150, allocator.getCapacity());
+        assertEquals(60, allocator.allocate(90));
+        assertEquals(VertexRangeAllocator.ALLOCATION_FAILED, allocator.allocate(1));
+    }
+
+    @Test
+    public void grow_full_newVerticesAllocatedAfterTheOldOnes() {
+        VertexRangeAllocator allocator = new VertexRangeAllocator(100);
+        allocator.allocate(100);
+
+        assertEquals(VertexRangeAllocator.ALLOCATION_FAILED, allocator.allocate(50));
+
+        allocator.grow(200);
+
+        assertEquals(100, allocator.allocate(50));
+        assertEquals(150, allocator.allocate(50));
+    }
+}
@@ -0,0 +1,99 @@
+package com.cheesygames.colonysimulation.world.chunk.visibility;
+
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkFaceConnectivityComputer}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkFaceConnectivityComputer_Tests {
+
+    private ChunkFaceConnectivityComputer m_computer;
+    private Vector3i m_chunkSize;
+
+    @BeforeEach
+    public void setup() {
+        m_chunkSize = VoxelTestWorld.createWorld().getChunkSize();
+        m_computer = new ChunkFaceConnectivityComputer();
+    }
+
+    @Test
+    public void getFacePairBit_allFacePairs_distinctSymmetricBitsFillingAllFacesConnected() {
+        int facePairBits = ChunkFaceConnectivityComputer.NO_FACES_CONNECTED;
+
+        for (Direction3D lhs : Direction3D.ORTHOGONALS) {
+            for (Direction3D rhs : Direction3D.ORTHOGONALS) {
+                if (lhs.getOrthogonalIndex() < rhs.getOrthogonalIndex()) {
+                    int facePairBit = ChunkFaceConnectivityComputer.getFacePairBit(lhs, rhs);
+
+                    assertEquals(1, Integer.bitCount(facePairBit));
+                    assertEquals(facePairBit, ChunkFaceConnectivityComputer.getFacePairBit(rhs, lhs));
+                    assertEquals(0, facePairBits & facePairBit);
+
+                    facePairBits |= facePairBit;
+                }
+            }
+        }
+
+        assertEquals(ChunkFaceConnectivityComputer.FACE_PAIR_COUNT, Integer.bitCount(facePairBits));
+        assertEquals(ChunkFaceConnectivityComputer.ALL_FACES_CONNECTED, facePairBits);
+    }
+
+    @Test
+    public void compute_solidChunk_noFacesConnected() {
+        Chunk chunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> VoxelType.SOLID);
+
+        assertEquals(ChunkFaceConnectivityComputer.NO_FACES_CONNECTED, m_computer.compute(chunk));
+    }
+
+    @Test
+    public void compute_emptyChunk_allFacesConnected() {
+        Chunk chunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> VoxelType.AIR);
+
+        assertEquals(ChunkFaceConnectivityComputer.ALL_FACES_CONNECTED, m_computer.compute(chunk));
+    }
+
+    @Test
+    public void compute_wallAcrossX_allFacesConnectedExceptLeftAndRight() {
+        int wallX = m_chunkSize.x / 2;
+        Chunk chunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> x == wallX ? VoxelType.SOLID : VoxelType.AIR);
+        int faceConnectivity = m_computer.compute(chunk);
+
+        assertEquals(ChunkFaceConnectivityComputer.ALL_FACES_CONNECTED & ~ChunkFaceConnectivityComputer.getFacePairBit(Direction3D.LEFT, Direction3D.RIGHT), faceConnectivity);
+        assertFalse(ChunkFaceConnectivityComputer.areFacesConnected(faceConnectivity, Direction3D.RIGHT, Direction3D.LEFT));
+        assertTrue(ChunkFaceConnectivityComputer.areFacesConnected(faceConnectivity, Direction3D.TOP, Direction3D.BOTTOM));
+    }
+
+    @Test
+    public void compute_lShapedTunnelFromLeftToTop_onlyLeftAndTopConnected() {
+        int cornerX = m_chunkSize.x / 2;
+        int tunnelY = m_chunkSize.y / 2;
+        int tunnelZ = m_chunkSize.z / 2;
+        Chunk chunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> {
+            boolean isInTunnel = z == tunnelZ && ((y == tunnelY && x <= cornerX) || (x == cornerX && y >= tunnelY));
+
+            return isInTunnel ? VoxelType.AIR : VoxelType.SOLID;
+        });
+
+        assertEquals(ChunkFaceConnectivityComputer.getFacePairBit(Direction3D.LEFT, Direction3D.TOP), m_computer.compute(chunk));
+    }
+
+    @Test
+    public void compute_chunksOfDifferentShapesInARow_sameAsFreshComputer() {
+        Chunk floorAndWallChunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> x == 0 || y == 0 ? VoxelType.AIR : VoxelType.SOLID);
+        Chunk emptyChunk = VoxelTestWorld.createChunk(new Vector3i(), (x, y, z) -> VoxelType.AIR);
+
+        m_computer.compute(emptyChunk);
+
+        assertEquals(new ChunkFaceConnectivityComputer().compute(floorAndWallChunk), m_computer.compute(floorAndWallChunk));
+    }
+}
@@ -0,0 +1,83 @@
+package com.cheesygames.colonysimulation.world.chunk.visibility;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link ChunkOcclusionCuller}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChunkOcclusionCuller_Tests {
+
+    private World m_world;
+    private Camera m_camera;
+    private ChunkFaceConnectivityComputer m_connectivityComputer;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+        m_camera = new Camera(640, 480);
+        m_camera.setFrustumPerspective(90, 1, 0.1f, 1000);
+        m_camera.setLocation(new Vector3f(m_world.getChunkSize().x / 2f, m_world.getChunkSize().y / 2f, m_world.getChunkSize().z / 2f));
+        m_camera.lookAt(m_camera.getLocation().add(Vector3f.UNIT_X), Vector3f.UNIT_Y);
+        m_connectivityComputer = new ChunkFaceConnectivityComputer();
+    }
+
+    @Test
+    public void update_chunkBehindSolidChunk_hidden() {
+        Chunk wallChunk = addChunk(new Vector3i(1, 0, 0), (x, y, z) -> VoxelType.SOLID);
+        Chunk hiddenChunk = addChunk(new Vector3i(2, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        m_world.getChunkUpdateManager().getOcclusionCuller().update(m_camera, m_world);
+
+        assertTrue(wallChunk.isVisible());
+        assertFalse(hiddenChunk.isVisible());
+    }
+
+    @Test
+    public void update_chunkBehindTunneledChunk_visibleAgain() {
+        int tunnelY = m_world.getChunkSize().y / 2;
+        int tunnelZ = m_world.getChunkSize().z / 2;
+        Chunk wallChunk = addChunk(new Vector3i(1, 0, 0), (x, y, z) -> VoxelType.SOLID);
+        Chunk hiddenChunk = addChunk(new Vector3i(2, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+        ChunkOcclusionCuller culler = m_world.getChunkUpdateManager().getOcclusionCuller();
+
+        culler.update(m_camera, m_world);
+
+        for (int x = 0; x < m_world.getChunkSize().x; ++x) {
+            wallChunk.setVoxelTypeAt(VoxelType.AIR, x, tunnelY, tunnelZ);
+        }
+        wallChunk.setFaceConnectivity(m_connectivityComputer.compute(wallChunk));
+        culler.update(m_camera, m_world);
+
+        assertTrue(wallChunk.isVisible());
+        assertTrue(hiddenChunk.isVisible());
+    }
+
+    @Test
+    public void update_chunkBehindCamera_hidden() {
+        Chunk behindChunk = addChunk(new Vector3i(-2, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+        Chunk frontChunk = addChunk(new Vector3i(2, 0, 0), (x, y, z) -> y == 0 ? VoxelType.SOLID : VoxelType.AIR);
+
+        m_world.getChunkUpdateManager().getOcclusionCuller().update(m_camera, m_world);
+
+        assertFalse(behindChunk.isVisible());
+        assertTrue(frontChunk.isVisible());
+    }
+
+    private Chunk addChunk(Vector3i chunkIndex, VoxelTestWorld.VoxelTypeFunction voxelTypeFunction) {
+        Chunk chunk = VoxelTestWorld.addChunk(chunkIndex, voxelTypeFunction);
+        chunk.setFaceConnectivity(m_connectivityComputer.compute(chunk));
+
+        return chunk;
+    }
+}
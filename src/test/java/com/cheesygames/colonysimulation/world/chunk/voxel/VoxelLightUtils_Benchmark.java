@@ -0,0 +1,88 @@
+package com.cheesygames.colonysimulation.world.chunk.voxel;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link VoxelLightUtils#propagateLight(int, int)}, which computes all the components at once within the int, against the per component loop that it replaced. The
+ * lights are propagated between two arrays, like rows of adjacent voxels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoxelLightUtils_Benchmark {
+
+    private static final long SEED = 0;
+    private static final int LIGHT_COUNT = 1 << 12;
+    private static final int LIGHT_BITS = 0xFFFF;
+
+    private int[] m_sources;
+    private int[] m_destinations;
+    private int[] m_initialDestinations;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+
+        m_sources = new int[LIGHT_COUNT];
+        m_initialDestinations = new int[LIGHT_COUNT];
+        m_destinations = new int[LIGHT_COUNT];
+
+        for (int i = 0; i < LIGHT_COUNT; ++i) {
+            m_sources[i] = random.nextInt() & LIGHT_BITS;
+            m_initialDestinations[i] = random.nextInt() & LIGHT_BITS;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetDestinations() {
+        System.arraycopy(m_initialDestinations, 0, m_destinations, 0, LIGHT_COUNT);
+    }
+
+    @Benchmark
+    public int[] propagateLightPerComponent() {
+        for (int i = 0; i < LIGHT_COUNT; ++i) {
+            int destination = m_destinations[i];
+
+            for (int componentIndex = 0; componentIndex < VoxelLightUtils.COLOR_WITH_SUN_COMPONENT_COUNT; ++componentIndex) {
+                int attenuatedIntensity = VoxelLightUtils.getComponentIntensity(m_sources[i], componentIndex) - 1;
+
+                if (attenuatedIntensity > VoxelLightUtils.getComponentIntensity(destination, componentIndex)) {
+                    destination = VoxelLightUtils.setComponentIntensity(destination, attenuatedIntensity, componentIndex);
+                }
+            }
+
+            m_destinations[i] = destination;
+        }
+
+        return m_destinations;
+    }
+
+    @Benchmark
+    public int[] propagateLightPacked() {
+        for (int i = 0; i < LIGHT_COUNT; ++i) {
+            m_destinations[i] = VoxelLightUtils.propagateLight(m_sources[i], m_destinations[i]);
+        }
+
+        return m_destinations;
+    }
+
+    @Benchmark
+    public int[] propagateLightsRow() {
+        VoxelLightUtils.propagateLights(m_sources, 0, m_destinations, 0, LIGHT_COUNT);
+
+        return m_destinations;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VoxelLightUtils_Benchmark.class.getSimpleName()).build()).run();
+    }
+}
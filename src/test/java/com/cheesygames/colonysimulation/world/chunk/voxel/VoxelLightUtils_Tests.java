@@ -0,0 +1,112 @@
+package com.cheesygames.colonysimulation.world.chunk.voxel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link VoxelLightUtils}. The packed implementations are compared to a per component reference.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VoxelLightUtils_Tests {
+
+    private static final int LIGHT_BITS = 0xFFFF;
+    private static final int RANDOM_PAIR_COUNT = 100000;
+
+    @Test
+    public void propagateLight_everyIntensityPairInEveryComponent_sameAsPerComponent() {
+        for (int componentIndex = 0; componentIndex < VoxelLightUtils.COLOR_WITH_SUN_COMPONENT_COUNT; ++componentIndex) {
+            for (int sourceIntensity = 0; sourceIntensity <= VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY; ++sourceIntensity) {
+                for (int destinationIntensity = 0; destinationIntensity <= VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY; ++destinationIntensity) {
+                    int source = VoxelLightUtils.setComponentIntensity(0, sourceIntensity, componentIndex);
+                    int destination = VoxelLightUtils.setComponentIntensity(0, destinationIntensity, componentIndex);
+
+                    assertEquals(propagateLightPerComponent(source, destination), VoxelLightUtils.propagateLight(source, destination));
+                    assertEquals(Math.max(0, sourceIntensity - 1) > destinationIntensity, VoxelLightUtils.canPropagateLight(source, destination));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void packedOperations_randomLights_sameAsPerComponent() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < RANDOM_PAIR_COUNT; ++i) {
+            int first = random.nextInt() & LIGHT_BITS;
+            int second = random.nextInt() & LIGHT_BITS;
+            int expectedAttenuatedLight = 0;
+            int expectedMaxLight = 0;
+            int expectedBrighterComponentsMask = 0;
+            int expectedNonZeroComponentsMask = 0;
+
+            for (int componentIndex = 0; componentIndex < VoxelLightUtils.COLOR_WITH_SUN_COMPONENT_COUNT; ++componentIndex) {
+                int firstIntensity = VoxelLightUtils.getComponentIntensity(first, componentIndex);
+                int secondIntensity = VoxelLightUtils.getComponentIntensity(second, componentIndex);
+
+                expectedAttenuatedLight = VoxelLightUtils.setComponentIntensity(expectedAttenuatedLight, Math.max(0, firstIntensity - 1), componentIndex);
+                expectedMaxLight = VoxelLightUtils.setComponentIntensity(expectedMaxLight, Math.max(firstIntensity, secondIntensity), componentIndex);
+                expectedBrighterComponentsMask = VoxelLightUtils.setComponentIntensity(expectedBrighterComponentsMask,
+                    firstIntensity > secondIntensity ? VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY : 0,
+                    componentIndex);
+                expectedNonZeroComponentsMask = VoxelLightUtils.setComponentIntensity(expectedNonZeroComponentsMask,
+                    firstIntensity != 0 ? VoxelLightUtils.LIGHT_MAXIMUM_INTENSITY : 0,
+                    componentIndex);
+            }
+
+            assertEquals(expectedAttenuatedLight, VoxelLightUtils.attenuateLight(first));
+            assertEquals(expectedMaxLight, VoxelLightUtils.maxLight(first, second));
+            assertEquals(expectedBrighterComponentsMask, VoxelLightUtils.getBrighterComponentsMask(first, second));
+            assertEquals(expectedNonZeroComponentsMask, VoxelLightUtils.getNonZeroComponentsMask(first));
+            assertEquals(propagateLightPerComponent(first, second), VoxelLightUtils.propagateLight(first, second));
+        }
+    }
+
+    @Test
+    public void propagateLights_row_sameAsSingleLights() {
+        Random random = new Random(1);
+        int[] sources = new int[40];
+        int[] destinations = new int[40];
+
+        for (int i = 0; i < sources.length; ++i) {
+            sources[i] = random.nextInt() & LIGHT_BITS;
+            destinations[i] = random.nextInt() & LIGHT_BITS;
+        }
+
+        int[] expectedDestinations = destinations.clone();
+        for (int i = 0; i < 32; ++i) {
+            expectedDestinations[i + 8] = VoxelLightUtils.propagateLight(sources[i + 4], destinations[i + 8]);
+        }
+
+        assertTrue(VoxelLightUtils.propagateLights(sources, 4, destinations, 8, 32));
+        assertArrayEquals(expectedDestinations, destinations);
+        assertFalse(VoxelLightUtils.propagateLights(sources, 4, destinations, 8, 32));
+    }
+
+    @Test
+    public void setComponentIntensity_previousIntensity_replaced() {
+        int light = VoxelLightUtils.setComponentIntensity(0xFFFF, 0x5, VoxelLightUtils.G_INDEX);
+
+        assertEquals(0xFF5F, light);
+        assertEquals(0x3, VoxelLightUtils.getSunIntensity(VoxelLightUtils.setSunIntensity(light, 0x3)));
+        assertEquals(0xA, VoxelLightUtils.getRedIntensity(VoxelLightUtils.setRed(light, 0xA)));
+    }
+
+    private static int propagateLightPerComponent(int source, int destination) {
+        for (int componentIndex = 0; componentIndex < VoxelLightUtils.COLOR_WITH_SUN_COMPONENT_COUNT; ++componentIndex) {
+            int attenuatedIntensity = VoxelLightUtils.getComponentIntensity(source, componentIndex) - 1;
+
+            if (attenuatedIntensity > VoxelLightUtils.getComponentIntensity(destination, componentIndex)) {
+                destination = VoxelLightUtils.setComponentIntensity(destination, attenuatedIntensity, componentIndex);
+            }
+        }
+
+        return destination;
+    }
+}
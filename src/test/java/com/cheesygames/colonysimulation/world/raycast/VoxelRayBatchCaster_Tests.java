@@ -0,0 +1,141 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link VoxelRayBatchCaster}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VoxelRayBatchCaster_Tests {
+
+    private static final int RAY_COUNT = 2000;
+    private static final int TIED_RAY_LENGTH = 60;
+
+    private World m_world;
+    private Random m_random;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+        m_random = new Random(0);
+
+        Random voxelRandom = new Random(0);
+        VoxelTypeFunction voxelTypes = (x, y, z) -> y < 0 || voxelRandom.nextDouble() < 0.001 ? VoxelType.SOLID : VoxelType.AIR;
+
+        for (int x = -2; x <= 1; ++x) {
+            for (int y = -1; y <= 0; ++y) {
+                for (int z = -2; z <= 1; ++z) {
+                    Vector3i chunkIndex = new Vector3i(x, y, z);
+                    VoxelTestWorld.addChunk(chunkIndex, voxelTypes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rayCast_randomRaysInParallel_sameResultsAsSingleRays() {
+        VoxelRayBatch batch = new VoxelRayBatch(1);
+        VoxelRayBatchCaster batchCaster = new VoxelRayBatchCaster(m_world, new ForkJoinPool(4));
+
+        for (int i = 0; i < RAY_COUNT; ++i) {
+            batch.addRay(randomCoordinate(), randomCoordinate(), randomCoordinate(), randomCoordinate(), randomCoordinate(), randomCoordinate());
+        }
+
+        batchCaster.rayCast(batch);
+        int hitCount = assertSameResultsAsSingleRays(batch);
+
+        assertTrue(hitCount > 0 && hitCount < RAY_COUNT);
+    }
+
+    @Test
+    public void rayCast_tiedRaysFromVoxelCentres_sameHitFacesAsSingleRays() {
+        VoxelRayBatch batch = new VoxelRayBatch();
+        VoxelRayBatchCaster batchCaster = new VoxelRayBatchCaster(m_world, new ForkJoinPool(4));
+
+        // The rays start from voxel centres out of the chunks, so that they jump over empty chunks and cross the borders of several axes at the exact same distance.
+        for (int startX = -70; startX <= 70; startX += 35) {
+            for (int startZ = -70; startZ <= 70; startZ += 35) {
+                for (int directionX = -2; directionX <= 2; ++directionX) {
+                    for (int directionZ = -2; directionZ <= 2; ++directionZ) {
+                        batch.addRay(startX, 40, startZ, startX + directionX * TIED_RAY_LENGTH, 40 - TIED_RAY_LENGTH, startZ + directionZ * TIED_RAY_LENGTH);
+                    }
+                }
+            }
+        }
+
+        batchCaster.rayCast(batch);
+
+        assertTrue(assertSameResultsAsSingleRays(batch) > 0);
+    }
+
+    @Test
+    public void rayCast_clearedAndReused_resultsOfNewRays() {
+        VoxelRayBatch batch = new VoxelRayBatch();
+        VoxelRayBatchCaster batchCaster = new VoxelRayBatchCaster(m_world);
+
+        batch.addRay(0.2, 10, 0.3, 0.2, -10, 0.3);
+        batchCaster.rayCast(batch);
+        batch.clear();
+        batch.addRay(0.2, 10, 0.3, 0.2, 20, 0.3);
+        batchCaster.rayCast(batch);
+
+        assertEquals(1, batch.getRayCount());
+        assertFalse(batch.isHit(0));
+        assertNull(batch.getHitFace(0));
+    }
+
+    @Test
+    public void constructor_initialCapacityAboveMaximum_illegalArgumentException() {
+        new VoxelRayBatch(VoxelRayBatch.MAXIMUM_CAPACITY);
+
+        assertThrows(IllegalArgumentException.class, () -> new VoxelRayBatch(VoxelRayBatch.MAXIMUM_CAPACITY + 1));
+    }
+
+    /**
+     * Asserts that the rays of a cast batch have the same results as the rays cast one by one through every voxel, and returns how many of them hit a voxel.
+     *
+     * @param batch The cast batch.
+     *
+     * @return The number of rays that hit a voxel.
+     */
+    private int assertSameResultsAsSingleRays(VoxelRayBatch batch) {
+        VoxelFaceRayCastContinuousTraverser traverser = new VoxelFaceRayCastContinuousTraverser(m_world, (voxelIndex, voxelType) -> voxelType.isSolid());
+        Vector3i voxelIndex = new Vector3i();
+        int hitCount = 0;
+
+        for (int i = 0; i < batch.getRayCount(); ++i) {
+            VoxelRay ray = new VoxelRay(new Vector3d(batch.getStartX(i), batch.getStartY(i), batch.getStartZ(i)), new Vector3d(batch.getEndX(i), batch.getEndY(i), batch.getEndZ(i)));
+
+            ray.rayCastLocal(World.VOXEL_HALF_EXTENT, traverser, voxelIndex);
+
+            assertEquals(ray.wasStopped(), batch.isHit(i));
+            if (ray.wasStopped()) {
+                assertEquals(voxelIndex, batch.getHitVoxelIndexLocal(i, new Vector3i()));
+                assertEquals(traverser.getIncomingDirection().getOpposite(), batch.getHitFace(i));
+                ++hitCount;
+            }
+        }
+
+        return hitCount;
+    }
+
+    private double randomCoordinate() {
+        return m_random.nextDouble() * 120 - 60;
+    }
+}
@@ -0,0 +1,167 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.direction.Direction3D;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link VoxelRayCastContinuousTraverser} and its subclass {@link VoxelFaceRayCastContinuousTraverser}, mainly when they are used to skip the empty chunks.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VoxelRayCastContinuousTraverser_Tests {
+
+    private static final int RAY_COUNT = 500;
+    private static final double SOLID_RATIO = 0.002;
+
+    private static final double TIED_RAY_LENGTH = 120;
+
+    private World m_world;
+    private Random m_random;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+        m_random = new Random(0);
+
+        VoxelTypeFunction voxelTypes = VoxelTestWorld.createRandomSolids(SOLID_RATIO, 0);
+
+        for (Vector3i chunkIndex : new Vector3i[] { new Vector3i(0, 0, 0), new Vector3i(1, 0, 0), new Vector3i(-1, 1, 0), new Vector3i(2, -1, 3) }) {
+            VoxelTestWorld.addChunk(chunkIndex, voxelTypes);
+        }
+    }
+
+    @Test
+    public void rayCast_skippingEmptyChunks_sameVoxelsInNonEmptyChunks() {
+        for (int i = 0; i < RAY_COUNT; ++i) {
+            assertSameVoxelsInNonEmptyChunks(createRandomRay());
+        }
+    }
+
+    @Test
+    public void rayCast_tiedRaysSkippingEmptyChunks_sameVoxelsInNonEmptyChunks() {
+        for (Vector3d start : VoxelTestWorld.TIED_RAY_STARTS) {
+            for (Vector3d direction : VoxelTestWorld.TIED_RAY_DIRECTIONS) {
+                assertSameVoxelsInNonEmptyChunks(new VoxelRay(start, direction.normalize(), TIED_RAY_LENGTH));
+                assertSameVoxelsInNonEmptyChunks(new VoxelRay(start, direction.negate().normalizeLocal(), TIED_RAY_LENGTH));
+            }
+        }
+    }
+
+    @Test
+    public void rayCast_throughEmptyWorld_noVoxelTraversed() {
+        m_world.getChunks().clear();
+
+        VoxelRay ray = new VoxelRay(new Vector3d(-1000, 3.3, 7.1), new Vector3d(1000, -40.2, 500.7));
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+        VoxelRayCastContinuousTraverser traverser = new VoxelRayCastContinuousTraverser(m_world, (voxelIndex, voxelType) -> traversedVoxels.add(new Vector3i(voxelIndex)));
+
+        ray.rayCast(World.VOXEL_HALF_EXTENT, traverser, traverser);
+
+        assertTrue(traversedVoxels.isEmpty());
+        assertFalse(ray.wasStopped());
+    }
+
+    @Test
+    public void rayCast_faceTraverserSkippingEmptyChunks_sameIncomingDirections() {
+        for (int i = 0; i < RAY_COUNT; ++i) {
+            assertSameIncomingDirections(createRandomRay());
+        }
+    }
+
+    @Test
+    public void rayCast_tiedRaysFaceTraverserSkippingEmptyChunks_sameIncomingDirections() {
+        for (Vector3d start : VoxelTestWorld.TIED_RAY_STARTS) {
+            for (Vector3d direction : VoxelTestWorld.TIED_RAY_DIRECTIONS) {
+                assertSameIncomingDirections(new VoxelRay(start, direction.normalize(), TIED_RAY_LENGTH));
+                assertSameIncomingDirections(new VoxelRay(start, direction.negate().normalizeLocal(), TIED_RAY_LENGTH));
+            }
+        }
+    }
+
+    /**
+     * Asserts that skipping the empty chunks traverses the same voxels in the non empty chunks as traversing every voxel, and that it stops the same way.
+     *
+     * @param ray The ray to cast.
+     */
+    private void assertSameVoxelsInNonEmptyChunks(VoxelRay ray) {
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+        List<Vector3i> nonEmptyChunkVoxels = new ArrayList<>();
+        VoxelRayCastContinuousTraverser traverser = new VoxelRayCastContinuousTraverser(m_world, (voxelIndex, voxelType) -> {
+            traversedVoxels.add(new Vector3i(voxelIndex));
+            return voxelType == VoxelType.SOLID;
+        });
+
+        ray.rayCast(World.VOXEL_HALF_EXTENT, traverser);
+        for (Vector3i voxelIndex : traversedVoxels) {
+            if (!m_world.getOrEmptyChunkAt(m_world.getChunkIndex(voxelIndex)).isEmpty()) {
+                nonEmptyChunkVoxels.add(voxelIndex);
+            }
+        }
+
+        boolean wasStopped = ray.wasStopped();
+        traversedVoxels.clear();
+        ray.rayCast(World.VOXEL_HALF_EXTENT, traverser, traverser);
+
+        assertEquals(nonEmptyChunkVoxels, traversedVoxels);
+        assertEquals(wasStopped, ray.wasStopped());
+    }
+
+    /**
+     * Asserts that the face traverser gets the same incoming directions in the non empty chunks when it skips the empty chunks as when it traverses every voxel.
+     *
+     * @param ray The ray to cast.
+     */
+    private void assertSameIncomingDirections(VoxelRay ray) {
+        List<Direction3D> incomingDirections = new ArrayList<>();
+        List<Direction3D> skippingIncomingDirections = new ArrayList<>();
+        VoxelFaceRayCastContinuousTraverser traverser = new VoxelFaceRayCastContinuousTraverser(m_world);
+
+        traverser.setReturnCondition((voxelIndex, voxelType) -> {
+            if (!traverser.getChunk().isEmpty()) {
+                incomingDirections.add(traverser.getIncomingDirection());
+            }
+
+            return voxelType == VoxelType.SOLID;
+        });
+        ray.rayCast(World.VOXEL_HALF_EXTENT, traverser);
+
+        traverser.setReturnCondition((voxelIndex, voxelType) -> {
+            skippingIncomingDirections.add(traverser.getIncomingDirection());
+            return voxelType == VoxelType.SOLID;
+        });
+        ray.rayCast(World.VOXEL_HALF_EXTENT, traverser, traverser);
+
+        assertEquals(incomingDirections, skippingIncomingDirections);
+    }
+
+    /**
+     * Creates a ray between two random points, which are most of the time not in the same chunk.
+     *
+     * @return A new random ray.
+     */
+    private VoxelRay createRandomRay() {
+        Vector3i chunkSize = m_world.getChunkSize();
+        Vector3d start = new Vector3d(randomCoordinate(chunkSize.x), randomCoordinate(chunkSize.y), randomCoordinate(chunkSize.z));
+        Vector3d end = new Vector3d(randomCoordinate(chunkSize.x), randomCoordinate(chunkSize.y), randomCoordinate(chunkSize.z));
+
+        return new VoxelRay(start, end);
+    }
+
+    private double randomCoordinate(int chunkSize) {
+        return (m_random.nextDouble() * 8 - 3) * chunkSize;
+    }
+}
@@ -0,0 +1,169 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayVisitor;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link VoxelRayCastPrimitiveTraverser}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VoxelRayCastPrimitiveTraverser_Tests {
+
+    private static final int RAY_COUNT = 500;
+
+    private static final double TIED_RAY_LENGTH = 80;
+
+    private World m_world;
+    private Random m_random;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+        m_random = new Random(0);
+
+        Random voxelRandom = new Random(0);
+        VoxelTypeFunction voxelTypes = (x, y, z) -> {
+            double random = voxelRandom.nextDouble();
+            return random < 0.001 ? VoxelType.SOLID : (random < 0.002 ? VoxelType.LIGHT : VoxelType.AIR);
+        };
+
+        for (Vector3i chunkIndex : new Vector3i[] { new Vector3i(0, 0, 0), new Vector3i(-1, 0, 0), new Vector3i(0, -1, 1) }) {
+            VoxelTestWorld.addChunk(chunkIndex, voxelTypes);
+        }
+    }
+
+    @Test
+    public void rayCast_randomRays_sameVoxelsAsContinuousTraverser() {
+        List<String> expectedVoxels = new ArrayList<>();
+        List<String> voxels = new ArrayList<>();
+        VoxelRayCastContinuousTraverser continuousTraverser = new VoxelRayCastContinuousTraverser(m_world, (voxelIndex, voxelType) -> {
+            Vector3i relativeVoxelIndex = m_world.getVoxelRelativeIndex(voxelIndex);
+            expectedVoxels.add(voxelIndex + " " + relativeVoxelIndex + " " + voxelType.ordinal());
+            return voxelType == VoxelType.SOLID;
+        });
+        Vector3i absoluteVoxelIndex = new Vector3i();
+        VoxelRayCastPrimitiveTraverser primitiveTraverser = new VoxelRayCastPrimitiveTraverser(m_world, (relativeX, relativeY, relativeZ, voxelTypeOrdinal) -> {
+            voxels.add(absoluteVoxelIndex + " " + new Vector3i(relativeX, relativeY, relativeZ) + " " + voxelTypeOrdinal);
+            return voxelTypeOrdinal == VoxelType.SOLID.ordinal();
+        });
+
+        for (int i = 0; i < RAY_COUNT; ++i) {
+            VoxelRay ray = new VoxelRay(new Vector3d(randomCoordinate(), randomCoordinate(), randomCoordinate()),
+                new Vector3d(randomCoordinate(), randomCoordinate(), randomCoordinate()));
+
+            expectedVoxels.clear();
+            voxels.clear();
+            ray.rayCast(World.VOXEL_HALF_EXTENT, continuousTraverser);
+            boolean wasStopped = ray.wasStopped();
+            ray.rayCastLocal(World.VOXEL_HALF_EXTENT, (x, y, z) -> {
+                absoluteVoxelIndex.set(x, y, z);
+                return primitiveTraverser.visit(x, y, z);
+            }, null, new Vector3i());
+
+            assertEquals(expectedVoxels, voxels);
+            assertEquals(wasStopped, ray.wasStopped());
+        }
+    }
+
+    @Test
+    public void rayCast_sphereTracedThroughDistanceFields_sameNonAirVoxels() {
+        computeDistanceFields();
+
+        for (int i = 0; i < RAY_COUNT; ++i) {
+            assertSameNonAirVoxelsWhenSphereTraced(new VoxelRay(new Vector3d(randomCoordinate(), randomCoordinate(), randomCoordinate()),
+                new Vector3d(randomCoordinate(), randomCoordinate(), randomCoordinate())));
+        }
+    }
+
+    @Test
+    public void rayCast_tiedRaysSphereTracedThroughDistanceFields_sameNonAirVoxels() {
+        computeDistanceFields();
+
+        for (Vector3d start : VoxelTestWorld.TIED_RAY_STARTS) {
+            for (Vector3d direction : VoxelTestWorld.TIED_RAY_DIRECTIONS) {
+                assertSameNonAirVoxelsWhenSphereTraced(new VoxelRay(start, direction.normalize(), TIED_RAY_LENGTH));
+                assertSameNonAirVoxelsWhenSphereTraced(new VoxelRay(start, direction.negate().normalizeLocal(), TIED_RAY_LENGTH));
+            }
+        }
+    }
+
+    private void computeDistanceFields() {
+        for (Chunk chunk : m_world.getChunks().values()) {
+            chunk.getDistanceField().compute();
+        }
+    }
+
+    /**
+     * Asserts that sphere tracing the ray through the distance fields traverses the same non air voxels as traversing every voxel, that it stops on the same voxel, and that it
+     * never traverses a voxel that the voxel by voxel traversal does not traverse.
+     *
+     * @param ray The ray to cast.
+     */
+    private void assertSameNonAirVoxelsWhenSphereTraced(VoxelRay ray) {
+        List<Vector3i> traversedVoxels = new ArrayList<>();
+        List<Vector3i> traversedNonAirVoxels = new ArrayList<>();
+        Vector3i absoluteVoxelIndex = new Vector3i();
+        VoxelRayCastPrimitiveTraverser traverser = new VoxelRayCastPrimitiveTraverser(m_world, (relativeX, relativeY, relativeZ, voxelTypeOrdinal) -> {
+            traversedVoxels.add(new Vector3i(absoluteVoxelIndex));
+            if (voxelTypeOrdinal != VoxelType.AIR.ordinal()) {
+                traversedNonAirVoxels.add(new Vector3i(absoluteVoxelIndex));
+            }
+
+            return voxelTypeOrdinal == VoxelType.SOLID.ordinal();
+        });
+        VoxelRayVisitor visitor = (x, y, z) -> {
+            absoluteVoxelIndex.set(x, y, z);
+            return traverser.visit(x, y, z);
+        };
+        Vector3i expectedLastVoxelIndex = new Vector3i();
+        Vector3i lastVoxelIndex = new Vector3i();
+
+        traverser.startRayCast();
+        ray.rayCastLocal(World.VOXEL_HALF_EXTENT, visitor, null, null, expectedLastVoxelIndex);
+        boolean wasStopped = ray.wasStopped();
+        List<Vector3i> expectedVoxels = new ArrayList<>(traversedVoxels);
+        List<Vector3i> expectedNonAirVoxels = new ArrayList<>(traversedNonAirVoxels);
+
+        traversedVoxels.clear();
+        traversedNonAirVoxels.clear();
+        traverser.startRayCast();
+        ray.rayCastLocal(World.VOXEL_HALF_EXTENT, visitor, null, traverser, lastVoxelIndex);
+
+        assertEquals(expectedNonAirVoxels, traversedNonAirVoxels);
+        assertEquals(wasStopped, ray.wasStopped());
+
+        if (wasStopped) {
+            assertEquals(expectedLastVoxelIndex, lastVoxelIndex);
+        }
+
+        // The traversed voxels must appear in the same order amongst the voxels traversed one by one.
+        int expectedVoxelIndex = 0;
+        for (Vector3i voxelIndex : traversedVoxels) {
+            while (expectedVoxelIndex < expectedVoxels.size() && !expectedVoxels.get(expectedVoxelIndex).equals(voxelIndex)) {
+                ++expectedVoxelIndex;
+            }
+
+            assertTrue(expectedVoxelIndex < expectedVoxels.size(), "The voxel " + voxelIndex + " is not traversed voxel by voxel.");
+            ++expectedVoxelIndex;
+        }
+    }
+
+    private double randomCoordinate() {
+        return m_random.nextDouble() * 96 - 48;
+    }
+}
@@ -0,0 +1,227 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRay;
+import com.cheesygames.colonysimulation.math.bounding.ray.VoxelRayFloat;
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.plugins.blender.math.Vector3d;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the voxel traversals of a {@link VoxelRay} and of a {@link VoxelRayFloat} with {@link VoxelRayCastContinuousTraverser}, {@link
+ * VoxelFaceRayCastContinuousTraverser} and {@link VoxelRayCastPrimitiveTraverser}, the latter also sphere tracing the {@link VoxelRay} through the distance fields of the chunks.
+ * The rays are short or long and axis aligned or diagonal. They are cast in an empty world, or in a world densely filled with solid voxels where they either stop at the first
+ * solid voxel or always traverse their whole length. Each operation is a single ray, so the throughput is in rays per second, and the traversed voxels are counted to also report
+ * the voxels per second. Run it through {@link #main(String[])} to also report the allocation rate.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoxelRayCast_Benchmark {
+
+    private static final long SEED = 0;
+    private static final int RAY_COUNT = 256;
+    private static final int WORLD_SIZE_IN_CHUNKS = 4;
+    private static final double DENSE_SOLID_RATIO = 0.05;
+
+    /**
+     * The traverser and the ray type with which the rays are cast.
+     */
+    public enum Traverser {
+        CONTINUOUS,
+        CONTINUOUS_FLOAT,
+        FACE,
+        FACE_FLOAT,
+        PRIMITIVE,
+        PRIMITIVE_FLOAT,
+        DISTANCE_FIELD
+    }
+
+    @Param({ "8", "128" })
+    public int rayLength;
+
+    @Param({ "AXIS", "DIAGONAL" })
+    public String direction;
+
+    @Param({ "EMPTY", "DENSE_HIT", "DENSE_MISS" })
+    public String world;
+
+    @Param({ "CONTINUOUS", "CONTINUOUS_FLOAT", "FACE", "FACE_FLOAT", "PRIMITIVE", "PRIMITIVE_FLOAT", "DISTANCE_FIELD" })
+    public Traverser traverser;
+
+    private VoxelRay[] m_rays;
+    private VoxelRayFloat[] m_floatRays;
+    private Vector3i m_voxelIndex;
+    private VoxelRayCastContinuousTraverser m_continuousTraverser;
+    private VoxelFaceRayCastContinuousTraverser m_faceTraverser;
+    private VoxelRayCastPrimitiveTraverser m_primitiveTraverser;
+    private boolean m_isStoppingOnSolid;
+    private long m_traversedVoxelCount;
+
+    /**
+     * Counts the voxels traversed by the rays, so that JMH reports the traversed voxels per second next to the rays per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TraversedVoxelsCounter {
+
+        public long voxels;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            voxels = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        World benchmarkWorld = VoxelTestWorld.createWorld();
+
+        if (!world.equals("EMPTY")) {
+            VoxelTypeFunction voxelTypes = VoxelTestWorld.createRandomSolids(DENSE_SOLID_RATIO, SEED);
+
+            int halfWorldSizeInChunks = WORLD_SIZE_IN_CHUNKS / 2;
+            for (int x = -halfWorldSizeInChunks; x < halfWorldSizeInChunks; ++x) {
+                for (int y = -halfWorldSizeInChunks; y < halfWorldSizeInChunks; ++y) {
+                    for (int z = -halfWorldSizeInChunks; z < halfWorldSizeInChunks; ++z) {
+                        Chunk chunk = VoxelTestWorld.addChunk(new Vector3i(x, y, z), voxelTypes);
+
+                        if (traverser == Traverser.DISTANCE_FIELD) {
+                            chunk.getDistanceField().compute();
+                        }
+                    }
+                }
+            }
+        }
+
+        m_isStoppingOnSolid = world.equals("DENSE_HIT");
+        m_voxelIndex = new Vector3i();
+        m_continuousTraverser = new VoxelRayCastContinuousTraverser(benchmarkWorld, (voxelIndex, voxelType) -> {
+            ++m_traversedVoxelCount;
+            return m_isStoppingOnSolid && voxelType == VoxelType.SOLID;
+        });
+        m_faceTraverser = new VoxelFaceRayCastContinuousTraverser(benchmarkWorld, (voxelIndex, voxelType) -> {
+            ++m_traversedVoxelCount;
+            return m_isStoppingOnSolid && voxelType == VoxelType.SOLID;
+        });
+        m_primitiveTraverser = new VoxelRayCastPrimitiveTraverser(benchmarkWorld, (relativeX, relativeY, relativeZ, voxelTypeOrdinal) -> {
+            ++m_traversedVoxelCount;
+            return m_isStoppingOnSolid && voxelTypeOrdinal == VoxelType.SOLID.ordinal();
+        });
+
+        createRays(benchmarkWorld);
+    }
+
+    /**
+     * Creates the rays, both in double and in float, which start at random positions inside of the world's chunks and cycle through the axis aligned or diagonal directions.
+     *
+     * @param benchmarkWorld The world in which the rays are cast.
+     */
+    private void createRays(World benchmarkWorld) {
+        Random random = new Random(SEED);
+        int worldHalfExtent = WORLD_SIZE_IN_CHUNKS / 2 * benchmarkWorld.getChunkSize().x;
+        m_rays = new VoxelRay[RAY_COUNT];
+        m_floatRays = new VoxelRayFloat[RAY_COUNT];
+
+        for (int i = 0; i < RAY_COUNT; ++i) {
+            Vector3d start = new Vector3d((random.nextDouble() * 2 - 1) * worldHalfExtent,
+                (random.nextDouble() * 2 - 1) * worldHalfExtent,
+                (random.nextDouble() * 2 - 1) * worldHalfExtent);
+            Vector3d rayDirection = new Vector3d();
+
+            if (direction.equals("AXIS")) {
+                rayDirection.set(i % 3, (i / 3) % 2 == 0 ? 1 : -1);
+            }
+            else {
+                rayDirection.set((i & 1) == 0 ? 1 : -1, (i & 2) == 0 ? 1 : -1, (i & 4) == 0 ? 1 : -1).normalizeLocal();
+            }
+
+            m_rays[i] = new VoxelRay(start, rayDirection, rayLength);
+            m_floatRays[i] = new VoxelRayFloat(new Vector3f((float) start.x, (float) start.y, (float) start.z),
+                new Vector3f((float) rayDirection.x, (float) rayDirection.y, (float) rayDirection.z), rayLength);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(RAY_COUNT)
+    public void rayCast(TraversedVoxelsCounter counter) {
+        m_traversedVoxelCount = 0;
+        castRays(false);
+        counter.voxels += m_traversedVoxelCount;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(RAY_COUNT)
+    public void rayCastSkippingEmptyChunks(TraversedVoxelsCounter counter) {
+        m_traversedVoxelCount = 0;
+        castRays(true);
+        counter.voxels += m_traversedVoxelCount;
+    }
+
+    /**
+     * Casts every ray with the benchmarked traverser. The traversal of the distance fields always sphere traces the rays, so skipping the empty chunks only adds the chunk level
+     * jumps on top of it.
+     *
+     * @param isSkippingEmptyChunks True if the traverser is also the cell skipper of the ray casts, so that the rays jump over the empty chunks.
+     */
+    private void castRays(boolean isSkippingEmptyChunks) {
+        switch (traverser) {
+            case CONTINUOUS:
+                for (VoxelRay voxelRay : m_rays) {
+                    voxelRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_continuousTraverser, isSkippingEmptyChunks ? m_continuousTraverser : null, m_voxelIndex);
+                }
+                break;
+            case CONTINUOUS_FLOAT:
+                for (VoxelRayFloat floatRay : m_floatRays) {
+                    floatRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_continuousTraverser, isSkippingEmptyChunks ? m_continuousTraverser : null, m_voxelIndex);
+                }
+                break;
+            case FACE:
+                for (VoxelRay voxelRay : m_rays) {
+                    voxelRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_faceTraverser, isSkippingEmptyChunks ? m_faceTraverser : null, m_voxelIndex);
+                }
+                break;
+            case FACE_FLOAT:
+                for (VoxelRayFloat floatRay : m_floatRays) {
+                    floatRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_faceTraverser, isSkippingEmptyChunks ? m_faceTraverser : null, m_voxelIndex);
+                }
+                break;
+            case PRIMITIVE:
+                for (VoxelRay voxelRay : m_rays) {
+                    voxelRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_primitiveTraverser, isSkippingEmptyChunks ? m_primitiveTraverser : null, m_voxelIndex);
+                }
+                break;
+            case PRIMITIVE_FLOAT:
+                for (VoxelRayFloat floatRay : m_floatRays) {
+                    floatRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_primitiveTraverser, isSkippingEmptyChunks ? m_primitiveTraverser : null, m_voxelIndex);
+                }
+                break;
+            case DISTANCE_FIELD:
+                for (VoxelRay voxelRay : m_rays) {
+                    voxelRay.rayCastLocal(World.VOXEL_HALF_EXTENT, m_primitiveTraverser, isSkippingEmptyChunks ? m_primitiveTraverser : null, m_primitiveTraverser, m_voxelIndex);
+                }
+                break;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VoxelRayCast_Benchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,166 @@
+package com.cheesygames.colonysimulation.world.raycast;
+
+import com.cheesygames.colonysimulation.math.vector.Vector3i;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld;
+import com.cheesygames.colonysimulation.world.VoxelTestWorld.VoxelTypeFunction;
+import com.cheesygames.colonysimulation.world.World;
+import com.cheesygames.colonysimulation.world.chunk.Chunk;
+import com.cheesygames.colonysimulation.world.chunk.voxel.VoxelType;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the class {@link VoxelVisibilityCache}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VoxelVisibilityCache_Tests {
+
+    private static final int QUERY_COUNT = 200;
+
+    private World m_world;
+    private Chunk m_chunk;
+    private Chunk m_otherChunk;
+
+    @BeforeEach
+    public void setup() {
+        m_world = VoxelTestWorld.createWorld();
+        VoxelTypeFunction voxelTypes = VoxelTestWorld.createRandomSolids(0.01, 0);
+
+        m_chunk = VoxelTestWorld.addChunk(new Vector3i(0, 0, 0), voxelTypes);
+        m_otherChunk = VoxelTestWorld.addChunk(new Vector3i(3, 0, 0), voxelTypes);
+    }
+
+    @Test
+    public void isVisible_repeatedQueriesBeforeAndAfterEdit_sameResultsAsUncachedLinesOfSight() {
+        VoxelVisibilityCache cache = new VoxelVisibilityCache(m_world);
+        Random random = new Random(0);
+        Vector3i[] froms = new Vector3i[QUERY_COUNT];
+        Vector3i[] tos = new Vector3i[QUERY_COUNT];
+        boolean[] visibilities = new boolean[QUERY_COUNT];
+
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            froms[i] = new Vector3i(random.nextInt(48) - 8, random.nextInt(48) - 8, random.nextInt(48) - 8);
+            tos[i] = new Vector3i(random.nextInt(48) - 8, random.nextInt(48) - 8, random.nextInt(48) - 8);
+            visibilities[i] = cache.isVisible(froms[i], tos[i]);
+
+            assertEquals(isVisibleUncached(froms[i], tos[i]), visibilities[i]);
+        }
+
+        assertEquals(QUERY_COUNT, cache.getMissCount());
+
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            assertEquals(visibilities[i], cache.isVisible(froms[i], tos[i]));
+        }
+
+        assertEquals(QUERY_COUNT, cache.getHitCount());
+        assertEquals(QUERY_COUNT, cache.getMissCount());
+
+        // A solid wall across the chunk bumps its version, so the cached results of the lines of sight crossing it must be recomputed.
+        for (int y = 0; y < m_world.getChunkSize().y; ++y) {
+            for (int z = 0; z < m_world.getChunkSize().z; ++z) {
+                m_chunk.setVoxelTypeAt(VoxelType.SOLID, 16, y, z);
+            }
+        }
+
+        int changedVisibilityCount = 0;
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            boolean isVisible = cache.isVisible(froms[i], tos[i]);
+
+            assertEquals(isVisibleUncached(froms[i], tos[i]), isVisible);
+            assertEquals(isVisible, cache.isVisible(froms[i], tos[i]));
+
+            if (isVisible != visibilities[i]) {
+                ++changedVisibilityCount;
+            }
+        }
+
+        assertTrue(changedVisibilityCount > 0);
+    }
+
+    @Test
+    public void isVisible_solidVoxelAddedOnRay_recomputed() {
+        VoxelVisibilityCache cache = new VoxelVisibilityCache(m_world);
+        Vector3i from = new Vector3i(3, 5, 7);
+        Vector3i to = new Vector3i(3, 5, 7 + 20);
+
+        for (int z = from.z; z <= to.z; ++z) {
+            m_chunk.setVoxelTypeAt(VoxelType.AIR, from.x, from.y, z);
+        }
+
+        assertTrue(cache.isVisible(from, to));
+
+        m_chunk.setVoxelTypeAt(VoxelType.SOLID, from.x, from.y, from.z + 10);
+
+        assertFalse(cache.isVisible(from, to));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void isVisible_diagonalLineOfSightBesideSolidVoxel_visible() {
+        World world = VoxelTestWorld.createWorld();
+        Vector3i solidVoxel = new Vector3i(32, 32, 5);
+
+        VoxelTestWorld.addChunk(new Vector3i(1, 1, 0), (x, y, z) -> solidVoxel.equals(x, y, z) ? VoxelType.SOLID : VoxelType.AIR);
+
+        // The line of sight crosses the corners of the voxels. It jumps over the absent chunks (0, 0, 0) and (0, 1, 0) and leaves the latter by a corner, where the voxel by
+        // voxel traversal steps on the Y axis before the X axis, so it passes beside the solid voxel instead of through it.
+        VoxelVisibilityCache cache = new VoxelVisibilityCache(world);
+
+        assertTrue(cache.isVisible(new Vector3i(0, 1, 5), new Vector3i(62, 63, 5)));
+    }
+
+    @Test
+    public void isVisible_chunkNotCrossedModified_cacheHit() {
+        VoxelVisibilityCache cache = new VoxelVisibilityCache(m_world);
+        Vector3i from = new Vector3i(1, 1, 1);
+        Vector3i to = new Vector3i(20, 30, 10);
+
+        boolean isVisible = cache.isVisible(from, to);
+        m_otherChunk.setVoxelTypeAt(m_otherChunk.getVoxelAt(0, 0, 0).voxelType == VoxelType.AIR ? VoxelType.SOLID : VoxelType.AIR, 0, 0, 0);
+
+        assertEquals(isVisible, cache.isVisible(from, to));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void isVisible_moreQueriesThanMaximumSize_leastRecentlyUsedEvicted() {
+        VoxelVisibilityCache cache = new VoxelVisibilityCache(m_world, 2);
+        Vector3i first = new Vector3i(1, 1, 1);
+        Vector3i second = new Vector3i(2, 2, 2);
+        Vector3i third = new Vector3i(3, 3, 3);
+        Vector3i to = new Vector3i(10, 10, 10);
+
+        cache.isVisible(first, to);
+        cache.isVisible(second, to);
+        cache.isVisible(first, to);
+        cache.isVisible(third, to);
+
+        assertEquals(2, cache.getSize());
+
+        cache.resetCounters();
+        cache.isVisible(first, to);
+        cache.isVisible(third, to);
+        cache.isVisible(second, to);
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Checks if a voxel is visible from another voxel with a new cache, so that the line of sight is always cast.
+     *
+     * @param from The voxel index from which the line of sight starts.
+     * @param to   The voxel index at which the line of sight ends.
+     *
+     * @return True if the line of sight is not blocked, false otherwise.
+     */
+    private boolean isVisibleUncached(Vector3i from, Vector3i to) {
+        return new VoxelVisibilityCache(m_world).isVisible(from, to);
+    }
+}